@@ -0,0 +1,182 @@
+package org.example.javasystematiskprojekt1.benchmark;
+
+import jakarta.enterprise.event.Event;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.example.javasystematiskprojekt1.database.MovieCache;
+import org.example.javasystematiskprojekt1.database.MovieRepository;
+import org.example.javasystematiskprojekt1.database.ReadRouter;
+import org.example.javasystematiskprojekt1.database.SharedCache;
+import org.example.javasystematiskprojekt1.model.Movie;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The BenchmarkDatabase class sets up an in-memory, embedded Derby database filled with a catalogue of
+ * synthetic movies, and a MovieRepository working on it outside any application server. Everything the
+ * container would inject into the repository is set by hand, and the benchmarks begin and commit the
+ * transactions themselves, because there is no @Transactional interceptor here.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+public final class BenchmarkDatabase implements AutoCloseable {
+
+    private static final String[] GENRES = {"Drama", "Comedy", "Action", "Thriller", "Horror", "Romance",
+            "Documentary", "Animation"};
+
+    /**
+     * Number of movies written per transaction while filling the catalogue.
+     */
+    private static final int SEED_CHUNK_SIZE = 5000;
+
+    private final EntityManagerFactory factory;
+    private final EntityManager entityManager;
+    private final MovieCache movieCache = new MovieCache();
+    private final MovieRepository repository;
+    private final long minId;
+    private final long maxId;
+
+    /**
+     * A constructor for the BenchmarkDatabase class. It creates a fresh database and fills it.
+     *
+     * @param catalogueSize The number of movies in the catalogue.
+     */
+
+    public BenchmarkDatabase(int catalogueSize) {
+        factory = Persistence.createEntityManagerFactory("benchmark", Map.of(
+                "jakarta.persistence.jdbc.url", "jdbc:derby:memory:movies" + catalogueSize + ";create=true"));
+        entityManager = factory.createEntityManager();
+        repository = newRepository(entityManager, movieCache, newSharedCache(factory));
+        List<Movie> chunk = new ArrayList<>(SEED_CHUNK_SIZE);
+        for (int i = 0; i < catalogueSize; i++) {
+            chunk.add(movie(i));
+            if (chunk.size() == SEED_CHUNK_SIZE || i == catalogueSize - 1) {
+                entityManager.getTransaction().begin();
+                repository.createMovies(chunk);
+                entityManager.getTransaction().commit();
+                chunk = new ArrayList<>(SEED_CHUNK_SIZE);
+            }
+        }
+        Object[] range = (Object[]) entityManager.createQuery("select min(m.id), max(m.id) from Movie m")
+                .getSingleResult();
+        minId = (Long) range[0];
+        maxId = (Long) range[1];
+    }
+
+    /**
+     * This method movie() creates the synthetic movie number i. The same number always gives the same data.
+     *
+     * @param i The number of the movie.
+     * @return A new, unsaved Movie.
+     */
+
+    public static Movie movie(int i) {
+        Movie movie = new Movie();
+        movie.setMovieTitle("Movie " + i);
+        movie.setMovieDirector("Director " + (i % 1000));
+        movie.setReleaseYear(1950 + i % 75);
+        movie.setMovieGenre(GENRES[i % GENRES.length]);
+        movie.setMoviePlot("A story about " + GENRES[(i / 8) % GENRES.length].toLowerCase()
+                + " number " + i + ", where a hero travels far to find what was lost and returns changed.");
+        return movie;
+    }
+
+    public EntityManager getEntityManager() {
+        return entityManager;
+    }
+
+    public MovieRepository getRepository() {
+        return repository;
+    }
+
+    public MovieCache getMovieCache() {
+        return movieCache;
+    }
+
+    /**
+     * This method getMinId() gets the lowest id in the catalogue as it was filled.
+     *
+     * @return The lowest id(long).
+     */
+
+    public long getMinId() {
+        return minId;
+    }
+
+    /**
+     * This method getMaxId() gets the highest id in the catalogue as it was filled.
+     *
+     * @return The highest id(long).
+     */
+
+    public long getMaxId() {
+        return maxId;
+    }
+
+    @Override
+    public void close() {
+        entityManager.close();
+        factory.close();
+    }
+
+    /**
+     * This method newRepository() creates a MovieRepository and sets its injected fields by type: the entity
+     * manager, the caches, a read router without replicas or shards and an event that nobody observes. Fields that are not needed by the benchmarks
+     * (such as the JDBC data source) are left null.
+     */
+
+    private static MovieRepository newRepository(EntityManager entityManager, MovieCache movieCache,
+                                                 SharedCache sharedCache) {
+        MovieRepository repository = new MovieRepository();
+        try {
+            for (Field field : MovieRepository.class.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers())) {
+                    continue;
+                }
+                field.setAccessible(true);
+                if (field.getType() == EntityManager.class) {
+                    field.set(repository, entityManager);
+                } else if (field.getType() == MovieCache.class) {
+                    field.set(repository, movieCache);
+                } else if (field.getType() == SharedCache.class) {
+                    field.set(repository, sharedCache);
+                } else if (field.getType() == ReadRouter.class) {
+                    field.set(repository, new ReadRouter());
+                } else if (field.getType() == Event.class) {
+                    field.set(repository, Proxy.newProxyInstance(BenchmarkDatabase.class.getClassLoader(),
+                            new Class<?>[]{Event.class}, (proxy, method, args) -> null));
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot set up MovieRepository", e);
+        }
+        return repository;
+    }
+
+    /**
+     * This method newSharedCache() creates a SharedCache working on the given entity manager factory.
+     */
+
+    private static SharedCache newSharedCache(EntityManagerFactory factory) {
+        SharedCache sharedCache = new SharedCache();
+        try {
+            for (Field field : SharedCache.class.getDeclaredFields()) {
+                if (field.getType() == EntityManagerFactory.class) {
+                    field.setAccessible(true);
+                    field.set(sharedCache, factory);
+                }
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot set up SharedCache", e);
+        }
+        return sharedCache;
+    }
+}
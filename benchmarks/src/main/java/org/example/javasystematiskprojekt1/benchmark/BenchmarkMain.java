@@ -0,0 +1,39 @@
+package org.example.javasystematiskprojekt1.benchmark;
+
+import org.openjdk.jmh.Main;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The BenchmarkMain class is the entry point of target/benchmarks.jar. It runs JMH with the given options,
+ * writing the results as JSON to target/jmh-result.json unless the result format or file is chosen, so every
+ * run leaves a file that can be compared with the baseline (see pom.xml).
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+public final class BenchmarkMain {
+
+    private static final String RESULT_FILE = "target/jmh-result.json";
+
+    private BenchmarkMain() {
+    }
+
+    /**
+     * This method main() runs the benchmarks.
+     *
+     * @param args The options of JMH, see "-h".
+     * @throws Exception If JMH fails.
+     */
+
+    public static void main(String[] args) throws Exception {
+        List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-rf") && !options.contains("-rff")) {
+            options.addAll(List.of("-rf", "json", "-rff", RESULT_FILE));
+        }
+        Main.main(options.toArray(new String[0]));
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.javasystematiskprojekt1.benchmark;
+
+import jakarta.persistence.EntityManager;
+import org.example.javasystematiskprojekt1.database.MovieCache;
+import org.example.javasystematiskprojekt1.database.MovieRepository;
+import org.example.javasystematiskprojekt1.database.MovieSearch;
+import org.example.javasystematiskprojekt1.model.Movie;
+import org.example.javasystematiskprojekt1.model.MovieChangeEvent;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The MovieRepositoryBenchmark class measures the throughput of the MovieRepository operations against an
+ * embedded Derby database holding 1k, 100k or 1M movies. Reads pick a random movie of the catalogue.
+ * Write benchmarks add movies, so the catalogue grows slowly while they run.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@State(Scope.Benchmark) // One database per catalogue size, shared by the benchmarks of a run.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class MovieRepositoryBenchmark {
+
+    /**
+     * Number of movies written per transaction by the batched write benchmark.
+     */
+    private static final int BATCH_SIZE = 500;
+
+    @Param({"1000", "100000", "1000000"})
+    public int catalogueSize;
+
+    private BenchmarkDatabase database;
+    private MovieRepository repository;
+    private EntityManager entityManager;
+    private MovieCache movieCache;
+    private int nextMovie;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        database = new BenchmarkDatabase(catalogueSize);
+        repository = database.getRepository();
+        entityManager = database.getEntityManager();
+        movieCache = database.getMovieCache();
+        nextMovie = catalogueSize;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        database.close();
+    }
+
+    /**
+     * Finds a random movie by id. Once warmed up, most lookups are answered by the MovieCache.
+     */
+
+    @Benchmark
+    public Movie findMovieById() {
+        return repository.findMovieById(randomId());
+    }
+
+    /**
+     * Finds a random movie by id straight from the database: the MovieCache entry and the persistence
+     * context are cleared first.
+     */
+
+    @Benchmark
+    public Movie findMovieByIdUncached() {
+        long id = randomId();
+        movieCache.invalidate(MovieChangeEvent.deleted(id));
+        entityManager.clear();
+        return repository.findMovieById(id);
+    }
+
+    /**
+     * Reads a page of 100 movies after a random cursor, as done while streaming the whole list.
+     */
+
+    @Benchmark
+    public List<Movie> scanPage() {
+        List<Movie> page = repository.scanMoviesAfter(randomId(), 100);
+        entityManager.clear();
+        return page;
+    }
+
+    /**
+     * Searches one genre sorted by year, first page of 50.
+     */
+
+    @Benchmark
+    public List<Movie> searchByGenre() {
+        List<Movie> movies = repository.searchMovies(new MovieSearch(null, null, "Drama", null, null, "year", 0, 50));
+        entityManager.clear();
+        return movies;
+    }
+
+    /**
+     * Creates one movie in its own transaction.
+     */
+
+    @Benchmark
+    public void createMovie() {
+        entityManager.getTransaction().begin();
+        repository.createMovie(BenchmarkDatabase.movie(nextMovie++));
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+    }
+
+    /**
+     * Creates 500 movies in one transaction with batched inserts. The result is per movie.
+     */
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void createMoviesBatched() {
+        List<Movie> movies = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            movies.add(BenchmarkDatabase.movie(nextMovie++));
+        }
+        entityManager.getTransaction().begin();
+        repository.createMovies(movies);
+        entityManager.getTransaction().commit();
+    }
+
+    /**
+     * Updates a random movie in its own transaction.
+     */
+
+    @Benchmark
+    public int updateMovieById() {
+        entityManager.getTransaction().begin();
+        int updated = repository.updateMovieById(randomId(), BenchmarkDatabase.movie(nextMovie++));
+        entityManager.getTransaction().commit();
+        return updated;
+    }
+
+    /**
+     * Creates a movie and deletes it again, each in its own transaction, so the catalogue keeps its size.
+     */
+
+    @Benchmark
+    public int createAndDeleteMovie() {
+        Movie movie = BenchmarkDatabase.movie(nextMovie++);
+        entityManager.getTransaction().begin();
+        repository.createMovie(movie);
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+        entityManager.getTransaction().begin();
+        int deleted = repository.deleteMovieById(movie.getId());
+        entityManager.getTransaction().commit();
+        return deleted;
+    }
+
+    private long randomId() {
+        return ThreadLocalRandom.current().nextLong(database.getMinId(), database.getMaxId() + 1);
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.javasystematiskprojekt1.benchmark;
+
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import org.example.javasystematiskprojekt1.model.Movie;
+import org.example.javasystematiskprojekt1.serialization.MovieBinaryCodec;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The MovieSerializationBenchmark class measures JSON-B serialisation of a single Movie and of a
+ * List of 1k, 100k or 1M movies, the way MovieResource returns them, and deserialisation of a Movie
+ * as received by the POST and PUT endpoints, each next to the same work in the binary format of the
+ * MovieBinaryCodec. Output is written to a stream that discards it.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class MovieSerializationBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int catalogueSize;
+
+    private final Jsonb jsonb = JsonbBuilder.create();
+    private final OutputStream sink = new OutputStream() { // JSON-B closes it, so it must stay usable after close().
+        @Override
+        public void write(int b) {
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+        }
+    };
+    private Movie movie;
+    private String movieJson;
+    private byte[] movieBinary;
+    private List<Movie> movies;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        movies = new ArrayList<>(catalogueSize);
+        for (int i = 0; i < catalogueSize; i++) {
+            Movie next = BenchmarkDatabase.movie(i);
+            next.setId((long) i + 1);
+            next.setVersion(1L);
+            movies.add(next);
+        }
+        movie = movies.get(0);
+        movieJson = jsonb.toJson(movie);
+        movieBinary = MovieBinaryCodec.toBytes(List.of(movie));
+    }
+
+    @Benchmark
+    public void serializeMovie() {
+        jsonb.toJson(movie, sink);
+    }
+
+    @Benchmark
+    public void serializeMovieList() {
+        jsonb.toJson(movies, sink);
+    }
+
+    @Benchmark
+    public Movie deserializeMovie() {
+        return jsonb.fromJson(movieJson, Movie.class);
+    }
+
+    @Benchmark
+    public void serializeMovieBinary() throws IOException {
+        MovieBinaryCodec.writeHeader(sink);
+        MovieBinaryCodec.writeMovie(sink, movie);
+        MovieBinaryCodec.writeEnd(sink);
+    }
+
+    @Benchmark
+    public void serializeMovieListBinary() throws IOException {
+        MovieBinaryCodec.writeHeader(sink);
+        for (Movie next : movies) {
+            MovieBinaryCodec.writeMovie(sink, next);
+        }
+        MovieBinaryCodec.writeEnd(sink);
+    }
+
+    @Benchmark
+    public List<Movie> deserializeMovieBinary() throws IOException {
+        return MovieBinaryCodec.readMovies(new ByteArrayInputStream(movieBinary));
+    }
+}
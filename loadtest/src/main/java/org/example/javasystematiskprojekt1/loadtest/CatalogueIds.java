@@ -0,0 +1,59 @@
+package org.example.javasystematiskprojekt1.loadtest;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentLinkedDeque;
+
+/**
+ * The CatalogueIds class holds the ids of the movies the requests work on. The catalogue is split in two: the
+ * movies that are read and updated, which are never deleted, so no read fails because of a delete, and the
+ * movies that are only there to be deleted, each once.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+final class CatalogueIds {
+
+    private final long[] readable;
+    private final ConcurrentLinkedDeque<Long> deletable = new ConcurrentLinkedDeque<>();
+
+    /**
+     * A constructor for the CatalogueIds class.
+     *
+     * @param ids The ids of all movies, in ascending order.
+     * @param deletions The number of movies, the newest ones, kept for DELETE requests.
+     */
+
+    CatalogueIds(long[] ids, int deletions) {
+        int kept = Math.max(0, Math.min(deletions, ids.length - 1));
+        readable = Arrays.copyOf(ids, ids.length - kept);
+        for (int i = ids.length - kept; i < ids.length; i++) {
+            deletable.add(ids[i]);
+        }
+    }
+
+    /**
+     * This method randomReadable() picks a movie to read or update.
+     *
+     * @param random A number between 0 (inclusive) and 1 (exclusive).
+     * @return The id of the movie(long).
+     */
+
+    long randomReadable(double random) {
+        return readable[(int) (random * readable.length)];
+    }
+
+    /**
+     * This method nextDeletable() takes a movie to delete.
+     *
+     * @return The id of the movie, or null when all have been deleted.
+     */
+
+    Long nextDeletable() {
+        return deletable.pollFirst();
+    }
+
+    int size() {
+        return readable.length + deletable.size();
+    }
+}
@@ -0,0 +1,89 @@
+package org.example.javasystematiskprojekt1.loadtest;
+
+import org.glassfish.embeddable.GlassFish;
+import org.glassfish.embeddable.GlassFishException;
+import org.glassfish.embeddable.GlassFishProperties;
+import org.glassfish.embeddable.GlassFishRuntime;
+
+import java.io.File;
+import java.util.logging.Logger;
+
+/**
+ * The EmbeddedServer class runs the application inside this JVM on an embedded GlassFish, the same server it is
+ * deployed on normally. The 'jdbc/__default' data source of the embedded server is an embedded Derby database,
+ * so the load test needs nothing installed. The application settings (the "movies.*" system properties) given
+ * to this JVM apply to the deployed application too.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+final class EmbeddedServer implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(EmbeddedServer.class.getName());
+
+    private static final String CONTEXT_ROOT = "movies";
+
+    private final GlassFish glassfish;
+    private final String application;
+    private final String baseUrl;
+
+    private EmbeddedServer(GlassFish glassfish, String application, int port) {
+        this.glassfish = glassfish;
+        this.application = application;
+        this.baseUrl = "http://localhost:" + port + "/" + CONTEXT_ROOT + "/api";
+    }
+
+    /**
+     * This method start() starts the server and deploys the application.
+     *
+     * @param war The WAR of the application.
+     * @param port The HTTP port of the server.
+     * @return The running server.
+     * @throws GlassFishException If the server does not start or the application cannot be deployed.
+     */
+
+    static EmbeddedServer start(File war, int port) throws GlassFishException {
+        if (!war.isFile()) {
+            throw new IllegalArgumentException("No WAR at " + war.getAbsolutePath()
+                    + ": package the main project first, or set loadtest.war");
+        }
+        long start = System.nanoTime();
+        GlassFishProperties properties = new GlassFishProperties();
+        properties.setPort("http-listener", port);
+        GlassFish glassfish = GlassFishRuntime.bootstrap().newGlassFish(properties);
+        glassfish.start();
+        String application = glassfish.getDeployer().deploy(war, "--contextroot=" + CONTEXT_ROOT, "--name=movies");
+        if (application == null) {
+            glassfish.dispose();
+            throw new IllegalStateException("Deploying " + war + " failed, see the server log");
+        }
+        LOGGER.info("Deployed " + war.getName() + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        return new EmbeddedServer(glassfish, application, port);
+    }
+
+    /**
+     * This method getBaseUrl() gets the application path of the deployed application.
+     *
+     * @return The URL that the REST resources are under(String).
+     */
+
+    String getBaseUrl() {
+        return baseUrl;
+    }
+
+    /**
+     * This method close() undeploys the application and stops the server.
+     */
+
+    @Override
+    public void close() {
+        try {
+            glassfish.getDeployer().undeploy(application);
+            glassfish.stop();
+            glassfish.dispose();
+        } catch (GlassFishException e) {
+            LOGGER.warning("Stopping the embedded server failed: " + e);
+        }
+    }
+}
@@ -0,0 +1,217 @@
+package org.example.javasystematiskprojekt1.loadtest;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * The LoadReport class holds the results of a load test run: per operation, and for all operations together
+ * ("all"), the number of requests and errors, the error rate, the throughput of successful requests and the
+ * latency percentiles. It writes them as a properties file, whose keys are the operation and the measure, such
+ * as "get.p99Millis", and compares them with a baseline in the same format.
+ *
+ * A baseline only needs the keys that should be checked. One written by writeBaseline() holds the error rate and
+ * the 99th percentile of every operation, and for all requests together the throughput and the 50th, 99th and
+ * 99.9th percentiles; the other percentiles and the maximum vary too much between runs to gate on. Its keys
+ * starting with "loadtest." are the load it was recorded with (see LoadTestConfig). The baseline sets how much
+ * worse a result may be with:
+ *
+ * - "tolerance.latency": the share a latency may grow (default 0.25), and "tolerance.latencyMillis": the number
+ *   of milliseconds it may always grow, so very short latencies do not fail on noise (default 2).
+ * - "tolerance.throughput": the share the throughput may drop (default 0.10).
+ * - "tolerance.errorRate": how much the error rate may rise (default 0.005).
+ * - "tolerance.reason": why the tolerances differ from the defaults, for the readers of the baseline. Like the
+ *   other tolerances, it is kept when the baseline is recorded again.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+final class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p90", "p99", "p999"};
+
+    /**
+     * The measures stored in a baseline.
+     */
+    private static final Pattern BASELINE_MEASURE =
+            Pattern.compile("all\\.(throughput|p50Millis|p999Millis)|\\w+\\.(errorRate|p99Millis)");
+
+    private final Map<String, OperationStats> results = new LinkedHashMap<>();
+    private final long seconds;
+    private final double rate;
+
+    /**
+     * A constructor for the LoadReport class.
+     *
+     * @param operations The results of every operation.
+     * @param all The results of all requests together.
+     * @param seconds How long requests were started.
+     * @param rate The number of requests started per second.
+     */
+
+    LoadReport(Map<Operation, OperationStats> operations, OperationStats all, long seconds, double rate) {
+        operations.forEach((operation, stats) -> results.put(operation.key(), stats));
+        results.put("all", all);
+        this.seconds = seconds;
+        this.rate = rate;
+    }
+
+    /**
+     * This method toProperties() gets the measures of the run.
+     *
+     * @return The measures by key, such as "all.throughput"(Properties).
+     */
+
+    Properties toProperties() {
+        Properties properties = new Properties();
+        results.forEach((name, stats) -> {
+            properties.setProperty(name + ".requests", Long.toString(stats.getRequests()));
+            properties.setProperty(name + ".errors", Long.toString(stats.getErrors()));
+            properties.setProperty(name + ".errorRate", format(stats.getErrorRate()));
+            properties.setProperty(name + ".throughput",
+                    format((double) (stats.getRequests() - stats.getErrors()) / seconds));
+            for (int i = 0; i < PERCENTILES.length; i++) {
+                properties.setProperty(name + "." + PERCENTILE_NAMES[i] + "Millis",
+                        format(stats.percentileMillis(PERCENTILES[i])));
+            }
+            properties.setProperty(name + ".maxMillis", format(stats.percentileMillis(100)));
+        });
+        return properties;
+    }
+
+    /**
+     * This method write() writes the measures to a file, sorted by key.
+     *
+     * @param file The file to write.
+     * @param comment The first line of the file.
+     * @param extra Other keys to write with the measures, such as the tolerances of a baseline.
+     * @throws IOException If the file cannot be written.
+     */
+
+    void write(Path file, String comment, Properties extra) throws IOException {
+        write(file, comment, extra, key -> true);
+    }
+
+    /**
+     * This method writeBaseline() writes the measures a baseline keeps to a file, sorted by key.
+     *
+     * @param file The file to write.
+     * @param comment The comment at the top of the file, which may have several lines.
+     * @param extra Other keys to write with the measures, such as the tolerances and the load settings.
+     * @throws IOException If the file cannot be written.
+     */
+
+    void writeBaseline(Path file, String comment, Properties extra) throws IOException {
+        write(file, comment, extra, key -> BASELINE_MEASURE.matcher(key).matches());
+    }
+
+    private void write(Path file, String comment, Properties extra, Predicate<String> measures) throws IOException {
+        Properties properties = new Properties();
+        Properties measured = toProperties();
+        measured.stringPropertyNames().stream().filter(measures)
+                .forEach(key -> properties.setProperty(key, measured.getProperty(key)));
+        extra.stringPropertyNames().forEach(key -> properties.setProperty(key, extra.getProperty(key)));
+        if (file.toAbsolutePath().getParent() != null) {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        }
+        try (Writer out = Files.newBufferedWriter(file, StandardCharsets.ISO_8859_1)) {
+            out.write("# " + comment.replace("\n", "\n# ") + "\n");
+            for (String key : new TreeSet<>(properties.stringPropertyNames())) {
+                out.write(key + "=" + properties.getProperty(key) + "\n");
+            }
+        }
+    }
+
+    /**
+     * This method toTable() formats the results as a table for the console.
+     *
+     * @return The table(String).
+     */
+
+    String toTable() {
+        StringBuilder table = new StringBuilder();
+        table.append(String.format(Locale.ROOT, "%d s at %.1f requests/s%n", seconds, rate));
+        table.append(String.format(Locale.ROOT, "%-8s %9s %8s %10s %9s %9s %9s %9s %9s   %s%n", "", "requests",
+                "errors", "success/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "responses"));
+        results.forEach((name, stats) -> table.append(String.format(Locale.ROOT,
+                "%-8s %9d %7.2f%% %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f   %s%n", name, stats.getRequests(),
+                stats.getErrorRate() * 100, (double) (stats.getRequests() - stats.getErrors()) / seconds,
+                stats.percentileMillis(50), stats.percentileMillis(90), stats.percentileMillis(99),
+                stats.percentileMillis(99.9), stats.percentileMillis(100), stats.getOutcomes())));
+        return table.toString();
+    }
+
+    /**
+     * This method compare() finds the measures that are worse than the baseline by more than its tolerances.
+     * The counts of requests and errors are not compared, only the rates and latencies.
+     *
+     * @param baseline The baseline measures and tolerances.
+     * @return A description of every regression, empty if there are none(List).
+     */
+
+    List<String> compare(Properties baseline) {
+        double latencyTolerance = tolerance(baseline, "tolerance.latency", 0.25);
+        double latencySlack = tolerance(baseline, "tolerance.latencyMillis", 2);
+        double throughputTolerance = tolerance(baseline, "tolerance.throughput", 0.10);
+        double errorRateTolerance = tolerance(baseline, "tolerance.errorRate", 0.005);
+        Properties current = toProperties();
+        List<String> regressions = new ArrayList<>();
+        for (String key : new TreeSet<>(baseline.stringPropertyNames())) {
+            if (key.startsWith("tolerance.") || key.startsWith("loadtest.")) {
+                continue; // Not a measure.
+            }
+            double expected = Double.parseDouble(baseline.getProperty(key).trim());
+            String measured = current.getProperty(key);
+            if (measured == null) {
+                regressions.add(key + " is in the baseline but was not measured; update the baseline if the"
+                        + " mix has changed");
+                continue;
+            }
+            double actual = Double.parseDouble(measured);
+            if (key.endsWith("Millis")) {
+                double limit = Math.max(expected * (1 + latencyTolerance), expected + latencySlack);
+                if (actual > limit) {
+                    regressions.add(describe(key, actual, expected, "at most", limit));
+                }
+            } else if (key.endsWith(".throughput")) {
+                double limit = expected * (1 - throughputTolerance);
+                if (actual < limit) {
+                    regressions.add(describe(key, actual, expected, "at least", limit));
+                }
+            } else if (key.endsWith(".errorRate")) {
+                double limit = expected + errorRateTolerance;
+                if (actual > limit) {
+                    regressions.add(describe(key, actual, expected, "at most", limit));
+                }
+            }
+        }
+        return regressions;
+    }
+
+    private static String describe(String key, double actual, double expected, String bound, double limit) {
+        return String.format(Locale.ROOT, "%s is %.3f, baseline %.3f, allowed %s %.3f", key, actual, expected,
+                bound, limit);
+    }
+
+    private static double tolerance(Properties baseline, String key, double defaultValue) {
+        String value = baseline.getProperty(key);
+        return value == null ? defaultValue : Double.parseDouble(value.trim());
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value);
+    }
+}
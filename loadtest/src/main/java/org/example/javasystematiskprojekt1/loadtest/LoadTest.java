@@ -0,0 +1,232 @@
+package org.example.javasystematiskprojekt1.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The LoadTest class runs a load test of the REST API of the movies and checks the results against a baseline.
+ * It starts the application on an embedded server (or uses a running one), waits until it reports itself ready,
+ * fills the catalogue with synthetic movies, runs the load for a warm-up period whose results are thrown away,
+ * and then measures it (see LoadTestConfig for the settings). The report is printed and written to a file.
+ *
+ * The exit status is 0 when no result is worse than the baseline, 1 when one is, so the build fails on a
+ * regression, and 2 when the test could not be run or its load differs from the one of the baseline.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+public final class LoadTest {
+
+    private static final String[] GENRES = {"Drama", "Comedy", "Action", "Thriller", "Horror", "Romance",
+            "Documentary", "Animation"};
+
+    /**
+     * Number of movies sent per bulk request while filling the catalogue.
+     */
+    private static final int SEED_REQUEST_SIZE = 5000;
+
+    /**
+     * Number of movies read per page while collecting the ids of the catalogue.
+     */
+    private static final int ID_PAGE_SIZE = 1000;
+
+    private static final Pattern ID = Pattern.compile("\"id\"\\s*:\\s*(\\d+)");
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) {
+        int status;
+        LoadTestConfig config = new LoadTestConfig();
+        EmbeddedServer server = null;
+        try {
+            String baseUrl = config.baseUrl;
+            if (baseUrl == null) {
+                server = EmbeddedServer.start(new File(config.war), config.port);
+                baseUrl = server.getBaseUrl();
+            }
+            status = run(config, baseUrl);
+        } catch (Exception e) {
+            System.err.println("Load test failed: " + e);
+            e.printStackTrace();
+            status = 2;
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+        System.exit(status);
+    }
+
+    /**
+     * This method run() runs the load test against a server.
+     *
+     * @return The exit status.
+     */
+
+    private static int run(LoadTestConfig config, String baseUrl) throws IOException, InterruptedException {
+        if (config.movies < 1 || config.rate <= 0 || config.durationSeconds < 1) {
+            throw new IllegalArgumentException("loadtest.movies, loadtest.rate and loadtest.durationSeconds must"
+                    + " be positive");
+        }
+        Path baselineFile = Paths.get(config.baseline);
+        Properties baseline = config.recorded;
+        if (!config.updateBaseline) {
+            List<String> differences = config.differencesFromBaseline();
+            if (!differences.isEmpty()) {
+                System.out.println("The load differs from the one " + baselineFile + " was recorded with, so the"
+                        + " results cannot be compared:");
+                differences.forEach(difference -> System.out.println("  " + difference));
+                return 2;
+            }
+        }
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        awaitReady(client, baseUrl);
+        CatalogueIds ids = seed(client, baseUrl, config);
+        System.out.println("Catalogue of " + ids.size() + " movies at " + baseUrl);
+
+        OpenLoadGenerator generator = new OpenLoadGenerator(client, baseUrl, config, ids);
+        if (config.warmupSeconds > 0) {
+            System.out.println("Warming up for " + config.warmupSeconds + " s");
+            generator.run(config.warmupSeconds);
+        }
+        System.out.println("Measuring for " + config.durationSeconds + " s with mix " + config.mix);
+        LoadReport report = generator.run(config.durationSeconds);
+        System.out.println(report.toTable());
+        report.write(Paths.get(config.report), "Load test of " + baseUrl + ", mix " + config.mix, new Properties());
+        System.out.println("Report written to " + config.report);
+
+        if (config.updateBaseline) {
+            // The tolerances of the old baseline are kept, and the load is recorded with the results.
+            Properties extra = config.loadSettings();
+            baseline.stringPropertyNames().stream().filter(key -> key.startsWith("tolerance."))
+                    .forEach(key -> extra.setProperty(key, baseline.getProperty(key)));
+            report.writeBaseline(baselineFile, "Baseline of the load test (see LoadReport), recorded at "
+                    + config.rate + " requests/s against " + (config.baseUrl == null ? "the embedded server"
+                    : config.baseUrl) + "\non " + System.getProperty("os.name") + " with "
+                    + Runtime.getRuntime().availableProcessors() + " processors and Java "
+                    + System.getProperty("java.version") + ". Record it again on the machine running the gate"
+                    + " with -Dloadtest.updateBaseline=true.", extra);
+            System.out.println("Baseline written to " + baselineFile);
+            return 0;
+        }
+        if (baseline.isEmpty()) {
+            System.out.println("No baseline at " + baselineFile + ", nothing to compare with");
+            return 0;
+        }
+        List<String> regressions = report.compare(baseline);
+        if (regressions.isEmpty()) {
+            System.out.println("No regressions against " + baselineFile);
+            return 0;
+        }
+        System.out.println("Regressions against " + baselineFile + ":");
+        regressions.forEach(regression -> System.out.println("  " + regression));
+        return 1;
+    }
+
+    /**
+     * This method awaitReady() waits until the application reports that it has warmed up. A server without the
+     * readiness check counts as ready.
+     */
+
+    private static void awaitReady(HttpClient client, String baseUrl) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/health/ready")).GET().build();
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(5);
+        while (true) {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            if (status == 200 || status == 404) {
+                return;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("The application was not ready within 5 minutes, last status "
+                        + status);
+            }
+            Thread.sleep(500);
+        }
+    }
+
+    /**
+     * This method seed() adds the synthetic movies through the bulk import, and the movies the DELETE requests
+     * will remove, then collects the ids of the whole catalogue.
+     */
+
+    private static CatalogueIds seed(HttpClient client, String baseUrl, LoadTestConfig config)
+            throws IOException, InterruptedException {
+        int deletions = config.deletesNeeded();
+        int total = config.movies + deletions;
+        long start = System.nanoTime();
+        for (int from = 0; from < total; from += SEED_REQUEST_SIZE) {
+            StringBuilder body = new StringBuilder("[");
+            for (int i = from; i < Math.min(from + SEED_REQUEST_SIZE, total); i++) {
+                body.append(i == from ? "" : ",").append(movieJson(i));
+            }
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/movies/bulk?chunkSize=1000"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body.append(']').toString()))
+                    .build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Bulk import failed with status " + response.statusCode() + ": "
+                        + response.body());
+            }
+        }
+        System.out.println("Added " + total + " movies in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+        long[] ids = new long[total];
+        int count = 0;
+        String after = null;
+        do {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/movies?limit=" + ID_PAGE_SIZE
+                    + (after != null ? "&after=" + after : ""))).header("Accept", "application/json").GET().build();
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() == 404) {
+                break; // No movies after the cursor.
+            }
+            if (response.statusCode() != 200) {
+                throw new IllegalStateException("Listing the movies failed with status " + response.statusCode());
+            }
+            Matcher matcher = ID.matcher(response.body());
+            while (matcher.find()) {
+                if (count == ids.length) {
+                    ids = Arrays.copyOf(ids, count * 2);
+                }
+                ids[count++] = Long.parseLong(matcher.group(1));
+            }
+            after = response.headers().firstValue("X-Next-Cursor").orElse(null);
+        } while (after != null);
+        return new CatalogueIds(Arrays.copyOf(ids, count), deletions);
+    }
+
+    /**
+     * This method movieJson() creates the JSON of a synthetic movie, the same movies the benchmarks use.
+     *
+     * @param i The number of the movie.
+     * @return The movie in JSON(String).
+     */
+
+    static String movieJson(long i) {
+        String genre = GENRES[(int) (i % GENRES.length)];
+        String plotGenre = GENRES[(int) ((i / 8) % GENRES.length)].toLowerCase();
+        return "{\"movieTitle\":\"Movie " + i + "\",\"movieDirector\":\"Director " + (i % 1000)
+                + "\",\"releaseYear\":" + (1950 + i % 75) + ",\"movieGenre\":\"" + genre
+                + "\",\"moviePlot\":\"A story about " + plotGenre + " number " + i
+                + ", where a hero travels far to find what was lost and returns changed.\"}";
+    }
+}
@@ -0,0 +1,215 @@
+package org.example.javasystematiskprojekt1.loadtest;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * The LoadTestConfig class holds the settings of a load test run, read from system properties. A property that
+ * is missing or empty keeps its default:
+ *
+ * - "loadtest.baseUrl": the application path of a running server, for example
+ *   "http://localhost:8080/java-systematisk-projekt1-1.0-SNAPSHOT/api". When empty, the WAR given with
+ *   "loadtest.war" is deployed on an embedded GlassFish on "loadtest.port" (default 8089).
+ * - "loadtest.movies": the number of synthetic movies the catalogue is filled with (default 10000).
+ * - "loadtest.rate": the number of requests started per second, whatever the response times (default 200).
+ * - "loadtest.warmupSeconds": how long the load runs before measuring (default 10).
+ * - "loadtest.durationSeconds": how long the load is measured (default 60).
+ * - "loadtest.mix": the weight of every operation (default "list:30,get:50,create:10,update:7,delete:3").
+ * - "loadtest.pageSize": the number of movies per listed page (default 100).
+ * - "loadtest.poisson": whether requests arrive at random, exponentially distributed intervals like independent
+ *   users do, instead of at fixed intervals (default true).
+ * - "loadtest.maxInFlight": the number of requests waiting for a response above which new requests are counted
+ *   as errors instead of being sent (default 1000).
+ * - "loadtest.timeoutMillis": how long a response may take before the request counts as an error (default 10000).
+ * - "loadtest.randomSeed": the seed of the operation and movie choices, so runs are repeatable (default 42).
+ * - "loadtest.report": the file the report is written to (default "target/loadtest-report.properties").
+ * - "loadtest.baseline": the file with the results to compare with (default "baseline.properties").
+ * - "loadtest.updateBaseline": whether to store the results as the new baseline instead (default false).
+ *
+ * The settings that shape the load (see LOAD_SETTINGS) are stored in the baseline with its results, and are the
+ * defaults of a run compared with it, so "mvn verify" runs the load the baseline was recorded with. A run given
+ * another load on the command line cannot be compared with the baseline (see differencesFromBaseline()).
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+final class LoadTestConfig {
+
+    private static final String DEFAULT_MIX = "list:30,get:50,create:10,update:7,delete:3";
+
+    /**
+     * The settings that shape the load, and so the results.
+     */
+    static final List<String> LOAD_SETTINGS = List.of("loadtest.movies", "loadtest.rate", "loadtest.warmupSeconds",
+            "loadtest.durationSeconds", "loadtest.mix", "loadtest.pageSize", "loadtest.poisson",
+            "loadtest.maxInFlight", "loadtest.timeoutMillis", "loadtest.randomSeed");
+
+    final String baseline = string("loadtest.baseline", "baseline.properties");
+    final Properties recorded = readBaseline(Paths.get(baseline)); // Read first: it gives the load settings.
+    final String baseUrl = string("loadtest.baseUrl", null);
+    final String war = string("loadtest.war", "../target/java-systematisk-projekt1-1.0-SNAPSHOT.war");
+    final int port = (int) number("loadtest.port", 8089);
+    final int movies = (int) number("loadtest.movies", 10_000);
+    final double rate = Double.parseDouble(string("loadtest.rate", "200"));
+    final long warmupSeconds = number("loadtest.warmupSeconds", 10);
+    final long durationSeconds = number("loadtest.durationSeconds", 60);
+    final Map<Operation, Integer> mix = parseMix(string("loadtest.mix", DEFAULT_MIX));
+    final int pageSize = (int) number("loadtest.pageSize", 100);
+    final boolean poisson = Boolean.parseBoolean(string("loadtest.poisson", "true"));
+    final int maxInFlight = (int) number("loadtest.maxInFlight", 1000);
+    final long timeoutMillis = number("loadtest.timeoutMillis", 10_000);
+    final long randomSeed = number("loadtest.randomSeed", 42);
+    final String report = string("loadtest.report", "target/loadtest-report.properties");
+    final boolean updateBaseline = Boolean.parseBoolean(string("loadtest.updateBaseline", "false"));
+
+    /**
+     * This method deletesNeeded() estimates how many movies the DELETE requests of a run will remove, with some
+     * to spare, so that many extra movies can be added for them to delete.
+     *
+     * @return The number of movies kept for deletion(int).
+     */
+
+    int deletesNeeded() {
+        int total = mix.values().stream().mapToInt(Integer::intValue).sum();
+        double share = (double) mix.getOrDefault(Operation.DELETE, 0) / total;
+        return (int) Math.ceil(rate * (warmupSeconds + durationSeconds) * share * 1.2) + (share > 0 ? 100 : 0);
+    }
+
+    /**
+     * This method loadSettings() gets the settings of this run that shape the load, as stored in a baseline.
+     *
+     * @return The settings by name(Properties).
+     */
+
+    Properties loadSettings() {
+        Properties settings = new Properties();
+        settings.setProperty("loadtest.movies", Integer.toString(movies));
+        settings.setProperty("loadtest.rate", Double.toString(rate));
+        settings.setProperty("loadtest.warmupSeconds", Long.toString(warmupSeconds));
+        settings.setProperty("loadtest.durationSeconds", Long.toString(durationSeconds));
+        settings.setProperty("loadtest.mix", formatMix(mix));
+        settings.setProperty("loadtest.pageSize", Integer.toString(pageSize));
+        settings.setProperty("loadtest.poisson", Boolean.toString(poisson));
+        settings.setProperty("loadtest.maxInFlight", Integer.toString(maxInFlight));
+        settings.setProperty("loadtest.timeoutMillis", Long.toString(timeoutMillis));
+        settings.setProperty("loadtest.randomSeed", Long.toString(randomSeed));
+        return settings;
+    }
+
+    /**
+     * This method differencesFromBaseline() finds the settings of this run that shape the load differently from
+     * those the baseline was recorded with. Results of another load cannot be compared with the baseline.
+     *
+     * @return A description of every difference, empty if there are none(List).
+     */
+
+    List<String> differencesFromBaseline() {
+        Properties current = loadSettings();
+        List<String> differences = new ArrayList<>();
+        for (String name : LOAD_SETTINGS) {
+            String value = recorded.getProperty(name);
+            if (value != null && !normalize(name, value.trim()).equals(current.getProperty(name))) {
+                differences.add(name + " is " + current.getProperty(name) + ", the baseline was recorded with "
+                        + value.trim());
+            }
+        }
+        return differences;
+    }
+
+    /**
+     * This method normalize() writes a load setting the way loadSettings() does, so equal settings compare equal.
+     */
+
+    private static String normalize(String name, String value) {
+        switch (name) {
+            case "loadtest.rate":
+                return Double.toString(Double.parseDouble(value));
+            case "loadtest.mix":
+                return formatMix(parseMix(value));
+            case "loadtest.poisson":
+                return Boolean.toString(Boolean.parseBoolean(value));
+            default:
+                return Long.toString(Long.parseLong(value));
+        }
+    }
+
+    /**
+     * This method readBaseline() reads the baseline, if there is one.
+     */
+
+    private static Properties readBaseline(Path file) {
+        Properties properties = new Properties();
+        if (Files.isRegularFile(file)) {
+            try (Reader in = Files.newBufferedReader(file, StandardCharsets.ISO_8859_1)) {
+                properties.load(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Reading the baseline " + file + " failed", e);
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * This method formatMix() writes weights the way parseMix() reads them, in the order of the operations.
+     */
+
+    private static String formatMix(Map<Operation, Integer> mix) {
+        return mix.entrySet().stream().map(entry -> entry.getKey().key() + ":" + entry.getValue())
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * This method parseMix() reads weights such as "get:80,update:20". Operations not listed get no requests.
+     */
+
+    private static Map<Operation, Integer> parseMix(String text) {
+        Map<Operation, Integer> mix = new EnumMap<>(Operation.class);
+        for (String part : text.split(",")) {
+            String[] nameAndWeight = part.trim().split(":");
+            if (nameAndWeight.length != 2) {
+                throw new IllegalArgumentException("Expected operation:weight in loadtest.mix, got '" + part + "'");
+            }
+            int weight = Integer.parseInt(nameAndWeight[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("Weights in loadtest.mix cannot be negative: '" + part + "'");
+            }
+            if (weight > 0) {
+                mix.put(Operation.of(nameAndWeight[0].trim()), weight);
+            }
+        }
+        if (mix.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix gives no operation a weight");
+        }
+        return mix;
+    }
+
+    /**
+     * This method string() reads a setting from the system properties, or else, for a load setting, from the
+     * baseline.
+     */
+
+    private String string(String name, String defaultValue) {
+        String value = System.getProperty(name);
+        if ((value == null || value.isBlank()) && recorded != null && LOAD_SETTINGS.contains(name)) {
+            value = recorded.getProperty(name);
+        }
+        return value == null || value.isBlank() ? defaultValue : value.trim();
+    }
+
+    private long number(String name, long defaultValue) {
+        String value = string(name, null);
+        return value == null ? defaultValue : Long.parseLong(value);
+    }
+}
@@ -0,0 +1,240 @@
+package org.example.javasystematiskprojekt1.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * The OpenLoadGenerator class sends requests to the REST API at a fixed average rate, the way independent users
+ * do: a new request is started when it is due, whether or not earlier requests have been answered. This is an
+ * open model. A closed model, where a fixed number of clients each wait for a response before sending the next
+ * request, sends fewer requests as soon as the server slows down, so the slow periods hardly show in its
+ * results ("coordinated omission").
+ *
+ * To correct for the remaining omission, the latency of every request is measured from the time it was due,
+ * not from the time it was actually sent: when the generator itself falls behind, for example because of a
+ * garbage collection pause, the delay is still counted against the requests that waited. The requests are sent
+ * asynchronously from one thread, which only waits for the next due time. The operation of every request, and
+ * the movie it works on, are drawn from a random generator with a fixed seed, so two runs send the same requests.
+ * Requests still unanswered when the run stops waiting for them are counted as failed ("unanswered"), with the
+ * time they waited as latency, so a server that stops answering at the end of a run cannot look faster.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+final class OpenLoadGenerator {
+
+    private final HttpClient client;
+    private final String baseUrl;
+    private final LoadTestConfig config;
+    private final CatalogueIds ids;
+    private final SplittableRandom random;
+    private final Operation[] operations;
+    private final int[] cumulativeWeights;
+    private final Set<InFlight> inFlight = ConcurrentHashMap.newKeySet();
+    private long created; // Number of movies created so far, used to give them different data.
+
+    /**
+     * A constructor for the OpenLoadGenerator class.
+     *
+     * @param client The HTTP client the requests are sent with.
+     * @param baseUrl The application path of the server, such as "http://localhost:8089/movies/api".
+     * @param config The settings of the run.
+     * @param ids The movies the requests work on.
+     */
+
+    OpenLoadGenerator(HttpClient client, String baseUrl, LoadTestConfig config, CatalogueIds ids) {
+        this.client = client;
+        this.baseUrl = baseUrl;
+        this.config = config;
+        this.ids = ids;
+        this.random = new SplittableRandom(config.randomSeed);
+        this.operations = config.mix.keySet().toArray(new Operation[0]);
+        this.cumulativeWeights = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += config.mix.get(operations[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * This method run() sends requests for a while and waits for their responses.
+     *
+     * @param seconds How long new requests are started.
+     * @return The results of the requests.
+     */
+
+    LoadReport run(long seconds) {
+        Map<Operation, OperationStats> stats = new EnumMap<>(Operation.class);
+        for (Operation operation : operations) {
+            stats.put(operation, new OperationStats());
+        }
+        OperationStats all = new OperationStats();
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / config.rate);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        long due = start;
+        while (due < end) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+                continue; // Check again, parking may end early.
+            }
+            Operation operation = pick();
+            send(operation, due, stats.get(operation), all);
+            // Exponentially distributed intervals with the same average make the arrivals a Poisson process.
+            due += config.poisson ? (long) (-Math.log(1 - random.nextDouble()) * intervalNanos) : intervalNanos;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(config.timeoutMillis + 1000);
+        while (!inFlight.isEmpty() && System.nanoTime() < deadline) {
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+        }
+        long stopped = System.nanoTime();
+        for (InFlight request : inFlight) {
+            if (request.finish()) {
+                request.stats.record(stopped - request.due, "unanswered", false);
+                all.record(stopped - request.due, "unanswered", false);
+            }
+        }
+        inFlight.clear();
+        return new LoadReport(stats, all, seconds, config.rate);
+    }
+
+    /**
+     * This method pick() draws the operation of the next request, by the weights of the mix.
+     */
+
+    private Operation pick() {
+        int draw = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < operations.length; i++) {
+            if (draw < cumulativeWeights[i]) {
+                return operations[i];
+            }
+        }
+        return operations[operations.length - 1];
+    }
+
+    /**
+     * This method send() starts one request and records its result once the response arrives.
+     */
+
+    private void send(Operation operation, long due, OperationStats stats, OperationStats all) {
+        if (inFlight.size() >= config.maxInFlight) {
+            // The server is too far behind to keep sending: count the request as failed instead.
+            stats.count("dropped", false);
+            all.count("dropped", false);
+            return;
+        }
+        HttpRequest request = request(operation);
+        if (request == null) {
+            stats.count("no-movie-left", false);
+            all.count("no-movie-left", false);
+            return;
+        }
+        InFlight sent = new InFlight(due, stats);
+        inFlight.add(sent);
+        client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            long nanos = System.nanoTime() - due;
+            inFlight.remove(sent);
+            if (!sent.finish()) {
+                return; // Already counted as unanswered by run().
+            }
+            String outcome;
+            boolean success;
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                outcome = cause.getClass().getSimpleName();
+                success = false;
+            } else {
+                outcome = Integer.toString(response.statusCode());
+                success = response.statusCode() == operation.getExpectedStatus();
+            }
+            stats.record(nanos, outcome, success);
+            all.record(nanos, outcome, success);
+        });
+    }
+
+    /**
+     * This method request() builds the request of an operation.
+     *
+     * @return The request, or null for a DELETE when no movie is left to delete.
+     */
+
+    private HttpRequest request(Operation operation) {
+        HttpRequest.Builder request;
+        switch (operation) {
+            case LIST:
+                request = HttpRequest.newBuilder(URI.create(baseUrl + "/movies?after="
+                        + ids.randomReadable(random.nextDouble()) + "&limit=" + config.pageSize)).GET();
+                break;
+            case GET:
+                request = HttpRequest.newBuilder(URI.create(baseUrl + "/movies/"
+                        + ids.randomReadable(random.nextDouble()))).GET();
+                break;
+            case CREATE:
+                request = HttpRequest.newBuilder(URI.create(baseUrl + "/movies"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(LoadTest.movieJson(config.movies + created++)));
+                break;
+            case UPDATE:
+                request = HttpRequest.newBuilder(URI.create(baseUrl + "/movies/"
+                                + ids.randomReadable(random.nextDouble())))
+                        .header("Content-Type", "application/json")
+                        .header("If-Match", "*") // Overwrite whatever version is stored.
+                        .PUT(HttpRequest.BodyPublishers.ofString(LoadTest.movieJson(random.nextInt(config.movies))));
+                break;
+            default:
+                Long id = ids.nextDeletable();
+                if (id == null) {
+                    return null;
+                }
+                request = HttpRequest.newBuilder(URI.create(baseUrl + "/movies/" + id)).DELETE();
+        }
+        // Reads answer JSON; writes answer a plain text message.
+        boolean read = operation == Operation.LIST || operation == Operation.GET;
+        return request.header("Accept", read ? "application/json" : "text/plain")
+                .timeout(Duration.ofMillis(config.timeoutMillis))
+                .build();
+    }
+
+    /**
+     * The InFlight class is one request sent and not yet counted. It is counted once, either when its response
+     * arrives or as unanswered at the end of the run, whichever comes first.
+     */
+
+    private static final class InFlight {
+
+        private final long due;
+        private final OperationStats stats;
+        private final AtomicBoolean counted = new AtomicBoolean();
+
+        private InFlight(long due, OperationStats stats) {
+            this.due = due;
+            this.stats = stats;
+        }
+
+        /**
+         * This method finish() marks the request as counted.
+         *
+         * @return True for the first caller only, who counts the request(boolean).
+         */
+
+        private boolean finish() {
+            return counted.compareAndSet(false, true);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.example.javasystematiskprojekt1.loadtest;
+
+import java.util.Locale;
+
+/**
+ * The Operation enum lists the requests the load test sends, with the status a successful response has.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+enum Operation {
+
+    /**
+     * GET /movies?after=...&limit=..., a page of movies after a random movie.
+     */
+    LIST(200),
+
+    /**
+     * GET /movies/{id} of a random seeded movie.
+     */
+    GET(200),
+
+    /**
+     * POST /movies with a new synthetic movie.
+     */
+    CREATE(201),
+
+    /**
+     * PUT /movies/{id} of a random seeded movie, without a version but with "If-Match: *", so it never conflicts.
+     */
+    UPDATE(200),
+
+    /**
+     * DELETE /movies/{id} of a movie added only to be deleted.
+     */
+    DELETE(200);
+
+    private final int expectedStatus;
+
+    Operation(int expectedStatus) {
+        this.expectedStatus = expectedStatus;
+    }
+
+    int getExpectedStatus() {
+        return expectedStatus;
+    }
+
+    /**
+     * This method key() gets the name of the operation used in the mix, the report and the baseline.
+     *
+     * @return The lower case name(String).
+     */
+
+    String key() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * This method of() finds an operation by its name.
+     *
+     * @param name The name, in any case.
+     * @return The operation.
+     * @throws IllegalArgumentException If there is no operation with that name.
+     */
+
+    static Operation of(String name) {
+        for (Operation operation : values()) {
+            if (operation.key().equalsIgnoreCase(name)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("Unknown operation '" + name + "', expected list, get, create, update"
+                + " or delete");
+    }
+}
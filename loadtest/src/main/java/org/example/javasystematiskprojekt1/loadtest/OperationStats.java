@@ -0,0 +1,104 @@
+package org.example.javasystematiskprojekt1.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The OperationStats class collects the results of the requests of one operation, or of all operations: a
+ * histogram of their latencies in microseconds, the number of requests and errors, and the number of responses
+ * per status. Latencies are measured from the time a request was due to be sent, not the time it was sent,
+ * so a server that stalls is charged for every request that waited behind the stall (see OpenLoadGenerator).
+ * Results may be recorded from many threads at once.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+final class OperationStats {
+
+    /**
+     * Longest latency the histogram tells apart; longer ones are counted as this long.
+     */
+    private static final long MAX_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Histogram latencies = new ConcurrentHistogram(MAX_MICROS, 3);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+
+    /**
+     * This method record() counts one response.
+     *
+     * @param nanos The time from when the request was due until the response arrived.
+     * @param outcome The status of the response, or the name of the exception for requests that failed.
+     * @param success Whether the response was the expected one.
+     */
+
+    void record(long nanos, String outcome, boolean success) {
+        latencies.recordValue(Math.min(Math.max(TimeUnit.NANOSECONDS.toMicros(nanos), 1), MAX_MICROS));
+        count(outcome, success);
+    }
+
+    /**
+     * This method count() counts one request without a latency, such as one that was never sent.
+     *
+     * @param outcome The reason, or the status of the response.
+     * @param success Whether the request counts as successful.
+     */
+
+    void count(String outcome, boolean success) {
+        requests.increment();
+        if (!success) {
+            errors.increment();
+        }
+        outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+    }
+
+    long getRequests() {
+        return requests.sum();
+    }
+
+    long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * This method getErrorRate() gets the share of requests that failed.
+     *
+     * @return The error rate between 0 and 1(double).
+     */
+
+    double getErrorRate() {
+        long total = requests.sum();
+        return total == 0 ? 0 : (double) errors.sum() / total;
+    }
+
+    /**
+     * This method percentileMillis() gets a latency percentile.
+     *
+     * @param percentile The percentile, from 0 to 100.
+     * @return The latency in milliseconds(double), or 0 without any latencies.
+     */
+
+    double percentileMillis(double percentile) {
+        return latencies.getTotalCount() == 0 ? 0 : latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * This method getOutcomes() gets the number of responses per status, and of requests per failure.
+     *
+     * @return The counts by status or failure, sorted(Map).
+     */
+
+    Map<String, Long> getOutcomes() {
+        Map<String, Long> counts = new TreeMap<>();
+        outcomes.forEach((outcome, count) -> counts.put(outcome, count.sum()));
+        return counts;
+    }
+}
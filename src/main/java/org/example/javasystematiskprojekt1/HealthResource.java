@@ -0,0 +1,64 @@
+package org.example.javasystematiskprojekt1;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.example.javasystematiskprojekt1.model.Readiness;
+import org.example.javasystematiskprojekt1.startup.StartupWarmup;
+
+/**
+ * The HealthResource class exposes the health checks of the application on the path "/health", for load
+ * balancers and orchestrators: whether the application is running at all, and whether it has warmed up
+ * and should be sent requests.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@Path("/health") // Annotation defines mapping of the class to the URL path "/api/health".
+public class HealthResource {
+
+    @Inject // Annotation injects the startup warm-up, to report whether it has finished.
+    private StartupWarmup startupWarmup;
+
+    /**
+     * This method getLive() tells that the application is running.
+     * It's publicly accessible.
+     *
+     * @return A Response object with a 200 status.
+     */
+
+    @GET // Annotation that the method handles HTTP GET requests.
+    @Path("/live") // Annotation defines mapping of the method to the URL path "/api/health/live".
+    @Produces(MediaType.TEXT_PLAIN) // Annotation that response data is plain text.
+    public Response getLive() {
+        return Response.ok("UP").build(); // Return 200 response
+    }
+
+    /**
+     * This method getReady() tells whether the application has finished its startup warm-up, with the state of
+     * every warm-up task (see 'StartupWarmup').
+     * It's publicly accessible.
+     *
+     * @return A Response object containing the readiness in JSON format and a 200 status when warmed up, or a
+     * 503 status while the warm-up runs.
+     */
+
+    @GET // Annotation that the method handles HTTP GET requests.
+    @Path("/ready") // Annotation defines mapping of the method to the URL path "/api/health/ready".
+    @Produces(MediaType.APPLICATION_JSON) // Annotation that response data is in JSON format.
+    public Response getReady() {
+        Readiness readiness = startupWarmup.getReadiness();
+        if (!readiness.isReady()) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE) // Return 503 response
+                    .header(HttpHeaders.RETRY_AFTER, 1) // Ask the client to check again in a second
+                    .entity(readiness) // Attach the state of the warm-up
+                    .build(); // Build the Response object
+        }
+        return Response.ok(readiness).build(); // Return 200 response
+    }
+}
@@ -0,0 +1,46 @@
+package org.example.javasystematiskprojekt1;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import org.example.javasystematiskprojekt1.metrics.MetricsRegistry;
+
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The MetricsResource class exposes the request and repository metrics of the application on the path
+ * "/metrics", in the text format that Prometheus scrapes.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@Path("/metrics") // Annotation defines mapping of the class to the URL path "/api/metrics".
+public class MetricsResource {
+
+    @Inject // Annotation injects the registry holding the metrics.
+    private MetricsRegistry registry;
+
+    /**
+     * This method getMetrics() writes all metrics in the Prometheus text format.
+     * It's publicly accessible.
+     *
+     * @return A Response object containing the metrics and a 200 status.
+     */
+
+    @GET // Annotation that the method handles HTTP GET requests.
+    @Produces("text/plain; version=0.0.4; charset=utf-8") // Annotation that response data is Prometheus text.
+    public Response getMetrics() {
+        StreamingOutput metrics = output -> {
+            Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+            registry.writePrometheus(writer);
+            writer.flush();
+        };
+        return Response.ok(metrics).build(); // Return 200 response
+    }
+}
@@ -0,0 +1,186 @@
+package org.example.javasystematiskprojekt1;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.container.AsyncResponse;
+import jakarta.ws.rs.container.ResourceContext;
+import jakarta.ws.rs.container.Suspended;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+import org.example.javasystematiskprojekt1.async.RepositoryExecutor;
+import org.example.javasystematiskprojekt1.model.Movie;
+import org.example.javasystematiskprojekt1.serialization.MovieBinaryCodec;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * The MovieAsyncResource class offers the movie endpoints of MovieResource in an asynchronous mode,
+ * on the URL path "/async/movies". Each request is suspended and its work is handed to the
+ * RepositoryExecutor, so the HTTP worker thread of the container is free again while the database
+ * round trip runs. The answers are the same as those of MovieResource, except that a request gets a
+ * 503 Service Unavailable status when the executor is saturated, or when a read takes too long.
+ * A write that has been handed to the executor is never timed out: it may still commit, and a client told
+ * to retry would then write it twice. It is answered once it has finished.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@Path("/async/movies") // Annotation defines mapping of the class to the URL path "/async/movies".
+public class MovieAsyncResource {
+
+    /**
+     * Seconds a client is asked to wait before retrying a request that was shed.
+     */
+    private static final int RETRY_AFTER_SECONDS = 1;
+
+    @Inject // Annotation injects the executor that runs the repository calls.
+    private RepositoryExecutor executor;
+
+    @Context // Annotation injects the JAX-RS resource context, used to obtain a MovieResource.
+    private ResourceContext resourceContext;
+
+    /**
+     * This method getMovies() is the asynchronous version of MovieResource.getMovies().
+     *
+     * @param after is the id of the last movie already seen by the client (optional).
+     * @param limit is the maximum number of movies in the returned page (optional).
+     * @param uriInfo gives access to the request URI, used to build the next-page link.
+     * @param request gives access to the conditional request headers.
+     * @param headers gives access to the Accept and Accept-Encoding request headers.
+     * @param response is the suspended response, resumed with the result.
+     */
+
+    @GET // Annotation that the method handles HTTP GET requests.
+    @Produces({MediaType.APPLICATION_JSON, MovieBinaryCodec.MEDIA_TYPE}) // Annotation that response data is in JSON or binary format.
+    public void getMovies(@QueryParam("after") Long after, @QueryParam("limit") Integer limit,
+                          @Context UriInfo uriInfo, @Context Request request, @Context HttpHeaders headers,
+                          @Suspended AsyncResponse response) {
+        MovieResource movies = resourceContext.getResource(MovieResource.class);
+        run(response, () -> movies.getMovies(after, limit, uriInfo, request, headers));
+    }
+
+    /**
+     * This method getMovieById() is the asynchronous version of MovieResource.getMovieById().
+     *
+     * @param id is the id of the movie to be retrieved.
+     * @param request gives access to the conditional request headers.
+     * @param headers gives access to the Accept request header.
+     * @param response is the suspended response, resumed with the result.
+     */
+
+    @GET // Annotation that the method handles HTTP GET requests.
+    @Path("/{id}") // Annotation defines mapping of the method to the URL path "/async/movies/id".
+    @Produces({MediaType.APPLICATION_JSON, MovieBinaryCodec.MEDIA_TYPE}) // Annotation that response data is in JSON or binary format.
+    public void getMovieById(@PathParam("id") Long id, @Context Request request, @Context HttpHeaders headers,
+                             @Suspended AsyncResponse response) {
+        MovieResource movies = resourceContext.getResource(MovieResource.class);
+        run(response, () -> movies.getMovieById(id, request, headers));
+    }
+
+    /**
+     * This method addMovie() is the asynchronous version of MovieResource.addMovie().
+     *
+     * @param movie is the Movie entity to be added.
+     * @param prefer is the Prefer request header (optional).
+     * @param response is the suspended response, resumed with the result.
+     */
+
+    @POST // Annotation that the method handles HTTP POST requests.
+    @Consumes({MediaType.APPLICATION_JSON, MovieBinaryCodec.MEDIA_TYPE}) // Annotation that the method consumes data in JSON or binary format.
+    @Produces(MediaType.TEXT_PLAIN) // Annotation that response data is in text format.
+    public void addMovie(Movie movie, @HeaderParam("Prefer") String prefer, @Suspended AsyncResponse response) {
+        MovieResource movies = resourceContext.getResource(MovieResource.class);
+        runUntilDone(response, () -> movies.addMovie(movie, prefer));
+    }
+
+    /**
+     * This method updateMovieById() is the asynchronous version of MovieResource.updateMovieById().
+     *
+     * @param id is the id of the movie to be updated.
+     * @param updatedMovie is the updated Movie object containing the updated data.
+     * @param ifMatch is the If-Match request header, "*" to update without a version (optional).
+     * @param response is the suspended response, resumed with the result.
+     */
+
+    @PUT // Annotation that the method handles HTTP PUT requests.
+    @Path("/{id}") // Annotation defines mapping of the method to the URL path "/async/movies/id".
+    @Consumes({MediaType.APPLICATION_JSON, MovieBinaryCodec.MEDIA_TYPE}) // Annotation that the method consumes data in JSON or binary format.
+    @Produces(MediaType.TEXT_PLAIN) // Annotation that response data is in text format.
+    public void updateMovieById(@PathParam("id") Long id, Movie updatedMovie,
+                                @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch, @Suspended AsyncResponse response) {
+        MovieResource movies = resourceContext.getResource(MovieResource.class);
+        runUntilDone(response, () -> movies.updateMovieById(id, updatedMovie, ifMatch));
+    }
+
+    /**
+     * This method deleteMovieById() is the asynchronous version of MovieResource.deleteMovieById().
+     *
+     * @param id is the id of the movie to be deleted.
+     * @param response is the suspended response, resumed with the result.
+     */
+
+    @DELETE // Annotation that the method handles HTTP DELETE requests.
+    @Path("/{id}") // Annotation defines mapping of the method to the URL path "/async/movies/id".
+    @Produces(MediaType.TEXT_PLAIN) // Annotation that response data is in text format.
+    public void deleteMovieById(@PathParam("id") Long id, @Suspended AsyncResponse response) {
+        MovieResource movies = resourceContext.getResource(MovieResource.class);
+        runUntilDone(response, () -> movies.deleteMovieById(id));
+    }
+
+    /**
+     * This method run() hands a read to the executor and resumes the suspended response with its result.
+     * The response is resumed with a 503 status if the executor rejects the call or if the call does not
+     * finish within the timeout; exceptions thrown by the call are resumed as errors and mapped as usual.
+     *
+     * @param response is the suspended response.
+     * @param call is the work producing the response.
+     */
+
+    private void run(AsyncResponse response, Supplier<Response> call) {
+        response.setTimeout(executor.getTimeoutMillis(), TimeUnit.MILLISECONDS);
+        response.setTimeoutHandler(timedOut -> timedOut.resume(unavailable("Request timed out!")));
+        runUntilDone(response, call);
+    }
+
+    /**
+     * This method runUntilDone() hands a write to the executor and resumes the suspended response with its
+     * result, however long it takes. The response is only resumed with a 503 status if the executor rejects
+     * the call, before anything has been written.
+     *
+     * @param response is the suspended response.
+     * @param call is the work producing the response.
+     */
+
+    private void runUntilDone(AsyncResponse response, Supplier<Response> call) {
+        try {
+            executor.submit(call).whenComplete((result, error) -> {
+                if (error != null) {
+                    response.resume(error.getCause() != null ? error.getCause() : error);
+                } else {
+                    response.resume(result);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            response.resume(unavailable("Server is busy, try again later!"));
+        }
+    }
+
+    /**
+     * This method unavailable() builds a 503 Service Unavailable response asking the client to retry later.
+     */
+
+    private static Response unavailable(String message) {
+        return Response.status(Response.Status.SERVICE_UNAVAILABLE) // Return 503 response
+                .header("Retry-After", RETRY_AFTER_SECONDS)
+                .entity(message) // Attach a message
+                .type(MediaType.TEXT_PLAIN)
+                .build(); // Build the Response object
+    }
+}
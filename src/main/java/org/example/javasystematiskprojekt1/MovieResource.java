@@ -1,13 +1,59 @@
 package org.example.javasystematiskprojekt1;
 
 import jakarta.inject.Inject;
+import jakarta.json.Json;
+import jakarta.json.JsonObjectBuilder;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+import jakarta.ws.rs.core.UriInfo;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+import org.example.javasystematiskprojekt1.async.WriteBehindQueue;
+import org.example.javasystematiskprojekt1.database.MovieCache;
 import org.example.javasystematiskprojekt1.database.MovieRepository;
+import org.example.javasystematiskprojekt1.database.MovieSearch;
+import org.example.javasystematiskprojekt1.database.SharedCache;
+import org.example.javasystematiskprojekt1.database.StatsDimension;
+import org.example.javasystematiskprojekt1.feed.MovieChangeFeed;
+import org.example.javasystematiskprojekt1.http.BulkImport;
+import org.example.javasystematiskprojekt1.http.CatalogueVersion;
+import org.example.javasystematiskprojekt1.http.PageResponseCache;
+import org.example.javasystematiskprojekt1.jdbc.ApplicationDataSource;
+import org.example.javasystematiskprojekt1.jdbc.ContainerPoolMonitor;
+import org.example.javasystematiskprojekt1.model.BulkImportResult;
+import org.example.javasystematiskprojekt1.model.IngestTicket;
 import org.example.javasystematiskprojekt1.model.Movie;
+import org.example.javasystematiskprojekt1.model.MovieStats;
+import org.example.javasystematiskprojekt1.model.TextSearchHit;
+import org.example.javasystematiskprojekt1.search.MovieTextIndex;
+import org.example.javasystematiskprojekt1.serialization.MovieBinaryCodec;
+import org.example.javasystematiskprojekt1.stats.MovieStatsRollup;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
 
 /**
  * The MovieResource class represents the view class of the MVC(Model-View-Controller) Design Pattern.
@@ -28,38 +74,530 @@ public class MovieResource {
     private MovieRepository movieRepository;
     // The container is responsible for instantiating and providing the required instance of the dependency, MovieRepository.
 
+    @Inject // Annotation injects the cache kept in front of the repository, to report its statistics.
+    private MovieCache movieCache;
+
+    @Inject // Annotation injects the in-memory movie counts.
+    private MovieStatsRollup movieStatsRollup;
+
+    @Inject // Annotation injects the queue that writes movies behind the response.
+    private WriteBehindQueue writeBehindQueue;
+
+    @Inject // Annotation injects the feed that publishes committed changes as Server-Sent Events.
+    private MovieChangeFeed movieChangeFeed;
+
+    @Inject // Annotation injects the JPA shared cache settings, to report its statistics.
+    private SharedCache sharedCache;
+
+    @Inject // Annotation injects the data source of plain JDBC reads, to report its pool statistics.
+    private ApplicationDataSource applicationDataSource;
+
+    @Inject // Annotation injects the monitor of the server's connection pool, to report its statistics.
+    private ContainerPoolMonitor containerPoolMonitor;
+
+    @Inject // Annotation injects the in-memory full-text index of titles and plots.
+    private MovieTextIndex movieTextIndex;
+
+    @Inject // Annotation injects the version counter used for ETags and Last-Modified.
+    private CatalogueVersion catalogueVersion;
+
+    @Inject // Annotation injects the cache of serialised list pages.
+    private PageResponseCache pageResponseCache;
+
+    /**
+     * Maximum number of movies a client may ask for in one page.
+     */
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    /**
+     * Maximum number of matching movies a search may skip. Deeper pages would make the database, and every
+     * shard, read and sort all skipped rows; the whole catalogue is read page by page through "/movies?after=".
+     */
+    private static final int MAX_SEARCH_OFFSET = 100_000;
+
+    /**
+     * Whether an update must carry the version it was read at (or the header "If-Match: *"). Off by default,
+     * so that clients written before movies had versions keep overwriting them as they always did; turned on
+     * with the system property "movies.put.requireVersion=true".
+     */
+    private static final boolean REQUIRE_VERSION = Boolean.getBoolean("movies.put.requireVersion");
+
+    /**
+     * Logger used to report the row counts of exports.
+     */
+    private static final Logger LOGGER = Logger.getLogger(MovieResource.class.getName());
+
+    /**
+     * Number of movies fetched from the database per round trip while streaming the whole list.
+     */
+    private static final int STREAM_CHUNK_SIZE = 500;
+
+    /**
+     * JSON-B instance used to write movies one by one while streaming. Jsonb instances are thread-safe.
+     */
+    private static final Jsonb JSONB = JsonbBuilder.create();
+
+    /**
+     * The media type of the compact binary format written by the 'MovieBinaryCodec'.
+     */
+    private static final MediaType BINARY_TYPE = MediaType.valueOf(MovieBinaryCodec.MEDIA_TYPE);
+
+    /**
+     * This method getMovies() retrieves movies from the 'MovieRepository'.
+     * It's publicly accessible.
+     * With a 'limit' query parameter it returns one keyset-paginated page, starting after the 'after' cursor,
+     * and a "next" Link header (plus an X-Next-Cursor header) pointing at the following page.
+     * Without a 'limit' it streams the movies as a JSON array, reading the table in fixed-size chunks,
+     * so memory use stays flat however many rows the table holds.
+     * Responses carry an ETag and, once the last change is at least a second old, Last-Modified from the
+     * catalogue version: a conditional request for an unchanged catalogue gets a 304 status without touching
+     * the database. Pages are kept serialised in
+     * the 'PageResponseCache' and sent gzip-compressed to clients that accept it.
+     * Clients that prefer "application/x-movie-binary" get the movies in the compact binary format of the
+     * 'MovieBinaryCodec' instead of JSON.
+     *
+     * @param after is the id of the last movie already seen by the client (optional).
+     * @param limit is the maximum number of movies in the returned page (optional).
+     * @param uriInfo gives access to the request URI, used to build the next-page link.
+     * @param request gives access to the conditional request headers.
+     * @param headers gives access to the Accept and Accept-Encoding request headers.
+     * @return A Response object containing the movies in JSON or binary format and a 200 status, a 304 status if the
+     * client's copy is current, a 400 status if the limit is invalid, or a 404 status with an appropriate
+     * message if no movies are found.
+     */
+
+    @GET // Annotation that the method handles HTTP GET requests.
+    @Produces({MediaType.APPLICATION_JSON, MovieBinaryCodec.MEDIA_TYPE}) // Annotation that response data is in JSON or binary format.
+    public Response getMovies(@QueryParam("after") Long after, @QueryParam("limit") Integer limit,
+                              @Context UriInfo uriInfo, @Context Request request, @Context HttpHeaders headers) {
+        // Check the requested page size
+        if (limit != null && (limit < 1 || limit > MAX_PAGE_SIZE)) {
+            return Response.status(Response.Status.BAD_REQUEST) // Return 400 response
+                    .entity("Limit must be between 1 and " + MAX_PAGE_SIZE + "!") // Attach a message
+                    .build(); // Build the response object
+        }
+        // Read the date and version before the movies, so they are never newer than the data they describe.
+        Date lastModified = catalogueVersion.lastModified();
+        long version = catalogueVersion.current();
+        boolean binary = prefersBinary(headers);
+        boolean gzip = limit != null && acceptsGzip(headers);
+        // Each representation of the list has its own tag.
+        EntityTag etag = catalogueVersion.entityTag(version,
+                "list-" + after + "-" + limit + (binary ? "-binary" : "") + (gzip ? "-gzip" : ""));
+        Response.ResponseBuilder notModified = catalogueVersion.evaluatePreconditions(request, lastModified, etag);
+        if (notModified != null) {
+            return notModified.tag(etag).build(); // Return 304 response
+        }
+        String pageKey = after + "-" + limit + (binary ? "-binary" : "");
+        PageResponseCache.Page page = limit != null ? pageResponseCache.get(pageKey, version) : null;
+        if (page == null) {
+            /*
+            Declaration of the 'movies' list to hold the first page of Movie entities. We assign the value by
+            calling the method 'findMoviesAfter()' from the 'movieRepository'.
+             */
+            int pageSize = limit != null ? limit : STREAM_CHUNK_SIZE;
+            List<Movie> movies = movieRepository.findMoviesAfter(after, pageSize);
+            // Check for an empty repository
+            if (movies.isEmpty() && after == null) {
+                return Response.status(Response.Status.NOT_FOUND) // Return 404 response
+                        .entity("Empty repository!") // Attach a message
+                        .build(); // Build the response object
+            }
+            if (limit == null) {
+                // No page size asked for: stream everything from the cursor onwards.
+                return Response.ok(binary ? streamMoviesBinary(movies) : streamMovies(movies)) // 200 response
+                        .type(binary ? BINARY_TYPE : MediaType.APPLICATION_JSON_TYPE)
+                        .tag(etag)
+                        .lastModified(lastModified)
+                        .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                        .build(); // Build the response object
+            }
+            // A full page means there may be more movies: remember the cursor of the next page.
+            Long nextCursor = movies.size() == limit ? movies.get(movies.size() - 1).getId() : null;
+            byte[] body = binary ? MovieBinaryCodec.toBytes(movies)
+                    : JSONB.toJson(movies).getBytes(StandardCharsets.UTF_8);
+            page = pageResponseCache.put(pageKey, version, body, nextCursor);
+        }
+        Response.ResponseBuilder response = Response.ok(gzip ? page.getGzip() : page.getBody()) // 200 response
+                .type(binary ? BINARY_TYPE : MediaType.APPLICATION_JSON_TYPE.withCharset("UTF-8"))
+                .tag(etag)
+                .lastModified(lastModified)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.encoding("gzip");
+        }
+        if (page.getNextCursor() != null) {
+            response.header("X-Next-Cursor", page.getNextCursor())
+                    .link(uriInfo.getRequestUriBuilder()
+                            .replaceQueryParam("after", page.getNextCursor()).build(), "next");
+        }
+        return response.build(); // Build the response object
+    }
+
+    /**
+     * This method prefersBinary() tells whether the client prefers the binary format to JSON. The accepted
+     * media types are in order of preference; a wildcard, or no Accept header at all, means JSON.
+     */
+
+    private static boolean prefersBinary(HttpHeaders headers) {
+        for (MediaType accepted : headers.getAcceptableMediaTypes()) {
+            if (!accepted.isWildcardSubtype() && BINARY_TYPE.isCompatible(accepted)) {
+                return true;
+            }
+            if (MediaType.APPLICATION_JSON_TYPE.isCompatible(accepted)) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method acceptsGzip() tells whether the client accepts gzip-compressed responses.
+     */
+
+    private static boolean acceptsGzip(HttpHeaders headers) {
+        String acceptEncoding = headers.getHeaderString(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                // "gzip;q=0" means the client refuses gzip.
+                return parts.length < 2 || !parts[1].trim().matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method streamMovies() creates a StreamingOutput that writes a JSON array of movies incrementally.
+     * It starts with the chunk already loaded and keeps fetching the next chunk after the last id written,
+     * flushing after every chunk, so only one chunk is held in memory at a time.
+     *
+     * @param firstChunk is the first chunk of movies, already loaded from the repository.
+     * @return A StreamingOutput that writes the JSON array to the response body.
+     */
+
+    private StreamingOutput streamMovies(List<Movie> firstChunk) {
+        return output -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            writer.write('[');
+            List<Movie> chunk = firstChunk;
+            boolean first = true;
+            while (!chunk.isEmpty()) {
+                for (Movie movie : chunk) {
+                    if (!first) {
+                        writer.write(',');
+                    }
+                    writer.write(JSONB.toJson(movie));
+                    first = false;
+                }
+                writer.flush(); // Send the chunk to the client before reading the next one.
+                // A short chunk means the end of the table has been reached.
+                if (chunk.size() < STREAM_CHUNK_SIZE) {
+                    break;
+                }
+                chunk = movieRepository.scanMoviesAfter(chunk.get(chunk.size() - 1).getId(), STREAM_CHUNK_SIZE);
+            }
+            writer.write(']');
+            writer.flush();
+        };
+    }
+
+    /**
+     * This method streamMoviesBinary() creates a StreamingOutput that writes the movies in the binary format,
+     * fetching and flushing them chunk by chunk like streamMovies().
+     *
+     * @param firstChunk is the first chunk of movies, already loaded from the repository.
+     * @return A StreamingOutput that writes the binary stream to the response body.
+     */
+
+    private StreamingOutput streamMoviesBinary(List<Movie> firstChunk) {
+        return output -> {
+            OutputStream out = new BufferedOutputStream(output, 8192);
+            MovieBinaryCodec.writeHeader(out);
+            List<Movie> chunk = firstChunk;
+            while (!chunk.isEmpty()) {
+                for (Movie movie : chunk) {
+                    MovieBinaryCodec.writeMovie(out, movie);
+                }
+                out.flush(); // Send the chunk to the client before reading the next one.
+                // A short chunk means the end of the table has been reached.
+                if (chunk.size() < STREAM_CHUNK_SIZE) {
+                    break;
+                }
+                chunk = movieRepository.scanMoviesAfter(chunk.get(chunk.size() - 1).getId(), STREAM_CHUNK_SIZE);
+            }
+            MovieBinaryCodec.writeEnd(out);
+            out.flush();
+        };
+    }
+
     /**
-     * This method getMovie() retrieves a list of all movies from the 'MovieRepository'.
+     * This method searchMovies() finds movies by title, director, genre and release year.
      * It's publicly accessible.
+     * All filters are optional and combined with "and": the title matches as a prefix, director and genre
+     * exactly, and the release year as an inclusive range. Results are paginated with 'offset' and 'limit';
+     * a full page carries a "next" Link header. The X-Query-Time header gives the database time in
+     * milliseconds, and with 'explain=true' the X-Query-Plan header names the indexes Derby used.
      *
-     * @return A Response object containing the list of movies in JSON format and a 200 status
-     * or a 404 status with an appropriate message if no movies are found.
+     * @param title is the beginning of the movie title (optional).
+     * @param director is the movie director (optional).
+     * @param genre is the movie genre (optional).
+     * @param yearFrom is the first release year included (optional).
+     * @param yearTo is the last release year included (optional).
+     * @param sort is the sort key: id, title, director, genre or year, with "-" for descending (optional).
+     * @param offset is the number of matching movies to skip (default 0, at most 100000).
+     * @param limit is the maximum number of movies returned (default 100).
+     * @param explain reports the access path of the query when true (default false).
+     * @param uriInfo gives access to the request URI, used to build the next-page link.
+     * @return A Response object containing the matching movies in JSON format and a 200 status,
+     * or a 400 status if a parameter is invalid.
      */
 
     @GET // Annotation that the method handles HTTP GET requests.
+    @Path("/search") // Annotation defines mapping of the method to the URL path "/movies/search".
     @Produces(MediaType.APPLICATION_JSON) // Annotation that response data is in JSON format.
-    public Response getMovies() {
-        /*
-        Declaration of the 'movies' list to hold Movie entities. We assign the value by calling the method
-        'findAllMovies()' from the 'movieRepository'.
-         */
-        List<Movie> movies = movieRepository.findAllMovies();
-        // Check for null
-        if (movies == null || movies.isEmpty()) {
-            return Response.status(Response.Status.NOT_FOUND) // Return 404 response
-                    .entity("Empty repository!") // Attach a message
+    public Response searchMovies(@QueryParam("title") String title, @QueryParam("director") String director,
+                                 @QueryParam("genre") String genre, @QueryParam("yearFrom") Integer yearFrom,
+                                 @QueryParam("yearTo") Integer yearTo, @QueryParam("sort") String sort,
+                                 @QueryParam("offset") @DefaultValue("0") int offset,
+                                 @QueryParam("limit") @DefaultValue("100") int limit,
+                                 @QueryParam("explain") @DefaultValue("false") boolean explain,
+                                 @Context UriInfo uriInfo) {
+        // Check the requested page
+        if (offset < 0 || offset > MAX_SEARCH_OFFSET || limit < 1 || limit > MAX_PAGE_SIZE) {
+            return Response.status(Response.Status.BAD_REQUEST) // Return 400 response
+                    .entity("Offset must be between 0 and " + MAX_SEARCH_OFFSET + " and limit between 1 and "
+                            + MAX_PAGE_SIZE + "!")
+                    .type(MediaType.TEXT_PLAIN)
+                    .build(); // Build the response object
+        }
+        MovieSearch search;
+        try {
+            search = new MovieSearch(title, director, genre, yearFrom, yearTo, sort, offset, limit);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST) // Return 400 response
+                    .entity(e.getMessage()) // Attach a message
+                    .type(MediaType.TEXT_PLAIN)
+                    .build(); // Build the response object
+        }
+        long start = System.nanoTime();
+        List<Movie> movies = movieRepository.searchMovies(search);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        Response.ResponseBuilder response = Response.ok(movies) // 200 response with the page
+                .header("X-Query-Time", millis);
+        if (explain) {
+            response.header("X-Query-Plan", movieRepository.explainSearch(search));
+        }
+        // A full page means there may be more matches: link the following page.
+        if (movies.size() == limit) {
+            response.link(uriInfo.getRequestUriBuilder().replaceQueryParam("offset", offset + limit).build(), "next");
+        }
+        return response.build(); // Build the response object
+    }
+
+    /**
+     * This method searchMoviesByText() finds the movies whose title or plot best match a keyword query.
+     * It's publicly accessible.
+     * The query is answered from the in-memory full-text index, ranked by relevance (BM25), so the database
+     * is only used to look up the movies of the returned hits. While the index is first being built it would
+     * only find part of the movies, so the client is asked to come back later.
+     *
+     * @param q is the keyword query.
+     * @param limit is the maximum number of hits (default 20).
+     * @return A Response object containing the hits, best first, in JSON format and a 200 status,
+     * a 400 status if the query is missing or the limit is invalid,
+     * or a 503 status if the index has not been built yet.
+     */
+
+    @GET // Annotation that the method handles HTTP GET requests.
+    @Path("/search/text") // Annotation defines mapping of the method to the URL path "/movies/search/text".
+    @Produces(MediaType.APPLICATION_JSON) // Annotation that response data is in JSON format.
+    public Response searchMoviesByText(@QueryParam("q") String q,
+                                       @QueryParam("limit") @DefaultValue("20") int limit) {
+        // Check the query and the number of hits
+        if (q == null || q.isBlank() || limit < 1 || limit > MAX_PAGE_SIZE) {
+            return Response.status(Response.Status.BAD_REQUEST) // Return 400 response
+                    .entity("Give a query q and a limit between 1 and " + MAX_PAGE_SIZE + "!")
+                    .type(MediaType.TEXT_PLAIN)
+                    .build(); // Build the response object
+        }
+        if (!movieTextIndex.isBuilt()) {
+            return Response.status(Response.Status.SERVICE_UNAVAILABLE) // Return 503 response
+                    .header(HttpHeaders.RETRY_AFTER, 1) // Ask the client to try again in a second
+                    .entity("Text index is being built!") // Attach a message
+                    .type(MediaType.TEXT_PLAIN)
+                    .build(); // Build the response object
+        }
+        List<TextSearchHit> hits = movieTextIndex.search(q, limit);
+        for (TextSearchHit hit : hits) {
+            hit.setMovie(movieRepository.findMovieById(hit.getId())); // Served from the movie cache when hot.
+        }
+        hits.removeIf(hit -> hit.getMovie() == null); // Deleted since the index was last updated.
+        return Response.ok(hits).build(); // Return 200 response
+    }
+
+    /**
+     * This method getCacheStats() reports the hit, miss and eviction counters of the movie cache.
+     * It's publicly accessible.
+     *
+     * @return A Response object containing the cache statistics in JSON format and a 200 status.
+     */
+
+    @GET // Annotation that the method handles HTTP GET requests.
+    @Path("/cache/stats") // Annotation defines mapping of the method to the URL path "/movies/cache/stats".
+    @Produces(MediaType.APPLICATION_JSON) // Annotation that response data is in JSON format.
+    public Response getCacheStats() {
+        return Response.ok(movieCache.getStats()).build(); // Return 200 response
+    }
+
+    /**
+     * This method getSharedCacheStats() reports whether the JPA shared cache is used, and its hit, miss and
+     * eviction counters for lookups by id.
+     * It's publicly accessible.
+     *
+     * @return A Response object containing the shared cache statistics in JSON format and a 200 status.
+     */
+
+    @GET // Annotation that the method handles HTTP GET requests.
+    @Path("/cache/shared/stats") // Annotation defines mapping of the method to the URL path "/movies/cache/shared/stats".
+    @Produces(MediaType.APPLICATION_JSON) // Annotation that response data is in JSON format.
+    public Response getSharedCacheStats() {
+        return Response.ok(sharedCache.getStats()).build(); // Return 200 response
+    }
+
+    /**
+     * This method getPoolStats() reports the application's connection pool, which serves the plain JDBC work
+     * when "movies.pool.url" is set (see 'ApplicationDataSource'): connections in use and idle,
+     * callers waiting, wait times and timeouts, the prepared statement cache hit rate and the latest slow
+     * statements. A growing 'waiting' count or any 'timeouts' mean the pool is too small for the load.
+     * It's publicly accessible.
+     *
+     * @return A Response object containing the pool statistics in JSON format and a 200 status.
+     */
+
+    @GET // Annotation that the method handles HTTP GET requests.
+    @Path("/pool/stats") // Annotation defines mapping of the method to the URL path "/movies/pool/stats".
+    @Produces(MediaType.APPLICATION_JSON) // Annotation that response data is in JSON format.
+    public Response getPoolStats() {
+        return Response.ok(applicationDataSource.getStats()).build(); // Return 200 response
+    }
+
+    /**
+     * This method getContainerPoolStats() reports the application server's connection pool behind
+     * 'jdbc/__default', which carries the JPA work and every transaction: connections in use, the most ever in
+     * use, callers waiting, timeouts and the average wait. The server only collects these numbers when the
+     * monitoring of JDBC connection pools is switched on; otherwise "available" is false and "message" says
+     * how to switch it on.
+     * It's publicly accessible.
+     *
+     * @return A Response object containing the pool statistics in JSON format and a 200 status.
+     */
+
+    @GET // Annotation that the method handles HTTP GET requests.
+    @Path("/pool/stats/container") // Annotation defines mapping of the method to the URL path "/movies/pool/stats/container".
+    @Produces(MediaType.APPLICATION_JSON) // Annotation that response data is in JSON format.
+    public Response getContainerPoolStats() {
+        return Response.ok(containerPoolMonitor.getStats()).build(); // Return 200 response
+    }
+
+    /**
+     * Default number of values per attribute in the statistics.
+     */
+    private static final int DEFAULT_STATS_LIMIT = 100;
+
+    /**
+     * This method getStats() counts the movies in total and by genre, director and release year.
+     * It's publicly accessible.
+     * The counts are computed by Derby with GROUP BY queries, or, with 'rollup=true', taken from the
+     * 'MovieStatsRollup' kept in memory, which costs nothing to read. Until the rollup has been built, or when
+     * it is switched off, the database is asked instead; the "source" of the result tells which was used.
+     *
+     * @param rollup reads the in-memory counts when true (default false).
+     * @param limit is the maximum number of values per attribute, most common first (default 100).
+     * @return A Response object containing the statistics in JSON format and a 200 status,
+     * or a 400 status if the limit is invalid.
+     */
+
+    @GET // Annotation that the method handles HTTP GET requests.
+    @Path("/stats") // Annotation defines mapping of the method to the URL path "/movies/stats".
+    @Produces(MediaType.APPLICATION_JSON) // Annotation that response data is in JSON format.
+    public Response getStats(@QueryParam("rollup") @DefaultValue("false") boolean rollup,
+                             @QueryParam("limit") @DefaultValue("" + DEFAULT_STATS_LIMIT) int limit) {
+        // Check the requested number of values
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return Response.status(Response.Status.BAD_REQUEST) // Return 400 response
+                    .entity("Limit must be between 1 and " + MAX_PAGE_SIZE + "!") // Attach a message
+                    .type(MediaType.TEXT_PLAIN)
+                    .build(); // Build the response object
+        }
+        if (rollup && movieStatsRollup.isReady()) {
+            MovieStats stats = movieStatsRollup.getStats();
+            return Response.ok(new MovieStats(stats.getSource(), stats.getTotal(),
+                    movieStatsRollup.getCounts(StatsDimension.GENRE, limit),
+                    movieStatsRollup.getCounts(StatsDimension.DIRECTOR, limit),
+                    movieStatsRollup.getCounts(StatsDimension.YEAR, limit))).build(); // Return 200 response
+        }
+        MovieStats stats = new MovieStats("database", movieRepository.countMovies(),
+                movieRepository.countMoviesBy(StatsDimension.GENRE, limit),
+                movieRepository.countMoviesBy(StatsDimension.DIRECTOR, limit),
+                movieRepository.countMoviesBy(StatsDimension.YEAR, limit));
+        return Response.ok(stats).build(); // Return 200 response
+    }
+
+    /**
+     * This method getStatsBy() counts the movies per value of one attribute: genre, director or year.
+     * It's publicly accessible. See getStats() for the 'rollup' parameter.
+     *
+     * @param dimension is the attribute: "genre", "director" or "year".
+     * @param rollup reads the in-memory counts when true (default false).
+     * @param limit is the maximum number of values, most common first (default 100).
+     * @return A Response object containing the number of movies per value in JSON format and a 200 status,
+     * or a 400 status if the attribute or the limit is invalid.
+     */
+
+    @GET // Annotation that the method handles HTTP GET requests.
+    @Path("/stats/{dimension}") // Annotation defines mapping of the method to the URL path "/movies/stats/dimension".
+    @Produces(MediaType.APPLICATION_JSON) // Annotation that response data is in JSON format.
+    public Response getStatsBy(@PathParam("dimension") String dimension,
+                               @QueryParam("rollup") @DefaultValue("false") boolean rollup,
+                               @QueryParam("limit") @DefaultValue("" + DEFAULT_STATS_LIMIT) int limit) {
+        StatsDimension statsDimension;
+        try {
+            statsDimension = StatsDimension.of(dimension);
+        } catch (IllegalArgumentException e) {
+            return Response.status(Response.Status.BAD_REQUEST) // Return 400 response
+                    .entity(e.getMessage()) // Attach a message
+                    .type(MediaType.TEXT_PLAIN)
+                    .build(); // Build the response object
+        }
+        // Check the requested number of values
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            return Response.status(Response.Status.BAD_REQUEST) // Return 400 response
+                    .entity("Limit must be between 1 and " + MAX_PAGE_SIZE + "!") // Attach a message
+                    .type(MediaType.TEXT_PLAIN)
                     .build(); // Build the response object
         }
-        return Response.ok(movies).build(); // Return 200 response
+        Map<String, Long> counts = rollup && movieStatsRollup.isReady()
+                ? movieStatsRollup.getCounts(statsDimension, limit)
+                : movieRepository.countMoviesBy(statsDimension, limit);
+        return Response.ok(counts).build(); // Return 200 response
     }
 
     /**
      * This method getMovieById() retrieves a Movie entity from the 'MovieRepository' by its id.
      * It's publicly accessible.
      * This method is mapped to the HTTP GET request with a dynamic path parameter movie id.
+     * Like the list, the response carries an ETag and Last-Modified from the catalogue version, and a
+     * conditional request for an unchanged catalogue gets a 304 status without touching the database.
      *
      * @param id is the id of the movie to be retrieved.
-     * @return A Response object containing either the required movie in JSON format and a 200 status
+     * @param request gives access to the conditional request headers.
+     * @param headers gives access to the Accept request header, to choose between JSON and binary format.
+     * @return A Response object containing either the required movie in JSON or binary format and a 200 status,
+     * a 304 status if the client's copy is current,
      * or a 404 status with an appropriate message if the movie is not found.
      */
 
@@ -68,12 +606,21 @@ public class MovieResource {
     @Path("/{id}") // Annotation defines mapping of the method to the URL path "/movies/id".
     // {id} means it's a dynamic path parameter.
     @Consumes(MediaType.APPLICATION_JSON) // Annotation that the method consumes data in JSON format.
-    @Produces(MediaType.APPLICATION_JSON) // Annotation that response data is in JSON format.
-    public Response getMovieById(@PathParam("id") Long id) {
+    @Produces({MediaType.APPLICATION_JSON, MovieBinaryCodec.MEDIA_TYPE}) // Annotation that response data is in JSON or binary format.
+    public Response getMovieById(@PathParam("id") Long id, @Context Request request, @Context HttpHeaders headers) {
          /* Parameter for this method is the id of the Movie entity to be retrieved from the 'MovieRepository'.
           Annotation @PathParam reads dynamic parts of a URL and matches them
           to the id of the Movie entity to be retrieved.
           */
+        // Read the date and version before the movie, so they are never newer than the data they describe.
+        Date lastModified = catalogueVersion.lastModified();
+        long version = catalogueVersion.current();
+        boolean binary = prefersBinary(headers);
+        EntityTag etag = catalogueVersion.entityTag(version, "movie-" + id + (binary ? "-binary" : ""));
+        Response.ResponseBuilder notModified = catalogueVersion.evaluatePreconditions(request, lastModified, etag);
+        if (notModified != null) {
+            return notModified.tag(etag).build(); // Return 304 response
+        }
          /*
           Declaration of the variable 'movie' to hold a Movie entity. We assign the value by calling the method
           'findMovieById()' from the 'movieRepository'.
@@ -85,22 +632,46 @@ public class MovieResource {
                     .entity("Movie not found!") // Attach a message
                     .build(); // Build the Response object
         }
-        return Response.ok(movie).build(); // Return 202 message
+        return Response.ok(movie) // Return 200 response
+                .type(binary ? BINARY_TYPE : MediaType.APPLICATION_JSON_TYPE)
+                .tag(etag)
+                .lastModified(lastModified)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .build(); // Build the Response object
     }
 
     /**
      * This method addMovie() adds a new Movie entity to the 'MovieRepository'.
      * It's publicly accessible.
      * This method is mapped to the HTTP POST request.
+     * A client that sends the header "Prefer: respond-async" does not wait for the database: the movie is put
+     * in the 'WriteBehindQueue', written later together with other movies, and the response carries a ticket
+     * whose state can be followed at "/movies/ingest/{ticket}".
      *
      * @param movie is the Movie entity to be added to the 'MovieRepository'.
-     * @return A Response object containing a 201 Created status with a success message.
+     * @param prefer is the Prefer request header (optional).
+     * @return A Response object containing a 201 Created status with a success message, a 202 Accepted status
+     * with the ticket of a queued movie, or a 429 Too Many Requests status if the queue is full.
      */
 
     @POST // Annotation that the method handles HTTP POST requests.
-    @Consumes(MediaType.APPLICATION_JSON) // Annotation that the method consumes data in JSON format.
+    @Consumes({MediaType.APPLICATION_JSON, MovieBinaryCodec.MEDIA_TYPE}) // Annotation that the method consumes data in JSON or binary format.
     @Produces(MediaType.TEXT_PLAIN) // Annotation that response data is in text format.
-    public Response addMovie(Movie movie) {
+    public Response addMovie(Movie movie, @HeaderParam("Prefer") String prefer) {
+        if (prefersRespondAsync(prefer)) {
+            long ticket = writeBehindQueue.offer(movie);
+            if (ticket < 0) {
+                return Response.status(Response.Status.TOO_MANY_REQUESTS) // Return 429 response
+                        .header(HttpHeaders.RETRY_AFTER, 1) // Ask the client to wait a second
+                        .entity("Ingest queue is full!") // Attach a message
+                        .build(); // Build the Response object
+            }
+            return Response.accepted("Movie accepted as ticket " + ticket + "!") // Return 202 response
+                    .location(URI.create("movies/ingest/" + ticket)) // Relative to the application path
+                    .header("Preference-Applied", "respond-async")
+                    .header("X-Ticket", ticket)
+                    .build(); // Build the Response object
+        }
         // Parameter for this method is a Movie object to be added to the movie repository.
         // The method 'createMovie()' is called from the 'movieRepository' to add the Movie object to the movie repository.
         movieRepository.createMovie(movie);
@@ -109,51 +680,207 @@ public class MovieResource {
                 .build(); // Build the Response object
     }
 
+    /**
+     * This method prefersRespondAsync() tells whether the Prefer header asks for an asynchronous response.
+     */
+
+    private static boolean prefersRespondAsync(String prefer) {
+        if (prefer == null) {
+            return false;
+        }
+        for (String preference : prefer.split(",")) {
+            if (preference.split(";")[0].trim().equalsIgnoreCase("respond-async")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * This method getChanges() opens a stream of Server-Sent Events with every committed change to the movies,
+     * so clients can keep a copy of the catalogue up to date without polling it. Each event is named after the
+     * kind of change ("created", "updated", "deleted" or "bulk") and holds the change as JSON. A client that
+     * reconnects with the 'Last-Event-ID' header is first sent the changes it missed, or a "reset" event if
+     * they are no longer kept, after which it should read the whole catalogue again (see 'MovieChangeFeed').
+     * Events are ordered as the feed observed the changes, not strictly by commit; the stored version of each
+     * movie tells which of two changes to it is newer.
+     * It's publicly accessible.
+     *
+     * @param sink The event stream to the client, kept open after the method returns.
+     * @param sse The Server-Sent Events support of the JAX-RS runtime.
+     * @param lastEventId The id of the last event the client received, or null.
+     */
+
+    @GET // Annotation that the method handles HTTP GET requests.
+    @Path("/changes") // Annotation defines mapping of the method to the URL path "/movies/changes".
+    @Produces(MediaType.SERVER_SENT_EVENTS) // Annotation that response data is a stream of Server-Sent Events.
+    public void getChanges(@Context SseEventSink sink, @Context Sse sse,
+                           @HeaderParam(HttpHeaders.LAST_EVENT_ID_HEADER) String lastEventId) {
+        movieChangeFeed.subscribe(sink, sse, lastEventId);
+    }
+
+    /**
+     * This method getIngestStatus() reports the depth of the write-behind queue and how far its writer lags.
+     * It's publicly accessible.
+     *
+     * @return A Response object containing the queue status in JSON format and a 200 status.
+     */
+
+    @GET // Annotation that the method handles HTTP GET requests.
+    @Path("/ingest") // Annotation defines mapping of the method to the URL path "/movies/ingest".
+    @Produces(MediaType.APPLICATION_JSON) // Annotation that response data is in JSON format.
+    public Response getIngestStatus() {
+        return Response.ok(writeBehindQueue.getStatus()).build(); // Return 200 response
+    }
+
+    /**
+     * This method getIngestTicket() reports whether a movie accepted by the write-behind queue is still
+     * waiting, has been written, or could not be written.
+     * It's publicly accessible.
+     *
+     * @param ticket is the ticket number given when the movie was accepted.
+     * @return A Response object containing the ticket state in JSON format and a 200 status,
+     * or a 404 status if no such ticket was given out.
+     */
+
+    @GET // Annotation that the method handles HTTP GET requests.
+    @Path("/ingest/{ticket}") // Annotation defines mapping of the method to the URL path "/movies/ingest/ticket".
+    @Produces(MediaType.APPLICATION_JSON) // Annotation that response data is in JSON format.
+    public Response getIngestTicket(@PathParam("ticket") long ticket) {
+        IngestTicket state = writeBehindQueue.getTicket(ticket);
+        if (state == null) {
+            return Response.status(Response.Status.NOT_FOUND) // Return 404 response
+                    .entity("Ticket not found!") // Attach a message
+                    .type(MediaType.TEXT_PLAIN)
+                    .build(); // Build the Response object
+        }
+        return Response.ok(state).build(); // Return 200 response
+    }
+
+    /**
+     * Media type of newline-delimited JSON: one JSON object per line.
+     */
+    private static final String APPLICATION_NDJSON = "application/x-ndjson";
+
+    /**
+     * Default and maximum number of movies written per transaction during a bulk import.
+     */
+    private static final int DEFAULT_CHUNK_SIZE = 500;
+    private static final int MAX_CHUNK_SIZE = 5000;
+
+    /**
+     * This method addMovies() adds many new Movie entities from a JSON array.
+     * It's publicly accessible.
+     * This method is mapped to the HTTP POST request on "/movies/bulk". The array is parsed as a stream,
+     * so only one chunk of movies is held in memory, and every chunk is written in its own transaction.
+     *
+     * @param chunkSize is the number of movies written per transaction (optional, default 500).
+     * @param input is the request body containing a JSON array of movies.
+     * @return A Response object containing the import report in JSON format.
+     */
+
+    @POST // Annotation that the method handles HTTP POST requests.
+    @Path("/bulk") // Annotation defines mapping of the method to the URL path "/movies/bulk".
+    @Consumes(MediaType.APPLICATION_JSON) // Annotation that the method consumes data in JSON format.
+    @Produces(MediaType.APPLICATION_JSON) // Annotation that response data is in JSON format.
+    public Response addMovies(@QueryParam("chunkSize") Integer chunkSize, InputStream input) {
+        // The body must be a JSON array; each element is read only when the importer asks for it.
+        return importMovies(BulkImport.jsonArray(input), chunkSize);
+    }
+
+    /**
+     * This method addMoviesNdjson() adds many new Movie entities from newline-delimited JSON.
+     * It's publicly accessible.
+     * This method is mapped to the HTTP POST request on "/movies/bulk" with the "application/x-ndjson"
+     * media type. Each non-blank line is one movie; lines are read as they arrive.
+     *
+     * @param chunkSize is the number of movies written per transaction (optional, default 500).
+     * @param input is the request body containing one JSON movie per line.
+     * @return A Response object containing the import report in JSON format.
+     */
+
+    @POST // Annotation that the method handles HTTP POST requests.
+    @Path("/bulk") // Annotation defines mapping of the method to the URL path "/movies/bulk".
+    @Consumes(APPLICATION_NDJSON) // Annotation that the method consumes newline-delimited JSON.
+    @Produces(MediaType.APPLICATION_JSON) // Annotation that response data is in JSON format.
+    public Response addMoviesNdjson(@QueryParam("chunkSize") Integer chunkSize, InputStream input) {
+        return importMovies(BulkImport.ndjson(input), chunkSize);
+    }
+
+    /**
+     * This method importMovies() reads movies from the iterator and writes them to the 'MovieRepository'
+     * in chunks (see 'BulkImport'). A chunk that fails is rolled back and reported, and the import continues with
+     * the next one. If the input itself cannot be read, the import stops and the report carries the error with a
+     * 400 status.
+     *
+     * @param movies is the iterator over the parsed movies.
+     * @param chunkSize is the requested number of movies per transaction, or null for the default.
+     * @return A Response object containing the import report in JSON format.
+     */
+
+    private Response importMovies(Iterator<Movie> movies, Integer chunkSize) {
+        // Check the requested chunk size
+        if (chunkSize != null && (chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE)) {
+            return Response.status(Response.Status.BAD_REQUEST) // Return 400 response
+                    .entity("Chunk size must be between 1 and " + MAX_CHUNK_SIZE + "!") // Attach a message
+                    .type(MediaType.TEXT_PLAIN)
+                    .build(); // Build the response object
+        }
+        int size = chunkSize != null ? chunkSize : DEFAULT_CHUNK_SIZE;
+        BulkImportResult result = BulkImport.run(movies, size, movieRepository::createMovies);
+        Response.Status status = result.getError() == null ? Response.Status.OK : Response.Status.BAD_REQUEST;
+        return Response.status(status).entity(result).build(); // Return the import report
+    }
+
     /**
      * This method updateMovieById() updates the existing Movie entity data by its id.
      * It's publicly accessible.
-     * This method is mapped to the HTTP PUT request.
+     * This method is mapped to the HTTP PUT request. When the updated movie contains the version it was read
+     * at, the update only succeeds if nobody else has changed the movie in the meantime. Without a version the
+     * movie is overwritten (last write wins), unless "movies.put.requireVersion" is set: then a client that
+     * really wants to overwrite the movie whatever its version says so with the header "If-Match: *".
      *
      * @param id is the id of the movie to be updated.
      * @param updatedMovie is the updated Movie object containing the updated data.
+     * @param ifMatch is the If-Match request header, "*" to update without a version (optional).
      * @return A Response object with either a 200 OK status and a success message if the movie is updated,
+     * a 409 Conflict status if the movie was changed by another request,
+     * a 428 Precondition Required status if a version is required and neither it nor "If-Match: *" was sent,
      * or a 404 Not Found status with an appropriate message if the movie is not found.
      */
 
     @PUT // Annotation that the method handles HTTP PUT requests.
     @Path("/{id}") // Annotation defines mapping of the method to the URL path "/movies/id".
     // {id} means it's a dynamic path parameter.
-    @Consumes(MediaType.APPLICATION_JSON) // Annotation that the method consumes data in JSON format.
+    @Consumes({MediaType.APPLICATION_JSON, MovieBinaryCodec.MEDIA_TYPE}) // Annotation that the method consumes data in JSON or binary format.
     @Produces(MediaType.TEXT_PLAIN) // Annotation that response data is in text format.
-    public Response updateMovieById(@PathParam("id") Long id, Movie updatedMovie) {
+    public Response updateMovieById(@PathParam("id") Long id, Movie updatedMovie,
+                                    @HeaderParam(HttpHeaders.IF_MATCH) String ifMatch) {
         /* First parameter for this method is the id of the Movie entity to be updated in the 'MovieRepository'.
          Annotation @PathParam reads dynamic parts of a URL and matches them to the id of the movie to be updated.
          Second parameter for this method is the updated Movie entity in the 'MovieRepository'.
          */
+        // Without a version the update would silently overwrite changes made by others.
+        if (REQUIRE_VERSION && updatedMovie.getVersion() == null
+                && (ifMatch == null || !ifMatch.trim().equals("*"))) {
+            return Response.status(Response.Status.PRECONDITION_REQUIRED) // Return 428 response
+                    .entity("Send the version of the movie, or the header If-Match: * to overwrite it!")
+                    .build(); // Build the Response object
+        }
         /*
-         Declaration of 'movies' List to hold Movie entities. We assign the value by calling the method
-         'findAllMovies()' from the 'movieRepository'.
+         Call the method 'updateMovieById()' from the 'movieRepository', which updates the row directly
+         and returns the number of updated rows.
          */
-        List<Movie> movies = movieRepository.findAllMovies();
-
-        // Iterate through each Movie entity in the 'movies' List.
-        for (Movie movie : movies) {
-            // Check if the id of the existing movie matches the id of the movie to be updated.
-            if (movie.getId().equals(id)) {
-                // Update the data of the Movie entity with the field values of the updatedMovie entity.
-                movie.setMovieTitle(updatedMovie.getMovieTitle());
-                movie.setMovieDirector(updatedMovie.getMovieDirector());
-                movie.setReleaseYear(updatedMovie.getReleaseYear());
-                movie.setMovieGenre(updatedMovie.getMovieGenre());
-                movie.setMoviePlot(updatedMovie.getMoviePlot());
-                /*
-                Call the method 'updateMovieById() from the 'movieRepository' to save the updated Movie
-                entity in the 'MovieRepository'.
-                 */
-                movieRepository.updateMovieById(movie);
-                return Response.ok("Movie information updated successfully!") // Return 200 response
-                        .build(); // Build the Response object
-            }
+        int updatedRows = movieRepository.updateMovieById(id, updatedMovie);
+        if (updatedRows > 0) {
+            return Response.ok("Movie information updated successfully!") // Return 200 response
+                    .build(); // Build the Response object
+        }
+        // Nothing updated: either the version was stale or the movie does not exist.
+        if (updatedMovie.getVersion() != null && movieRepository.findMovieById(id) != null) {
+            return Response.status(Response.Status.CONFLICT) // Return 409 response
+                    .entity("Movie was modified by another request!") // Attach a message
+                    .build(); // Build the Response object
         }
         return Response.status(Response.Status.NOT_FOUND) // Return 404 response
                 .entity("Movie not found!") // Attach a message
@@ -161,8 +888,8 @@ public class MovieResource {
     }
 
     /**
-     * This method deleteMovieById() handles deleting a 'Movie' entity from the 'MovieRepository' by id,
-     * checks if the movie exists, and then performs the deletion task.
+     * This method deleteMovieById() handles deleting a 'Movie' entity from the 'MovieRepository' by id.
+     * The deletion is a single statement; the number of deleted rows tells whether the movie existed.
      * it's publicly accessible.
      *
      * @param id is the id of the movie to be deleted.
@@ -179,24 +906,154 @@ public class MovieResource {
         /* Parameter for this method is the id of the Movie entity to be deleted from the 'MovieRepository'.
          Annotation @PathParam reads dynamic parts of a URL and matches them to the id of the movie to be deleted.
          */
-        /*
-        Declaration of the variable 'movieToDelete' to hold a Movie entity. We assign the value by calling the method
-        'findMovieById()' from the 'movieRepository'.
-         */
-        Movie movieToDelete = movieRepository.findMovieById(id);
-        // Check for null
-        if (movieToDelete == null) {
+         /*
+          Call the method 'deleteMovieById() from the 'movieRepository' to delete the selected Movie
+          entity from the 'MovieRepository'. No deleted rows means the id does not exist.
+          */
+        if (movieRepository.deleteMovieById(id) == 0) {
             return Response.status(Response.Status.NOT_FOUND) // Return 404 response
                     .entity("Invalid ID!") // Attach a message
                     .build(); // Build the Response object
         }
-         /*
-          Call the method 'deleteMovieById() from the 'movieRepository' to delete the selected Movie
-          entity from the 'MovieRepository'.
-          */
-        movieRepository.deleteMovieById(id);
         return Response.ok("Movie deleted successfully!") // Return 200 response
                 .build(); // Build the Response object
     }
 
-}
\ No newline at end of file
+    /**
+     * This method deleteMovies() deletes all movies matching the given filters with one set-based statement.
+     * It's publicly accessible.
+     * At least one filter is required, so an empty query string cannot wipe the whole table by accident.
+     *
+     * @param genre is the genre of the movies to be deleted (optional).
+     * @param releasedBefore only movies released before this year are deleted (optional).
+     * @return A Response object with a 200 OK status and the number of deleted movies,
+     * or a 400 Bad Request status if no filter is given.
+     */
+
+    @DELETE // Annotation that the method handles HTTP DELETE requests.
+    @Produces(MediaType.TEXT_PLAIN) // Annotation that response data is in text format.
+    public Response deleteMovies(@QueryParam("genre") String genre,
+                                 @QueryParam("releasedBefore") Integer releasedBefore) {
+        // Check that at least one filter is given
+        if (genre == null && releasedBefore == null) {
+            return Response.status(Response.Status.BAD_REQUEST) // Return 400 response
+                    .entity("Give a genre and/or releasedBefore filter!") // Attach a message
+                    .build(); // Build the Response object
+        }
+        int deleted = movieRepository.deleteMovies(genre, releasedBefore);
+        return Response.ok(deleted + " movies deleted successfully!") // Return 200 response
+                .header("X-Deleted-Count", deleted)
+                .build(); // Build the Response object
+    }
+
+    /**
+     * This method exportMovies() streams the whole 'movieData' table as NDJSON or CSV.
+     * It's publicly accessible.
+     * The rows are written straight from a JDBC cursor as they are read, without building Movie entities,
+     * so the export runs in bounded memory. The last line of a complete export gives the number of exported
+     * rows: {"rows":n} in NDJSON, and "# rows,n" in CSV. A stream without it was cut off.
+     *
+     * @param format is the export format: "ndjson" (default) or "csv".
+     * @return A Response object streaming the table, or a 400 Bad Request status for an unknown format.
+     */
+
+    @GET // Annotation that the method handles HTTP GET requests.
+    @Path("/export") // Annotation defines mapping of the method to the URL path "/movies/export".
+    @Produces({APPLICATION_NDJSON, "text/csv"}) // Annotation that response data is NDJSON or CSV.
+    public Response exportMovies(@QueryParam("format") @DefaultValue("ndjson") String format) {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            return Response.status(Response.Status.BAD_REQUEST) // Return 400 response
+                    .entity("Format must be ndjson or csv!") // Attach a message
+                    .type(MediaType.TEXT_PLAIN)
+                    .build(); // Build the Response object
+        }
+        StreamingOutput stream = output -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+            if (csv) {
+                writer.write("id,movieTitle,movieDirector,releaseYear,movieGenre,moviePlot,version\r\n");
+            }
+            long rows = movieRepository.exportMovies(row -> {
+                if (csv) {
+                    writeCsvRow(writer, row);
+                } else {
+                    writeJsonRow(writer, row);
+                }
+            });
+            if (csv) {
+                writer.write("# rows," + rows + "\r\n");
+            } else {
+                writer.write("{\"rows\":" + rows + "}\n");
+            }
+            writer.flush();
+            LOGGER.info("Exported " + rows + " movies as " + (csv ? "CSV" : "NDJSON"));
+        };
+        return Response.ok(stream, csv ? "text/csv" : APPLICATION_NDJSON).build(); // Return 200 response
+    }
+
+    /**
+     * This method writeJsonRow() writes one exported row as a single line of JSON.
+     *
+     * @param writer is the writer of the response body.
+     * @param row is the result set positioned on the row.
+     */
+
+    private static void writeJsonRow(Writer writer, ResultSet row) throws SQLException, IOException {
+        JsonObjectBuilder json = Json.createObjectBuilder().add("id", row.getLong(1));
+        addString(json, "movieTitle", row.getString(2));
+        addString(json, "movieDirector", row.getString(3));
+        json.add("releaseYear", row.getInt(4));
+        addString(json, "movieGenre", row.getString(5));
+        addString(json, "moviePlot", row.getString(6));
+        long version = row.getLong(7);
+        if (row.wasNull()) {
+            json.addNull("version");
+        } else {
+            json.add("version", version);
+        }
+        writer.write(json.build().toString());
+        writer.write('\n');
+    }
+
+    /**
+     * This method addString() adds a string value to a JSON object, writing null values as JSON null.
+     */
+
+    private static void addString(JsonObjectBuilder json, String name, String value) {
+        if (value == null) {
+            json.addNull(name);
+        } else {
+            json.add(name, value);
+        }
+    }
+
+    /**
+     * This method writeCsvRow() writes one exported row as a CSV record (RFC 4180).
+     *
+     * @param writer is the writer of the response body.
+     * @param row is the result set positioned on the row.
+     */
+
+    private static void writeCsvRow(Writer writer, ResultSet row) throws SQLException, IOException {
+        for (int column = 1; column <= 7; column++) {
+            if (column > 1) {
+                writer.write(',');
+            }
+            String value = row.getString(column);
+            if (value == null) {
+                continue; // Null is written as an empty field.
+            }
+            // Fields containing separators, quotes or line breaks are quoted, with quotes doubled.
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0
+                    || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+}
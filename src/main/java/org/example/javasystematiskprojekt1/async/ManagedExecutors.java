@@ -0,0 +1,196 @@
+package org.example.javasystematiskprojekt1.async;
+
+import jakarta.enterprise.concurrent.AbortedException;
+import jakarta.enterprise.concurrent.ContextService;
+import jakarta.enterprise.concurrent.ManagedExecutorService;
+import jakarta.enterprise.concurrent.ManagedTask;
+import jakarta.enterprise.concurrent.ManagedTaskListener;
+
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+/**
+ * The ManagedExecutors class looks up the default managed executor of the container. Its threads carry the
+ * naming, CDI and transaction context of the application, so work handed to it may call @Transactional
+ * beans such as the 'MovieRepository'; plain threads started by the application have no such context.
+ * Threads that run for the life of the application come from the default managed thread factory, which gives
+ * them the same context. The executor and the factory are used as a plain ExecutorService and ThreadFactory.
+ * The Jakarta Concurrency API, which the web profile does not include, is only needed by contextual(),
+ * abortable() and isAborted(), which are only called inside the container.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+public final class ManagedExecutors {
+
+    private static final Logger LOGGER = Logger.getLogger(ManagedExecutors.class.getName());
+
+    /**
+     * JNDI name of the managed executor every Jakarta EE container provides.
+     */
+    public static final String DEFAULT_EXECUTOR = "java:comp/DefaultManagedExecutorService";
+
+    /**
+     * JNDI name of the context service every Jakarta EE container provides.
+     */
+    public static final String DEFAULT_CONTEXT_SERVICE = "java:comp/DefaultContextService";
+
+    /**
+     * JNDI name of the managed thread factory every Jakarta EE container provides.
+     */
+    public static final String DEFAULT_THREAD_FACTORY = "java:comp/DefaultManagedThreadFactory";
+
+    private ManagedExecutors() {
+    }
+
+    /**
+     * This method lookup() looks up the default managed executor of the container.
+     *
+     * @return The executor, or null when running outside a container, for example in the benchmarks.
+     */
+
+    public static ExecutorService lookup() {
+        try {
+            return InitialContext.doLookup(DEFAULT_EXECUTOR);
+        } catch (NamingException | RuntimeException e) {
+            LOGGER.warning("No managed executor at " + DEFAULT_EXECUTOR + ": " + e);
+            return null;
+        }
+    }
+
+    /**
+     * This method threadFactory() looks up the default managed thread factory of the container, for threads that
+     * run as long as the application, which the managed executor would report as hung. The threads carry the
+     * context of the application that looked the factory up, so it must be called on a thread of the application.
+     *
+     * @param name The name of the threads, numbered from 1.
+     * @return The thread factory. Outside a container it creates plain daemon threads.
+     */
+
+    public static ThreadFactory threadFactory(String name) {
+        ThreadFactory factory;
+        try {
+            factory = InitialContext.doLookup(DEFAULT_THREAD_FACTORY);
+        } catch (NamingException | RuntimeException e) {
+            LOGGER.warning("No managed thread factory at " + DEFAULT_THREAD_FACTORY + ": " + e);
+            factory = task -> {
+                Thread thread = new Thread(task);
+                thread.setDaemon(true);
+                return thread;
+            };
+        }
+        ThreadFactory found = factory;
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = found.newThread(task);
+            thread.setName(name + "-" + count.incrementAndGet());
+            return thread;
+        };
+    }
+
+    /**
+     * This method contextual() captures the context of the application on the calling thread, which must be a
+     * thread of the application, in an executor that runs each command on the thread that calls it, inside that
+     * context. Tasks submitted to the managed executor from such a command carry the context of the application,
+     * whichever thread the command runs on.
+     *
+     * @return The executor. It throws IllegalStateException while the context cannot be set up, for instance
+     * while the application is still being deployed. Outside a container it runs commands as they are.
+     */
+
+    public static Executor contextual() {
+        try {
+            ContextService contextService = InitialContext.doLookup(DEFAULT_CONTEXT_SERVICE);
+            return contextService.createContextualProxy((Executor) Runnable::run, Executor.class);
+        } catch (NamingException | RuntimeException e) {
+            LOGGER.warning("No context service at " + DEFAULT_CONTEXT_SERVICE + ": " + e);
+            return Runnable::run;
+        }
+    }
+
+    /**
+     * This method abortable() wraps a task for the managed executor so that its caller learns when the
+     * container aborts it. The container aborts a task, without running it, when the context of the
+     * application cannot be set up on the thread, for instance while the application is still being deployed.
+     * Such a task is not run and does not fail; without a listener nothing would ever hear of it.
+     *
+     * @param task The task to run.
+     * @param aborted Receives the reason when the container aborts the task instead of running it.
+     * @return The task to hand to the managed executor.
+     */
+
+    public static Runnable abortable(Runnable task, Consumer<Throwable> aborted) {
+        return new AbortableTask(task, aborted);
+    }
+
+    /**
+     * This method isAborted() tells whether a task failed because the container aborted it, which means it
+     * never ran and may be submitted again.
+     *
+     * @param error The error the task completed with.
+     * @return True if the container aborted the task.
+     */
+
+    public static boolean isAborted(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null
+                ? error.getCause() : error;
+        return cause instanceof AbortedException;
+    }
+
+    /**
+     * A task that is its own listener, so the managed executor reports to it when it is aborted.
+     */
+
+    private static final class AbortableTask implements Runnable, ManagedTask, ManagedTaskListener {
+
+        private final Runnable task;
+        private final Consumer<Throwable> aborted;
+
+        private AbortableTask(Runnable task, Consumer<Throwable> aborted) {
+            this.task = task;
+            this.aborted = aborted;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+
+        @Override
+        public ManagedTaskListener getManagedTaskListener() {
+            return this;
+        }
+
+        @Override
+        public Map<String, String> getExecutionProperties() {
+            return null; // The defaults of the executor.
+        }
+
+        @Override
+        public void taskAborted(Future<?> future, ManagedExecutorService executor, Object task, Throwable e) {
+            aborted.accept(e);
+        }
+
+        @Override
+        public void taskSubmitted(Future<?> future, ManagedExecutorService executor, Object task) {
+        }
+
+        @Override
+        public void taskStarting(Future<?> future, ManagedExecutorService executor, Object task) {
+        }
+
+        @Override
+        public void taskDone(Future<?> future, ManagedExecutorService executor, Object task, Throwable e) {
+        }
+    }
+}
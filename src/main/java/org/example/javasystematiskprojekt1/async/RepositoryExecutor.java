@@ -0,0 +1,217 @@
+package org.example.javasystematiskprojekt1.async;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * The RepositoryExecutor class runs the blocking repository work of asynchronous requests, so the HTTP worker
+ * threads of the container are given back while the database round trip is in progress.
+ *
+ * The tasks run on the default managed executor of the container, whose threads carry the naming, CDI and
+ * transaction context the @Transactional 'MovieRepository' needs. Outside a container, such as in the
+ * benchmarks, every task runs on its own virtual thread on Java 21 and later, or on a platform thread before.
+ * In every case at most "maxConcurrency" tasks run and at most "maxQueue" more wait in a queue of this class;
+ * any further task is rejected straight away, so the caller can shed the load instead of letting requests
+ * pile up. A task the container aborts without running it, for instance one submitted while the application
+ * is still being deployed, completes with the container's AbortedException, so its caller is not left waiting.
+ * The limits are set with the system properties "movies.async.maxConcurrency" (default 64),
+ * "movies.async.maxQueue" (default 256), "movies.async.timeoutMillis" (default 5000) and
+ * "movies.async.virtualThreads" (default true, only used outside a container).
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@ApplicationScoped // Annotation of CDI bean, makes the class a singleton. Class can be injected into other classes.
+public class RepositoryExecutor {
+
+    private static final Logger LOGGER = Logger.getLogger(RepositoryExecutor.class.getName());
+
+    private static final int MAX_CONCURRENCY = Integer.getInteger("movies.async.maxConcurrency", 64);
+    private static final int MAX_QUEUE = Integer.getInteger("movies.async.maxQueue", 256);
+    private static final long TIMEOUT_MILLIS = Long.getLong("movies.async.timeoutMillis", 5000);
+
+    private final ExecutorService executor;
+    private final boolean managed; // True if the executor belongs to the container.
+    private final Semaphore admitted = new Semaphore(MAX_CONCURRENCY + MAX_QUEUE); // Running and waiting tasks.
+    private final Semaphore running = new Semaphore(MAX_CONCURRENCY); // Running tasks.
+    private final Queue<Task<?>> waiting = new ConcurrentLinkedQueue<>();
+
+    /**
+     * A constructor for the RepositoryExecutor class. It uses the managed executor of the container, and
+     * otherwise virtual threads when the Java version offers them.
+     */
+
+    public RepositoryExecutor() {
+        ExecutorService found = ManagedExecutors.lookup();
+        managed = found != null;
+        String threads = "managed";
+        if (found == null && Boolean.parseBoolean(System.getProperty("movies.async.virtualThreads", "true"))) {
+            found = newVirtualThreadExecutor();
+            threads = "virtual";
+        }
+        if (found == null) {
+            AtomicInteger threadNumber = new AtomicInteger();
+            found = Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "movies-async-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+            threads = "platform";
+        }
+        executor = found;
+        LOGGER.info("Asynchronous repository calls run on " + threads + " threads, " + MAX_CONCURRENCY
+                + " at once with " + MAX_QUEUE + " waiting");
+    }
+
+    /**
+     * This method submit() runs a task on the executor.
+     *
+     * @param task The blocking work to run.
+     * @param <T> The type of the result of the task.
+     * @return A CompletionStage completed with the result of the task, or with the exception it threw.
+     * @throws RejectedExecutionException If the executor is saturated and its queue is full.
+     */
+
+    public <T> CompletionStage<T> submit(Supplier<T> task) {
+        if (!admitted.tryAcquire()) {
+            throw new RejectedExecutionException("Too many asynchronous requests");
+        }
+        CompletableFuture<T> result = new CompletableFuture<>();
+        waiting.offer(new Task<>(task, result));
+        dispatch();
+        return result;
+    }
+
+    /**
+     * This method dispatch() hands waiting tasks to the executor while fewer than "maxConcurrency" run. Tasks
+     * wait in the queue of this class rather than on a thread, so no thread of the executor is blocked.
+     */
+
+    private void dispatch() {
+        while (!waiting.isEmpty() && running.tryAcquire()) {
+            Task<?> task = waiting.poll();
+            if (task == null) {
+                running.release(); // Another thread took the task: check again.
+                continue;
+            }
+            Runnable dispatched = () -> {
+                try {
+                    task.run();
+                } finally {
+                    running.release();
+                    dispatch(); // Start the next waiting task, if any.
+                }
+            };
+            try {
+                executor.execute(!managed ? dispatched : ManagedExecutors.abortable(dispatched, e -> {
+                    if (task.abort(e)) { // The task never ran, so its permit was not released.
+                        running.release();
+                        dispatch();
+                    }
+                }));
+            } catch (RejectedExecutionException e) {
+                running.release();
+                LOGGER.warning("The executor rejected an asynchronous repository call: " + e);
+                task.run(); // Run it here rather than leave its caller waiting forever.
+            }
+        }
+    }
+
+    /**
+     * This method getTimeoutMillis() gets the time after which an asynchronous read is answered with
+     * 503 Service Unavailable.
+     *
+     * @return The timeout in milliseconds(long).
+     */
+
+    public long getTimeoutMillis() {
+        return TIMEOUT_MILLIS;
+    }
+
+    /**
+     * This method shutdown() stops the executor when the application stops, unless it belongs to the
+     * container. Running tasks may finish.
+     */
+
+    @PreDestroy // Annotation marks the method called before the bean is destroyed.
+    public void shutdown() {
+        if (!managed) {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * A submitted task with the future of its result. It is either run or aborted, once.
+     */
+
+    private final class Task<T> implements Runnable {
+
+        private final Supplier<T> work;
+        private final CompletableFuture<T> result;
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        private Task(Supplier<T> work, CompletableFuture<T> result) {
+            this.work = work;
+            this.result = result;
+        }
+
+        @Override
+        public void run() {
+            if (!started.compareAndSet(false, true)) {
+                return; // Already aborted.
+            }
+            try {
+                result.complete(work.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                admitted.release();
+            }
+        }
+
+        /**
+         * This method abort() completes the task with the reason it is not run, unless it has started.
+         *
+         * @param reason Why the task is not run.
+         * @return True if the task was aborted, false if it had already started.
+         */
+
+        boolean abort(Throwable reason) {
+            if (!started.compareAndSet(false, true)) {
+                return false;
+            }
+            result.completeExceptionally(reason);
+            admitted.release();
+            return true;
+        }
+    }
+
+    /**
+     * This method newVirtualThreadExecutor() creates an executor starting a virtual thread per task through
+     * reflection, because the project is compiled for Java 11.
+     *
+     * @return The executor, or null if the running Java version has no virtual threads.
+     */
+
+    private static ExecutorService newVirtualThreadExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null; // Before Java 21, or virtual threads are not enabled.
+        }
+    }
+}
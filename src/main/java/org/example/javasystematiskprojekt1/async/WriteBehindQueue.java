@@ -0,0 +1,285 @@
+package org.example.javasystematiskprojekt1.async;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.example.javasystematiskprojekt1.database.MovieRepository;
+import org.example.javasystematiskprojekt1.model.IngestStatus;
+import org.example.javasystematiskprojekt1.model.IngestTicket;
+import org.example.javasystematiskprojekt1.model.Movie;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The WriteBehindQueue class accepts new movies without waiting for the database. Every accepted movie gets a
+ * ticket number and is put in a bounded, lock-free queue; a single background thread takes everything waiting
+ * in the queue, up to "batchSize" movies at a time, and writes it with one transaction (group commit), so the
+ * commit cost of the database is shared by all movies that arrived in the meantime. When the queue is full,
+ * new movies are refused, so the caller can tell the client to slow down.
+ * A batch that fails is written again movie by movie, so only the movies that cannot be stored fail.
+ * The thread comes from the managed thread factory, so the @Transactional repository runs in a transaction.
+ * When the application stops, the queue is closed and the thread writes everything still waiting before
+ * the bean is destroyed. The closed flag is a bit of the same counter that bounds the queue, so a movie is
+ * either refused or counted before the queue closes, and the writer only stops once that count is zero.
+ * The sizes are set with the system properties "movies.writeBehind.capacity" (default 10000),
+ * "movies.writeBehind.batchSize" (default 500) and "movies.writeBehind.shutdownMillis" (default 30000).
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@ApplicationScoped // Annotation of CDI bean, makes the class a singleton. Class can be injected into other classes.
+public class WriteBehindQueue {
+
+    private static final Logger LOGGER = Logger.getLogger(WriteBehindQueue.class.getName());
+
+    private static final int CAPACITY = Integer.getInteger("movies.writeBehind.capacity", 10000);
+    private static final int BATCH_SIZE = Integer.getInteger("movies.writeBehind.batchSize", 500);
+    private static final long SHUTDOWN_MILLIS = Long.getLong("movies.writeBehind.shutdownMillis", 30000);
+
+    /**
+     * Number of failed tickets remembered for the status endpoint.
+     */
+    private static final int MAX_FAILED_TICKETS = 1000;
+
+    /**
+     * The bit of 'depth' telling that the queue is closed.
+     */
+    private static final int CLOSED = 1 << 30;
+
+    @Inject // Annotation injects the repository the movies are written with.
+    private MovieRepository movieRepository;
+
+    private final Queue<Pending> queue = new ConcurrentLinkedQueue<>();
+    // Movies accepted and not yet written, which bounds the queue, plus the CLOSED bit.
+    private final AtomicInteger depth = new AtomicInteger();
+    private final Object ticketLock = new Object(); // Gives out a ticket and marks it pending as one step.
+    private long lastTicket; // Guarded by ticketLock.
+    private final Set<Long> pendingTickets = ConcurrentHashMap.newKeySet();
+    private final Map<Long, String> failedTickets = new ConcurrentHashMap<>();
+    private final Queue<Long> failedOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicLong lastForgottenFailure = new AtomicLong(); // The highest ticket whose error was dropped.
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private volatile int lastBatchRows;
+    private volatile long lastBatchMillis;
+    private Thread writer;
+
+    /**
+     * This method start() starts the writer thread when the bean is created. It is a managed thread: a plain
+     * thread has no transaction context, and every write of the repository would fail on it.
+     */
+
+    @PostConstruct // Annotation marks the method called after the bean is created and injected.
+    public void start() {
+        writer = ManagedExecutors.threadFactory("movies-write-behind").newThread(this::drain);
+        writer.start();
+    }
+
+    /**
+     * This method offer() accepts a movie for writing.
+     *
+     * @param movie The new movie.
+     * @return The ticket number of the movie, or -1 if the queue is full or closed.
+     */
+
+    public long offer(Movie movie) {
+        if (!reserve()) {
+            rejected.increment();
+            return -1;
+        }
+        long ticket;
+        synchronized (ticketLock) {
+            ticket = ++lastTicket;
+            pendingTickets.add(ticket);
+        }
+        queue.offer(new Pending(ticket, movie));
+        LockSupport.unpark(writer); // Wake the writer if it is waiting for work.
+        return ticket;
+    }
+
+    /**
+     * This method reserve() takes one place in the queue, unless it is full or closed.
+     */
+
+    private boolean reserve() {
+        while (true) {
+            int current = depth.get();
+            if ((current & CLOSED) != 0 || current >= CAPACITY) {
+                return false;
+            }
+            if (depth.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * This method getTicket() gets the state of a ticket.
+     *
+     * @param ticket The ticket number.
+     * @return The state of the ticket, or null if no such ticket was given out.
+     */
+
+    public IngestTicket getTicket(long ticket) {
+        if (ticket < 1 || ticket > lastTicket()) {
+            return null;
+        }
+        if (pendingTickets.contains(ticket)) {
+            return new IngestTicket(ticket, IngestTicket.State.PENDING, null);
+        }
+        String error = failedTickets.get(ticket);
+        if (error != null) {
+            return new IngestTicket(ticket, IngestTicket.State.FAILED, error);
+        }
+        if (ticket <= lastForgottenFailure.get()) {
+            // Written, or failed so long ago that the error is no longer remembered.
+            return new IngestTicket(ticket, IngestTicket.State.UNKNOWN, null);
+        }
+        return new IngestTicket(ticket, IngestTicket.State.WRITTEN, null);
+    }
+
+    private long lastTicket() {
+        synchronized (ticketLock) {
+            return lastTicket;
+        }
+    }
+
+    /**
+     * This method getStatus() gets the depth of the queue and how far the writer lags behind.
+     *
+     * @return The queue status.
+     */
+
+    public IngestStatus getStatus() {
+        Pending oldest = queue.peek();
+        long oldestMillis = oldest == null ? 0
+                : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldest.acceptedNanos);
+        int current = depth.get();
+        return new IngestStatus(CAPACITY, current & ~CLOSED, lastTicket(), written.sum(), failed.sum(),
+                rejected.sum(), oldestMillis, lastBatchRows, lastBatchMillis, (current & CLOSED) != 0);
+    }
+
+    /**
+     * This method drain() is the loop of the writer thread. It writes batches while there is work, and waits
+     * otherwise. Once the queue is closed, it returns when every accepted movie has been written, including
+     * those accepted just before the queue closed and not put in the queue yet.
+     */
+
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(BATCH_SIZE);
+        while (true) {
+            Pending next;
+            while (batch.size() < BATCH_SIZE && (next = queue.poll()) != null) {
+                batch.add(next);
+            }
+            if (!batch.isEmpty()) {
+                write(batch);
+                depth.addAndGet(-batch.size()); // Only now is the space free again.
+                batch.clear();
+            } else if (depth.get() == CLOSED) {
+                return; // Closed, and nothing accepted is left.
+            } else {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(100));
+            }
+        }
+    }
+
+    /**
+     * This method write() writes a batch in one transaction, or movie by movie if that fails.
+     */
+
+    private void write(List<Pending> batch) {
+        long start = System.nanoTime();
+        List<Movie> movies = new ArrayList<>(batch.size());
+        for (Pending pending : batch) {
+            movies.add(pending.movie);
+        }
+        try {
+            movieRepository.createMovies(movies);
+            written.add(batch.size());
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Write-behind batch of " + batch.size()
+                    + " movies failed, writing them one by one", e);
+            for (Pending pending : batch) {
+                try {
+                    movieRepository.createMovies(List.of(pending.movie));
+                    written.increment();
+                } catch (RuntimeException single) {
+                    fail(pending.ticket, single.getMessage() != null ? single.getMessage() : single.toString());
+                }
+            }
+        }
+        for (Pending pending : batch) {
+            pendingTickets.remove(pending.ticket);
+        }
+        lastBatchRows = batch.size();
+        lastBatchMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    /**
+     * This method fail() remembers the error of a ticket, forgetting the oldest errors beyond the limit.
+     */
+
+    private void fail(long ticket, String error) {
+        failed.increment();
+        failedTickets.put(ticket, error);
+        failedOrder.offer(ticket);
+        while (failedOrder.size() > MAX_FAILED_TICKETS) {
+            Long forgotten = failedOrder.poll();
+            failedTickets.remove(forgotten);
+            lastForgottenFailure.accumulateAndGet(forgotten, Math::max);
+        }
+    }
+
+    /**
+     * This method shutdown() closes the queue when the application stops and waits until the writer has
+     * written every accepted movie, or until "shutdownMillis" has passed.
+     */
+
+    @PreDestroy // Annotation marks the method called before the bean is destroyed.
+    public void shutdown() {
+        depth.getAndUpdate(current -> current | CLOSED);
+        LockSupport.unpark(writer);
+        try {
+            writer.join(SHUTDOWN_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int left = depth.get() & ~CLOSED;
+        if (writer.isAlive() || left > 0) {
+            LOGGER.severe("Write-behind queue stopped with " + left + " movies not written");
+        }
+    }
+
+    /**
+     * The Pending class is one accepted movie waiting in the queue.
+     */
+
+    private static final class Pending {
+
+        private final long ticket;
+        private final Movie movie;
+        private final long acceptedNanos = System.nanoTime();
+
+        private Pending(long ticket, Movie movie) {
+            this.ticket = ticket;
+            this.movie = movie;
+        }
+    }
+}
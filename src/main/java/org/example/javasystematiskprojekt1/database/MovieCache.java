@@ -0,0 +1,266 @@
+package org.example.javasystematiskprojekt1.database;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import org.example.javasystematiskprojekt1.model.CacheStats;
+import org.example.javasystematiskprojekt1.model.MovieChangeEvent;
+import org.example.javasystematiskprojekt1.model.MovieSnapshot;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The MovieCache class is a bounded, in-process read-through cache used by the 'MovieRepository' in front of
+ * the database. It keeps immutable MovieSnapshot copies, never managed entities, by id and by list page.
+ * Entries are evicted in least-recently-used order when the cache is full and expire after a time-to-live.
+ * Sizes and time-to-live are set with the system properties "movies.cache.maxEntries" (default 10000),
+ * "movies.cache.maxPages" (default 256) and "movies.cache.ttlSeconds" (default 300).
+ *
+ * Every write in the repository invalidates the affected entries right away and again once its transaction
+ * has completed. A generation counter, increased on every invalidation, stops a reader that loaded a row
+ * before the write from putting that old row back into the cache afterwards.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@ApplicationScoped // Annotation of CDI bean, makes the class a singleton. Class can be injected into other classes.
+public class MovieCache {
+
+    private static final int MAX_ENTRIES = Integer.getInteger("movies.cache.maxEntries", 10_000);
+    private static final int MAX_PAGES = Integer.getInteger("movies.cache.maxPages", 256);
+    private static final long TTL_NANOS = TimeUnit.SECONDS.toNanos(Long.getLong("movies.cache.ttlSeconds", 300));
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final AtomicLong generation = new AtomicLong();
+
+    private final Map<Long, Entry<MovieSnapshot>> movies = lruMap(MAX_ENTRIES);
+    private final Map<PageKey, Entry<List<MovieSnapshot>>> pages = lruMap(MAX_PAGES);
+
+    /**
+     * This method generation() gets the current generation of the cache. Read it before loading from the
+     * database and pass it to the put methods.
+     *
+     * @return The current generation(long).
+     */
+
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * This method getMovie() looks up a movie by id.
+     *
+     * @param id The id of the movie.
+     * @return The cached snapshot, or null on a miss.
+     */
+
+    public MovieSnapshot getMovie(Long id) {
+        MovieSnapshot movie;
+        synchronized (movies) {
+            movie = value(movies, id);
+        }
+        count(movie);
+        return movie;
+    }
+
+    /**
+     * This method putMovie() stores a movie loaded from the database, unless the cache has been invalidated
+     * since the load started.
+     *
+     * @param movie The snapshot of the loaded movie.
+     * @param readGeneration The generation read before the movie was loaded.
+     */
+
+    public void putMovie(MovieSnapshot movie, long readGeneration) {
+        synchronized (movies) {
+            if (generation.get() == readGeneration) {
+                movies.put(movie.getId(), new Entry<>(movie));
+            }
+        }
+    }
+
+    /**
+     * This method getPage() looks up a list page by its cursor and size.
+     *
+     * @param afterId The cursor of the page.
+     * @param limit The size of the page.
+     * @return The cached page, or null on a miss.
+     */
+
+    public List<MovieSnapshot> getPage(Long afterId, int limit) {
+        List<MovieSnapshot> page;
+        synchronized (pages) {
+            page = value(pages, new PageKey(afterId, limit));
+        }
+        count(page);
+        return page;
+    }
+
+    /**
+     * This method putPage() stores a list page loaded from the database, unless the cache has been
+     * invalidated since the load started.
+     *
+     * @param afterId The cursor of the page.
+     * @param limit The size of the page.
+     * @param page The snapshots of the movies in the page.
+     * @param readGeneration The generation read before the page was loaded.
+     */
+
+    public void putPage(Long afterId, int limit, List<MovieSnapshot> page, long readGeneration) {
+        synchronized (pages) {
+            if (generation.get() == readGeneration) {
+                pages.put(new PageKey(afterId, limit), new Entry<>(List.copyOf(page)));
+            }
+        }
+    }
+
+    /**
+     * This method invalidate() removes the entries a change makes out of date. A new movie only changes the
+     * list pages, an updated or deleted movie also its own entry, and a bulk change everything.
+     *
+     * @param event The change.
+     */
+
+    public void invalidate(MovieChangeEvent event) {
+        generation.incrementAndGet();
+        if (event.getType() == MovieChangeEvent.Type.BULK) {
+            synchronized (movies) {
+                movies.clear();
+            }
+        } else if (event.getType() != MovieChangeEvent.Type.CREATED) {
+            synchronized (movies) {
+                movies.remove(event.getId());
+            }
+        }
+        synchronized (pages) {
+            pages.clear(); // Any change can move movies between pages.
+        }
+    }
+
+    /**
+     * This method onMovieChange() invalidates the cache again once the transaction of a change has completed,
+     * so entries loaded while the transaction was still open are not kept.
+     *
+     * @param event The change fired by the 'MovieRepository'.
+     */
+
+    public void onMovieChange(@Observes(during = TransactionPhase.AFTER_COMPLETION) MovieChangeEvent event) {
+        invalidate(event);
+    }
+
+    /**
+     * This method getStats() gets the current counters of the cache.
+     *
+     * @return The cache statistics.
+     */
+
+    public CacheStats getStats() {
+        int entries;
+        int pageEntries;
+        synchronized (movies) {
+            entries = movies.size();
+        }
+        synchronized (pages) {
+            pageEntries = pages.size();
+        }
+        return new CacheStats(entries, MAX_ENTRIES, pageEntries, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    /**
+     * This method value() gets a value from one of the maps, dropping it if it has expired.
+     * The caller must hold the lock of the map.
+     */
+
+    private <K, V> V value(Map<K, Entry<V>> map, K key) {
+        Entry<V> entry = map.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (System.nanoTime() - entry.createdNanos > TTL_NANOS) {
+            map.remove(key);
+            evictions.increment();
+            return null;
+        }
+        return entry.value;
+    }
+
+    /**
+     * This method count() counts a lookup as a hit or a miss.
+     */
+
+    private void count(Object value) {
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+    }
+
+    /**
+     * This method lruMap() creates a map in access order that drops its least recently used entry
+     * when it grows beyond the given size.
+     */
+
+    private <K, V> Map<K, V> lruMap(int maxSize) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * The Entry class is a cached value with the time it was stored.
+     */
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long createdNanos = System.nanoTime();
+
+        private Entry(V value) {
+            this.value = value;
+        }
+    }
+
+    /**
+     * The PageKey class identifies a list page by its cursor and size.
+     */
+
+    private static final class PageKey {
+        private final Long afterId;
+        private final int limit;
+
+        private PageKey(Long afterId, int limit) {
+            this.afterId = afterId;
+            this.limit = limit;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof PageKey)) {
+                return false;
+            }
+            PageKey key = (PageKey) other;
+            return limit == key.limit && Objects.equals(afterId, key.afterId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(afterId) + limit;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.javasystematiskprojekt1.database;
+
+import org.eclipse.persistence.config.SessionCustomizer;
+import org.eclipse.persistence.descriptors.ClassDescriptor;
+import org.eclipse.persistence.descriptors.invalidation.TimeToLiveCacheInvalidationPolicy;
+import org.eclipse.persistence.internal.identitymaps.SoftCacheWeakIdentityMap;
+import org.eclipse.persistence.sessions.Session;
+import org.example.javasystematiskprojekt1.model.Movie;
+
+import java.util.logging.Logger;
+
+/**
+ * The MovieCacheCustomizer class sets up the JPA shared (second-level) cache of the Movie entity when
+ * EclipseLink creates the session of the persistence unit (see "eclipselink.session.customizer" in
+ * persistence.xml). The cache is SOFT_WEAK: the most recently used movies are held strongly, older ones only
+ * until the garbage collector needs the memory. A cached movie expires after a time to live, so changes made
+ * outside the application are picked up.
+ * The size and the time to live are read from the persistence unit properties "movies.cache.size" (default
+ * 10000) and "movies.cache.expiryMillis" (default 300000), and a system property of the same name overrides
+ * them for one deployment.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+public class MovieCacheCustomizer implements SessionCustomizer {
+
+    private static final Logger LOGGER = Logger.getLogger(MovieCacheCustomizer.class.getName());
+
+    static final String SIZE = "movies.cache.size";
+    static final String EXPIRY_MILLIS = "movies.cache.expiryMillis";
+
+    private static final int DEFAULT_SIZE = 10000;
+    private static final long DEFAULT_EXPIRY_MILLIS = 300000;
+
+    /**
+     * This method customize() sets the type, size and time to live of the cache of the Movie entity.
+     *
+     * @param session The session of the persistence unit, not yet logged in.
+     * @throws IllegalArgumentException If the size or the time to live is not a positive number.
+     */
+
+    @Override // Annotation overrides the method of the SessionCustomizer interface.
+    public void customize(Session session) {
+        ClassDescriptor descriptor = session.getDescriptor(Movie.class);
+        if (descriptor == null) {
+            return; // The persistence unit does not manage movies.
+        }
+        long size = property(session, SIZE, DEFAULT_SIZE);
+        long expiryMillis = property(session, EXPIRY_MILLIS, DEFAULT_EXPIRY_MILLIS);
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(SIZE + " must be at most " + Integer.MAX_VALUE + ": " + size);
+        }
+        descriptor.setIdentityMapClass(SoftCacheWeakIdentityMap.class);
+        descriptor.setIdentityMapSize((int) size);
+        descriptor.setCacheInvalidationPolicy(new TimeToLiveCacheInvalidationPolicy(expiryMillis));
+        LOGGER.info("The shared cache of movies holds " + size + " movies strongly, each for " + expiryMillis
+                + " ms");
+    }
+
+    /**
+     * This method property() reads a positive number from the system properties, or else from the properties
+     * of the persistence unit.
+     *
+     * @param session The session holding the properties of the persistence unit.
+     * @param name The name of the property.
+     * @param defaultValue The value used when neither sets the property.
+     * @return The value of the property(long).
+     * @throws IllegalArgumentException If the value is not a positive number.
+     */
+
+    private static long property(Session session, String name, long defaultValue) {
+        Object value = System.getProperty(name);
+        if (value == null) {
+            value = session.getProperty(name);
+        }
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            long parsed = Long.parseLong(value.toString().trim());
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below.
+        }
+        throw new IllegalArgumentException(name + " must be a positive number: " + value);
+    }
+}
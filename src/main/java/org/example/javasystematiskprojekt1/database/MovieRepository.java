@@ -1,13 +1,34 @@
 package org.example.javasystematiskprojekt1.database;
 
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Event;
+import jakarta.inject.Inject;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PersistenceException;
 import jakarta.persistence.Query;
+import jakarta.persistence.TypedQuery;
 import jakarta.transaction.Transactional;
+import org.example.javasystematiskprojekt1.jdbc.ApplicationDataSource;
+import org.example.javasystematiskprojekt1.metrics.Timed;
 import org.example.javasystematiskprojekt1.model.Movie;
+import org.example.javasystematiskprojekt1.model.MovieChangeEvent;
+import org.example.javasystematiskprojekt1.model.MovieSnapshot;
 
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 /**
  * The MovieRepository class represents the controller class of the MVC(Model-View-Controller) Design Pattern.
@@ -20,46 +41,295 @@ import java.util.List;
  */
 
 @ApplicationScoped // Annotation of CDI bean, makes the class a singleton. Class can be injected into other classes.
+@Timed // Annotation makes the TimedInterceptor record how long every method call takes.
 @Transactional // Annotation ensures that the methods within the class are executed in a transactional context.
 // The transaction will be committed if a method executes successfully and rolled back if an exception is thrown.
 public class MovieRepository {
     @PersistenceContext // Annotation injects an EntityManager instance, which is used to interact with the database
     private EntityManager entityManager;
 
+    @Inject // Annotation injects the data source used for plain JDBC reads that should not build entities.
+    private ApplicationDataSource dataSource;
+
+    @Inject // Annotation injects the read-through cache kept in front of the database.
+    private MovieCache movieCache;
+
+    @Inject // Annotation injects the router that sends reads to read replicas or shards, when configured.
+    private ReadRouter readRouter;
+
+    @Inject // Annotation injects the JPA shared cache settings and counters.
+    private SharedCache sharedCache;
+
+    @Inject // Annotation injects the CDI event used to announce every change to the movies.
+    private Event<MovieChangeEvent> movieEvents;
+
+    /**
+     * EclipseLink query hint setting the number of rows the JDBC driver fetches per round trip.
+     */
+    private static final String FETCH_SIZE_HINT = "eclipselink.jdbc.fetch-size";
+
+    /**
+     * EclipseLink query hint that binds every parameter. On Derby, EclipseLink otherwise writes the values of a
+     * bulk statement holding arithmetic or a literal comparison into its SQL, so Derby compiles it anew each time.
+     */
+    private static final String BIND_PARAMETERS_HINT = "eclipselink.jdbc.bind-parameters";
+
+    /**
+     * Pattern of the access paths in Derby's runtime statistics: an index or constraint, or a table scan.
+     */
+    private static final Pattern ACCESS_PATH =
+            Pattern.compile("using (?:index|constraint) (\\S+)|Table Scan ResultSet for MOVIEDATA");
+
+    /**
+     * This method findMoviesAfter() retrieves one page of movies ordered by id, starting after the given id.
+     * It's publicly accessible. Pages are served from the 'MovieCache' when possible and loaded with
+     * scanMoviesAfter() otherwise.
+     *
+     * @param afterId The id of the last movie on the previous page, or null to start from the first movie.
+     * @param limit The maximum number of movies in the page.
+     * @return A list of at most 'limit' Movie objects with ids greater than afterId, in ascending id order.
+     */
+
+    @Transactional(Transactional.TxType.SUPPORTS) // Reads do not start a transaction of their own.
+    public List<Movie> findMoviesAfter(Long afterId, int limit) {
+        List<MovieSnapshot> cached = movieCache.getPage(afterId, limit);
+        if (cached == null) {
+            long generation = movieCache.generation(); // Read before loading, see MovieCache.
+            List<Movie> movies = scanMoviesAfter(afterId, limit);
+            cached = movies.stream().map(MovieSnapshot::of).collect(Collectors.toList());
+            movieCache.putPage(afterId, limit, cached, generation);
+        }
+        // Every caller gets its own Movie objects, so the cached snapshots are never changed.
+        return cached.stream().map(MovieSnapshot::toMovie).collect(Collectors.toList());
+    }
+
+    /**
+     * This method scanMoviesAfter() reads one page of movies ordered by id, starting after the given id,
+     * without going through the 'MovieCache'. Used to walk the whole table.
+     * It's publicly accessible. This is keyset (cursor) pagination: the database seeks straight to the cursor
+     * through the primary key index instead of skipping rows, so every page costs the same however deep it is.
+     * With read replicas or shards configured, the page is read from them (see 'ReadRouter').
+     *
+     * @param afterId The id of the last movie on the previous page, or null to start from the first movie.
+     * @param limit The maximum number of movies in the page.
+     * @return A list of at most 'limit' Movie objects with ids greater than afterId, in ascending id order.
+     */
+
+    @Transactional(Transactional.TxType.SUPPORTS) // Reads do not start a transaction of their own.
+    public List<Movie> scanMoviesAfter(Long afterId, int limit) {
+        if (readRouter.isActive()) {
+            List<Movie> routed = readRouter.scanMoviesAfter(afterId, limit);
+            if (routed != null) {
+                return routed; // Return the page read from the replicas or shards
+            }
+        }
+        // The named SQL query that seeks past the cursor and orders by the primary key. Its pages are kept in the
+        // query results cache of EclipseLink, which the 'SharedCache' empties on every change.
+        TypedQuery<Movie> query = sharedCache.apply(entityManager.createNamedQuery("Movie.scanAfter", Movie.class));
+        // No cursor means the page starts from the lowest possible id.
+        query.setParameter(1, afterId == null ? Long.MIN_VALUE : afterId);
+        query.setParameter(2, limit); // Only the rows of this page are read from the database.
+        // The whole page in one round trip, unless it is larger than the configured fetch size.
+        query.setHint(FETCH_SIZE_HINT, Math.max(1, Math.min(limit, ApplicationDataSource.FETCH_SIZE)));
+        return query.getResultList(); // Return the page
+    }
+
+    /**
+     * This method countMovies() counts all movies in the database.
+     * It's publicly accessible.
+     *
+     * @return The number of movies(long).
+     */
+
+    @Transactional(Transactional.TxType.SUPPORTS) // Reads do not start a transaction of their own.
+    public long countMovies() {
+        return entityManager.createNamedQuery("Movie.count", Long.class).getSingleResult();
+    }
+
+    /**
+     * This method warmUpQueries() prepares the named queries of the 'Movie' entity before the first requests
+     * need them: each is created, which parses it if the persistence unit has not done so yet, and the
+     * reading queries are run once, so their SQL is generated and their statements prepared. The
+     * "Movie.deleteById" query is only created, as it writes.
+     * It's publicly accessible.
+     *
+     * @return The number of named queries prepared(int).
+     */
+
+    @Transactional(Transactional.TxType.SUPPORTS) // Reads do not start a transaction of their own.
+    public int warmUpQueries() {
+        entityManager.createNamedQuery("Movie.scanAfter", Movie.class)
+                .setParameter(1, Long.MIN_VALUE)
+                .setParameter(2, 1)
+                .getResultList();
+        entityManager.createNamedQuery("Movie.scanStatsColumnsAfter", Object[].class)
+                .setParameter("afterId", Long.MIN_VALUE)
+                .setMaxResults(1)
+                .getResultList();
+        entityManager.createNamedQuery("Movie.count", Long.class).getSingleResult();
+        entityManager.createNamedQuery("Movie.deleteById");
+        return 4;
+    }
+
+    /**
+     * This method countMoviesBy() counts the movies per value of one attribute in the database.
+     * It's publicly accessible. The grouping and counting is done by Derby, and only one value and one count
+     * per group are read back, so no Movie entities are created however many movies there are.
+     *
+     * @param dimension The attribute to group by.
+     * @param limit The maximum number of groups returned.
+     * @return The number of movies per value, from the most to the least common; movies without a value are
+     * counted under the empty string.
+     */
+
+    @Transactional(Transactional.TxType.SUPPORTS) // Reads do not start a transaction of their own.
+    public Map<String, Long> countMoviesBy(StatsDimension dimension, int limit) {
+        // A JPQL aggregation with scalar results: the property comes from the fixed list of dimensions.
+        String property = "m." + dimension.getProperty();
+        List<Object[]> rows = entityManager.createQuery("select " + property + ", count(m) as movies "
+                        + "from Movie m group by " + property + " order by movies desc, " + property, Object[].class)
+                .setMaxResults(limit)
+                .getResultList();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            counts.merge(row[0] != null ? row[0].toString() : "", ((Number) row[1]).longValue(), Long::sum);
+        }
+        return counts; // Return the counts in query order
+    }
+
     /**
-     * This method findAllMovies() Retrieves a list of all movies from the database.
+     * This method scanStatsColumnsAfter() reads the id, genre, director and release year of one page of movies
+     * ordered by id, starting after the given id. Only these four columns are read, as scalar values.
      * It's publicly accessible.
      *
-     * @return A list of Movie objects.
+     * @param afterId The id of the last movie of the previous page, or null to start from the first movie.
+     * @param limit The maximum number of movies in the page.
+     * @return One array of id, genre, director and release year per movie, in ascending id order.
      */
 
-    public List<Movie> findAllMovies() {
-        // A native SQL query to select all records from the table 'movieData'.
-        String sql = "select * from movieData";
-        // Create a native query using 'EntityManager'.
-        Query query = entityManager.createNativeQuery(sql, Movie.class);
-        // Create a 'movies' List of all the movie data as a result of the query.
-        List<Movie> movies = query.getResultList();
-        return movies; // Return 'movies' List
+    @Transactional(Transactional.TxType.SUPPORTS) // Reads do not start a transaction of their own.
+    public List<Object[]> scanStatsColumnsAfter(Long afterId, int limit) {
+        return entityManager.createNamedQuery("Movie.scanStatsColumnsAfter", Object[].class)
+                .setParameter("afterId", afterId == null ? Long.MIN_VALUE : afterId)
+                .setMaxResults(limit)
+                .getResultList();
     }
 
     /**
-     * This method findMovieById() finds a movie in the Derby database by id.
+     * This method findMovieById() finds a movie by id, in the 'MovieCache', a read replica or shard, or else in the
+     * Derby database.
      * It's publicly accessible.
      *
      * @param id The id of the movie to find.
      * @return A Movie object if found, or null if not found.
      */
 
+    @Transactional(Transactional.TxType.SUPPORTS) // A cache hit does not need a transaction.
     public Movie findMovieById(Long id) {
-        // Use of the EntityManager to find a Movie object by its id.
-        Movie movieFound = entityManager.find(Movie.class, id);
+        MovieSnapshot cached = movieCache.getMovie(id);
+        if (cached != null) {
+            return cached.toMovie(); // Return a copy of the cached movie
+        }
+        long generation = movieCache.generation(); // Read before loading, see MovieCache.
+        Movie movieFound = readRouter.isActive() ? readRouter.findMovieById(id) : null;
+        if (movieFound == null) {
+            sharedCache.recordLookup(id);
+            // Use of the EntityManager to find a Movie object by its id, in the shared cache or the database.
+            movieFound = entityManager.find(Movie.class, id, sharedCache.findProperties());
+        }
+        if (movieFound != null) {
+            movieCache.putMovie(MovieSnapshot.of(movieFound), generation);
+        }
         return movieFound; // Return the Movie object desired or null if not found.
     }
 
+    /**
+     * This method searchMovies() finds the movies matching a search, in the requested order and page.
+     * It's publicly accessible. With read replicas or shards configured, it runs on them (see 'ReadRouter').
+     *
+     * @param search The filters, sort order and page of the search.
+     * @return A list of the matching Movie objects.
+     */
+
+    @Transactional(Transactional.TxType.SUPPORTS) // Reads do not start a transaction of their own.
+    public List<Movie> searchMovies(MovieSearch search) {
+        if (readRouter.isActive()) {
+            List<Movie> routed = readRouter.searchMovies(search);
+            if (routed != null) {
+                return routed; // Return the matches found in the replicas or shards
+            }
+        }
+        // A native SQL query, mapped to Movie entities, with every value bound as a parameter.
+        Query query = sharedCache.apply(entityManager.createNativeQuery(search.getSql(), Movie.class));
+        List<Object> parameters = search.getParameters();
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter(i + 1, parameters.get(i));
+        }
+        // The query was created with the Movie result class, so every element is a Movie.
+        @SuppressWarnings("unchecked") List<Movie> movies = query.getResultList();
+        return movies; // Return the matching movies
+    }
+
+    /**
+     * This method explainSearch() runs a search with Derby's runtime statistics switched on and reports how
+     * Derby accessed the 'movieData' table: the names of the indexes it used, or "TABLE SCAN".
+     * It's publicly accessible. The search runs a second time, so this is only meant for diagnostics.
+     *
+     * @param search The filters, sort order and page of the search.
+     * @return The access paths used by the search(String), separated by commas.
+     */
+
+    @Transactional(Transactional.TxType.SUPPORTS) // Reads do not start a transaction of their own.
+    public String explainSearch(MovieSearch search) {
+        try (Connection connection = dataSource.get().getConnection()) {
+            // Runtime statistics are collected per connection, so everything runs on this one.
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("call SYSCS_UTIL.SYSCS_SET_RUNTIMESTATISTICS(1)");
+            }
+            try {
+                try (PreparedStatement statement = connection.prepareStatement(search.getSql())) {
+                    List<Object> parameters = search.getParameters();
+                    for (int i = 0; i < parameters.size(); i++) {
+                        statement.setObject(i + 1, parameters.get(i));
+                    }
+                    try (ResultSet resultSet = statement.executeQuery()) {
+                        while (resultSet.next()) {
+                            // Statistics are complete once every row has been read.
+                        }
+                    }
+                }
+                try (Statement statement = connection.createStatement();
+                     ResultSet resultSet = statement.executeQuery(
+                             "values SYSCS_UTIL.SYSCS_GET_RUNTIMESTATISTICS()")) {
+                    return resultSet.next() ? accessPaths(resultSet.getString(1)) : "UNKNOWN";
+                }
+            } finally {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("call SYSCS_UTIL.SYSCS_SET_RUNTIMESTATISTICS(0)");
+                }
+            }
+        } catch (SQLException e) {
+            throw new PersistenceException("Explaining the movie search failed", e);
+        }
+    }
+
+    /**
+     * This method accessPaths() picks the index and table scans out of Derby's runtime statistics text.
+     */
+
+    private static String accessPaths(String statistics) {
+        Set<String> paths = new LinkedHashSet<>();
+        Matcher matcher = ACCESS_PATH.matcher(statistics == null ? "" : statistics);
+        while (matcher.find()) {
+            paths.add(matcher.group(1) != null ? matcher.group(1) : "TABLE SCAN");
+        }
+        return paths.isEmpty() ? "UNKNOWN" : String.join(",", paths);
+    }
+
     /**
      * This method createMovie() creates a new Movie entity in the database.
      * It's publicly accessible.
+     * The insert is flushed right away, so the announced change carries the version the movie was stored with.
      *
      * @param movie A Movie object to be created.
      */
@@ -67,31 +337,188 @@ public class MovieRepository {
     public void createMovie(Movie movie) {
         // Use of the EntityManager to persist(save) a Movie entity to the database.
         entityManager.persist(movie);
+        entityManager.flush(); // Write the insert, which sets the stored version.
+        changed(MovieChangeEvent.created(movie));
+    }
+
+    /**
+     * This method createMovies() creates a chunk of new Movie entities in one transaction.
+     * It's publicly accessible.
+     * The inserts are sent to the database as JDBC batches (see 'eclipselink.jdbc.batch-writing' in
+     * persistence.xml) when the chunk is flushed, and the persistence context is cleared afterwards so
+     * the managed entities of a chunk do not pile up in memory.
+     *
+     * @param movies The Movie objects to be created.
+     * @return The number of movies created.
+     */
+
+    public int createMovies(List<Movie> movies) {
+        for (Movie movie : movies) {
+            // Imported movies are always new rows: ignore any id or version sent by the client.
+            movie.setId(null);
+            movie.setVersion(null);
+            entityManager.persist(movie);
+        }
+        entityManager.flush(); // Write the batched inserts to the database.
+        for (Movie movie : movies) {
+            changed(MovieChangeEvent.created(movie)); // Now with the version each movie was stored with.
+        }
+        entityManager.clear(); // Detach the written entities so the chunk can be garbage collected.
+        return movies.size(); // Return the number of created movies
     }
 
     /**
      * This method updateMovieById() updates the existing data of a movie in the database.
      * It's publicly accessible.
+     * The update is a single JPQL UPDATE statement on the primary key, so its cost does not depend on the
+     * size of the table. If the updated movie carries a version, the row is only changed when the stored
+     * version still matches it (optimistic locking); the version is increased on every successful update.
+     * The stored version is read back within the same transaction, which still holds the lock on the row, and
+     * announced with the change.
      *
-     * @param movie A Movie object with updated details.
+     * @param id The id of the movie to be updated.
+     * @param movie A Movie object with updated details and, optionally, the version it was read at.
+     * @return The number of rows updated: 1 if the movie was updated, 0 if it was not found or
+     * its version did not match.
      */
 
-    public void updateMovieById(Movie movie) {
-        // Use of the EntityManager to merge(update) a Movie object in the database.
-        entityManager.merge(movie);
+    public int updateMovieById(Long id, Movie movie) {
+        // A JPQL bulk update that changes one row and increases its version.
+        String jpql = "update Movie m set m.movieTitle = :title, m.movieDirector = :director, "
+                + "m.releaseYear = :releaseYear, m.movieGenre = :genre, m.moviePlot = :plot, "
+                + "m.version = coalesce(m.version, 0) + 1 where m.id = :id";
+        // Only match the version the client read, when it sent one.
+        if (movie.getVersion() != null) {
+            jpql += " and m.version = :version";
+        }
+        Query query = entityManager.createQuery(jpql)
+                .setParameter("title", movie.getMovieTitle())
+                .setParameter("director", movie.getMovieDirector())
+                .setParameter("releaseYear", movie.getReleaseYear())
+                .setParameter("genre", movie.getMovieGenre())
+                .setParameter("plot", movie.getMoviePlot())
+                .setParameter("id", id)
+                .setHint(BIND_PARAMETERS_HINT, true); // One compiled statement for every update.
+        if (movie.getVersion() != null) {
+            query.setParameter("version", movie.getVersion());
+        }
+        int updatedRows = query.executeUpdate();
+        if (updatedRows > 0) {
+            Long version = entityManager.createNamedQuery("Movie.versionById", Long.class)
+                    .setParameter("id", id)
+                    .getSingleResult();
+            changed(MovieChangeEvent.updated(id, movie, version));
+        }
+        return updatedRows; // Return the number of updated rows
     }
 
     /**
      * This method deleteMovieById() deletes a movie by its ID from the database.
      * It's publicly accessible.
+     * The movie is deleted with a single JPQL DELETE statement, without loading it first.
      *
      * @param id The ID of the movie to be deleted.
+     * @return The number of rows deleted: 1 if the movie was deleted, 0 if it was not found.
+     */
+
+    public int deleteMovieById(Long id) {
+        // Use of a JPQL bulk delete to remove the row with the given ID.
+        int deletedRows = entityManager.createNamedQuery("Movie.deleteById")
+                .setParameter("id", id)
+                .executeUpdate();
+        if (deletedRows > 0) {
+            changed(MovieChangeEvent.deleted(id));
+        }
+        return deletedRows; // Return the number of deleted rows
+    }
+
+    /**
+     * This method deleteMovies() deletes all movies matching the given filters in one set-based statement.
+     * It's publicly accessible. The filters are combined with "and"; a filter that is null is not applied.
+     *
+     * @param genre The genre of the movies to be deleted, or null for any genre.
+     * @param releasedBefore Only movies released before this year are deleted, or null for any year.
+     * @return The number of rows deleted.
+     */
+
+    public int deleteMovies(String genre, Integer releasedBefore) {
+        // Build the JPQL delete from the filters that were given.
+        StringBuilder jpql = new StringBuilder("delete from Movie m where 1 = 1");
+        if (genre != null) {
+            jpql.append(" and m.movieGenre = :genre");
+        }
+        if (releasedBefore != null) {
+            jpql.append(" and m.releaseYear < :releasedBefore");
+        }
+        Query query = entityManager.createQuery(jpql.toString())
+                .setHint(BIND_PARAMETERS_HINT, true); // Bind the filters, despite the literal "1 = 1".
+        if (genre != null) {
+            query.setParameter("genre", genre);
+        }
+        if (releasedBefore != null) {
+            query.setParameter("releasedBefore", releasedBefore);
+        }
+        int deletedRows = query.executeUpdate();
+        if (deletedRows > 0) {
+            // The deleted ids are not known one by one, only the filters they matched.
+            changed(MovieChangeEvent.deletedMatching(genre, releasedBefore));
+        }
+        return deletedRows; // Return the number of deleted rows
+    }
+
+    /**
+     * This method exportMovies() reads every row of the 'movieData' table in id order from a forward-only,
+     * read-only JDBC cursor and hands each row to the handler. No Movie entities are created, and the
+     * driver fetches the rows in batches, so memory use does not grow with the size of the table.
+     * It's publicly accessible. The handler may be as slow as the client it writes to, so no JTA transaction
+     * is held while it runs: the rows are read on a read-only connection in auto-commit mode.
+     *
+     * @param handler The handler that receives each row.
+     * @return The number of rows exported.
+     * @throws IOException If the handler fails to write a row.
+     */
+
+    @Transactional(Transactional.TxType.SUPPORTS) // Annotation keeps the export out of a transaction of its own.
+    public long exportMovies(MovieRowHandler handler) throws IOException {
+        String sql = "select ID, MOVIETITLE, MOVIEDIRECTOR, RELEASEYEAR, MOVIEGENRE, MOVIEPLOT, VERSION "
+                + "from movieData order by ID";
+        try (Connection connection = dataSource.get().getConnection()) {
+            boolean readOnly = connection.isReadOnly();
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setReadOnly(true);
+            connection.setAutoCommit(true); // No transaction stays open while the client reads.
+            try (PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                statement.setFetchSize(ApplicationDataSource.FETCH_SIZE); // Rows fetched per round trip.
+                long rows = 0;
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next()) {
+                        handler.handle(resultSet);
+                        rows++;
+                    }
+                }
+                return rows; // Return the number of exported rows
+            } finally {
+                // The connection goes back to the pool as it came.
+                connection.setAutoCommit(autoCommit);
+                connection.setReadOnly(readOnly);
+            }
+        } catch (SQLException e) {
+            throw new PersistenceException("Export of movieData failed", e);
+        }
+    }
+
+    /**
+     * This method changed() announces a change to the movies. The 'MovieCache' and the JPA shared cache are
+     * invalidated at once, and the change is fired as a CDI event, which transactional observers receive when
+     * the transaction completes.
+     *
+     * @param event The change.
      */
 
-    public void deleteMovieById(Long id) {
-        // Use of the EntityManager to find a Movie object by its ID.
-        Movie movieToDelete = entityManager.find(Movie.class, id);
-        // Use of the EntityManager to remove the found Movie object from the database.
-        entityManager.remove(movieToDelete);
+    private void changed(MovieChangeEvent event) {
+        movieCache.invalidate(event);
+        sharedCache.evict(event);
+        movieEvents.fire(event);
     }
 }
@@ -0,0 +1,28 @@
+package org.example.javasystematiskprojekt1.database;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * The MovieRowHandler interface receives the rows of the 'movieData' table one at a time while they are read
+ * from a JDBC cursor, without building Movie entities. The columns of each row are, in order:
+ * ID, MOVIETITLE, MOVIEDIRECTOR, RELEASEYEAR, MOVIEGENRE, MOVIEPLOT and VERSION.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@FunctionalInterface // Annotation marks an interface with a single method, so it can be implemented by a lambda.
+public interface MovieRowHandler {
+
+    /**
+     * This method handle() is called once for every row, with the cursor positioned on that row.
+     *
+     * @param row The result set positioned on the current row.
+     * @throws SQLException If a column cannot be read.
+     * @throws IOException If the row cannot be written out.
+     */
+
+    void handle(ResultSet row) throws SQLException, IOException;
+}
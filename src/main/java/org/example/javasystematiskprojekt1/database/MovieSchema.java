@@ -0,0 +1,137 @@
+package org.example.javasystematiskprojekt1.database;
+
+import jakarta.annotation.Resource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import org.example.javasystematiskprojekt1.model.Movie;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * The MovieSchema class brings an existing 'movieData' table up to date with the indexes declared on the Movie
+ * entity. EclipseLink's "create-or-extend-tables" only creates indexes together with a new table, so a
+ * database created before the indexes were declared would never get them. At startup (see 'StartupWarmup')
+ * the indexes of the table are read from Derby's catalog, SYS.SYSCONGLOMERATES, and the missing ones are
+ * created. The statements are built from the @Index annotations of the entity, so the two cannot drift apart.
+ * Indexes named like those of the entity ("IDX_MOVIE_...") that it no longer declares, such as the single
+ * column indexes the composite ones replaced, are then dropped, since every write has to maintain them.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@ApplicationScoped // Annotation of CDI bean, makes the class a singleton. Class can be injected into other classes.
+public class MovieSchema {
+
+    private static final Logger LOGGER = Logger.getLogger(MovieSchema.class.getName());
+
+    /**
+     * The indexes declared on the Movie entity, by name in upper case as Derby's catalog holds it, with the
+     * statement creating each. Also used by the 'MovieStore' for the tables of the replicas and shards.
+     */
+    static final Map<String, String> INDEXES = declaredIndexes(Movie.class);
+
+    /**
+     * The beginning of the names of the indexes this class manages.
+     */
+    private static final String MANAGED_PREFIX = "IDX_MOVIE_";
+
+    /**
+     * The names of the indexes on the 'movieData' table of the current schema.
+     */
+    private static final String EXISTING_INDEXES = "select c.CONGLOMERATENAME from SYS.SYSCONGLOMERATES c "
+            + "join SYS.SYSTABLES t on c.TABLEID = t.TABLEID "
+            + "join SYS.SYSSCHEMAS s on t.SCHEMAID = s.SCHEMAID "
+            + "where c.ISINDEX and t.TABLENAME = 'MOVIEDATA' and s.SCHEMANAME = CURRENT SCHEMA";
+
+    @Resource(lookup = "jdbc/__default") // Annotation injects the same data source the persistence unit uses.
+    private DataSource dataSource;
+
+    /**
+     * This method declaredIndexes() builds the statements creating the indexes declared in the @Table
+     * annotation of an entity. The column list of an @Index is written in SQL already ("column [ASC|DESC]",
+     * separated by commas), so it is used as it is.
+     *
+     * @param entity The entity class.
+     * @return The statement creating every index, by index name in upper case.
+     */
+
+    static Map<String, String> declaredIndexes(Class<?> entity) {
+        Table table = entity.getAnnotation(Table.class);
+        Map<String, String> indexes = new LinkedHashMap<>();
+        for (Index index : table.indexes()) {
+            indexes.put(index.name().toUpperCase(Locale.ROOT), "create " + (index.unique() ? "unique " : "")
+                    + "index " + index.name() + " on " + table.name() + " (" + index.columnList() + ")");
+        }
+        return indexes;
+    }
+
+    /**
+     * This method updateIndexes() creates the declared indexes the 'movieData' table does not have and drops
+     * the ones no longer declared.
+     *
+     * @return The number of indexes created.
+     * @throws IllegalStateException If the catalog cannot be read or an index cannot be created or dropped.
+     */
+
+    public int updateIndexes() {
+        try (Connection connection = dataSource.getConnection()) {
+            return updateIndexes(connection);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Updating the indexes of movieData failed", e);
+        }
+    }
+
+    /**
+     * This method updateIndexes() updates the indexes on the given connection. The missing indexes are
+     * created before the old ones are dropped, so the queries are never left without an index.
+     *
+     * @param connection A connection to the database holding the 'movieData' table.
+     * @return The number of indexes created.
+     * @throws SQLException If the catalog cannot be read or an index cannot be created or dropped.
+     */
+
+    static int updateIndexes(Connection connection) throws SQLException {
+        Set<String> existing = new HashSet<>();
+        try (PreparedStatement statement = connection.prepareStatement(EXISTING_INDEXES);
+             ResultSet row = statement.executeQuery()) {
+            while (row.next()) {
+                existing.add(row.getString(1));
+            }
+        }
+        int created = 0;
+        for (Map.Entry<String, String> index : INDEXES.entrySet()) {
+            if (existing.contains(index.getKey())) {
+                continue;
+            }
+            long start = System.nanoTime();
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(index.getValue());
+            }
+            created++;
+            LOGGER.info("Created the missing index " + index.getKey() + " in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+        for (String name : existing) {
+            if (name.startsWith(MANAGED_PREFIX) && !INDEXES.containsKey(name)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("drop index " + name);
+                }
+                LOGGER.info("Dropped the index " + name + ", which is no longer declared");
+            }
+        }
+        return created;
+    }
+}
@@ -0,0 +1,200 @@
+package org.example.javasystematiskprojekt1.database;
+
+import org.example.javasystematiskprojekt1.model.Movie;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * The MovieSearch class holds the filters, sort order and page of a movie search and turns them into one
+ * parameterised SQL statement over the 'movieData' table. The statement is only ever assembled from fixed
+ * fragments, with every client value bound as a parameter, so the same few SQL strings are produced again
+ * and again and can be reused from the prepared statement cache of the connection pool.
+ * Each filter is written so Derby can answer it from one of the indexes declared on the Movie entity:
+ * the title is matched as a prefix, director and genre exactly, and the year as a range.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+public class MovieSearch {
+
+    /**
+     * Columns selected by the search, in the order the Movie entity and MovieRowHandler expect them.
+     */
+    static final String COLUMNS = "ID, MOVIETITLE, MOVIEDIRECTOR, RELEASEYEAR, MOVIEGENRE, MOVIEPLOT, VERSION";
+
+    /**
+     * Sort keys clients may use, mapped to their column.
+     */
+    private static final Map<String, String> SORT_COLUMNS = Map.of(
+            "id", "ID",
+            "title", "MOVIETITLE",
+            "director", "MOVIEDIRECTOR",
+            "genre", "MOVIEGENRE",
+            "year", "RELEASEYEAR");
+
+    /**
+     * Sort keys mapped to the property of the Movie entity they sort by, for sorting movies in memory.
+     */
+    private static final Map<String, Function<Movie, Comparable<?>>> SORT_PROPERTIES = Map.of(
+            "id", Movie::getId,
+            "title", Movie::getMovieTitle,
+            "director", Movie::getMovieDirector,
+            "genre", Movie::getMovieGenre,
+            "year", Movie::getReleaseYear);
+
+    private final String title;
+    private final String director;
+    private final String genre;
+    private final Integer yearFrom;
+    private final Integer yearTo;
+    private final String sort;
+    private final int offset;
+    private final int limit;
+    private final String sql;
+    private final List<Object> parameters;
+
+    /**
+     * A constructor for the MovieSearch class. Every filter is optional and is left out when null.
+     *
+     * @param title The beginning of the movie title.
+     * @param director The exact movie director.
+     * @param genre The exact movie genre.
+     * @param yearFrom The first release year included.
+     * @param yearTo The last release year included.
+     * @param sort The sort key ("id", "title", "director", "genre" or "year"), prefixed with "-" for
+     *             descending order, or null to sort by id.
+     * @param offset The number of matching movies to skip.
+     * @param limit The maximum number of movies returned.
+     * @throws IllegalArgumentException If the sort key is unknown.
+     */
+
+    public MovieSearch(String title, String director, String genre, Integer yearFrom, Integer yearTo,
+                       String sort, int offset, int limit) {
+        this.title = title;
+        this.director = director;
+        this.genre = genre;
+        this.yearFrom = yearFrom;
+        this.yearTo = yearTo;
+        this.sort = sort;
+        this.offset = offset;
+        this.limit = limit;
+        StringBuilder sql = new StringBuilder("select ").append(COLUMNS).append(" from movieData where 1 = 1");
+        List<Object> parameters = new ArrayList<>();
+        if (title != null) {
+            sql.append(" and MOVIETITLE like ? escape '\\'");
+            parameters.add(escapeLike(title) + "%");
+        }
+        if (director != null) {
+            sql.append(" and MOVIEDIRECTOR = ?");
+            parameters.add(director);
+        }
+        if (genre != null) {
+            sql.append(" and MOVIEGENRE = ?");
+            parameters.add(genre);
+        }
+        if (yearFrom != null) {
+            sql.append(" and RELEASEYEAR >= ?");
+            parameters.add(yearFrom);
+        }
+        if (yearTo != null) {
+            sql.append(" and RELEASEYEAR <= ?");
+            parameters.add(yearTo);
+        }
+        sql.append(" order by ").append(orderBy(sort));
+        sql.append(" offset ? rows fetch next ? rows only");
+        parameters.add(offset);
+        parameters.add(limit);
+        this.sql = sql.toString();
+        this.parameters = Collections.unmodifiableList(parameters);
+    }
+
+    /**
+     * This method getSql() gets the SQL statement of the search, with '?' placeholders.
+     *
+     * @return The SQL statement(String).
+     */
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * This method getParameters() gets the values bound to the placeholders, in order.
+     *
+     * @return The parameter values(List).
+     */
+
+    public List<Object> getParameters() {
+        return parameters;
+    }
+
+    public int getOffset() {
+        return offset;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * This method firstRows() creates the same search, but for the first rows of the result, from the first
+     * match on. Used to ask every shard for all rows that may end up in the requested page.
+     *
+     * @param rows The number of rows.
+     * @return The new search.
+     */
+
+    public MovieSearch firstRows(int rows) {
+        return new MovieSearch(title, director, genre, yearFrom, yearTo, sort, 0, rows);
+    }
+
+    /**
+     * This method getComparator() gets the order of the search as a comparator, to merge results in memory
+     * in the same order as Derby sorts them: null values come after all others in ascending order.
+     *
+     * @return The comparator(Comparator).
+     */
+
+    @SuppressWarnings({"unchecked", "rawtypes"}) // Every sort property is Comparable with itself.
+    public Comparator<Movie> getComparator() {
+        boolean descending = sort != null && sort.startsWith("-");
+        String key = sort == null || sort.isEmpty() ? "id" : descending ? sort.substring(1) : sort;
+        Function<Movie, Comparable> property = (Function) SORT_PROPERTIES.get(key);
+        Comparator<Movie> comparator = Comparator.comparing(property,
+                Comparator.nullsLast(Comparator.naturalOrder()));
+        comparator = comparator.thenComparing(Movie::getId);
+        return descending ? comparator.reversed() : comparator;
+    }
+
+    /**
+     * This method orderBy() turns a sort key into an ORDER BY clause. The id is always added last,
+     * so movies with equal sort values come back in a stable order from page to page.
+     */
+
+    private static String orderBy(String sort) {
+        if (sort == null || sort.isEmpty()) {
+            return "ID";
+        }
+        boolean descending = sort.startsWith("-");
+        String column = SORT_COLUMNS.get(descending ? sort.substring(1) : sort);
+        if (column == null) {
+            throw new IllegalArgumentException("Unknown sort key: " + sort);
+        }
+        String direction = descending ? " desc" : "";
+        return "ID".equals(column) ? column + direction : column + direction + ", ID" + direction;
+    }
+
+    /**
+     * This method escapeLike() escapes the LIKE wildcards in a value, so it is matched literally.
+     */
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
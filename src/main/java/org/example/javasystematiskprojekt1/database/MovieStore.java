@@ -0,0 +1,491 @@
+package org.example.javasystematiskprojekt1.database;
+
+import org.example.javasystematiskprojekt1.model.Movie;
+import org.example.javasystematiskprojekt1.model.MovieChangeEvent;
+import org.example.javasystematiskprojekt1.model.MovieSnapshot;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.LongPredicate;
+
+/**
+ * The MovieStore class is one extra Derby database holding a copy of the 'movieData' table, used by the
+ * 'ReadRouter' as a read replica or as a shard. It is read and written with plain JDBC: it creates its own
+ * table, is filled with a copy of the primary database, and then has every committed change applied to it.
+ * Until the copy is complete the store is not ready, and no reads are sent to it.
+ * Committed changes wait in the store's own queue until the 'ReadRouter' applies them, in order, on another
+ * thread than the one that committed them. The queue remembers which movies have a change waiting, so a
+ * read of such a movie can go to the primary instead.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+class MovieStore {
+
+    private static final String SELECT = "select " + MovieSearch.COLUMNS + " from movieData";
+    private static final String INSERT = "insert into movieData (" + MovieSearch.COLUMNS + ") "
+            + "values (?, ?, ?, ?, ?, ?, ?)";
+    // Without a known version, the version is increased by one, as the update of the primary did.
+    private static final String UPDATE = "update movieData set MOVIETITLE = ?, MOVIEDIRECTOR = ?, RELEASEYEAR = ?, "
+            + "MOVIEGENRE = ?, MOVIEPLOT = ?, VERSION = coalesce(cast(? as bigint), coalesce(VERSION, 0) + 1) "
+            + "where ID = ?";
+
+    /**
+     * Statement creating the table. The indexes declared on the Movie entity are then created by the
+     * 'MovieSchema', like those of the primary database.
+     */
+    private static final String CREATE_TABLE = "create table movieData (ID bigint not null primary key, "
+            + "MOVIETITLE varchar(255), MOVIEDIRECTOR varchar(255), RELEASEYEAR integer, MOVIEGENRE varchar(255), "
+            + "MOVIEPLOT varchar(255), VERSION bigint)";
+
+    /**
+     * Derby's SQL state for an object that already exists, and for a duplicate key.
+     */
+    private static final String ALREADY_EXISTS = "X0Y32";
+    private static final String DUPLICATE_KEY = "23505";
+
+    /**
+     * Number of rows inserted per JDBC batch while copying.
+     */
+    private static final int COPY_BATCH_SIZE = 1000;
+
+    private final String name;
+    private final DataSource dataSource;
+    private final Set<Long> deletedWhileCopying = ConcurrentHashMap.newKeySet();
+    private final List<Object[]> filtersDeletedWhileCopying = new CopyOnWriteArrayList<>();
+    private final Queue<MovieChangeEvent> changes = new ArrayDeque<>(); // Guarded by itself.
+    private final Map<Long, Integer> changesById = new HashMap<>(); // Waiting changes per movie, same guard.
+    private boolean applying; // A thread is applying the changes. Guarded by 'changes'.
+    private volatile boolean copying;
+    private volatile boolean ready;
+
+    /**
+     * A constructor for the MovieStore class.
+     *
+     * @param name The JNDI name of the data source, used in messages.
+     * @param dataSource The data source of the database.
+     */
+
+    MovieStore(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    String getName() {
+        return name;
+    }
+
+    boolean isReady() {
+        return ready;
+    }
+
+    void setReady(boolean ready) {
+        this.ready = ready;
+    }
+
+    /**
+     * This method enqueue() puts a committed change in the queue of the store.
+     *
+     * @param event The change.
+     * @param maxChanges The most changes the queue may hold.
+     * @return True if the caller must start applying the changes, false if a thread is applying them already.
+     * @throws IllegalStateException If the queue is full.
+     */
+
+    boolean enqueue(MovieChangeEvent event, int maxChanges) {
+        synchronized (changes) {
+            if (changes.size() >= maxChanges) {
+                throw new IllegalStateException(changes.size() + " changes wait for " + name);
+            }
+            changes.add(event);
+            if (event.getId() != null) {
+                changesById.merge(event.getId(), 1, Integer::sum);
+            }
+            boolean start = !applying;
+            applying = true;
+            return start;
+        }
+    }
+
+    /**
+     * This method nextChange() gets the oldest change waiting. It stays counted as waiting until
+     * changeApplied() is called.
+     *
+     * @return The change, or null if none is waiting; then the caller stops applying changes.
+     */
+
+    MovieChangeEvent nextChange() {
+        synchronized (changes) {
+            MovieChangeEvent event = changes.peek();
+            if (event == null) {
+                applying = false;
+            }
+            return event;
+        }
+    }
+
+    /**
+     * This method changeApplied() takes the oldest change out of the queue once it has been applied, unless the
+     * queue was cleared in the meantime.
+     *
+     * @param event The change returned by nextChange().
+     */
+
+    void changeApplied(MovieChangeEvent event) {
+        synchronized (changes) {
+            if (changes.peek() != event) {
+                return;
+            }
+            changes.poll();
+            if (event.getId() != null) {
+                changesById.computeIfPresent(event.getId(), (id, count) -> count > 1 ? count - 1 : null);
+            }
+        }
+    }
+
+    /**
+     * This method stopApplying() records that the changes are no longer being applied, when the task started
+     * for them could not run. The next change starts a new one.
+     */
+
+    void stopApplying() {
+        synchronized (changes) {
+            applying = false;
+        }
+    }
+
+    /**
+     * This method clearChanges() drops every waiting change, when the store is filled again with a copy of the
+     * primary, which already holds them.
+     */
+
+    void clearChanges() {
+        synchronized (changes) {
+            changes.clear();
+            changesById.clear();
+        }
+    }
+
+    /**
+     * This method hasChange() tells whether a change of a movie is waiting to be applied.
+     *
+     * @param id The id of the movie.
+     * @return True if the store may hold an older version of the movie.
+     */
+
+    boolean hasChange(Long id) {
+        synchronized (changes) {
+            return changesById.containsKey(id);
+        }
+    }
+
+    /**
+     * This method copyFrom() replaces the contents of the store with a copy of the movies of the primary
+     * database it is meant to hold: all of them for a replica, those of its shard for a shard. Changes
+     * applied while the copy runs win over the copied rows: a copied row whose id is already present is
+     * skipped, and rows deleted meanwhile, one by one or by a filtered delete, are deleted again at the end.
+     * Only one copy of a store runs at a time.
+     *
+     * @param primary The repository of the primary database.
+     * @param holds Tells, by id, whether a movie belongs in this store.
+     * @return The number of rows copied.
+     * @throws SQLException If the store cannot be written.
+     * @throws IOException If the primary cannot be read.
+     */
+
+    synchronized long copyFrom(MovieRepository primary, LongPredicate holds) throws SQLException, IOException {
+        ready = false;
+        deletedWhileCopying.clear();
+        filtersDeletedWhileCopying.clear();
+        copying = true;
+        try (Connection connection = dataSource.getConnection()) {
+            createTable(connection);
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("delete from movieData");
+            }
+            List<Movie> batch = new ArrayList<>(COPY_BATCH_SIZE);
+            long[] rows = {0};
+            primary.exportMovies(row -> {
+                if (!holds.test(row.getLong(1))) {
+                    return;
+                }
+                batch.add(toMovie(row));
+                rows[0]++;
+                if (batch.size() == COPY_BATCH_SIZE) {
+                    insertMissing(connection, batch);
+                    batch.clear();
+                }
+            });
+            insertMissing(connection, batch);
+            copying = false;
+            for (Long id : deletedWhileCopying) {
+                delete(connection, id);
+            }
+            for (Object[] filters : filtersDeletedWhileCopying) {
+                deleteMatching(connection, (String) filters[0], (Integer) filters[1]);
+            }
+            deletedWhileCopying.clear();
+            filtersDeletedWhileCopying.clear();
+            ready = true;
+            return rows[0];
+        } finally {
+            copying = false;
+        }
+    }
+
+    /**
+     * This method createTable() creates the table and its indexes, unless they exist already.
+     */
+
+    private static void createTable(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(CREATE_TABLE);
+        } catch (SQLException e) {
+            if (!ALREADY_EXISTS.equals(e.getSQLState())) {
+                throw e;
+            }
+        }
+        MovieSchema.updateIndexes(connection);
+    }
+
+    /**
+     * This method insertMissing() inserts copied rows as one batch, or one by one skipping the rows already
+     * present if the batch hits a duplicate key.
+     */
+
+    private static void insertMissing(Connection connection, List<Movie> movies) throws SQLException {
+        if (movies.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+            for (Movie movie : movies) {
+                bindInsert(statement, MovieSnapshot.of(movie));
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        } catch (BatchUpdateException e) {
+            for (Movie movie : movies) {
+                try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+                    bindInsert(statement, MovieSnapshot.of(movie));
+                    statement.executeUpdate();
+                } catch (SQLException single) {
+                    if (!DUPLICATE_KEY.equals(single.getSQLState())) {
+                        throw single;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * This method save() writes a created or updated movie: it is updated if present and inserted otherwise.
+     *
+     * @param movie The movie as committed to the primary database.
+     * @throws SQLException If the store cannot be written.
+     */
+
+    void save(MovieSnapshot movie) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            int updated;
+            try (PreparedStatement statement = connection.prepareStatement(UPDATE)) {
+                statement.setString(1, movie.getMovieTitle());
+                statement.setString(2, movie.getMovieDirector());
+                statement.setInt(3, movie.getReleaseYear());
+                statement.setString(4, movie.getMovieGenre());
+                statement.setString(5, movie.getMoviePlot());
+                setLong(statement, 6, movie.getVersion());
+                statement.setLong(7, movie.getId());
+                updated = statement.executeUpdate();
+            }
+            if (updated == 0) {
+                try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+                    bindInsert(statement, movie);
+                    statement.executeUpdate();
+                } catch (SQLException e) {
+                    if (!DUPLICATE_KEY.equals(e.getSQLState())) { // Inserted by a concurrent copy.
+                        throw e;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * This method delete() deletes a movie.
+     *
+     * @param id The id of the movie.
+     * @throws SQLException If the store cannot be written.
+     */
+
+    void delete(Long id) throws SQLException {
+        if (copying) {
+            deletedWhileCopying.add(id);
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            delete(connection, id);
+        }
+    }
+
+    private static void delete(Connection connection, Long id) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("delete from movieData where ID = ?")) {
+            statement.setLong(1, id);
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * This method deleteMatching() applies a filtered delete of the primary database: it deletes the movies
+     * matching the same filters. The filters are combined with "and"; a filter that is null is not applied.
+     *
+     * @param genre The genre of the deleted movies, or null for any genre.
+     * @param releasedBefore Only movies released before this year are deleted, or null for any year.
+     * @throws SQLException If the store cannot be written.
+     */
+
+    void deleteMatching(String genre, Integer releasedBefore) throws SQLException {
+        if (copying) {
+            filtersDeletedWhileCopying.add(new Object[]{genre, releasedBefore});
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            deleteMatching(connection, genre, releasedBefore);
+        }
+    }
+
+    private static void deleteMatching(Connection connection, String genre, Integer releasedBefore)
+            throws SQLException {
+        // The same statement as MovieRepository.deleteMovies(), in SQL.
+        StringBuilder sql = new StringBuilder("delete from movieData where 1 = 1");
+        if (genre != null) {
+            sql.append(" and MOVIEGENRE = ?");
+        }
+        if (releasedBefore != null) {
+            sql.append(" and RELEASEYEAR < ?");
+        }
+        try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+            int index = 1;
+            if (genre != null) {
+                statement.setString(index++, genre);
+            }
+            if (releasedBefore != null) {
+                statement.setInt(index, releasedBefore);
+            }
+            statement.executeUpdate();
+        }
+    }
+
+    /**
+     * This method findMovieById() reads one movie.
+     *
+     * @param id The id of the movie.
+     * @return The movie, or null if it is not in the store.
+     * @throws SQLException If the store cannot be read.
+     */
+
+    Movie findMovieById(Long id) throws SQLException {
+        List<Movie> movies = query(SELECT + " where ID = ?", List.of(id));
+        return movies.isEmpty() ? null : movies.get(0);
+    }
+
+    /**
+     * This method scanMoviesAfter() reads one page of movies ordered by id, starting after the given id.
+     *
+     * @param afterId The id of the last movie on the previous page, or null to start from the first movie.
+     * @param limit The maximum number of movies in the page.
+     * @return The movies, in ascending id order.
+     * @throws SQLException If the store cannot be read.
+     */
+
+    List<Movie> scanMoviesAfter(Long afterId, int limit) throws SQLException {
+        return query(SELECT + " where ID > ? order by ID fetch first ? rows only",
+                List.of(afterId == null ? Long.MIN_VALUE : afterId, limit));
+    }
+
+    /**
+     * This method searchMovies() runs a search.
+     *
+     * @param search The filters, sort order and page of the search.
+     * @return The matching movies.
+     * @throws SQLException If the store cannot be read.
+     */
+
+    List<Movie> searchMovies(MovieSearch search) throws SQLException {
+        return query(search.getSql(), search.getParameters());
+    }
+
+    /**
+     * This method query() runs a query selecting MovieSearch.COLUMNS and turns the rows into movies.
+     */
+
+    private List<Movie> query(String sql, List<Object> parameters) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            for (int i = 0; i < parameters.size(); i++) {
+                statement.setObject(i + 1, parameters.get(i));
+            }
+            List<Movie> movies = new ArrayList<>();
+            try (ResultSet row = statement.executeQuery()) {
+                while (row.next()) {
+                    movies.add(toMovie(row));
+                }
+            }
+            return movies;
+        }
+    }
+
+    /**
+     * This method toMovie() turns the current row, with the columns of MovieSearch.COLUMNS, into a movie.
+     */
+
+    private static Movie toMovie(ResultSet row) throws SQLException {
+        Movie movie = new Movie();
+        movie.setId(row.getLong(1));
+        movie.setMovieTitle(row.getString(2));
+        movie.setMovieDirector(row.getString(3));
+        movie.setReleaseYear(row.getInt(4));
+        movie.setMovieGenre(row.getString(5));
+        movie.setMoviePlot(row.getString(6));
+        long version = row.getLong(7);
+        movie.setVersion(row.wasNull() ? null : version);
+        return movie;
+    }
+
+    /**
+     * This method bindInsert() binds the columns of a movie to the INSERT statement. A new movie is stored
+     * with version 1, as in the primary database.
+     */
+
+    private static void bindInsert(PreparedStatement statement, MovieSnapshot movie) throws SQLException {
+        statement.setLong(1, movie.getId());
+        statement.setString(2, movie.getMovieTitle());
+        statement.setString(3, movie.getMovieDirector());
+        statement.setInt(4, movie.getReleaseYear());
+        statement.setString(5, movie.getMovieGenre());
+        statement.setString(6, movie.getMoviePlot());
+        statement.setLong(7, movie.getVersion() != null ? movie.getVersion() : 1L);
+    }
+
+    private static void setLong(PreparedStatement statement, int index, Long value) throws SQLException {
+        if (value != null) {
+            statement.setLong(index, value);
+        } else {
+            statement.setNull(index, Types.BIGINT);
+        }
+    }
+}
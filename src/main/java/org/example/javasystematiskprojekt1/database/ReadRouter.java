@@ -0,0 +1,451 @@
+package org.example.javasystematiskprojekt1.database;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.example.javasystematiskprojekt1.async.ManagedExecutors;
+import org.example.javasystematiskprojekt1.model.Movie;
+import org.example.javasystematiskprojekt1.model.MovieChangeEvent;
+
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * The ReadRouter class sends the reads of the 'MovieRepository' to other Derby databases than the primary
+ * 'jdbc/__default', so reads can be scaled out while writes stay on the primary:
+ *
+ * - Read replicas, set with the system property "movies.readDataSources" as a comma-separated list of JNDI
+ *   names. Every replica holds all movies, and each read goes to the next replica in turn.
+ * - Shards, set with "movies.shardDataSources". Each movie is held by exactly one shard, chosen by a hash of
+ *   its id. A lookup by id goes to the one shard holding the movie; a list or search is run on every shard in
+ *   parallel and the results are merged (scatter-gather).
+ *
+ * When both are set, the shards are used. The primary stays the database of record and holds every movie: it
+ * assigns the ids and takes every write, so the shards spread the reads, not the writes or the storage of the
+ * primary. Each committed change is put in the queue of the replicas or of the shard holding the movie, and
+ * applied from there on the managed executor of the container, so a write does not wait for the stores and a
+ * slow or stopped store does not hold up writers. A store whose queue holds "movies.stores.maxChanges" changes
+ * (default 10000) is filled again instead. Until a change is applied, a store answers lists and searches
+ * without it, but a lookup of the changed movie goes to the primary.
+ * A filtered delete is applied to every store with the same filters. At startup, and after a failure or a
+ * bulk change whose rows are not known, a store is filled again with a copy of the primary on the managed
+ * executor, whose threads may call the @Transactional 'MovieRepository'. While a store is being filled, reads
+ * that need it go to the primary instead. The threads querying the shards in parallel come from the managed
+ * thread factory.
+ * For local testing the data sources can be GlassFish JDBC resources on embedded Derby databases.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@ApplicationScoped // Annotation of CDI bean, makes the class a singleton. Class can be injected into other classes.
+public class ReadRouter {
+
+    private static final Logger LOGGER = Logger.getLogger(ReadRouter.class.getName());
+
+    private static final int MAX_CHANGES = Integer.getInteger("movies.stores.maxChanges", 10_000);
+
+    @Inject // Annotation injects the repository of the primary database, which the stores are copied from.
+    private MovieRepository movieRepository;
+
+    @Inject // Annotation injects the cache invalidated once a change has reached the stores.
+    private MovieCache movieCache;
+
+    private List<MovieStore> replicas = List.of();
+    private List<MovieStore> shards = List.of();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+    private final Set<MovieStore> copiesPending = ConcurrentHashMap.newKeySet();
+    private ExecutorService scatter; // Runs the queries of the shards in parallel.
+    private ExecutorService copier; // Fills the stores and applies the changes to them.
+    private boolean ownCopier; // True if the copier is not the managed executor of the container.
+
+    /**
+     * This method init() looks up the configured data sources when the bean is created.
+     *
+     * @throws IllegalStateException If a configured data source does not exist.
+     */
+
+    @PostConstruct // Annotation marks the method called after the bean is created and injected.
+    public void init() {
+        shards = lookup(System.getProperty("movies.shardDataSources", ""));
+        replicas = lookup(System.getProperty("movies.readDataSources", ""));
+        if (!shards.isEmpty() && !replicas.isEmpty()) {
+            LOGGER.warning("Both shards and read replicas are configured: only the shards are used");
+            replicas = List.of();
+        }
+        if (!isActive()) {
+            return;
+        }
+        scatter = Executors.newFixedThreadPool(Math.max(1, shards.size()),
+                ManagedExecutors.threadFactory("movies-shard"));
+        copier = ManagedExecutors.lookup();
+        if (copier == null) {
+            ownCopier = true;
+            copier = Executors.newCachedThreadPool(ManagedExecutors.threadFactory("movies-store"));
+        }
+        LOGGER.info("Reads are routed to " + (shards.isEmpty() ? replicas.size() + " read replicas"
+                : shards.size() + " shards"));
+    }
+
+    /**
+     * This method lookup() looks up a comma-separated list of JNDI names of data sources.
+     */
+
+    private static List<MovieStore> lookup(String names) {
+        List<MovieStore> stores = new ArrayList<>();
+        for (String name : names.split(",")) {
+            if (name.isBlank()) {
+                continue;
+            }
+            try {
+                DataSource dataSource = InitialContext.doLookup(name.trim());
+                stores.add(new MovieStore(name.trim(), dataSource));
+            } catch (NamingException e) {
+                throw new IllegalStateException("Data source " + name.trim() + " not found", e);
+            }
+        }
+        return List.copyOf(stores);
+    }
+
+    /**
+     * This method isActive() tells whether any replicas or shards are configured.
+     *
+     * @return True if reads may be routed away from the primary.
+     */
+
+    public boolean isActive() {
+        return !replicas.isEmpty() || !shards.isEmpty();
+    }
+
+    /**
+     * This method onStartup() fills the stores when the application starts. The copies run in the background;
+     * until they are done, reads go to the primary.
+     *
+     * @param event The initialisation event of the application scope.
+     */
+
+    public void onStartup(@Observes @Initialized(ApplicationScoped.class) Object event) {
+        stores().forEach(this::copy);
+    }
+
+    /**
+     * This method onMovieChange() puts a committed change in the queues of the stores holding the movie, and
+     * returns without waiting for it to be applied. A filtered delete goes to every store with its filters;
+     * any other bulk change, whose movies are not known, fills all stores again.
+     *
+     * @param event The change fired by the 'MovieRepository'.
+     */
+
+    public void onMovieChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) MovieChangeEvent event) {
+        if (!isActive()) {
+            return;
+        }
+        if (event.getType() == MovieChangeEvent.Type.BULK && !event.isFilteredDelete()) {
+            stores().forEach(this::copy);
+            return;
+        }
+        for (MovieStore store : event.getType() == MovieChangeEvent.Type.BULK ? stores() : holding(event.getId())) {
+            boolean start;
+            try {
+                start = store.enqueue(event, MAX_CHANGES);
+            } catch (IllegalStateException e) {
+                LOGGER.warning("Changes to " + store.getName() + " fall behind, copying it again: " + e.getMessage());
+                copy(store);
+                continue;
+            }
+            if (start) {
+                try {
+                    copier.execute(managed(() -> applyChanges(store), () -> {
+                        store.stopApplying();
+                        copy(store);
+                    }));
+                } catch (RejectedExecutionException e) {
+                    LOGGER.log(Level.WARNING, "Applying the changes to " + store.getName() + " failed", e);
+                    store.stopApplying();
+                    copy(store);
+                }
+            }
+        }
+    }
+
+    /**
+     * This method applyChanges() applies the waiting changes of a store in order, until none is left.
+     * The observers of the 'MovieCache' and of this class run in no fixed order, and a read from a store that
+     * has not been changed yet could put the old movies back into the cache after its own invalidation. The
+     * cache is therefore invalidated once more after each change has been applied.
+     */
+
+    private void applyChanges(MovieStore store) {
+        MovieChangeEvent event;
+        while ((event = store.nextChange()) != null) {
+            try {
+                apply(store, event);
+            } catch (SQLException | RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Applying a change to " + store.getName() + " failed", e);
+                copy(store); // The store has missed a change: fill it again.
+            } finally {
+                store.changeApplied(event);
+                movieCache.invalidate(event);
+            }
+        }
+    }
+
+    /**
+     * This method apply() applies a committed change to one store.
+     */
+
+    private static void apply(MovieStore store, MovieChangeEvent event) throws SQLException {
+        if (event.getType() == MovieChangeEvent.Type.BULK) {
+            store.deleteMatching(event.getGenre(), event.getReleasedBefore());
+        } else if (event.getType() == MovieChangeEvent.Type.DELETED) {
+            store.delete(event.getId());
+        } else {
+            store.save(event.getMovie());
+        }
+    }
+
+    /**
+     * This method findMovieById() reads a movie from the replica or shard holding it.
+     *
+     * @param id The id of the movie.
+     * @return The movie, or null if it was not found or no store could answer; the caller then asks the
+     * primary, which also covers a movie created so recently that it has not been applied yet.
+     */
+
+    Movie findMovieById(Long id) {
+        MovieStore store = shards.isEmpty() ? nextReplica() : shards.get(shardOf(id));
+        if (store == null || !store.isReady() || store.hasChange(id)) {
+            return null; // A change of the movie may not have reached the store yet.
+        }
+        try {
+            return store.findMovieById(id);
+        } catch (SQLException e) {
+            failed(store, e);
+            return null;
+        }
+    }
+
+    /**
+     * This method scanMoviesAfter() reads one page of movies ordered by id, starting after the given id.
+     *
+     * @param afterId The id of the last movie on the previous page, or null to start from the first movie.
+     * @param limit The maximum number of movies in the page.
+     * @return The movies in ascending id order, or null if the stores cannot answer.
+     */
+
+    List<Movie> scanMoviesAfter(Long afterId, int limit) {
+        if (shards.isEmpty()) {
+            MovieStore replica = nextReplica();
+            try {
+                return replica != null ? replica.scanMoviesAfter(afterId, limit) : null;
+            } catch (SQLException e) {
+                failed(replica, e);
+                return null;
+            }
+        }
+        // Every shard returns its own first movies after the cursor: the page is the first of all of them.
+        List<Movie> movies = gather(shard -> shard.scanMoviesAfter(afterId, limit));
+        return movies == null ? null : merge(movies, Comparator.comparing(Movie::getId), 0, limit);
+    }
+
+    /**
+     * This method searchMovies() runs a search.
+     *
+     * @param search The filters, sort order and page of the search.
+     * @return The matching movies, or null if the stores cannot answer.
+     */
+
+    List<Movie> searchMovies(MovieSearch search) {
+        if (shards.isEmpty()) {
+            MovieStore replica = nextReplica();
+            try {
+                return replica != null ? replica.searchMovies(search) : null;
+            } catch (SQLException e) {
+                failed(replica, e);
+                return null;
+            }
+        }
+        // The requested page can hold any of the first offset + limit matches of every shard.
+        int rows;
+        try {
+            rows = Math.addExact(search.getOffset(), search.getLimit());
+        } catch (ArithmeticException e) {
+            return null; // Too deep for the shards to answer: the primary pages through the rows itself.
+        }
+        MovieSearch perShard = search.firstRows(rows);
+        List<Movie> movies = gather(shard -> shard.searchMovies(perShard));
+        return movies == null ? null : merge(movies, search.getComparator(), search.getOffset(), search.getLimit());
+    }
+
+    /**
+     * This method gather() runs a query on every shard in parallel and collects all rows.
+     *
+     * @return The rows of all shards, or null if a shard is not ready or fails.
+     */
+
+    private List<Movie> gather(StoreQuery query) {
+        if (!shards.stream().allMatch(MovieStore::isReady)) {
+            return null;
+        }
+        List<CompletableFuture<List<Movie>>> results = new ArrayList<>(shards.size());
+        for (MovieStore shard : shards) {
+            results.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return query.run(shard);
+                } catch (SQLException e) {
+                    failed(shard, e);
+                    throw new CompletionException(e);
+                }
+            }, scatter));
+        }
+        try {
+            return results.stream().flatMap(result -> result.join().stream()).collect(Collectors.toList());
+        } catch (CompletionException e) {
+            return null;
+        }
+    }
+
+    /**
+     * This method merge() sorts the rows of all shards and cuts out the requested page.
+     */
+
+    private static List<Movie> merge(List<Movie> movies, Comparator<Movie> order, int offset, int limit) {
+        movies.sort(order);
+        int from = Math.min(offset, movies.size());
+        return new ArrayList<>(movies.subList(from, Math.min(from + limit, movies.size())));
+    }
+
+    /**
+     * This method nextReplica() picks the next ready replica in turn.
+     *
+     * @return The replica, or null if none is ready.
+     */
+
+    private MovieStore nextReplica() {
+        for (int i = 0; i < replicas.size(); i++) {
+            MovieStore replica = replicas.get(Math.floorMod(nextReplica.getAndIncrement(), replicas.size()));
+            if (replica.isReady()) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * This method shardOf() gets the number of the shard holding a movie. The id is mixed first, so ids
+     * handed out in blocks still spread evenly.
+     */
+
+    private int shardOf(long id) {
+        return Math.floorMod(Long.hashCode(id * 0x9E3779B97F4A7C15L), shards.size());
+    }
+
+    /**
+     * This method holding() gets the stores holding a movie: all replicas, or its shard.
+     */
+
+    private List<MovieStore> holding(Long id) {
+        return shards.isEmpty() ? replicas : List.of(shards.get(shardOf(id)));
+    }
+
+    private List<MovieStore> stores() {
+        return shards.isEmpty() ? replicas : shards;
+    }
+
+    /**
+     * This method failed() takes a store that failed out of use and fills it again.
+     */
+
+    private void failed(MovieStore store, SQLException e) {
+        LOGGER.log(Level.WARNING, "Reading from " + store.getName() + " failed, reading from the primary", e);
+        copy(store);
+    }
+
+    /**
+     * This method copy() takes a store out of use and fills it with a copy of the primary in the background.
+     */
+
+    private void copy(MovieStore store) {
+        store.setReady(false);
+        store.clearChanges(); // The copy holds them.
+        if (!copiesPending.add(store)) {
+            return; // A copy is already waiting to run.
+        }
+        int shard = shards.indexOf(store);
+        try {
+            copier.execute(managed(() -> {
+                copiesPending.remove(store);
+                long start = System.nanoTime();
+                try {
+                    long rows = store.copyFrom(movieRepository, id -> shard < 0 || shardOf(id) == shard);
+                    LOGGER.info("Copied " + rows + " movies to " + store.getName() + " in "
+                            + (System.nanoTime() - start) / 1_000_000 + " ms");
+                } catch (SQLException | IOException | RuntimeException e) {
+                    LOGGER.log(Level.SEVERE, "Copying the movies to " + store.getName() + " failed", e);
+                }
+            }, () -> copiesPending.remove(store))); // The store stays out of use until its next failure.
+        } catch (RejectedExecutionException e) {
+            copiesPending.remove(store); // The store stays out of use until its next failure or bulk change.
+            LOGGER.log(Level.SEVERE, "Copying the movies to " + store.getName() + " could not be started", e);
+        }
+    }
+
+    /**
+     * This method managed() prepares a task for the copier. On the managed executor, 'aborted' runs instead when
+     * the container aborts the task without running it; otherwise the store would wait for the task forever.
+     */
+
+    private Runnable managed(Runnable task, Runnable aborted) {
+        if (ownCopier) {
+            return task;
+        }
+        return ManagedExecutors.abortable(task, e -> {
+            LOGGER.warning("A task of the read stores was aborted: " + e);
+            aborted.run();
+        });
+    }
+
+    /**
+     * This method shutdown() stops the threads when the application stops.
+     */
+
+    @PreDestroy // Annotation marks the method called before the bean is destroyed.
+    public void shutdown() {
+        if (scatter != null) {
+            scatter.shutdownNow();
+        }
+        if (ownCopier) {
+            copier.shutdownNow(); // The managed executor belongs to the container.
+        }
+    }
+
+    /**
+     * The StoreQuery interface is a query run on one store.
+     */
+
+    @FunctionalInterface
+    private interface StoreQuery {
+        List<Movie> run(MovieStore store) throws SQLException;
+    }
+}
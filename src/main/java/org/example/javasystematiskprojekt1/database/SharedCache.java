@@ -0,0 +1,167 @@
+package org.example.javasystematiskprojekt1.database;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.persistence.Cache;
+import jakarta.persistence.CacheRetrieveMode;
+import jakarta.persistence.CacheStoreMode;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceUnit;
+import jakarta.persistence.Query;
+import org.eclipse.persistence.sessions.Session;
+import org.example.javasystematiskprojekt1.model.Movie;
+import org.example.javasystematiskprojekt1.model.MovieChangeEvent;
+import org.example.javasystematiskprojekt1.model.SharedCacheStats;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The SharedCache class looks after the JPA shared (second-level) cache of the Movie entity, which EclipseLink
+ * keeps below the 'MovieCache'. Its size and expiry are set by the 'MovieCacheCustomizer'.
+ * The cache can be switched off per deployment, for comparing load tests with and without it, with the system
+ * property "movies.jpa.cache" (default true): when it is false, every query and lookup of the 'MovieRepository'
+ * bypasses the shared cache and the query results cache. Movies changed through the 'MovieRepository' are
+ * evicted, and lookups by id are counted as hits or misses so the cache can be sized.
+ * The pages read by the "Movie.scanAfter" query are kept in the query results cache of EclipseLink. Every change
+ * empties it, a new movie included, as that can change the last page, and movies inserted with JDBC are not seen
+ * by EclipseLink at all.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@ApplicationScoped // Annotation of CDI bean, makes the class a singleton. Class can be injected into other classes.
+public class SharedCache {
+
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("movies.jpa.cache", "true"));
+
+    /**
+     * Hints that make a query neither read from nor write to the shared cache.
+     */
+    private static final Map<String, Object> BYPASS = Map.of(
+            "jakarta.persistence.cache.retrieveMode", CacheRetrieveMode.BYPASS,
+            "jakarta.persistence.cache.storeMode", CacheStoreMode.BYPASS);
+
+    /**
+     * EclipseLink query hint that turns the query results cache of a named query on or off.
+     */
+    private static final String QUERY_RESULTS_CACHE = "eclipselink.query-results-cache";
+
+    /**
+     * The named query whose results are cached.
+     */
+    private static final String CACHED_QUERY = "Movie.scanAfter";
+
+    @PersistenceUnit // Annotation injects the factory of the persistence unit, which owns the shared cache.
+    private EntityManagerFactory entityManagerFactory;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * This method isEnabled() tells whether the shared cache is used in this deployment.
+     *
+     * @return True if the shared cache is used.
+     */
+
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * This method apply() makes a query bypass the shared cache when it is switched off.
+     *
+     * @param query The query.
+     * @param <Q> The type of the query.
+     * @return The same query.
+     */
+
+    public <Q extends Query> Q apply(Q query) {
+        if (!ENABLED) {
+            BYPASS.forEach(query::setHint);
+            query.setHint(QUERY_RESULTS_CACHE, false);
+        }
+        return query;
+    }
+
+    /**
+     * This method findProperties() gets the properties to pass to EntityManager.find().
+     *
+     * @return The properties that bypass the shared cache when it is switched off, or an empty map.
+     */
+
+    public Map<String, Object> findProperties() {
+        return ENABLED ? Map.of() : BYPASS;
+    }
+
+    /**
+     * This method recordLookup() counts a lookup by id as a hit if the movie is in the shared cache.
+     *
+     * @param id The id about to be looked up.
+     */
+
+    public void recordLookup(Long id) {
+        if (ENABLED && id != null) {
+            if (cache().contains(Movie.class, id)) {
+                hits.increment();
+            } else {
+                misses.increment();
+            }
+        }
+    }
+
+    /**
+     * This method evict() removes the movies a change affects from the shared cache. A new movie affects no
+     * cached movie, but every change empties the cached pages.
+     *
+     * @param event The change.
+     */
+
+    public void evict(MovieChangeEvent event) {
+        if (!ENABLED) {
+            return;
+        }
+        entityManagerFactory.unwrap(Session.class).getIdentityMapAccessor().clearQueryCache(CACHED_QUERY);
+        switch (event.getType()) {
+            case UPDATED:
+            case DELETED:
+                cache().evict(Movie.class, event.getId());
+                evictions.increment();
+                break;
+            case BULK:
+                cache().evict(Movie.class);
+                evictions.increment();
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * This method onMovieChange() evicts the changed movies again once the transaction has completed, in case a
+     * concurrent read put the old state back into the cache while the transaction was running.
+     *
+     * @param event The change fired by the 'MovieRepository'.
+     */
+
+    public void onMovieChange(@Observes(during = TransactionPhase.AFTER_COMPLETION) MovieChangeEvent event) {
+        evict(event);
+    }
+
+    /**
+     * This method getStats() gets the current counters of the shared cache.
+     *
+     * @return The shared cache statistics.
+     */
+
+    public SharedCacheStats getStats() {
+        return new SharedCacheStats(ENABLED, hits.sum(), misses.sum(), evictions.sum());
+    }
+
+    private Cache cache() {
+        return entityManagerFactory.getCache();
+    }
+}
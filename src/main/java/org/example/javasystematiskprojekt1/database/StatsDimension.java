@@ -0,0 +1,49 @@
+package org.example.javasystematiskprojekt1.database;
+
+/**
+ * The StatsDimension enum lists the attributes movies can be counted by, mapped to their property of the
+ * Movie entity. Only these fixed names are ever put into an aggregation query.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+public enum StatsDimension {
+
+    GENRE("genre", "movieGenre"),
+    DIRECTOR("director", "movieDirector"),
+    YEAR("year", "releaseYear");
+
+    private final String name;
+    private final String property;
+
+    StatsDimension(String name, String property) {
+        this.name = name;
+        this.property = property;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    String getProperty() {
+        return property;
+    }
+
+    /**
+     * This method of() finds a dimension by the name clients use.
+     *
+     * @param name The name: "genre", "director" or "year".
+     * @return The dimension.
+     * @throws IllegalArgumentException If the name is unknown.
+     */
+
+    public static StatsDimension of(String name) {
+        for (StatsDimension dimension : values()) {
+            if (dimension.name.equals(name)) {
+                return dimension;
+            }
+        }
+        throw new IllegalArgumentException("Unknown statistics dimension: " + name);
+    }
+}
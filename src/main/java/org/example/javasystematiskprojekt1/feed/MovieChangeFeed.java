@@ -0,0 +1,245 @@
+package org.example.javasystematiskprojekt1.feed;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseBroadcaster;
+import jakarta.ws.rs.sse.SseEventSink;
+import org.example.javasystematiskprojekt1.model.MovieChange;
+import org.example.javasystematiskprojekt1.model.MovieChangeEvent;
+
+import java.util.Locale;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * The MovieChangeFeed class publishes every committed change to the movies as a Server-Sent Event, so clients
+ * that mirror the catalogue can follow the changes instead of polling and comparing the whole list.
+ *
+ * Every change gets the next sequence number and is kept in a ring buffer of the latest changes, whose size is
+ * set with the system property "movies.changes.bufferSize" (default 1024). The id of every event is the start
+ * time of the application and the sequence number, for example "lq3x9k2a-42". A client that reconnects with
+ * the id of the last event it received in the 'Last-Event-ID' header is first sent the changes it missed.
+ * When those are no longer buffered, or were published before a restart, it is sent a "reset" event instead
+ * and should read the whole catalogue again. A "bulk" event, for changes to an unknown set of movies, asks
+ * for the same.
+ *
+ * The sequence numbers follow the order in which this observer was told about the changes, not the order in
+ * which their transactions committed: two changes committed at almost the same time by different requests
+ * may be published in either order. Every created or updated movie therefore carries the version it was
+ * stored with, and a client should ignore a change to a movie whose version is not newer than the one it
+ * already holds.
+ *
+ * All publishing is done by one dispatcher thread, through the broadcaster of the JAX-RS runtime, which writes
+ * to the subscribers without a thread of their own. Since new subscribers are also replayed and registered by
+ * that thread, a subscriber never misses a change or receives one twice between its replay and the live
+ * changes. The dispatcher also sends a comment every "movies.changes.keepAliveSeconds" (default 30), so idle
+ * connections are not closed by proxies and closed subscribers are noticed.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@ApplicationScoped // Annotation of CDI bean, makes the class a singleton. Class can be injected into other classes.
+public class MovieChangeFeed {
+
+    private static final Logger LOGGER = Logger.getLogger(MovieChangeFeed.class.getName());
+
+    private static final int BUFFER_SIZE = Math.max(1, Integer.getInteger("movies.changes.bufferSize", 1024));
+
+    private static final long KEEP_ALIVE_SECONDS = Math.max(1, Long.getLong("movies.changes.keepAliveSeconds", 30));
+
+    /**
+     * Time in milliseconds clients wait before reconnecting after the connection is lost.
+     */
+    private static final long RECONNECT_DELAY_MILLIS = 2000;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private ScheduledExecutorService dispatcher;
+
+    // All of the state below is only used by the dispatcher thread.
+    private final OutboundSseEvent[] buffer = new OutboundSseEvent[BUFFER_SIZE]; // Change n is at n % BUFFER_SIZE.
+    private long sequence; // The sequence number of the last change.
+    private Sse sse;
+    private SseBroadcaster broadcaster;
+
+    /**
+     * This method start() starts the dispatcher thread.
+     */
+
+    @PostConstruct // Annotation marks the method called after the bean is created and injected.
+    public void start() {
+        ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, task -> {
+            Thread thread = new Thread(task, "movie-change-feed");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.setRemoveOnCancelPolicy(true);
+        dispatcher = executor;
+        dispatcher.scheduleWithFixedDelay(this::keepAlive, KEEP_ALIVE_SECONDS, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * This method subscribe() adds a client to the feed, first sending it the buffered changes after the last
+     * event it received.
+     *
+     * @param sink The event stream of the client.
+     * @param sse The Server-Sent Events support of the JAX-RS runtime, used to create events.
+     * @param lastEventId The 'Last-Event-ID' sent by the client, or null for a new subscriber.
+     */
+
+    public void subscribe(SseEventSink sink, Sse sse, String lastEventId) {
+        dispatch(() -> {
+            init(sse);
+            if (lastEventId != null && !lastEventId.isBlank()) {
+                replay(sink, lastEventId.trim());
+            }
+            broadcaster.register(sink);
+        }, sink);
+    }
+
+    /**
+     * This method onMovieChange() publishes a committed change.
+     *
+     * @param event The change fired by the 'MovieRepository'.
+     */
+
+    public void onMovieChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) MovieChangeEvent event) {
+        dispatch(() -> publish(event), null);
+    }
+
+    /**
+     * This method init() creates the broadcaster with the first 'Sse' instance handed in.
+     */
+
+    private void init(Sse sse) {
+        if (this.sse == null) {
+            this.sse = sse;
+            broadcaster = sse.newBroadcaster();
+            broadcaster.onError((sink, error) -> sink.close()); // A subscriber that cannot be written to is gone.
+        }
+    }
+
+    /**
+     * This method publish() gives a change its sequence number, buffers it and sends it to all subscribers.
+     * Without subscribers so far there is no 'Sse' to create events with, and nobody to replay to later on
+     * except after a reset, so only the sequence number is taken.
+     */
+
+    private void publish(MovieChangeEvent event) {
+        long next = ++sequence;
+        if (sse == null) {
+            return;
+        }
+        MovieChange change = new MovieChange(next, event);
+        OutboundSseEvent outbound = sse.newEventBuilder()
+                .id(epoch + "-" + next)
+                .name(event.getType().name().toLowerCase(Locale.ROOT)) // created, updated, deleted or bulk.
+                .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                .data(MovieChange.class, change)
+                .reconnectDelay(RECONNECT_DELAY_MILLIS)
+                .build();
+        buffer[(int) (next % BUFFER_SIZE)] = outbound;
+        broadcaster.broadcast(outbound);
+    }
+
+    /**
+     * This method replay() sends a reconnecting client the changes after the last one it received, or a reset
+     * event when they are not all buffered any more.
+     */
+
+    private void replay(SseEventSink sink, String lastEventId) {
+        long last = parseSequence(lastEventId);
+        long oldest = sequence - BUFFER_SIZE + 1;
+        if (last < 0 || last > sequence || last + 1 < oldest || (last < sequence && buffer[index(last + 1)] == null)) {
+            sink.send(sse.newEventBuilder()
+                    .id(epoch + "-" + sequence) // Resume from here after reading the whole catalogue.
+                    .name("reset")
+                    .data(String.class, "Changes after " + lastEventId + " are not available")
+                    .reconnectDelay(RECONNECT_DELAY_MILLIS)
+                    .build());
+            return;
+        }
+        for (long n = last + 1; n <= sequence; n++) {
+            sink.send(buffer[index(n)]);
+        }
+    }
+
+    /**
+     * This method parseSequence() gets the sequence number out of an event id of this run of the application.
+     *
+     * @return The sequence number, or -1 for an id of another run or that is not an event id.
+     */
+
+    private long parseSequence(String eventId) {
+        int dash = eventId.lastIndexOf('-');
+        if (dash < 0 || !eventId.substring(0, dash).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int index(long sequence) {
+        return (int) (sequence % BUFFER_SIZE);
+    }
+
+    /**
+     * This method keepAlive() sends a comment to all subscribers.
+     */
+
+    private void keepAlive() {
+        if (broadcaster != null) {
+            broadcaster.broadcast(sse.newEventBuilder().comment("keep-alive").build());
+        }
+    }
+
+    /**
+     * This method dispatch() runs a task on the dispatcher thread. When the feed has been shut down, the
+     * subscriber, if any, is closed.
+     */
+
+    private void dispatch(Runnable task, SseEventSink sink) {
+        try {
+            dispatcher.execute(() -> {
+                try {
+                    task.run();
+                } catch (RuntimeException e) {
+                    LOGGER.warning("Change feed task failed: " + e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            if (sink != null) {
+                sink.close();
+            }
+        }
+    }
+
+    /**
+     * This method shutdown() closes all subscriber connections when the application stops.
+     */
+
+    @PreDestroy // Annotation marks the method called before the bean is destroyed.
+    public void shutdown() {
+        dispatcher.shutdown();
+        try {
+            dispatcher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (broadcaster != null) {
+            broadcaster.close();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.example.javasystematiskprojekt1.http;
+
+import jakarta.json.Json;
+import jakarta.json.JsonException;
+import jakarta.json.bind.Jsonb;
+import jakarta.json.bind.JsonbBuilder;
+import jakarta.json.bind.JsonbException;
+import jakarta.json.stream.JsonParser;
+import jakarta.json.stream.JsonParsingException;
+import org.example.javasystematiskprojekt1.model.BulkImportResult;
+import org.example.javasystematiskprojekt1.model.Movie;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * The BulkImport class reads the movies of a bulk import as they arrive and writes them in chunks, each in its
+ * own transaction, for the "/movies/bulk" requests of the 'MovieResource'. Only one chunk of movies is held in
+ * memory. A chunk that fails is rolled back and reported, and the import continues with the next one. If the
+ * input itself cannot be read, the import stops, keeping the chunks already written.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+public final class BulkImport {
+
+    /**
+     * JSON-B instance used to read the movies one by one. Jsonb instances are thread-safe.
+     */
+    private static final Jsonb JSONB = JsonbBuilder.create();
+
+    private BulkImport() {
+    }
+
+    /**
+     * This method jsonArray() reads the movies of a JSON array. Each element is only parsed when the import
+     * asks for it.
+     *
+     * @param input The JSON array of movies.
+     * @return An iterator over the movies, which throws a JsonException if the input is not a JSON array.
+     */
+
+    public static Iterator<Movie> jsonArray(InputStream input) {
+        JsonParser parser = Json.createParser(input);
+        return new Iterator<>() {
+            private JsonParser.Event event;
+
+            @Override
+            public boolean hasNext() {
+                if (event == null) {
+                    // First call: the body must open a JSON array.
+                    if (!parser.hasNext() || parser.next() != JsonParser.Event.START_ARRAY) {
+                        throw new JsonParsingException("Expected a JSON array of movies", parser.getLocation());
+                    }
+                    event = parser.next(); // Step into the array.
+                }
+                if (event == JsonParser.Event.START_OBJECT) {
+                    return true;
+                }
+                if (event != JsonParser.Event.END_ARRAY) {
+                    throw new JsonParsingException("Expected a JSON array of movies", parser.getLocation());
+                }
+                return false;
+            }
+
+            @Override
+            public Movie next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Movie movie = JSONB.fromJson(parser.getObject().toString(), Movie.class);
+                event = parser.next();
+                return movie;
+            }
+        };
+    }
+
+    /**
+     * This method ndjson() reads the movies of newline-delimited JSON. Each non-blank line is one movie, and
+     * lines are read as they arrive.
+     *
+     * @param input The movies, one JSON object per line.
+     * @return An iterator over the movies.
+     */
+
+    public static Iterator<Movie> ndjson(InputStream input) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        return new Iterator<>() {
+            private String line;
+            private boolean started;
+
+            private String nextLine() {
+                try {
+                    String next = reader.readLine();
+                    // Skip blank lines between records.
+                    while (next != null && next.isBlank()) {
+                        next = reader.readLine();
+                    }
+                    return next;
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                if (!started) {
+                    line = nextLine(); // Read the first line only once the import starts.
+                    started = true;
+                }
+                return line != null;
+            }
+
+            @Override
+            public Movie next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Movie movie = JSONB.fromJson(line, Movie.class);
+                line = nextLine();
+                return movie;
+            }
+        };
+    }
+
+    /**
+     * This method run() reads the movies and writes them in chunks of 'chunkSize'.
+     *
+     * @param movies The iterator over the parsed movies.
+     * @param chunkSize The number of movies per transaction.
+     * @param writer Writes one chunk in its own transaction, throwing a RuntimeException if it was rolled back.
+     * @return The import report, with an error if the input could not be read to the end.
+     */
+
+    public static BulkImportResult run(Iterator<Movie> movies, int chunkSize, Consumer<List<Movie>> writer) {
+        BulkImportResult result = new BulkImportResult();
+        long start = System.nanoTime();
+        List<Movie> chunk = new ArrayList<>(chunkSize);
+        try {
+            while (movies.hasNext()) {
+                chunk.add(movies.next());
+                if (chunk.size() == chunkSize) {
+                    writeChunk(result, chunk, writer);
+                    chunk = new ArrayList<>(chunkSize);
+                }
+            }
+        } catch (JsonException | JsonbException | UncheckedIOException e) {
+            // The rest of the input is unreadable: stop, but keep the chunks already committed.
+            result.setError("Invalid input: " + e.getMessage());
+        }
+        if (!chunk.isEmpty() && result.getError() == null) {
+            writeChunk(result, chunk, writer);
+        }
+        result.finish(System.nanoTime() - start);
+        return result; // Return the import report
+    }
+
+    /**
+     * This method writeChunk() writes one chunk of movies and records the result.
+     */
+
+    private static void writeChunk(BulkImportResult result, List<Movie> chunk, Consumer<List<Movie>> writer) {
+        long start = System.nanoTime();
+        String error = null;
+        try {
+            writer.accept(chunk);
+        } catch (RuntimeException e) {
+            error = e.getMessage(); // The chunk's transaction was rolled back.
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        result.addChunk(new BulkImportResult.Chunk(result.getChunks().size(), chunk.size(), millis, error));
+    }
+}
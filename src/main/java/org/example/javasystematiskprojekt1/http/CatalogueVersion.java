@@ -0,0 +1,122 @@
+package org.example.javasystematiskprojekt1.http;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import org.example.javasystematiskprojekt1.model.MovieChangeEvent;
+
+import java.util.Date;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The CatalogueVersion class is a counter that is increased on every change to the movies, together with
+ * the time of the last change. Responses built from the movies are tagged with the version they were read
+ * at, so a client that sends back the tag of the current version can be answered "304 Not Modified"
+ * without reading anything from the database.
+ *
+ * The version is increased as soon as the 'MovieRepository' fires a change and again when its transaction
+ * has completed, so a response read in between is never tagged with the final version.
+ * Every tag also holds the time the application started, so tags given out before a restart never match.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@ApplicationScoped // Annotation of CDI bean, makes the class a singleton. Class can be injected into other classes.
+public class CatalogueVersion {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+    private volatile long lastModifiedMillis = System.currentTimeMillis();
+
+    /**
+     * This method current() gets the current version. Read it before reading the movies.
+     *
+     * @return The current version(long).
+     */
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * This method lastModified() gets the time of the last change, or of the start of the application,
+     * rounded down to whole seconds as HTTP dates are. Read it before the version.
+     * While the current second is the second of the last change, another change could still follow within
+     * the same second, and a client sending that date back in If-Modified-Since would wrongly be told its
+     * copy is current. No date is given then, and only the entity tag is used.
+     *
+     * @return The time of the last change(Date), or null if it was in the current second.
+     */
+
+    public Date lastModified() {
+        long changedSecond = lastModifiedMillis / 1000;
+        if (changedSecond >= System.currentTimeMillis() / 1000) {
+            return null;
+        }
+        return new Date(changedSecond * 1000);
+    }
+
+    /**
+     * This method evaluatePreconditions() checks the conditional headers of a request against a
+     * representation, with its Last-Modified date only when there is one.
+     *
+     * @param request The request.
+     * @param lastModified The time from lastModified(), or null.
+     * @param etag The entity tag of the representation.
+     * @return A response builder for "304 Not Modified" or "412 Precondition Failed", or null if the
+     * representation has to be sent.
+     */
+
+    public Response.ResponseBuilder evaluatePreconditions(Request request, Date lastModified, EntityTag etag) {
+        return lastModified != null ? request.evaluatePreconditions(lastModified, etag)
+                : request.evaluatePreconditions(etag);
+    }
+
+    /**
+     * This method entityTag() creates the strong entity tag of a representation read at a version.
+     *
+     * @param version The version the representation was read at.
+     * @param representation A name telling apart the representations of the same version, such as the
+     *                       page and the content encoding.
+     * @return The entity tag.
+     */
+
+    public EntityTag entityTag(long version, String representation) {
+        return new EntityTag(epoch + "-" + version + "-" + representation);
+    }
+
+    /**
+     * This method bump() increases the version and records the time of the change.
+     */
+
+    public void bump() {
+        version.incrementAndGet();
+        lastModifiedMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * This method onMovieChange() increases the version as soon as a change is made, before its transaction
+     * commits.
+     *
+     * @param event The change fired by the 'MovieRepository'.
+     */
+
+    public void onMovieChange(@Observes MovieChangeEvent event) {
+        bump();
+    }
+
+    /**
+     * This method onMovieChangeCompleted() increases the version again once the transaction of a change
+     * has completed.
+     *
+     * @param event The change fired by the 'MovieRepository'.
+     */
+
+    public void onMovieChangeCompleted(@Observes(during = TransactionPhase.AFTER_COMPLETION) MovieChangeEvent event) {
+        bump();
+    }
+}
@@ -0,0 +1,111 @@
+package org.example.javasystematiskprojekt1.http;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The PageResponseCache class keeps the response bodies of the most requested movie list pages already
+ * serialised to JSON, or binary, bytes, and gzip-compressed on first demand, so a repeated request for the same page is
+ * answered by writing the cached bytes without querying or serialising anything. Each page is stored with
+ * the catalogue version it was read at, and is only served while that is still the current version.
+ * The number of pages kept is set with the system property "movies.responseCache.maxPages" (default 64).
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@ApplicationScoped // Annotation of CDI bean, makes the class a singleton. Class can be injected into other classes.
+public class PageResponseCache {
+
+    private static final int MAX_PAGES = Integer.getInteger("movies.responseCache.maxPages", 64);
+
+    private final Map<String, Page> pages = new ConcurrentHashMap<>();
+
+    /**
+     * This method get() gets a cached page, if it was stored at the given version.
+     *
+     * @param key The key of the page.
+     * @param version The current catalogue version.
+     * @return The page, or null if it is not cached for this version.
+     */
+
+    public Page get(String key, long version) {
+        Page page = pages.get(key);
+        return page != null && page.version == version ? page : null;
+    }
+
+    /**
+     * This method put() stores a page. Pages of older versions are dropped first, and nothing is stored
+     * once the cache is full of pages of the current version.
+     *
+     * @param key The key of the page.
+     * @param version The catalogue version the page was read at.
+     * @param body The serialised body of the page.
+     * @param nextCursor The cursor of the next page, or null if this is the last page.
+     * @return The stored page.
+     */
+
+    public Page put(String key, long version, byte[] body, Long nextCursor) {
+        Page page = new Page(version, body, nextCursor);
+        if (pages.size() >= MAX_PAGES) {
+            pages.values().removeIf(old -> old.version != version);
+        }
+        if (pages.size() < MAX_PAGES) {
+            pages.put(key, page);
+        }
+        return page;
+    }
+
+    /**
+     * The Page class is one cached response body.
+     */
+
+    public static final class Page {
+
+        private final long version;
+        private final byte[] body;
+        private final Long nextCursor;
+        private volatile byte[] gzip;
+
+        private Page(long version, byte[] body, Long nextCursor) {
+            this.version = version;
+            this.body = body;
+            this.nextCursor = nextCursor;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        /**
+         * This method getGzip() gets the body compressed with gzip, compressing it the first time.
+         *
+         * @return The compressed body(byte[]).
+         */
+
+        public byte[] getGzip() {
+            byte[] compressed = gzip;
+            if (compressed == null) {
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream(body.length / 4 + 64);
+                try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+                    out.write(body);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e); // Cannot happen when writing to memory.
+                }
+                compressed = bytes.toByteArray();
+                gzip = compressed;
+            }
+            return compressed;
+        }
+
+        public Long getNextCursor() {
+            return nextCursor;
+        }
+    }
+}
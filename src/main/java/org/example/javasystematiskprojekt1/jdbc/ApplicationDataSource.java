@@ -0,0 +1,102 @@
+package org.example.javasystematiskprojekt1.jdbc;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.example.javasystematiskprojekt1.model.PoolStats;
+
+import javax.sql.DataSource;
+import java.sql.DriverManager;
+import java.util.logging.Logger;
+
+/**
+ * The ApplicationDataSource class provides the data source of the plain JDBC work of the application: exports,
+ * query plans and other reads that do not build entities. By default this is the server's 'jdbc/__default',
+ * like the persistence unit. When the system property "movies.pool.url" gives a JDBC URL (for instance
+ * "jdbc:derby://localhost:1527/sun-appserv-samples"), the application's own 'ConnectionPool' to that database
+ * is used instead, tuned with the system properties:
+ *
+ * - "movies.pool.user" and "movies.pool.password": the login (default none).
+ * - "movies.pool.maxSize": the maximum number of connections in use (default 16).
+ * - "movies.pool.maxWaitMillis": how long to wait for a connection (default 5000).
+ * - "movies.pool.statementCacheSize": prepared statements cached per connection (default 64).
+ * - "movies.jdbc.fetchSize": rows fetched per round trip (default 1000).
+ * - "movies.pool.slowQueryMillis": the duration from which a statement counts as slow (default 250).
+ *
+ * The persistence unit keeps using the JTA data source of the server, whose connections take part in
+ * container transactions.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@ApplicationScoped // Annotation of CDI bean, makes the class a singleton. Class can be injected into other classes.
+public class ApplicationDataSource {
+
+    private static final Logger LOGGER = Logger.getLogger(ApplicationDataSource.class.getName());
+
+    /**
+     * Number of rows the JDBC driver fetches per round trip in large reads.
+     */
+    public static final int FETCH_SIZE = Integer.getInteger("movies.jdbc.fetchSize", 1000);
+
+    @Resource(lookup = "jdbc/__default") // Annotation injects the same data source the persistence unit uses.
+    private DataSource serverDataSource;
+
+    private ConnectionPool pool;
+
+    /**
+     * This method init() creates the application's pool when a JDBC URL is configured.
+     */
+
+    @PostConstruct // Annotation marks the method called after the bean is created and injected.
+    public void init() {
+        String url = System.getProperty("movies.pool.url");
+        if (url == null || url.isBlank()) {
+            return;
+        }
+        String user = System.getProperty("movies.pool.user");
+        String password = System.getProperty("movies.pool.password");
+        int maxSize = Integer.getInteger("movies.pool.maxSize", 16);
+        pool = new ConnectionPool(() -> user != null ? DriverManager.getConnection(url, user, password)
+                : DriverManager.getConnection(url),
+                maxSize,
+                Long.getLong("movies.pool.maxWaitMillis", 5000),
+                Integer.getInteger("movies.pool.statementCacheSize", 64),
+                FETCH_SIZE,
+                Long.getLong("movies.pool.slowQueryMillis", 250));
+        LOGGER.info("Plain JDBC work uses the application's pool of " + maxSize + " connections to " + url);
+    }
+
+    /**
+     * This method get() gets the data source to use.
+     *
+     * @return The application's pool if configured, otherwise the server's data source.
+     */
+
+    public DataSource get() {
+        return pool != null ? pool : serverDataSource;
+    }
+
+    /**
+     * This method getStats() gets the counters of the application's pool.
+     *
+     * @return The pool statistics, all zero when the pool is not used.
+     */
+
+    public PoolStats getStats() {
+        return pool != null ? pool.getStats() : PoolStats.disabled();
+    }
+
+    /**
+     * This method shutdown() closes the pool when the application stops.
+     */
+
+    @PreDestroy // Annotation marks the method called before the bean is destroyed.
+    public void shutdown() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+}
@@ -0,0 +1,463 @@
+package org.example.javasystematiskprojekt1.jdbc;
+
+import org.example.javasystematiskprojekt1.model.PoolStats;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * The ConnectionPool class is a small JDBC connection pool managed by the application instead of the
+ * application server, so its sizing is in the application's hands and everything it does can be seen.
+ *
+ * At most "maxSize" connections are in use at once; a caller asking for one more waits up to "maxWaitMillis"
+ * and then gets an SQLTransientConnectionException, so a starved pool fails fast and shows up in the counters
+ * instead of hanging. Connections given back are reused, the most recently used first. Every connection keeps
+ * its prepared statements in a cache of "statementCacheSize" entries, so preparing the same SQL again is free,
+ * and sets "fetchSize" on them, the number of rows the driver reads per round trip. Statements that take
+ * longer than "slowQueryMillis" are recorded, keeping the most recent samples.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+public class ConnectionPool implements DataSource {
+
+    /**
+     * Number of slow query samples kept.
+     */
+    private static final int SLOW_QUERY_SAMPLES = 20;
+
+    /**
+     * The ConnectionSource interface opens a new physical connection.
+     */
+
+    @FunctionalInterface
+    public interface ConnectionSource {
+        Connection open() throws SQLException;
+    }
+
+    private final ConnectionSource source;
+    private final int maxSize;
+    private final long maxWaitMillis;
+    private final int statementCacheSize;
+    private final int fetchSize;
+    private final long slowQueryNanos;
+
+    private final Semaphore permits;
+    private final Deque<PooledConnection> idle = new ArrayDeque<>(); // Guarded by its own lock.
+    private final AtomicInteger active = new AtomicInteger();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder acquisitions = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder statementHits = new LongAdder();
+    private final LongAdder statementMisses = new LongAdder();
+    private final Deque<PoolStats.SlowQuery> slowQueries = new ArrayDeque<>(); // Guarded by its own lock.
+    private volatile boolean closed;
+
+    /**
+     * A constructor for the ConnectionPool class.
+     *
+     * @param source Opens the physical connections.
+     * @param maxSize The maximum number of connections in use at once.
+     * @param maxWaitMillis How long a caller waits for a connection before giving up.
+     * @param statementCacheSize The number of prepared statements cached per connection, or 0 for none.
+     * @param fetchSize The number of rows fetched per round trip by every statement.
+     * @param slowQueryMillis The duration above which a statement is recorded as slow.
+     */
+
+    public ConnectionPool(ConnectionSource source, int maxSize, long maxWaitMillis, int statementCacheSize,
+                          int fetchSize, long slowQueryMillis) {
+        this.source = source;
+        this.maxSize = maxSize;
+        this.maxWaitMillis = maxWaitMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.fetchSize = fetchSize;
+        this.slowQueryNanos = TimeUnit.MILLISECONDS.toNanos(slowQueryMillis);
+        this.permits = new Semaphore(maxSize, true); // Fair: the longest waiting caller is served first.
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) {
+            throw new SQLException("Connection pool is closed");
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        long waited = System.nanoTime() - start;
+        waitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        if (!acquired) {
+            timeouts.increment();
+            throw new SQLTransientConnectionException("No connection available within " + maxWaitMillis
+                    + " ms: " + active.get() + " of " + maxSize + " in use, " + permits.getQueueLength() + " waiting");
+        }
+        try {
+            PooledConnection connection;
+            synchronized (idle) {
+                connection = idle.pollLast(); // The most recently used connection is the most likely to be alive.
+            }
+            if (connection == null || connection.physical.isClosed()) {
+                connection = new PooledConnection(source.open());
+                created.increment();
+            }
+            acquisitions.increment();
+            active.incrementAndGet();
+            return connection.checkOut();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * This method release() takes back a connection after use. A connection that cannot be reset is closed.
+     */
+
+    private void release(PooledConnection connection) {
+        active.decrementAndGet();
+        connection.statements.values().forEach(cached -> cached.inUse = false); // Even those left open.
+        boolean reusable;
+        try {
+            if (!connection.physical.getAutoCommit()) {
+                connection.physical.rollback(); // Do not leave an open transaction for the next user.
+                connection.physical.setAutoCommit(true);
+            }
+            reusable = !closed;
+        } catch (SQLException e) {
+            reusable = false;
+        }
+        if (reusable) {
+            synchronized (idle) {
+                idle.offerLast(connection);
+            }
+        } else {
+            connection.close();
+        }
+        permits.release();
+    }
+
+    /**
+     * This method close() closes the idle connections and refuses new requests. Connections in use are
+     * closed when they are given back.
+     */
+
+    public void close() {
+        closed = true;
+        List<PooledConnection> connections;
+        synchronized (idle) {
+            connections = new ArrayList<>(idle);
+            idle.clear();
+        }
+        connections.forEach(PooledConnection::close);
+    }
+
+    /**
+     * This method getStats() gets the current counters of the pool.
+     *
+     * @return The pool statistics.
+     */
+
+    public PoolStats getStats() {
+        int idleConnections;
+        synchronized (idle) {
+            idleConnections = idle.size();
+        }
+        List<PoolStats.SlowQuery> samples;
+        synchronized (slowQueries) {
+            samples = new ArrayList<>(slowQueries);
+        }
+        long acquired = acquisitions.sum() + timeouts.sum();
+        return new PoolStats(true, maxSize, active.get(), idleConnections, permits.getQueueLength(),
+                created.sum(), acquisitions.sum(), timeouts.sum(),
+                acquired == 0 ? 0 : waitNanos.sum() / 1e6 / acquired, maxWaitNanos.get() / 1e6,
+                statementHits.sum(), statementMisses.sum(), samples);
+    }
+
+    /**
+     * This method timed() runs a statement execution and records it if it is slow.
+     */
+
+    private Object timed(String sql, Object target, Method method, Object[] args) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return invoke(target, method, args);
+        } finally {
+            long nanos = System.nanoTime() - start;
+            if (nanos >= slowQueryNanos) {
+                synchronized (slowQueries) {
+                    if (slowQueries.size() == SLOW_QUERY_SAMPLES) {
+                        slowQueries.pollFirst();
+                    }
+                    slowQueries.offerLast(new PoolStats.SlowQuery(sql, nanos / 1e6, System.currentTimeMillis()));
+                }
+            }
+        }
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause(); // Let the caller see the SQLException itself.
+        }
+    }
+
+    /**
+     * The PooledConnection class is one physical connection with its statement cache. Each user gets a new
+     * handle to it, which gives the connection back to the pool when closed.
+     */
+
+    private final class PooledConnection {
+
+        private final Connection physical;
+        private final Map<String, CachedStatement> statements;
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+            this.statements = new LinkedHashMap<>(16, 0.75f, true) { // Access order: least recently used first.
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CachedStatement> eldest) {
+                    if (size() <= statementCacheSize) {
+                        return false;
+                    }
+                    CachedStatement statement = eldest.getValue();
+                    statement.evicted = true;
+                    if (!statement.inUse) {
+                        closeQuietly(statement.statement); // A statement in use is closed by its user.
+                    }
+                    return true;
+                }
+            };
+        }
+
+        /**
+         * This method checkOut() creates the handle given to a user of the connection.
+         */
+
+        private Connection checkOut() {
+            InvocationHandler handler = new InvocationHandler() {
+                private boolean handleClosed;
+
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    switch (method.getName()) {
+                        case "close":
+                            if (!handleClosed) {
+                                handleClosed = true;
+                                release(PooledConnection.this);
+                            }
+                            return null;
+                        case "isClosed":
+                            return handleClosed || physical.isClosed();
+                        case "unwrap":
+                        case "isWrapperFor":
+                        case "toString":
+                        case "hashCode":
+                        case "equals":
+                            return ConnectionPool.invoke(physical, method, args);
+                        default:
+                            break;
+                    }
+                    if (handleClosed) {
+                        throw new SQLException("Connection has been given back to the pool");
+                    }
+                    if (method.getName().equals("prepareStatement") && isCacheable(args)) {
+                        return prepare((Connection) proxy, args);
+                    }
+                    Object result = ConnectionPool.invoke(physical, method, args);
+                    if (result instanceof Statement) {
+                        Statement statement = (Statement) result;
+                        statement.setFetchSize(fetchSize);
+                        String sql = args != null && args.length > 0 && args[0] instanceof String
+                                ? (String) args[0] : null;
+                        return wrap((Connection) proxy, statement, method.getReturnType(), sql, null);
+                    }
+                    return result;
+                }
+            };
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, handler);
+        }
+
+        /**
+         * This method isCacheable() tells whether a prepareStatement() call can be served from the cache: the
+         * SQL alone, or the SQL with a result set type and concurrency.
+         */
+
+        private boolean isCacheable(Object[] args) {
+            return statementCacheSize > 0 && (args.length == 1 || (args.length == 3
+                    && args[1] instanceof Integer && args[2] instanceof Integer));
+        }
+
+        /**
+         * This method prepare() gets a prepared statement from the cache, or prepares and caches it. A cached
+         * statement still open by its previous user is not shared: an uncached one is prepared instead.
+         */
+
+        private PreparedStatement prepare(Connection handle, Object[] args) throws SQLException {
+            String key = args.length == 1 ? (String) args[0] : args[1] + "/" + args[2] + "/" + args[0];
+            CachedStatement cached = statements.get(key);
+            if (cached != null && !cached.inUse && !cached.statement.isClosed()) {
+                statementHits.increment();
+                cached.inUse = true;
+                return (PreparedStatement) wrap(handle, cached.statement, PreparedStatement.class, (String) args[0],
+                        cached);
+            }
+            statementMisses.increment();
+            PreparedStatement statement = args.length == 1 ? physical.prepareStatement((String) args[0])
+                    : physical.prepareStatement((String) args[0], (Integer) args[1], (Integer) args[2]);
+            statement.setFetchSize(fetchSize);
+            if (cached != null && cached.inUse) {
+                return (PreparedStatement) wrap(handle, statement, PreparedStatement.class, (String) args[0], null);
+            }
+            CachedStatement entry = new CachedStatement(statement);
+            entry.inUse = true;
+            statements.put(key, entry);
+            return (PreparedStatement) wrap(handle, statement, PreparedStatement.class, (String) args[0], entry);
+        }
+
+        /**
+         * This method wrap() creates the statement handle given to the user: executions are timed, closing
+         * a cached statement only resets it for the next user, and getConnection() returns the user's connection
+         * handle rather than the physical connection, which must never be closed by the user.
+         */
+
+        private Statement wrap(Connection handle, Statement statement, Class<?> type, String preparedSql,
+                               CachedStatement cached) {
+            InvocationHandler handler = new InvocationHandler() {
+                private boolean handleClosed;
+
+                @Override
+                public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                    String name = method.getName();
+                    if (name.equals("close")) {
+                        if (!handleClosed) {
+                            handleClosed = true;
+                            if (cached != null && !cached.evicted) {
+                                ((PreparedStatement) statement).clearParameters();
+                                statement.clearBatch();
+                                cached.inUse = false;
+                            } else {
+                                statement.close();
+                            }
+                        }
+                        return null;
+                    }
+                    if (name.equals("isClosed")) {
+                        return handleClosed || statement.isClosed();
+                    }
+                    if (name.equals("getConnection")) {
+                        return handle;
+                    }
+                    if (name.startsWith("execute")) {
+                        String sql = args != null && args.length > 0 && args[0] instanceof String
+                                ? (String) args[0] : preparedSql;
+                        return timed(sql, statement, method, args);
+                    }
+                    return ConnectionPool.invoke(statement, method, args);
+                }
+            };
+            return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type}, handler);
+        }
+
+        private void close() {
+            statements.values().forEach(cached -> closeQuietly(cached.statement));
+            statements.clear();
+            closeQuietly(physical);
+        }
+    }
+
+    /**
+     * The CachedStatement class is a prepared statement in the cache of a connection.
+     */
+
+    private static final class CachedStatement {
+
+        private final PreparedStatement statement;
+        private boolean inUse;
+        private boolean evicted;
+
+        private CachedStatement(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable closeable) {
+        try {
+            closeable.close();
+        } catch (Exception e) {
+            // Already broken: nothing more to do.
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("The pool always uses its configured user");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return null;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return 0;
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return Logger.getLogger(ConnectionPool.class.getPackageName());
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
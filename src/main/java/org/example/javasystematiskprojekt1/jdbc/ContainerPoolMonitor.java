@@ -0,0 +1,122 @@
+package org.example.javasystematiskprojekt1.jdbc;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import org.example.javasystematiskprojekt1.model.ContainerPoolStats;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.util.Set;
+import java.util.logging.Logger;
+
+/**
+ * The ContainerPoolMonitor class reads the monitoring counters of the application server's connection pool
+ * behind 'jdbc/__default', which carries the load of the persistence unit and every transaction. GlassFish
+ * publishes them as AMX MBeans once monitoring of JDBC connection pools is switched on:
+ *
+ *   asadmin set configs.config.server-config.monitoring-service.module-monitoring-levels.jdbc-connection-pool=HIGH
+ *
+ * The name of the pool is set with the system property "movies.pool.containerPoolName" (default "DerbyPool",
+ * the pool of 'jdbc/__default').
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@ApplicationScoped // Annotation of CDI bean, makes the class a singleton. Class can be injected into other classes.
+public class ContainerPoolMonitor {
+
+    private static final Logger LOGGER = Logger.getLogger(ContainerPoolMonitor.class.getName());
+
+    private static final String POOL_NAME = System.getProperty("movies.pool.containerPoolName", "DerbyPool");
+
+    /**
+     * The MBean that starts AMX, which GlassFish only does on demand.
+     */
+    private static final String BOOT_AMX = "amx-support:type=boot-amx";
+
+    private final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    private volatile boolean amxBooted;
+
+    /**
+     * This method getStats() gets the current counters of the server's pool.
+     *
+     * @return The pool statistics, or statistics telling why they are not available.
+     */
+
+    public ContainerPoolStats getStats() {
+        try {
+            ObjectName pool = find();
+            if (pool == null) {
+                return ContainerPoolStats.unavailable(POOL_NAME, "No monitoring data: switch on the monitoring "
+                        + "of JDBC connection pools (module-monitoring-levels.jdbc-connection-pool=HIGH)");
+            }
+            return new ContainerPoolStats(POOL_NAME, true,
+                    read(pool, "numconnused"),
+                    highWaterMark(pool, "numconnused"),
+                    read(pool, "numconnfree"),
+                    read(pool, "waitqueuelength"),
+                    read(pool, "numconncreated"),
+                    read(pool, "numconnacquired"),
+                    read(pool, "numconntimedout"),
+                    read(pool, "averageconnwaittime"),
+                    read(pool, "numpotentialconnleak"),
+                    null);
+        } catch (JMException | RuntimeException e) {
+            return ContainerPoolStats.unavailable(POOL_NAME, "Reading the monitoring data failed: " + e);
+        }
+    }
+
+    /**
+     * This method find() finds the monitoring MBean of the pool, starting AMX the first time.
+     */
+
+    private ObjectName find() throws JMException {
+        if (!amxBooted) {
+            ObjectName boot = new ObjectName(BOOT_AMX);
+            if (server.isRegistered(boot)) {
+                server.invoke(boot, "bootAMX", null, null);
+                LOGGER.info("Started AMX to read the monitoring data of connection pool " + POOL_NAME);
+            }
+            amxBooted = true;
+        }
+        Set<ObjectName> pools = server.queryNames(new ObjectName("amx:type=jdbc-connection-pool-mon,*"), null);
+        for (ObjectName pool : pools) {
+            String name = pool.getKeyProperty("name");
+            if (name != null && (name.equals(POOL_NAME) || name.endsWith("/" + POOL_NAME))) {
+                return pool;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * This method read() reads the current value of a statistic: the count of a CountStatistic, or the
+     * current value of a RangeStatistic.
+     */
+
+    private long read(ObjectName pool, String attribute) throws JMException {
+        return value(server.getAttribute(pool, attribute), "current", "count");
+    }
+
+    private long highWaterMark(ObjectName pool, String attribute) throws JMException {
+        return value(server.getAttribute(pool, attribute), "highWaterMark", "current");
+    }
+
+    private static long value(Object statistic, String... keys) {
+        if (statistic instanceof Number) {
+            return ((Number) statistic).longValue();
+        }
+        if (statistic instanceof CompositeData) {
+            CompositeData data = (CompositeData) statistic;
+            for (String key : keys) {
+                if (data.containsKey(key) && data.get(key) instanceof Number) {
+                    return ((Number) data.get(key)).longValue();
+                }
+            }
+        }
+        return 0;
+    }
+}
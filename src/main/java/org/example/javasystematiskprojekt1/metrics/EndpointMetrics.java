@@ -0,0 +1,146 @@
+package org.example.javasystematiskprojekt1.metrics;
+
+import jakarta.ws.rs.HttpMethod;
+import jakarta.ws.rs.Path;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * The EndpointMetrics class holds the metrics of one REST endpoint: for every status code it answered with,
+ * a latency histogram and the number of response bytes, and one histogram of the time spent serialising
+ * response bodies. The metrics of a status code are created the first time the code is seen, and found
+ * again by array index, so recording a request does not allocate.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+public final class EndpointMetrics {
+
+    private static final int MAX_STATUS = 600;
+
+    private final String name;
+    private final AtomicReferenceArray<StatusMetrics> statuses = new AtomicReferenceArray<>(MAX_STATUS);
+    private final LatencyHistogram serialization = new LatencyHistogram();
+
+    /**
+     * A constructor for the EndpointMetrics class.
+     *
+     * @param name The name of the endpoint used in metric labels, for example "GET /movies/{id}".
+     */
+
+    public EndpointMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * This method forMethod() creates the metrics of a resource method, named after its HTTP method and
+     * URL path template.
+     *
+     * @param method The JAX-RS resource method.
+     * @return New, empty metrics for the endpoint.
+     */
+
+    public static EndpointMetrics forMethod(Method method) {
+        String httpMethod = "ANY";
+        for (Annotation annotation : method.getAnnotations()) {
+            HttpMethod designator = annotation.annotationType().getAnnotation(HttpMethod.class);
+            if (designator != null) {
+                httpMethod = designator.value();
+            }
+        }
+        Path classPath = method.getDeclaringClass().getAnnotation(Path.class);
+        Path methodPath = method.getAnnotation(Path.class);
+        String path = (classPath != null ? classPath.value() : "") + (methodPath != null ? methodPath.value() : "");
+        return new EndpointMetrics(httpMethod + " " + path);
+    }
+
+    /**
+     * This method status() gets the metrics of one status code of the endpoint, creating them if needed.
+     *
+     * @param status The HTTP status code.
+     * @return The metrics of the status code.
+     */
+
+    public StatusMetrics status(int status) {
+        int index = status >= 0 && status < MAX_STATUS ? status : 0; // Unknown codes are counted as 0.
+        StatusMetrics metrics = statuses.get(index);
+        if (metrics == null) {
+            statuses.compareAndSet(index, null, new StatusMetrics(index));
+            metrics = statuses.get(index);
+        }
+        return metrics;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * This method getSerialization() gets the histogram of the time spent writing response bodies.
+     *
+     * @return The serialisation histogram.
+     */
+
+    public LatencyHistogram getSerialization() {
+        return serialization;
+    }
+
+    /**
+     * This method forEachStatus() calls the visitor with the metrics of every status code seen so far.
+     *
+     * @param visitor The code to call.
+     */
+
+    void forEachStatus(Consumer<StatusMetrics> visitor) {
+        for (int i = 0; i < MAX_STATUS; i++) {
+            StatusMetrics metrics = statuses.get(i);
+            if (metrics != null) {
+                visitor.accept(metrics);
+            }
+        }
+    }
+
+    /**
+     * The StatusMetrics class holds the metrics of the requests of an endpoint answered with one status code.
+     */
+
+    public static final class StatusMetrics {
+
+        private final int status;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder responseBytes = new LongAdder();
+
+        private StatusMetrics(int status) {
+            this.status = status;
+        }
+
+        /**
+         * This method record() counts one request.
+         *
+         * @param nanos The time from receiving the request to finishing the response, in nanoseconds.
+         * @param bytes The number of bytes in the response body.
+         */
+
+        public void record(long nanos, long bytes) {
+            latency.record(nanos);
+            responseBytes.add(bytes);
+        }
+
+        public int getStatus() {
+            return status;
+        }
+
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        public long getResponseBytes() {
+            return responseBytes.sum();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.javasystematiskprojekt1.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The LatencyHistogram class counts durations in log-linear buckets, like an HDR histogram with about two
+ * significant digits: durations are kept in microseconds, below 16 µs every value has its own bucket, and
+ * above that every power of two is split into 16 buckets, so a percentile is off by at most 1/16 (6%).
+ * Durations from 1 µs to about 12 days fit in 592 buckets.
+ *
+ * Every bucket is a LongAdder, so recording a duration only increments striped counters: it never takes a
+ * lock, never allocates and does not make threads recording at the same time wait for each other.
+ * Percentiles are computed from the counters when the histogram is read.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 39; // 2^40 µs is about 12 days.
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+
+    /**
+     * A constructor for the LatencyHistogram class. All buckets are created up front, so recording
+     * never allocates.
+     */
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * This method record() counts one duration.
+     *
+     * @param nanos The duration in nanoseconds.
+     */
+
+    public void record(long nanos) {
+        long micros = Math.max(nanos, 0) / 1000;
+        buckets[Math.min(index(micros), BUCKETS - 1)].increment(); // Longer durations go in the last bucket.
+        count.increment();
+        sumNanos.add(nanos);
+    }
+
+    /**
+     * This method getCount() gets the number of recorded durations.
+     *
+     * @return The count(long).
+     */
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * This method getSumSeconds() gets the total of all recorded durations.
+     *
+     * @return The total in seconds(double).
+     */
+
+    public double getSumSeconds() {
+        return sumNanos.sum() / 1e9;
+    }
+
+    /**
+     * This method percentile() gets the duration below which the given share of the durations fall.
+     *
+     * @param quantile The share, between 0 and 1, for example 0.99.
+     * @return The upper bound of the bucket holding that duration in seconds(double), or 0 when empty.
+     */
+
+    public double percentile(double quantile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * total));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return upperBoundMicros(i) / 1e6;
+            }
+        }
+        return upperBoundMicros(BUCKETS - 1) / 1e6;
+    }
+
+    /**
+     * This method index() finds the bucket of a duration in microseconds.
+     */
+
+    static int index(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros); // At least SUB_BUCKET_BITS here.
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return SUB_BUCKETS + (exponent - SUB_BUCKET_BITS) * SUB_BUCKETS + subBucket;
+    }
+
+    /**
+     * This method upperBoundMicros() gets the highest duration in microseconds counted by a bucket.
+     */
+
+    static long upperBoundMicros(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = (index - SUB_BUCKETS) / SUB_BUCKETS + SUB_BUCKET_BITS;
+        long subBucket = (index - SUB_BUCKETS) % SUB_BUCKETS;
+        long width = 1L << (exponent - SUB_BUCKET_BITS);
+        return (SUB_BUCKETS + subBucket) * width + width - 1;
+    }
+}
@@ -0,0 +1,124 @@
+package org.example.javasystematiskprojekt1.metrics;
+
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.container.ResourceInfo;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.ext.Provider;
+import jakarta.ws.rs.ext.WriterInterceptor;
+import jakarta.ws.rs.ext.WriterInterceptorContext;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The MetricsFilter class measures every request handled by a resource method and records it in the
+ * MetricsRegistry: its latency and response size, by endpoint and status code, and the time spent
+ * serialising the response body. Responses without a body are recorded when the response filter runs;
+ * responses with a body once the body has been written, so their latency includes serialisation.
+ *
+ * Each request allocates one RequestTiming, which holds the start time and the matched metrics and also counts
+ * the bytes of the body as it is written. It cannot be kept per thread and reused, because an asynchronous
+ * request is started on one thread and its body written on another.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@Provider // Annotation registers the class with the JAX-RS runtime.
+public class MetricsFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+    private static final String TIMING = MetricsFilter.class.getName() + ".timing";
+
+    @Inject // Annotation injects the registry the metrics are recorded in.
+    private MetricsRegistry registry;
+
+    @Context // Annotation injects information about the resource method matched for the request.
+    private ResourceInfo resourceInfo;
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        request.setProperty(TIMING, new RequestTiming(System.nanoTime()));
+    }
+
+    @Override
+    public void filter(ContainerRequestContext request, ContainerResponseContext response) {
+        RequestTiming timing = (RequestTiming) request.getProperty(TIMING);
+        if (timing == null || resourceInfo.getResourceMethod() == null) {
+            return; // The request never reached a resource method.
+        }
+        EndpointMetrics endpoint = registry.endpoint(resourceInfo.getResourceMethod());
+        EndpointMetrics.StatusMetrics status = endpoint.status(response.getStatus());
+        if (response.hasEntity()) {
+            // Recorded by aroundWriteTo() once the body has been written.
+            timing.endpoint = endpoint;
+            timing.status = status;
+        } else {
+            long nanos = System.nanoTime() - timing.start;
+            status.record(nanos, 0);
+            registry.recordRequest(nanos);
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(WriterInterceptorContext context) throws IOException {
+        RequestTiming timing = (RequestTiming) context.getProperty(TIMING);
+        if (timing == null || timing.status == null) {
+            context.proceed();
+            return;
+        }
+        timing.count(context.getOutputStream());
+        context.setOutputStream(timing);
+        long writeStart = System.nanoTime();
+        try {
+            context.proceed();
+        } finally {
+            long end = System.nanoTime();
+            timing.endpoint.getSerialization().record(end - writeStart);
+            timing.status.record(end - timing.start, timing.bytes);
+            registry.recordRequest(end - timing.start);
+        }
+    }
+
+    /**
+     * The RequestTiming class is the state of one measured request: when it started, the metrics it is
+     * recorded in, and, as the stream the body is written through, the number of bytes of the body.
+     */
+
+    private static final class RequestTiming extends FilterOutputStream {
+
+        private final long start;
+        private EndpointMetrics endpoint;
+        private EndpointMetrics.StatusMetrics status;
+        private long bytes;
+
+        private RequestTiming(long start) {
+            super(null);
+            this.start = start;
+        }
+
+        /**
+         * This method count() starts counting the bytes written to the given stream.
+         */
+
+        private void count(OutputStream body) {
+            out = body;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            bytes += len;
+        }
+    }
+}
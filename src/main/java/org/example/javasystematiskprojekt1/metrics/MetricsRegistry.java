@@ -0,0 +1,177 @@
+package org.example.javasystematiskprojekt1.metrics;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Method;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The MetricsRegistry class holds all request and repository metrics of the application and writes them in
+ * the Prometheus text format. Metrics are looked up by the reflected Method of the resource or repository
+ * method, which needs no string building, so once a method has been seen the registry allocates nothing to
+ * record a request; the 'MetricsFilter' allocates one small object per request.
+ * The latency of the first requests after the application starts, whose number is set with the system property
+ * "movies.metrics.coldRequests" (default 1000), is also recorded on its own, together with how long the
+ * startup warm-up took, so the cost of a restart can be compared with the steady state.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@ApplicationScoped // Annotation of CDI bean, makes the class a singleton. Class can be injected into other classes.
+public class MetricsRegistry {
+
+    private static final double[] QUANTILES = {0.5, 0.99, 0.999};
+
+    private final Map<Method, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+    private final Map<Method, LatencyHistogram> repositoryMethods = new ConcurrentHashMap<>();
+
+    private static final long COLD_REQUESTS = Long.getLong("movies.metrics.coldRequests", 1000);
+
+    private final LatencyHistogram coldRequests = new LatencyHistogram();
+    private final AtomicLong requests = new AtomicLong();
+    private volatile double warmUpSeconds = -1; // Not warmed up yet.
+
+    /**
+     * This method endpoint() gets the metrics of a resource method, creating them the first time.
+     *
+     * @param resourceMethod The JAX-RS resource method that handled the request.
+     * @return The metrics of the endpoint.
+     */
+
+    public EndpointMetrics endpoint(Method resourceMethod) {
+        EndpointMetrics metrics = endpoints.get(resourceMethod);
+        if (metrics == null) {
+            metrics = endpoints.computeIfAbsent(resourceMethod, EndpointMetrics::forMethod);
+        }
+        return metrics;
+    }
+
+    /**
+     * This method recordRepository() counts one call of a repository method.
+     *
+     * @param method The repository method.
+     * @param nanos The duration of the call, including its transaction, in nanoseconds.
+     */
+
+    public void recordRepository(Method method, long nanos) {
+        LatencyHistogram histogram = repositoryMethods.get(method);
+        if (histogram == null) {
+            histogram = repositoryMethods.computeIfAbsent(method, m -> new LatencyHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    /**
+     * This method recordRequest() counts one handled request, and records its latency while it is one of the
+     * first requests after startup.
+     *
+     * @param nanos The duration of the request in nanoseconds.
+     */
+
+    public void recordRequest(long nanos) {
+        if (requests.get() < COLD_REQUESTS && requests.getAndIncrement() < COLD_REQUESTS) {
+            coldRequests.record(nanos);
+        }
+    }
+
+    /**
+     * This method recordWarmUp() records how long the startup warm-up took.
+     *
+     * @param nanos The duration of the warm-up in nanoseconds.
+     */
+
+    public void recordWarmUp(long nanos) {
+        warmUpSeconds = nanos / 1e9;
+    }
+
+    /**
+     * This method writePrometheus() writes every metric in the Prometheus text exposition format (0.0.4).
+     *
+     * @param out The writer to write to.
+     * @throws IOException If writing fails.
+     */
+
+    public void writePrometheus(Writer out) throws IOException {
+        StringBuilder text = new StringBuilder();
+        text.append("# HELP movies_http_requests_total Requests handled, by endpoint and status.\n");
+        text.append("# TYPE movies_http_requests_total counter\n");
+        for (EndpointMetrics endpoint : endpoints.values()) {
+            endpoint.forEachStatus(status -> text.append("movies_http_requests_total")
+                    .append(labels(endpoint, status)).append(' ')
+                    .append(status.getLatency().getCount()).append('\n'));
+        }
+        text.append("# HELP movies_http_request_duration_seconds Request latency, by endpoint and status.\n");
+        text.append("# TYPE movies_http_request_duration_seconds summary\n");
+        for (EndpointMetrics endpoint : endpoints.values()) {
+            endpoint.forEachStatus(status ->
+                    summary(text, "movies_http_request_duration_seconds", labels(endpoint, status), status.getLatency()));
+        }
+        text.append("# HELP movies_http_response_bytes_total Response body bytes, by endpoint and status.\n");
+        text.append("# TYPE movies_http_response_bytes_total counter\n");
+        for (EndpointMetrics endpoint : endpoints.values()) {
+            endpoint.forEachStatus(status -> text.append("movies_http_response_bytes_total")
+                    .append(labels(endpoint, status)).append(' ')
+                    .append(status.getResponseBytes()).append('\n'));
+        }
+        text.append("# HELP movies_http_serialization_duration_seconds Time spent writing response bodies.\n");
+        text.append("# TYPE movies_http_serialization_duration_seconds summary\n");
+        for (EndpointMetrics endpoint : endpoints.values()) {
+            summary(text, "movies_http_serialization_duration_seconds",
+                    "{endpoint=\"" + escape(endpoint.getName()) + "\"}", endpoint.getSerialization());
+        }
+        text.append("# HELP movies_repository_duration_seconds Time spent in MovieRepository methods.\n");
+        text.append("# TYPE movies_repository_duration_seconds summary\n");
+        for (Map.Entry<Method, LatencyHistogram> entry : repositoryMethods.entrySet()) {
+            summary(text, "movies_repository_duration_seconds",
+                    "{method=\"" + escape(entry.getKey().getName()) + "\"}", entry.getValue());
+        }
+        text.append("# HELP movies_http_cold_request_duration_seconds Latency of the first ").append(COLD_REQUESTS)
+                .append(" requests after startup.\n");
+        text.append("# TYPE movies_http_cold_request_duration_seconds summary\n");
+        summary(text, "movies_http_cold_request_duration_seconds", "", coldRequests);
+        text.append("# HELP movies_startup_warmup_seconds Time from startup until the warm-up finished.\n");
+        text.append("# TYPE movies_startup_warmup_seconds gauge\n");
+        text.append("movies_startup_warmup_seconds ").append(warmUpSeconds < 0 ? "NaN" : format(warmUpSeconds))
+                .append('\n');
+        out.write(text.toString());
+    }
+
+    /**
+     * This method summary() writes a histogram as a Prometheus summary: its quantiles, sum and count.
+     */
+
+    private static void summary(StringBuilder text, String name, String labels, LatencyHistogram histogram) {
+        // Labels without the closing brace, ready for the quantile label.
+        String open = labels.isEmpty() ? "{" : labels.substring(0, labels.length() - 1) + ",";
+        for (double quantile : QUANTILES) {
+            text.append(name).append(open).append("quantile=\"").append(quantile).append("\"} ")
+                    .append(format(histogram.percentile(quantile))).append('\n');
+        }
+        text.append(name).append("_sum").append(labels).append(' ')
+                .append(format(histogram.getSumSeconds())).append('\n');
+        text.append(name).append("_count").append(labels).append(' ')
+                .append(histogram.getCount()).append('\n');
+    }
+
+    private static String labels(EndpointMetrics endpoint, EndpointMetrics.StatusMetrics status) {
+        return "{endpoint=\"" + escape(endpoint.getName()) + "\",status=\"" + status.getStatus() + "\"}";
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.6f", value);
+    }
+
+    /**
+     * This method escape() escapes a label value as the Prometheus text format requires.
+     */
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,22 @@
+package org.example.javasystematiskprojekt1.metrics;
+
+import jakarta.interceptor.InterceptorBinding;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The Timed annotation marks a CDI bean, or some of its methods, whose calls are timed by the
+ * TimedInterceptor and recorded in the MetricsRegistry.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@InterceptorBinding // Annotation makes this annotation bind the TimedInterceptor to the annotated beans.
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD})
+public @interface Timed {
+}
@@ -0,0 +1,43 @@
+package org.example.javasystematiskprojekt1.metrics;
+
+import jakarta.annotation.Priority;
+import jakarta.inject.Inject;
+import jakarta.interceptor.AroundInvoke;
+import jakarta.interceptor.Interceptor;
+import jakarta.interceptor.InvocationContext;
+
+/**
+ * The TimedInterceptor class times every call of a method of a bean annotated with @Timed and records the
+ * duration in the MetricsRegistry. Its priority places it outside the @Transactional interceptor, so the
+ * recorded time includes starting and committing the transaction.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@Timed // Annotation binds the interceptor to beans and methods annotated with @Timed.
+@Interceptor // Annotation makes the class a CDI interceptor.
+@Priority(Interceptor.Priority.PLATFORM_BEFORE + 100) // Enables the interceptor, before @Transactional (+200).
+public class TimedInterceptor {
+
+    @Inject // Annotation injects the registry the durations are recorded in.
+    private MetricsRegistry registry;
+
+    /**
+     * This method time() runs the intercepted call and records how long it took, also when it fails.
+     *
+     * @param context The intercepted call.
+     * @return The result of the call.
+     * @throws Exception Any exception thrown by the call.
+     */
+
+    @AroundInvoke // Annotation marks the method wrapped around every intercepted call.
+    public Object time(InvocationContext context) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return context.proceed();
+        } finally {
+            registry.recordRepository(context.getMethod(), System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.example.javasystematiskprojekt1.model;
+
+import jakarta.json.bind.annotation.JsonbPropertyOrder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The BulkImportResult class is the report returned by a bulk import of movies. It lists the result of every
+ * chunk that was written to the database, the total number of rows imported and the achieved rows per second.
+ * It is only used to build JSON responses and is never stored in the database.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@JsonbPropertyOrder({"importedRows", "failedRows", "elapsedMillis", "rowsPerSecond", "error", "chunks"}) // Ordered
+public class BulkImportResult {
+
+    private final List<Chunk> chunks = new ArrayList<>();
+    private long importedRows;
+    private long failedRows;
+    private long elapsedMillis;
+    private double rowsPerSecond;
+    private String error;
+
+    /**
+     * This method addChunk() records the result of one chunk and updates the row totals.
+     *
+     * @param chunk The result of the chunk.
+     */
+
+    public void addChunk(Chunk chunk) {
+        chunks.add(chunk);
+        if (chunk.isCommitted()) {
+            importedRows += chunk.getRows();
+        } else {
+            failedRows += chunk.getRows();
+        }
+    }
+
+    /**
+     * This method finish() records the total duration of the import and computes the rows per second.
+     *
+     * @param elapsedNanos The duration of the whole import in nanoseconds.
+     */
+
+    public void finish(long elapsedNanos) {
+        elapsedMillis = elapsedNanos / 1_000_000;
+        rowsPerSecond = elapsedNanos == 0 ? 0 : importedRows * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * This method getChunks() gets the results of all chunks, in import order.
+     *
+     * @return The chunk results(List).
+     */
+
+    public List<Chunk> getChunks() {
+        return chunks;
+    }
+
+    /**
+     * This method getImportedRows() gets the number of rows committed to the database.
+     *
+     * @return The number of imported rows(long).
+     */
+
+    public long getImportedRows() {
+        return importedRows;
+    }
+
+    /**
+     * This method getFailedRows() gets the number of rows in chunks that were rolled back.
+     *
+     * @return The number of failed rows(long).
+     */
+
+    public long getFailedRows() {
+        return failedRows;
+    }
+
+    /**
+     * This method getElapsedMillis() gets the duration of the whole import.
+     *
+     * @return The duration in milliseconds(long).
+     */
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * This method getRowsPerSecond() gets the achieved import throughput.
+     *
+     * @return The number of imported rows per second(double).
+     */
+
+    public double getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+
+    /**
+     * This method getError() gets the reason the import stopped early, if it did.
+     *
+     * @return The error message(String), or null if the whole input was read.
+     */
+
+    public String getError() {
+        return error;
+    }
+
+    /**
+     * This method setError() sets the reason the import stopped early.
+     *
+     * @param error The error message.
+     */
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    /**
+     * The Chunk class is the result of one chunk of a bulk import, written in its own transaction.
+     */
+
+    @JsonbPropertyOrder({"index", "rows", "millis", "committed", "error"}) // Ordered
+    public static class Chunk {
+
+        private final int index;
+        private final int rows;
+        private final long millis;
+        private final boolean committed;
+        private final String error;
+
+        /**
+         * A constructor for the Chunk class.
+         *
+         * @param index The position of the chunk in the import, starting at 0.
+         * @param rows The number of movies in the chunk.
+         * @param millis The time spent writing the chunk in milliseconds.
+         * @param error The reason the chunk was rolled back, or null if it was committed.
+         */
+
+        public Chunk(int index, int rows, long millis, String error) {
+            this.index = index;
+            this.rows = rows;
+            this.millis = millis;
+            this.committed = error == null;
+            this.error = error;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public boolean isCommitted() {
+            return committed;
+        }
+
+        public String getError() {
+            return error;
+        }
+    }
+}
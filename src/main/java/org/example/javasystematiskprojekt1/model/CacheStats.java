@@ -0,0 +1,77 @@
+package org.example.javasystematiskprojekt1.model;
+
+import jakarta.json.bind.annotation.JsonbPropertyOrder;
+
+/**
+ * The CacheStats class holds the counters of a cache at one point in time. It is only used to build
+ * JSON responses.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@JsonbPropertyOrder({"entries", "maxEntries", "pageEntries", "hits", "misses", "evictions", "hitRate"}) // Ordered
+public class CacheStats {
+
+    private final int entries;
+    private final int maxEntries;
+    private final int pageEntries;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+
+    /**
+     * A constructor for the CacheStats class.
+     *
+     * @param entries The number of movies in the cache.
+     * @param maxEntries The maximum number of movies the cache holds.
+     * @param pageEntries The number of list pages in the cache.
+     * @param hits The number of lookups answered from the cache.
+     * @param misses The number of lookups that went to the database.
+     * @param evictions The number of entries removed because the cache was full or they expired.
+     */
+
+    public CacheStats(int entries, int maxEntries, int pageEntries, long hits, long misses, long evictions) {
+        this.entries = entries;
+        this.maxEntries = maxEntries;
+        this.pageEntries = pageEntries;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    public int getEntries() {
+        return entries;
+    }
+
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    public int getPageEntries() {
+        return pageEntries;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * This method getHitRate() gets the share of lookups answered from the cache.
+     *
+     * @return The hit rate between 0 and 1(double).
+     */
+
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
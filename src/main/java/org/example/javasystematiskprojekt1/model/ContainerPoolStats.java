@@ -0,0 +1,123 @@
+package org.example.javasystematiskprojekt1.model;
+
+import jakarta.json.bind.annotation.JsonbPropertyOrder;
+
+/**
+ * The ContainerPoolStats class holds the monitoring counters of the application server's connection pool
+ * behind 'jdbc/__default' at one point in time. It is only used to build JSON responses.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@JsonbPropertyOrder({"pool", "available", "active", "maxActive", "idle", "waiting", "created", "acquisitions",
+        "timeouts", "averageWaitMillis", "potentialLeaks", "message"}) // Ordered
+public class ContainerPoolStats {
+
+    private final String pool;
+    private final boolean available;
+    private final long active;
+    private final long maxActive;
+    private final long idle;
+    private final long waiting;
+    private final long created;
+    private final long acquisitions;
+    private final long timeouts;
+    private final long averageWaitMillis;
+    private final long potentialLeaks;
+    private final String message;
+
+    /**
+     * A constructor for the ContainerPoolStats class.
+     *
+     * @param pool The name of the server's connection pool.
+     * @param available Whether the server reported the counters; if not, the other values are all zero.
+     * @param active The number of connections in use.
+     * @param maxActive The highest number of connections in use at once.
+     * @param idle The number of open connections waiting to be used.
+     * @param waiting The number of callers waiting for a connection.
+     * @param created The number of connections opened.
+     * @param acquisitions The number of times a connection was handed out.
+     * @param timeouts The number of callers that gave up waiting for a connection.
+     * @param averageWaitMillis The average time callers waited for a connection.
+     * @param potentialLeaks The number of connections held longer than the leak timeout of the pool.
+     * @param message Why the counters are not available, or null.
+     */
+
+    public ContainerPoolStats(String pool, boolean available, long active, long maxActive, long idle, long waiting,
+                              long created, long acquisitions, long timeouts, long averageWaitMillis,
+                              long potentialLeaks, String message) {
+        this.pool = pool;
+        this.available = available;
+        this.active = active;
+        this.maxActive = maxActive;
+        this.idle = idle;
+        this.waiting = waiting;
+        this.created = created;
+        this.acquisitions = acquisitions;
+        this.timeouts = timeouts;
+        this.averageWaitMillis = averageWaitMillis;
+        this.potentialLeaks = potentialLeaks;
+        this.message = message;
+    }
+
+    /**
+     * This method unavailable() creates the statistics reported when the server does not monitor the pool.
+     *
+     * @param pool The name of the server's connection pool.
+     * @param message Why the counters are not available.
+     * @return Statistics with every value zero.
+     */
+
+    public static ContainerPoolStats unavailable(String pool, String message) {
+        return new ContainerPoolStats(pool, false, 0, 0, 0, 0, 0, 0, 0, 0, 0, message);
+    }
+
+    public String getPool() {
+        return pool;
+    }
+
+    public boolean isAvailable() {
+        return available;
+    }
+
+    public long getActive() {
+        return active;
+    }
+
+    public long getMaxActive() {
+        return maxActive;
+    }
+
+    public long getIdle() {
+        return idle;
+    }
+
+    public long getWaiting() {
+        return waiting;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getAcquisitions() {
+        return acquisitions;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public long getAverageWaitMillis() {
+        return averageWaitMillis;
+    }
+
+    public long getPotentialLeaks() {
+        return potentialLeaks;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,96 @@
+package org.example.javasystematiskprojekt1.model;
+
+import jakarta.json.bind.annotation.JsonbPropertyOrder;
+
+/**
+ * The IngestStatus class holds the counters of the write-behind queue at one point in time. It is only used
+ * to build JSON responses.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@JsonbPropertyOrder({"capacity", "depth", "accepted", "written", "failed", "rejected", "lagMillis",
+        "lastBatchRows", "lastBatchMillis", "closed"}) // Ordered
+public class IngestStatus {
+
+    private final int capacity;
+    private final int depth;
+    private final long accepted;
+    private final long written;
+    private final long failed;
+    private final long rejected;
+    private final long lagMillis;
+    private final int lastBatchRows;
+    private final long lastBatchMillis;
+    private final boolean closed;
+
+    /**
+     * A constructor for the IngestStatus class.
+     *
+     * @param capacity The number of movies the queue holds.
+     * @param depth The number of movies waiting to be written, or being written.
+     * @param accepted The number of movies accepted, which is also the last ticket number.
+     * @param written The number of movies written to the database.
+     * @param failed The number of movies that could not be written.
+     * @param rejected The number of movies refused because the queue was full or closed.
+     * @param lagMillis How long the oldest waiting movie has waited, in milliseconds.
+     * @param lastBatchRows The number of movies in the last batch.
+     * @param lastBatchMillis How long the last batch took to write, in milliseconds.
+     * @param closed Whether the queue has been closed because the application is stopping.
+     */
+
+    public IngestStatus(int capacity, int depth, long accepted, long written, long failed, long rejected,
+                        long lagMillis, int lastBatchRows, long lastBatchMillis, boolean closed) {
+        this.capacity = capacity;
+        this.depth = depth;
+        this.accepted = accepted;
+        this.written = written;
+        this.failed = failed;
+        this.rejected = rejected;
+        this.lagMillis = lagMillis;
+        this.lastBatchRows = lastBatchRows;
+        this.lastBatchMillis = lastBatchMillis;
+        this.closed = closed;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getAccepted() {
+        return accepted;
+    }
+
+    public long getWritten() {
+        return written;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getLagMillis() {
+        return lagMillis;
+    }
+
+    public int getLastBatchRows() {
+        return lastBatchRows;
+    }
+
+    public long getLastBatchMillis() {
+        return lastBatchMillis;
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+}
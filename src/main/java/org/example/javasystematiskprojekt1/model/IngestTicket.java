@@ -0,0 +1,54 @@
+package org.example.javasystematiskprojekt1.model;
+
+import jakarta.json.bind.annotation.JsonbPropertyOrder;
+
+/**
+ * The IngestTicket class is the state of a movie accepted by the write-behind queue. It is only used to build
+ * JSON responses.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@JsonbPropertyOrder({"ticket", "state", "error"}) // Ordered
+public class IngestTicket {
+
+    /**
+     * The states of a ticket. UNKNOWN means the movie was either written or failed so long ago that its
+     * error is no longer remembered.
+     */
+
+    public enum State {
+        PENDING, WRITTEN, FAILED, UNKNOWN
+    }
+
+    private final long ticket;
+    private final State state;
+    private final String error;
+
+    /**
+     * A constructor for the IngestTicket class.
+     *
+     * @param ticket The ticket number.
+     * @param state The state of the movie.
+     * @param error Why the movie could not be written, or null.
+     */
+
+    public IngestTicket(long ticket, State state, String error) {
+        this.ticket = ticket;
+        this.state = state;
+        this.error = error;
+    }
+
+    public long getTicket() {
+        return ticket;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public String getError() {
+        return error;
+    }
+}
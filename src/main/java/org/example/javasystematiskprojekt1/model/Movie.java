@@ -16,12 +16,44 @@ import jakarta.persistence.*;
 
 
 @Entity // Annotation makes the class a JPA entity.
-@Table(name = "movieData") // Annotation maps the entity to a database table.
-@JsonbPropertyOrder({"id", "movieTitle", "movieDirector", "releaseYear", "movieGenre", "moviePlot"}) // Ordered
+@Cacheable // Annotation keeps the entity in the JPA shared cache, configured by MovieCacheCustomizer.
+@NamedQueries({ // Annotation declares the queries parsed once when the persistence unit is deployed.
+        @NamedQuery(name = "Movie.scanStatsColumnsAfter", query = "select m.id, m.movieGenre, m.movieDirector, "
+                + "m.releaseYear from Movie m where m.id > :afterId order by m.id"),
+        @NamedQuery(name = "Movie.count", query = "select count(m) from Movie m"),
+        @NamedQuery(name = "Movie.versionById", query = "select m.version from Movie m where m.id = :id"),
+        @NamedQuery(name = "Movie.deleteById", query = "delete from Movie m where m.id = :id")
+})
+@NamedNativeQuery(name = "Movie.scanAfter", resultClass = Movie.class, // Annotation declares a named SQL query.
+        // The page size is a parameter of the SQL, as EclipseLink only caches the results of a query without a row
+        // limit. The pages are cached per cursor and page size, until a movie changes or 5 minutes have passed.
+        query = "select ID, MOVIETITLE, MOVIEDIRECTOR, RELEASEYEAR, MOVIEGENRE, MOVIEPLOT, VERSION from movieData "
+                + "where ID > ?1 order by ID fetch first ?2 rows only",
+        hints = {
+                @QueryHint(name = "eclipselink.query-results-cache", value = "true"),
+                @QueryHint(name = "eclipselink.query-results-cache.size", value = "100"),
+                @QueryHint(name = "eclipselink.query-results-cache.expiry", value = "300000"),
+                @QueryHint(name = "eclipselink.query-results-cache.invalidate-on-change", value = "true")
+        })
+@Table(name = "movieData", indexes = { // Annotation maps the entity to a database table.
+        // Indexes on the columns used by the search filters, followed by the id: the searches sort by the filtered
+        // column or the id and then the id, so a filter with one value reads its movies in id order without a
+        // sort. They are created together with the table, and by MovieSchema at startup when an existing table
+        // lacks them.
+        @Index(name = "IDX_MOVIE_TITLE_ID", columnList = "movieTitle, ID"),
+        @Index(name = "IDX_MOVIE_DIRECTOR_ID", columnList = "movieDirector, ID"),
+        @Index(name = "IDX_MOVIE_GENRE_ID", columnList = "movieGenre, ID"),
+        @Index(name = "IDX_MOVIE_YEAR_ID", columnList = "releaseYear, ID")
+})
+@JsonbPropertyOrder({"id", "movieTitle", "movieDirector", "releaseYear", "movieGenre", "moviePlot", "version"}) // Ordered
 public class Movie {
 
     @Id // Primary key (Unique Identifier) is assigned to this field of the entity class.
-    @GeneratedValue(strategy = GenerationType.AUTO) // id value will be generated automatically.
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "MOVIE_SEQ") // id value will be generated automatically.
+    /* The ids come from the same SEQUENCE table EclipseLink uses for GenerationType.AUTO, but are
+    preallocated in blocks of 1000, so bulk imports only go to the sequence table once every 1000 rows. */
+    @TableGenerator(name = "MOVIE_SEQ", table = "SEQUENCE", pkColumnName = "SEQ_NAME",
+            valueColumnName = "SEQ_COUNT", pkColumnValue = "SEQ_GEN", allocationSize = 1000)
     @Column(name = "ID", nullable = false) // id needs to have a value.
     private Long id; // The Long wrapper class is the recommended data type in JPA contexts. Advantage: Nullability.
 
@@ -40,6 +72,9 @@ public class Movie {
     private String movieGenre;
     private String moviePlot;
 
+    @Version // Annotation marks the optimistic locking version, increased on every update of the movie.
+    private Long version; // Clients send back the version they read, so concurrent updates are detected.
+
     /**
      * A no-argument constructor for the Movie class. It creates a Movie instance without
      * requiring any parameters. This type constructors are used in JPA frameworks.
@@ -167,4 +202,24 @@ public class Movie {
     public void setMovieDirector(String movieDirector) {
         this.movieDirector = movieDirector;
     }
+
+    /**
+     * This method getVersion() gets the optimistic locking version of a Movie entity.
+     *
+     * @return The movie version(Long), or null if the movie has not been saved yet.
+     */
+
+    public Long getVersion() {
+        return version;
+    }
+
+    /**
+     * This method setVersion() sets the optimistic locking version of a Movie entity.
+     *
+     * @param version The movie version.
+     */
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
@@ -0,0 +1,64 @@
+package org.example.javasystematiskprojekt1.model;
+
+import jakarta.json.bind.annotation.JsonbPropertyOrder;
+
+/**
+ * The MovieChange class is one committed change to the movies as published on the change feed: its sequence
+ * number, the kind of change, the id of the movie and, for created and updated movies, the movie after the
+ * change. It is only used to build JSON responses.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@JsonbPropertyOrder({"sequence", "type", "id", "movie"}) // Ordered
+public class MovieChange {
+
+    private final long sequence;
+    private final MovieChangeEvent.Type type;
+    private final Long id;
+    private final Movie movie;
+
+    /**
+     * A constructor for the MovieChange class.
+     *
+     * @param sequence The sequence number of the change, one higher than the change published before it. It
+     *                 orders the changes as the feed observed them, which is not always their commit order.
+     * @param event The change fired by the 'MovieRepository'.
+     */
+
+    public MovieChange(long sequence, MovieChangeEvent event) {
+        this.sequence = sequence;
+        this.type = event.getType();
+        this.id = event.getId();
+        this.movie = event.getMovie() == null ? null : event.getMovie().toMovie();
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public MovieChangeEvent.Type getType() {
+        return type;
+    }
+
+    /**
+     * This method getId() gets the id of the changed movie.
+     *
+     * @return The movie id(Long), or null for BULK changes.
+     */
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * This method getMovie() gets the movie after the change.
+     *
+     * @return The movie, or null for DELETED and BULK changes.
+     */
+
+    public Movie getMovie() {
+        return movie;
+    }
+}
@@ -0,0 +1,165 @@
+package org.example.javasystematiskprojekt1.model;
+
+/**
+ * The MovieChangeEvent class describes one change to the movies in the database. The 'MovieRepository'
+ * fires it as a CDI event for every write, so other parts of the application (such as caches) can observe
+ * the changes, usually only once the transaction has been committed.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+public final class MovieChangeEvent {
+
+    /**
+     * The kinds of changes. BULK means an unknown set of movies changed at once, for example by a
+     * filtered delete, so observers should treat all their movie data as out of date. A BULK event of a
+     * filtered delete also carries the filters, so an observer holding its own copy of the rows can delete
+     * the same rows instead.
+     */
+
+    public enum Type {
+        CREATED, UPDATED, DELETED, BULK
+    }
+
+    private final Type type;
+    private final Long id;
+    private final MovieSnapshot movie;
+    private final boolean filteredDelete;
+    private final String genre;
+    private final Integer releasedBefore;
+
+    /**
+     * A private constructor, events are created through the static factory methods.
+     */
+
+    private MovieChangeEvent(Type type, Long id, MovieSnapshot movie) {
+        this(type, id, movie, false, null, null);
+    }
+
+    private MovieChangeEvent(Type type, Long id, MovieSnapshot movie, boolean filteredDelete, String genre,
+                             Integer releasedBefore) {
+        this.type = type;
+        this.id = id;
+        this.movie = movie;
+        this.filteredDelete = filteredDelete;
+        this.genre = genre;
+        this.releasedBefore = releasedBefore;
+    }
+
+    /**
+     * This method created() creates the event for a new movie.
+     *
+     * @param movie The created movie, with its generated id and the version it was stored with.
+     * @return A CREATED event.
+     */
+
+    public static MovieChangeEvent created(Movie movie) {
+        return new MovieChangeEvent(Type.CREATED, movie.getId(), MovieSnapshot.of(movie));
+    }
+
+    /**
+     * This method updated() creates the event for an updated movie.
+     *
+     * @param id The id of the updated movie.
+     * @param movie The new data of the movie.
+     * @param version The version the movie was stored with by the update.
+     * @return An UPDATED event.
+     */
+
+    public static MovieChangeEvent updated(Long id, Movie movie, Long version) {
+        Movie copy = MovieSnapshot.of(movie).toMovie();
+        copy.setId(id);
+        copy.setVersion(version);
+        return new MovieChangeEvent(Type.UPDATED, id, MovieSnapshot.of(copy));
+    }
+
+    /**
+     * This method deleted() creates the event for a deleted movie.
+     *
+     * @param id The id of the deleted movie.
+     * @return A DELETED event.
+     */
+
+    public static MovieChangeEvent deleted(Long id) {
+        return new MovieChangeEvent(Type.DELETED, id, null);
+    }
+
+    /**
+     * This method bulk() creates the event for a change to an unknown set of movies.
+     *
+     * @return A BULK event.
+     */
+
+    public static MovieChangeEvent bulk() {
+        return new MovieChangeEvent(Type.BULK, null, null);
+    }
+
+    /**
+     * This method deletedMatching() creates the event for a filtered delete. The filters are combined with
+     * "and"; a filter that is null was not applied.
+     *
+     * @param genre The genre of the deleted movies, or null for any genre.
+     * @param releasedBefore The movies released before this year were deleted, or null for any year.
+     * @return A BULK event carrying the filters.
+     */
+
+    public static MovieChangeEvent deletedMatching(String genre, Integer releasedBefore) {
+        return new MovieChangeEvent(Type.BULK, null, null, true, genre, releasedBefore);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * This method getId() gets the id of the changed movie.
+     *
+     * @return The movie id(Long), or null for BULK events.
+     */
+
+    public Long getId() {
+        return id;
+    }
+
+    /**
+     * This method getMovie() gets the data of the movie after the change.
+     *
+     * @return The movie data(MovieSnapshot), or null for DELETED and BULK events.
+     */
+
+    public MovieSnapshot getMovie() {
+        return movie;
+    }
+
+    /**
+     * This method isFilteredDelete() tells whether the event is a filtered delete, whose rows are those
+     * matching getGenre() and getReleasedBefore().
+     *
+     * @return True for the BULK event of a filtered delete(boolean).
+     */
+
+    public boolean isFilteredDelete() {
+        return filteredDelete;
+    }
+
+    /**
+     * This method getGenre() gets the genre filter of a filtered delete.
+     *
+     * @return The genre(String), or null if any genre matched.
+     */
+
+    public String getGenre() {
+        return genre;
+    }
+
+    /**
+     * This method getReleasedBefore() gets the release year filter of a filtered delete.
+     *
+     * @return The year(Integer) the deleted movies were released before, or null if any year matched.
+     */
+
+    public Integer getReleasedBefore() {
+        return releasedBefore;
+    }
+}
@@ -0,0 +1,92 @@
+package org.example.javasystematiskprojekt1.model;
+
+/**
+ * The MovieSnapshot class is an immutable copy of the data of a Movie entity. Snapshots are safe to share
+ * between threads and to keep in caches, because unlike a managed Movie entity they can never change or be
+ * attached to a persistence context. Callers get their own Movie object back through toMovie().
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+public final class MovieSnapshot {
+
+    private final Long id;
+    private final String movieTitle;
+    private final String movieDirector;
+    private final int releaseYear;
+    private final String movieGenre;
+    private final String moviePlot;
+    private final Long version;
+
+    /**
+     * A private constructor, snapshots are created through the method of().
+     */
+
+    private MovieSnapshot(Movie movie) {
+        this.id = movie.getId();
+        this.movieTitle = movie.getMovieTitle();
+        this.movieDirector = movie.getMovieDirector();
+        this.releaseYear = movie.getReleaseYear();
+        this.movieGenre = movie.getMovieGenre();
+        this.moviePlot = movie.getMoviePlot();
+        this.version = movie.getVersion();
+    }
+
+    /**
+     * This method of() creates a snapshot of the current data of a movie.
+     *
+     * @param movie The movie to copy.
+     * @return A MovieSnapshot holding the same data as the movie.
+     */
+
+    public static MovieSnapshot of(Movie movie) {
+        return new MovieSnapshot(movie);
+    }
+
+    /**
+     * This method toMovie() creates a new, unmanaged Movie object with the data of this snapshot.
+     *
+     * @return A new Movie object.
+     */
+
+    public Movie toMovie() {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setMovieTitle(movieTitle);
+        movie.setMovieDirector(movieDirector);
+        movie.setReleaseYear(releaseYear);
+        movie.setMovieGenre(movieGenre);
+        movie.setMoviePlot(moviePlot);
+        movie.setVersion(version);
+        return movie;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getMovieTitle() {
+        return movieTitle;
+    }
+
+    public String getMovieDirector() {
+        return movieDirector;
+    }
+
+    public int getReleaseYear() {
+        return releaseYear;
+    }
+
+    public String getMovieGenre() {
+        return movieGenre;
+    }
+
+    public String getMoviePlot() {
+        return moviePlot;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+}
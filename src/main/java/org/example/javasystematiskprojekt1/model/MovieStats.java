@@ -0,0 +1,63 @@
+package org.example.javasystematiskprojekt1.model;
+
+import jakarta.json.bind.annotation.JsonbPropertyOrder;
+
+import java.util.Map;
+
+/**
+ * The MovieStats class holds the number of movies in total and by genre, director and release year. The
+ * counts of each attribute are ordered from the most to the least common value; movies without a value are
+ * counted under the empty string. It is only used to build JSON responses.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@JsonbPropertyOrder({"source", "total", "byGenre", "byDirector", "byYear"}) // Ordered
+public class MovieStats {
+
+    private final String source;
+    private final long total;
+    private final Map<String, Long> byGenre;
+    private final Map<String, Long> byDirector;
+    private final Map<String, Long> byYear;
+
+    /**
+     * A constructor for the MovieStats class.
+     *
+     * @param source Where the counts come from: "database" or "rollup".
+     * @param total The total number of movies.
+     * @param byGenre The number of movies per genre.
+     * @param byDirector The number of movies per director.
+     * @param byYear The number of movies per release year.
+     */
+
+    public MovieStats(String source, long total, Map<String, Long> byGenre, Map<String, Long> byDirector,
+                      Map<String, Long> byYear) {
+        this.source = source;
+        this.total = total;
+        this.byGenre = byGenre;
+        this.byDirector = byDirector;
+        this.byYear = byYear;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public Map<String, Long> getByGenre() {
+        return byGenre;
+    }
+
+    public Map<String, Long> getByDirector() {
+        return byDirector;
+    }
+
+    public Map<String, Long> getByYear() {
+        return byYear;
+    }
+}
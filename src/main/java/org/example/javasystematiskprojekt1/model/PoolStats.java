@@ -0,0 +1,180 @@
+package org.example.javasystematiskprojekt1.model;
+
+import jakarta.json.bind.annotation.JsonbPropertyOrder;
+
+import java.util.List;
+
+/**
+ * The PoolStats class holds the counters of the application's connection pool at one point in time, with the
+ * most recent slow statements. It is only used to build JSON responses.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@JsonbPropertyOrder({"enabled", "maxSize", "active", "idle", "waiting", "created", "acquisitions", "timeouts",
+        "averageWaitMillis", "maxWaitMillis", "statementCacheHits", "statementCacheMisses",
+        "statementCacheHitRate", "slowQueries"}) // Ordered
+public class PoolStats {
+
+    private final boolean enabled;
+    private final int maxSize;
+    private final int active;
+    private final int idle;
+    private final int waiting;
+    private final long created;
+    private final long acquisitions;
+    private final long timeouts;
+    private final double averageWaitMillis;
+    private final double maxWaitMillis;
+    private final long statementCacheHits;
+    private final long statementCacheMisses;
+    private final List<SlowQuery> slowQueries;
+
+    /**
+     * A constructor for the PoolStats class.
+     *
+     * @param enabled Whether the application's pool is used; if not, the other values are all zero.
+     * @param maxSize The maximum number of connections in use at once.
+     * @param active The number of connections in use.
+     * @param idle The number of open connections waiting to be used.
+     * @param waiting The number of callers waiting for a connection.
+     * @param created The number of connections opened.
+     * @param acquisitions The number of times a connection was handed out.
+     * @param timeouts The number of callers that gave up waiting for a connection.
+     * @param averageWaitMillis The average time callers waited for a connection.
+     * @param maxWaitMillis The longest time a caller waited for a connection.
+     * @param statementCacheHits The number of prepared statements reused from the cache.
+     * @param statementCacheMisses The number of statements that had to be prepared.
+     * @param slowQueries The most recent slow statements, oldest first.
+     */
+
+    public PoolStats(boolean enabled, int maxSize, int active, int idle, int waiting, long created,
+                     long acquisitions, long timeouts, double averageWaitMillis, double maxWaitMillis,
+                     long statementCacheHits, long statementCacheMisses, List<SlowQuery> slowQueries) {
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        this.active = active;
+        this.idle = idle;
+        this.waiting = waiting;
+        this.created = created;
+        this.acquisitions = acquisitions;
+        this.timeouts = timeouts;
+        this.averageWaitMillis = averageWaitMillis;
+        this.maxWaitMillis = maxWaitMillis;
+        this.statementCacheHits = statementCacheHits;
+        this.statementCacheMisses = statementCacheMisses;
+        this.slowQueries = slowQueries;
+    }
+
+    /**
+     * This method disabled() creates the statistics reported when the application's pool is not used.
+     *
+     * @return Statistics with every value zero.
+     */
+
+    public static PoolStats disabled() {
+        return new PoolStats(false, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, List.of());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    public int getActive() {
+        return active;
+    }
+
+    public int getIdle() {
+        return idle;
+    }
+
+    public int getWaiting() {
+        return waiting;
+    }
+
+    public long getCreated() {
+        return created;
+    }
+
+    public long getAcquisitions() {
+        return acquisitions;
+    }
+
+    public long getTimeouts() {
+        return timeouts;
+    }
+
+    public double getAverageWaitMillis() {
+        return averageWaitMillis;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitMillis;
+    }
+
+    public long getStatementCacheHits() {
+        return statementCacheHits;
+    }
+
+    public long getStatementCacheMisses() {
+        return statementCacheMisses;
+    }
+
+    /**
+     * This method getStatementCacheHitRate() gets the share of prepared statements reused from the cache.
+     *
+     * @return The hit rate between 0 and 1(double).
+     */
+
+    public double getStatementCacheHitRate() {
+        long prepares = statementCacheHits + statementCacheMisses;
+        return prepares == 0 ? 0 : (double) statementCacheHits / prepares;
+    }
+
+    public List<SlowQuery> getSlowQueries() {
+        return slowQueries;
+    }
+
+    /**
+     * The SlowQuery class is one statement that took longer than the slow query threshold.
+     */
+
+    @JsonbPropertyOrder({"sql", "millis", "at"}) // Ordered
+    public static class SlowQuery {
+
+        private final String sql;
+        private final double millis;
+        private final long at;
+
+        /**
+         * A constructor for the SlowQuery class.
+         *
+         * @param sql The SQL of the statement.
+         * @param millis How long it ran, in milliseconds.
+         * @param at When it finished, in milliseconds since the epoch.
+         */
+
+        public SlowQuery(String sql, double millis, long at) {
+            this.sql = sql;
+            this.millis = millis;
+            this.at = at;
+        }
+
+        public String getSql() {
+            return sql;
+        }
+
+        public double getMillis() {
+            return millis;
+        }
+
+        public long getAt() {
+            return at;
+        }
+    }
+}
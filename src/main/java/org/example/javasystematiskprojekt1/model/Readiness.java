@@ -0,0 +1,47 @@
+package org.example.javasystematiskprojekt1.model;
+
+import jakarta.json.bind.annotation.JsonbPropertyOrder;
+
+import java.util.Map;
+
+/**
+ * The Readiness class tells whether the application has finished warming up after starting, with the state of
+ * every warm-up task. It is only used to build JSON responses.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@JsonbPropertyOrder({"ready", "warmUpMillis", "tasks"}) // Ordered
+public class Readiness {
+
+    private final boolean ready;
+    private final Long warmUpMillis;
+    private final Map<String, String> tasks;
+
+    /**
+     * A constructor for the Readiness class.
+     *
+     * @param ready Whether every warm-up task has finished.
+     * @param warmUpMillis How long the warm-up took, or null while it runs.
+     * @param tasks The state of every warm-up task by name: "pending", "done" or "failed".
+     */
+
+    public Readiness(boolean ready, Long warmUpMillis, Map<String, String> tasks) {
+        this.ready = ready;
+        this.warmUpMillis = warmUpMillis;
+        this.tasks = tasks;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public Long getWarmUpMillis() {
+        return warmUpMillis;
+    }
+
+    public Map<String, String> getTasks() {
+        return tasks;
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.javasystematiskprojekt1.model;
+
+import jakarta.json.bind.annotation.JsonbPropertyOrder;
+
+/**
+ * The SharedCacheStats class holds the counters of the JPA shared cache at one point in time. It is only used
+ * to build JSON responses.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@JsonbPropertyOrder({"enabled", "hits", "misses", "evictions", "hitRate"}) // Ordered
+public class SharedCacheStats {
+
+    private final boolean enabled;
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+
+    /**
+     * A constructor for the SharedCacheStats class.
+     *
+     * @param enabled Whether the shared cache is used in this deployment.
+     * @param hits The number of lookups by id that found the movie in the shared cache.
+     * @param misses The number of lookups by id that went to the database.
+     * @param evictions The number of evictions caused by changes to the movies.
+     */
+
+    public SharedCacheStats(boolean enabled, long hits, long misses, long evictions) {
+        this.enabled = enabled;
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public long getEvictions() {
+        return evictions;
+    }
+
+    /**
+     * This method getHitRate() gets the share of lookups answered from the shared cache.
+     *
+     * @return The hit rate between 0 and 1(double).
+     */
+
+    public double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,47 @@
+package org.example.javasystematiskprojekt1.model;
+
+import jakarta.json.bind.annotation.JsonbPropertyOrder;
+
+/**
+ * The TextSearchHit class is one result of a full-text search: the id of a matching movie, its BM25 relevance
+ * score and, once looked up, the movie itself. It is only used to build JSON responses.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@JsonbPropertyOrder({"id", "score", "movie"}) // Ordered
+public class TextSearchHit {
+
+    private final long id;
+    private final double score;
+    private Movie movie;
+
+    /**
+     * A constructor for the TextSearchHit class.
+     *
+     * @param id The id of the matching movie.
+     * @param score The relevance score of the movie, higher is better.
+     */
+
+    public TextSearchHit(long id, double score) {
+        this.id = id;
+        this.score = score;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public Movie getMovie() {
+        return movie;
+    }
+
+    public void setMovie(Movie movie) {
+        this.movie = movie;
+    }
+}
@@ -0,0 +1,376 @@
+package org.example.javasystematiskprojekt1.search;
+
+import org.example.javasystematiskprojekt1.model.TextSearchHit;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * The InvertedIndex class is an in-memory full-text index over movie titles and plots, ranked with BM25.
+ * Every indexed movie gets an internal int document number; for every term the index keeps a PostingList
+ * of the documents containing it. Title words count twice, so a match in the title ranks above the same
+ * match in the plot.
+ *
+ * A movie that is updated or removed only has its document marked as deleted. Once deleted documents make
+ * up a quarter of the index, the index is compacted: the remaining documents are renumbered and the posting
+ * lists rewritten without the deleted ones. Every live document keeps the posting lists of its terms (one
+ * reference per distinct term), so that removing it lowers the live document count of each of its terms,
+ * which the weight of a term is computed from. Searches take a shared lock and changes an exclusive one.
+ *
+ * A search only looks at the documents that can still make the best hits (MaxScore): every term has an upper
+ * bound on the score it can add to a document. Once the best hits are found, a term whose bound, added to those
+ * of all weaker terms, cannot beat the lowest of them no longer proposes documents. It is only looked up, by a
+ * skipping search in its posting list, for documents proposed by the stronger terms, and only while they can
+ * still make the best hits. The common terms of a query are usually the weak ones, so their long posting lists
+ * are mostly skipped.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+public final class InvertedIndex {
+
+    /**
+     * BM25 parameters: K1 limits how much repeating a term raises the score, B how much long documents
+     * are penalised. These are the usual defaults.
+     */
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    /**
+     * Compaction only starts once at least this many documents are deleted.
+     */
+    private static final int MIN_DELETED_FOR_COMPACTION = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<Long, Integer> docsByMovie = new HashMap<>();
+    private final BitSet live = new BitSet();
+    private long[] movieIds = new long[1024];
+    private int[] lengths = new int[1024];
+    private PostingList[][] docTerms = new PostingList[1024][]; // The posting lists of every live document.
+    private int docCount; // Documents numbered so far, live or deleted.
+    private int liveCount;
+    private long liveLength; // Total number of terms in the live documents.
+
+    /**
+     * This method put() indexes a movie, replacing what was indexed for it before.
+     *
+     * @param movieId The id of the movie.
+     * @param title The title of the movie, may be null.
+     * @param plot The plot of the movie, may be null.
+     */
+
+    public void put(long movieId, String title, String plot) {
+        // Count the terms outside the lock.
+        List<String> titleTerms = TextAnalyzer.analyze(title);
+        Map<String, int[]> frequencies = new HashMap<>();
+        for (String term : titleTerms) {
+            frequencies.computeIfAbsent(term, t -> new int[1])[0] += 2; // Title terms count twice.
+        }
+        List<String> plotTerms = TextAnalyzer.analyze(plot);
+        for (String term : plotTerms) {
+            frequencies.computeIfAbsent(term, t -> new int[1])[0]++;
+        }
+        int length = titleTerms.size() * 2 + plotTerms.size();
+
+        lock.writeLock().lock();
+        try {
+            removeDoc(movieId);
+            if (docCount == movieIds.length) {
+                movieIds = Arrays.copyOf(movieIds, docCount * 2);
+                lengths = Arrays.copyOf(lengths, docCount * 2);
+                docTerms = Arrays.copyOf(docTerms, docCount * 2);
+            }
+            int doc = docCount++;
+            movieIds[doc] = movieId;
+            lengths[doc] = length;
+            live.set(doc);
+            docsByMovie.put(movieId, doc);
+            liveCount++;
+            liveLength += length;
+            PostingList[] terms = new PostingList[frequencies.size()];
+            int term = 0;
+            for (Map.Entry<String, int[]> entry : frequencies.entrySet()) {
+                PostingList list = postings.computeIfAbsent(entry.getKey(), t -> new PostingList());
+                list.add(doc, entry.getValue()[0]);
+                terms[term++] = list;
+            }
+            docTerms[doc] = terms;
+            compactIfNeeded(); // Replacing a movie leaves its old document behind, like a removal does.
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * This method remove() removes a movie from the index. Nothing happens if it is not indexed.
+     *
+     * @param movieId The id of the movie.
+     */
+
+    public void remove(long movieId) {
+        lock.writeLock().lock();
+        try {
+            removeDoc(movieId);
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * This method clear() removes every movie from the index.
+     */
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            docsByMovie.clear();
+            live.clear();
+            movieIds = new long[1024];
+            lengths = new int[1024];
+            docTerms = new PostingList[1024][];
+            docCount = 0;
+            liveCount = 0;
+            liveLength = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * This method size() gets the number of movies in the index.
+     *
+     * @return The number of indexed movies(int).
+     */
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * This method documentCount() gets the number of documents held, live or deleted. Used to check that
+     * deleted documents do not pile up.
+     *
+     * @return The number of documents(int).
+     */
+
+    int documentCount() {
+        lock.readLock().lock();
+        try {
+            return docCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * This method search() finds the movies best matching a query, ranked by their BM25 score.
+     * A movie matches when it contains at least one of the query terms. The posting lists of the query terms
+     * are merged document by document, and only the best 'limit' movies are kept while merging. Documents that
+     * cannot beat the lowest of the best hits found so far are skipped (see the class comment).
+     *
+     * @param query The query text, analysed like the indexed text.
+     * @param limit The maximum number of hits.
+     * @return The hits, best first.
+     */
+
+    public List<TextSearchHit> search(String query, int limit) {
+        List<String> terms = new ArrayList<>(new LinkedHashSet<>(TextAnalyzer.analyze(query)));
+        lock.readLock().lock();
+        try {
+            List<Cursor> found = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list != null && list.liveCount() > 0) {
+                    found.add(new Cursor(list, liveCount));
+                }
+            }
+            if (found.isEmpty()) {
+                return new ArrayList<>();
+            }
+            // Weakest term first; bounds[i] is the most the terms 0 to i-1 can add together.
+            Cursor[] cursors = found.toArray(new Cursor[0]);
+            Arrays.sort(cursors, (a, b) -> Double.compare(a.maxScore, b.maxScore));
+            int listCount = cursors.length;
+            double[] bounds = new double[listCount + 1];
+            for (int i = 0; i < listCount; i++) {
+                bounds[i + 1] = bounds[i] + cursors[i].maxScore;
+            }
+            double averageLength = (double) liveLength / liveCount;
+            int firstEssential = 0; // The terms below it no longer propose documents.
+            double threshold = 0; // The lowest score of the best hits, once there are 'limit' of them.
+            // Min-heap on score holding the best hits found so far.
+            PriorityQueue<TextSearchHit> best = new PriorityQueue<>(limit + 1,
+                    (a, b) -> Double.compare(a.getScore(), b.getScore()));
+            while (true) {
+                // The next document is the lowest one under the cursor of a proposing term.
+                int doc = Integer.MAX_VALUE;
+                for (int i = firstEssential; i < listCount; i++) {
+                    doc = Math.min(doc, cursors[i].doc());
+                }
+                if (doc == Integer.MAX_VALUE) {
+                    break;
+                }
+                double norm = K1 * (1 - B + B * lengths[doc] / averageLength);
+                double score = 0;
+                for (int i = firstEssential; i < listCount; i++) {
+                    if (cursors[i].doc() == doc) {
+                        score += cursors[i].score(norm);
+                        cursors[i].next();
+                    }
+                }
+                if (!live.get(doc)) {
+                    continue;
+                }
+                // The weaker terms, strongest first, while the document can still make the best hits.
+                for (int i = firstEssential - 1; i >= 0 && score + bounds[i + 1] > threshold; i--) {
+                    if (cursors[i].advance(doc) == doc) {
+                        score += cursors[i].score(norm);
+                    }
+                }
+                if (best.size() < limit || score > threshold) {
+                    best.add(new TextSearchHit(movieIds[doc], score));
+                    if (best.size() > limit) {
+                        best.poll();
+                    }
+                    if (best.size() == limit) {
+                        threshold = best.peek().getScore();
+                        while (firstEssential < listCount && bounds[firstEssential + 1] <= threshold) {
+                            firstEssential++;
+                        }
+                    }
+                }
+            }
+            List<TextSearchHit> hits = new ArrayList<>(best);
+            hits.sort((a, b) -> Double.compare(b.getScore(), a.getScore()));
+            return hits;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * This method compactIfNeeded() compacts the index once enough documents are deleted. The caller holds
+     * the write lock.
+     */
+
+    private void compactIfNeeded() {
+        int deleted = docCount - liveCount;
+        if (deleted >= MIN_DELETED_FOR_COMPACTION && deleted > docCount / 4) {
+            compact();
+        }
+    }
+
+    /**
+     * This method removeDoc() marks the document of a movie as deleted. The caller holds the write lock.
+     */
+
+    private void removeDoc(long movieId) {
+        Integer doc = docsByMovie.remove(movieId);
+        if (doc != null) {
+            for (PostingList list : docTerms[doc]) {
+                list.removeLive(); // Deleted documents would make the term look common.
+            }
+            docTerms[doc] = null;
+            live.clear(doc);
+            liveCount--;
+            liveLength -= lengths[doc];
+        }
+    }
+
+    /**
+     * This method compact() renumbers the live documents from 0 and rewrites every posting list without
+     * the deleted documents. The caller holds the write lock.
+     */
+
+    private void compact() {
+        int[] newDocs = new int[docCount];
+        int next = 0;
+        for (int doc = 0; doc < docCount; doc++) {
+            if (live.get(doc)) {
+                newDocs[doc] = next;
+                movieIds[next] = movieIds[doc];
+                lengths[next] = lengths[doc];
+                docTerms[next] = docTerms[doc];
+                docsByMovie.put(movieIds[next], next);
+                next++;
+            } else {
+                newDocs[doc] = -1;
+            }
+        }
+        postings.values().removeIf(list -> {
+            list.renumber(newDocs);
+            return list.size() == 0;
+        });
+        Arrays.fill(docTerms, next, docCount, null);
+        live.clear();
+        live.set(0, next);
+        docCount = next;
+    }
+
+    /**
+     * The Cursor class walks the posting list of one query term during a search. Its maximum score is the
+     * most the term can add to a document: the BM25 score of its highest frequency in a document of length 0,
+     * the shortest possible.
+     */
+
+    private static final class Cursor {
+
+        private final PostingList list;
+        private final double idf;
+        private final double maxScore;
+        private int position;
+
+        private Cursor(PostingList list, int liveCount) {
+            this.list = list;
+            double df = list.liveCount();
+            idf = Math.log(1 + (liveCount - df + 0.5) / (df + 0.5));
+            int tf = list.maxFrequency();
+            maxScore = idf * tf * (K1 + 1) / (tf + K1 * (1 - B));
+        }
+
+        /**
+         * This method doc() gets the document under the cursor, or Integer.MAX_VALUE at the end of the list.
+         */
+
+        private int doc() {
+            return position < list.size() ? list.doc(position) : Integer.MAX_VALUE;
+        }
+
+        private void next() {
+            position++;
+        }
+
+        /**
+         * This method advance() moves the cursor to the first document not below 'target' and gets it.
+         */
+
+        private int advance(int target) {
+            if (position < list.size() && list.doc(position) < target) {
+                position = list.advance(position, target);
+            }
+            return doc();
+        }
+
+        private double score(double norm) {
+            int tf = list.frequency(position);
+            return idf * tf * (K1 + 1) / (tf + norm);
+        }
+    }
+}
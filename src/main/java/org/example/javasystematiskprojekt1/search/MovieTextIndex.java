@@ -0,0 +1,224 @@
+package org.example.javasystematiskprojekt1.search;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.example.javasystematiskprojekt1.async.RepositoryExecutor;
+import org.example.javasystematiskprojekt1.database.MovieRepository;
+import org.example.javasystematiskprojekt1.model.Movie;
+import org.example.javasystematiskprojekt1.model.MovieChangeEvent;
+import org.example.javasystematiskprojekt1.model.MovieSnapshot;
+import org.example.javasystematiskprojekt1.model.TextSearchHit;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * The MovieTextIndex class keeps the full-text InvertedIndex of movie titles and plots in step with the
+ * database. The index is built from the whole 'movieData' table when the application starts (see
+ * 'StartupWarmup'), and then updated incrementally from the changes the 'MovieRepository' announces, once
+ * their transaction has been committed.
+ *
+ * A bulk change, whose movies are not known one by one, rebuilds the whole index on the 'RepositoryExecutor'
+ * instead of the thread that committed it. A rebuild fills a new InvertedIndex and only replaces the current
+ * one once it is complete, so searches keep answering from the last complete index meanwhile. Changes
+ * committed while a rebuild runs are applied to the current index and remembered; when the new index is
+ * complete they are applied to it as well, over the rows the rebuild read before them, and the two indexes are
+ * swapped under the same lock, so no change is lost in between. A generation counter, increased for every
+ * rebuild, makes an older rebuild that is still running stop, the same way the 'MovieCache' drops loads that
+ * were overtaken by a change.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@ApplicationScoped // Annotation of CDI bean, makes the class a singleton. Class can be injected into other classes.
+public class MovieTextIndex {
+
+    private static final Logger LOGGER = Logger.getLogger(MovieTextIndex.class.getName());
+
+    /**
+     * Number of movies read from the database per round trip while building the index.
+     */
+    private static final int BUILD_CHUNK_SIZE = 1000;
+
+    private volatile InvertedIndex index = new InvertedIndex();
+    private final AtomicLong generation = new AtomicLong();
+    private final Object buildLock = new Object(); // Only one rebuild fills an index at a time.
+    private final Object changeLock = new Object(); // Applies a change, or swaps the indexes.
+    // The last change of every movie changed while a rebuild runs, null for a deletion. Guarded by changeLock.
+    private Map<Long, MovieSnapshot> changedDuringRebuild;
+    private volatile boolean stale; // A rebuild is needed but could not be started.
+    private volatile boolean ready;
+    private volatile boolean built; // A complete index has replaced the empty one.
+
+    @Inject // Annotation injects the repository the index is built from.
+    private MovieRepository movieRepository;
+
+    @Inject // Annotation injects the executor bulk rebuilds run on.
+    private RepositoryExecutor repositoryExecutor;
+
+    /**
+     * This method onMovieChange() applies a committed change to the index. A bulk change, whose movies are
+     * not known one by one, starts a rebuild of the whole index in the background.
+     *
+     * @param event The change fired by the 'MovieRepository'.
+     */
+
+    public void onMovieChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) MovieChangeEvent event) {
+        switch (event.getType()) {
+            case CREATED:
+            case UPDATED:
+                MovieSnapshot movie = event.getMovie();
+                synchronized (changeLock) {
+                    if (changedDuringRebuild != null) {
+                        changedDuringRebuild.put(movie.getId(), movie);
+                    }
+                    index.put(movie.getId(), movie.getMovieTitle(), movie.getMoviePlot());
+                }
+                break;
+            case DELETED:
+                synchronized (changeLock) {
+                    if (changedDuringRebuild != null) {
+                        changedDuringRebuild.put(event.getId(), null);
+                    }
+                    index.remove(event.getId());
+                }
+                break;
+            default:
+                rebuildLater();
+                return;
+        }
+        if (stale) {
+            rebuildLater();
+        }
+    }
+
+    /**
+     * This method rebuildLater() starts a rebuild on the 'RepositoryExecutor'. If the executor is saturated
+     * the index is marked stale, and the rebuild is tried again with the next change.
+     */
+
+    private void rebuildLater() {
+        ready = false; // Searches still answer from the last complete index.
+        long rebuildGeneration = generation.incrementAndGet();
+        try {
+            stale = false;
+            repositoryExecutor.submit(() -> {
+                rebuild(rebuildGeneration);
+                return null;
+            }).whenComplete((result, error) -> {
+                if (error != null) {
+                    stale = true;
+                    LOGGER.warning("Rebuilding the text index failed: " + error);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            stale = true;
+            LOGGER.warning("Rebuilding the text index was postponed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * This method rebuild() reads the whole 'movieData' table in chunks and indexes every movie in a new
+     * index, on the calling thread, which then replaces the current one. Changes that are committed while the
+     * rebuild runs are still applied, and searches answer from the current index until the new one is complete.
+     */
+
+    public void rebuild() {
+        rebuild(generation.incrementAndGet());
+    }
+
+    /**
+     * This method rebuild() builds the index, unless a newer rebuild has been started in the meantime.
+     */
+
+    private void rebuild(long rebuildGeneration) {
+        synchronized (buildLock) {
+            if (generation.get() != rebuildGeneration) {
+                return; // A newer rebuild follows.
+            }
+            long start = System.nanoTime();
+            InvertedIndex building = new InvertedIndex();
+            synchronized (changeLock) {
+                changedDuringRebuild = new LinkedHashMap<>();
+            }
+            try {
+                List<Movie> chunk = movieRepository.scanMoviesAfter(null, BUILD_CHUNK_SIZE);
+                while (!chunk.isEmpty()) {
+                    if (generation.get() != rebuildGeneration) {
+                        return;
+                    }
+                    for (Movie movie : chunk) {
+                        building.put(movie.getId(), movie.getMovieTitle(), movie.getMoviePlot());
+                    }
+                    if (chunk.size() < BUILD_CHUNK_SIZE) {
+                        break;
+                    }
+                    chunk = movieRepository.scanMoviesAfter(chunk.get(chunk.size() - 1).getId(), BUILD_CHUNK_SIZE);
+                }
+                synchronized (changeLock) {
+                    // The changes are newer than the rows read before them, and no change comes in meanwhile.
+                    for (Map.Entry<Long, MovieSnapshot> change : changedDuringRebuild.entrySet()) {
+                        MovieSnapshot movie = change.getValue();
+                        if (movie == null) {
+                            building.remove(change.getKey());
+                        } else {
+                            building.put(movie.getId(), movie.getMovieTitle(), movie.getMoviePlot());
+                        }
+                    }
+                    index = building;
+                }
+                built = true;
+            } finally {
+                synchronized (changeLock) {
+                    changedDuringRebuild = null;
+                }
+            }
+            if (generation.get() == rebuildGeneration) {
+                ready = true;
+            }
+            LOGGER.info("Indexed " + building.size() + " movies for text search in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }
+    }
+
+    /**
+     * This method search() finds the movies best matching a query.
+     *
+     * @param query The query text.
+     * @param limit The maximum number of hits.
+     * @return The hits, best first, without the movies filled in.
+     */
+
+    public List<TextSearchHit> search(String query, int limit) {
+        return index.search(query, limit);
+    }
+
+    /**
+     * This method isReady() tells whether the index has been fully built. Until the first build has finished
+     * the index is empty, and searches find nothing.
+     *
+     * @return True once a build has finished and no bulk change has been made since(boolean).
+     */
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * This method isBuilt() tells whether searches answer from a complete index: the last one built, which
+     * may miss the latest bulk change while a rebuild is running.
+     *
+     * @return True once the first build has finished(boolean).
+     */
+
+    public boolean isBuilt() {
+        return built;
+    }
+}
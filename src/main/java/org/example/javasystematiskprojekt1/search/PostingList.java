@@ -0,0 +1,129 @@
+package org.example.javasystematiskprojekt1.search;
+
+import java.util.Arrays;
+
+/**
+ * The PostingList class holds, for one term, the documents the term appears in and how often it appears in
+ * each. Documents are stored as primitive int numbers in two parallel arrays, sorted in ascending order,
+ * because new documents always get a higher number than every existing one. This takes 8 bytes per entry,
+ * with no boxing and no object per entry, and lets several lists be merged in one pass.
+ * The list also counts its live documents, for the weight of the term, and remembers the highest frequency,
+ * which bounds the score the term can add to any document.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+final class PostingList {
+
+    private int[] docs = new int[2];
+    private int[] frequencies = new int[2];
+    private int size;
+    private int liveCount;
+    private int maxFrequency;
+
+    /**
+     * This method add() appends a document to the list. The document must be higher than the last one.
+     *
+     * @param doc The document number.
+     * @param frequency The number of times the term appears in the document.
+     */
+
+    void add(int doc, int frequency) {
+        if (size == docs.length) {
+            int capacity = size + (size >> 1) + 1; // Grow by half, like ArrayList.
+            docs = Arrays.copyOf(docs, capacity);
+            frequencies = Arrays.copyOf(frequencies, capacity);
+        }
+        docs[size] = doc;
+        frequencies[size] = frequency;
+        size++;
+        liveCount++;
+        maxFrequency = Math.max(maxFrequency, frequency);
+    }
+
+    /**
+     * This method removeLive() counts one of the documents of the list as deleted. The entry itself stays in
+     * the list until the next renumber().
+     */
+
+    void removeLive() {
+        liveCount--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int liveCount() {
+        return liveCount;
+    }
+
+    int maxFrequency() {
+        return maxFrequency;
+    }
+
+    int doc(int index) {
+        return docs[index];
+    }
+
+    int frequency(int index) {
+        return frequencies[index];
+    }
+
+    /**
+     * This method advance() finds the first entry at or after 'from' whose document is not below 'target',
+     * by galloping: steps of doubling length, then a binary search within the last step.
+     *
+     * @param from The entry the search starts at.
+     * @param target The document looked for.
+     * @return The index of the entry, or size() if every remaining document is below the target.
+     */
+
+    int advance(int from, int target) {
+        int low = from;
+        int step = 1;
+        while (low + step < size && docs[low + step] < target) {
+            low += step;
+            step <<= 1;
+        }
+        if (low >= size || docs[low] >= target) {
+            return low;
+        }
+        int high = Math.min(low + step, size); // docs[low] < target, and docs[high] >= target if high < size.
+        while (low + 1 < high) {
+            int middle = (low + high) >>> 1;
+            if (docs[middle] < target) {
+                low = middle;
+            } else {
+                high = middle;
+            }
+        }
+        return high;
+    }
+
+    /**
+     * This method renumber() drops the documents that no longer exist and gives the others their new
+     * numbers, shrinking the arrays to fit. The new numbers must keep the documents in the same order.
+     *
+     * @param newDocs The new number of every old document, or -1 if it was removed.
+     */
+
+    void renumber(int[] newDocs) {
+        int kept = 0;
+        maxFrequency = 0;
+        for (int i = 0; i < size; i++) {
+            int doc = newDocs[docs[i]];
+            if (doc >= 0) {
+                docs[kept] = doc;
+                frequencies[kept] = frequencies[i];
+                maxFrequency = Math.max(maxFrequency, frequencies[i]);
+                kept++;
+            }
+        }
+        size = kept;
+        liveCount = kept; // Only the deleted documents were dropped.
+        docs = Arrays.copyOf(docs, Math.max(kept, 1));
+        frequencies = Arrays.copyOf(frequencies, Math.max(kept, 1));
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.javasystematiskprojekt1.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * The TextAnalyzer class turns free text into index terms. Text is split on everything that is not a letter
+ * or a digit, lower-cased, common English stop words are dropped, and each word is reduced to a stem by
+ * stripping its most common suffixes, so "chased", "chases" and "chasing" all become "chase".
+ * The same analysis is used for indexed movies and for queries, so their terms always match.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+public final class TextAnalyzer {
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "has", "he", "in", "is", "it",
+            "its", "of", "on", "or", "she", "that", "the", "their", "they", "this", "to", "was", "were",
+            "will", "with");
+
+    /**
+     * A private constructor, the class only has static methods.
+     */
+
+    private TextAnalyzer() {
+    }
+
+    /**
+     * This method analyze() splits a text into stemmed terms, in the order they appear.
+     * A term appears once for every time its word appears in the text.
+     *
+     * @param text The text to analyse, may be null.
+     * @return The list of terms.
+     */
+
+    public static List<String> analyze(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) {
+            return terms;
+        }
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            boolean wordChar = i < length && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!STOP_WORDS.contains(word)) {
+                    terms.add(stem(word));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * This method stem() strips the most common English inflection suffixes from a lower-case word.
+     * It is a light stemmer: it never shortens a word below three letters and leaves digits alone.
+     *
+     * @param word The lower-case word.
+     * @return The stem of the word.
+     */
+
+    static String stem(String word) {
+        if (word.length() <= 3 || !Character.isLetter(word.charAt(word.length() - 1))) {
+            return word;
+        }
+        if (word.endsWith("ies") && word.length() > 4) {
+            return word.substring(0, word.length() - 3) + "y";
+        }
+        if (word.endsWith("sses")) {
+            return word.substring(0, word.length() - 2);
+        }
+        if (word.endsWith("ing") && word.length() > 5) {
+            return undouble(word.substring(0, word.length() - 3));
+        }
+        if (word.endsWith("ed") && word.length() > 4) {
+            return undouble(word.substring(0, word.length() - 2));
+        }
+        if (word.endsWith("ly") && word.length() > 4) {
+            return word.substring(0, word.length() - 2);
+        }
+        if (word.length() > 4 && (word.endsWith("xes") || word.endsWith("zes")
+                || word.endsWith("ches") || word.endsWith("shes"))) {
+            return word.substring(0, word.length() - 2);
+        }
+        if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+
+    /**
+     * This method undouble() removes a doubled final consonant left by suffix stripping ("stopp" to "stop")
+     * and otherwise restores a final "e" dropped before the suffix ("chas" to "chase").
+     */
+
+    private static String undouble(String stem) {
+        int n = stem.length();
+        char last = stem.charAt(n - 1);
+        if (n > 2 && last == stem.charAt(n - 2) && "aeioulsz".indexOf(last) < 0) {
+            return stem.substring(0, n - 1);
+        }
+        if (n > 2 && "aeiou".indexOf(last) < 0 && "aeiou".indexOf(stem.charAt(n - 2)) >= 0
+                && "aeiouwxy".indexOf(last) < 0 && "aeiou".indexOf(stem.charAt(n - 3)) < 0) {
+            return stem + "e";
+        }
+        return stem;
+    }
+}
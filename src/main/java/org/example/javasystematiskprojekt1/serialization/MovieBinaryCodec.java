@@ -0,0 +1,245 @@
+package org.example.javasystematiskprojekt1.serialization;
+
+import org.example.javasystematiskprojekt1.model.Movie;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The MovieBinaryCodec class writes and reads movies in a compact binary format, the media type
+ * "application/x-movie-binary", as a faster and smaller alternative to JSON. Every field is written by hand,
+ * without reflection, and movies are written one after another, so a list can be streamed.
+ *
+ * The format is: the two bytes 'M' 'V' and a format version byte (1); then, for every movie, a byte 1
+ * followed by the movie; and finally a byte 0. A movie starts with a byte whose bits tell which of the
+ * fields that may be null are present (1 id, 2 title, 4 director, 8 genre, 16 plot, 32 version), followed by
+ * the present id, the title, director, genre and plot, the release year and the present version. Numbers are
+ * zig-zag variable-length integers (1 byte for values up to 63), strings a variable-length byte count
+ * followed by the UTF-8 bytes. A single movie is written as a list of one.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+public final class MovieBinaryCodec {
+
+    /**
+     * The media type of the binary format.
+     */
+    public static final String MEDIA_TYPE = "application/x-movie-binary";
+
+    private static final int MAGIC_1 = 'M';
+    private static final int MAGIC_2 = 'V';
+    private static final int FORMAT_VERSION = 1;
+    private static final int RECORD = 1;
+    private static final int END = 0;
+
+    private static final int HAS_ID = 1;
+    private static final int HAS_TITLE = 2;
+    private static final int HAS_DIRECTOR = 4;
+    private static final int HAS_GENRE = 8;
+    private static final int HAS_PLOT = 16;
+    private static final int HAS_VERSION = 32;
+
+    /**
+     * Longest string accepted when reading, so a corrupt length cannot exhaust the memory.
+     */
+    private static final int MAX_STRING_BYTES = 16 * 1024 * 1024;
+
+    /**
+     * A private constructor, the class only has static methods.
+     */
+
+    private MovieBinaryCodec() {
+    }
+
+    /**
+     * This method writeHeader() writes the start of a stream of movies.
+     *
+     * @param out The stream to write to.
+     * @throws IOException If writing fails.
+     */
+
+    public static void writeHeader(OutputStream out) throws IOException {
+        out.write(MAGIC_1);
+        out.write(MAGIC_2);
+        out.write(FORMAT_VERSION);
+    }
+
+    /**
+     * This method writeMovie() writes one movie of a stream.
+     *
+     * @param out The stream to write to.
+     * @param movie The movie.
+     * @throws IOException If writing fails.
+     */
+
+    public static void writeMovie(OutputStream out, Movie movie) throws IOException {
+        out.write(RECORD);
+        int present = (movie.getId() != null ? HAS_ID : 0)
+                | (movie.getMovieTitle() != null ? HAS_TITLE : 0)
+                | (movie.getMovieDirector() != null ? HAS_DIRECTOR : 0)
+                | (movie.getMovieGenre() != null ? HAS_GENRE : 0)
+                | (movie.getMoviePlot() != null ? HAS_PLOT : 0)
+                | (movie.getVersion() != null ? HAS_VERSION : 0);
+        out.write(present);
+        if (movie.getId() != null) {
+            writeLong(out, movie.getId());
+        }
+        writeString(out, movie.getMovieTitle());
+        writeString(out, movie.getMovieDirector());
+        writeString(out, movie.getMovieGenre());
+        writeString(out, movie.getMoviePlot());
+        writeLong(out, movie.getReleaseYear());
+        if (movie.getVersion() != null) {
+            writeLong(out, movie.getVersion());
+        }
+    }
+
+    /**
+     * This method writeEnd() writes the end of a stream of movies.
+     *
+     * @param out The stream to write to.
+     * @throws IOException If writing fails.
+     */
+
+    public static void writeEnd(OutputStream out) throws IOException {
+        out.write(END);
+    }
+
+    /**
+     * This method toBytes() writes a whole list of movies into a byte array.
+     *
+     * @param movies The movies.
+     * @return The encoded movies(byte[]).
+     */
+
+    public static byte[] toBytes(Collection<Movie> movies) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + movies.size() * 128);
+        try {
+            writeHeader(bytes);
+            for (Movie movie : movies) {
+                writeMovie(bytes, movie);
+            }
+            writeEnd(bytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // Cannot happen when writing to memory.
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * This method readMovies() reads a whole stream of movies.
+     *
+     * @param in The stream to read from; it should be buffered.
+     * @return The movies, in stream order.
+     * @throws IOException If reading fails or the stream is not in the binary movie format.
+     */
+
+    public static List<Movie> readMovies(InputStream in) throws IOException {
+        if (readByte(in) != MAGIC_1 || readByte(in) != MAGIC_2) {
+            throw new IOException("Not a " + MEDIA_TYPE + " stream");
+        }
+        int formatVersion = readByte(in);
+        if (formatVersion != FORMAT_VERSION) {
+            throw new IOException("Unsupported " + MEDIA_TYPE + " format version " + formatVersion);
+        }
+        List<Movie> movies = new ArrayList<>();
+        int marker;
+        while ((marker = readByte(in)) == RECORD) {
+            movies.add(readMovie(in));
+        }
+        if (marker != END) {
+            throw new IOException("Corrupt " + MEDIA_TYPE + " stream");
+        }
+        return movies;
+    }
+
+    /**
+     * This method readMovie() reads the fields of one movie, after its record byte.
+     */
+
+    private static Movie readMovie(InputStream in) throws IOException {
+        int present = readByte(in);
+        Movie movie = new Movie();
+        if ((present & HAS_ID) != 0) {
+            movie.setId(readLong(in));
+        }
+        movie.setMovieTitle((present & HAS_TITLE) != 0 ? readString(in) : null);
+        movie.setMovieDirector((present & HAS_DIRECTOR) != 0 ? readString(in) : null);
+        movie.setMovieGenre((present & HAS_GENRE) != 0 ? readString(in) : null);
+        movie.setMoviePlot((present & HAS_PLOT) != 0 ? readString(in) : null);
+        movie.setReleaseYear((int) readLong(in));
+        if ((present & HAS_VERSION) != 0) {
+            movie.setVersion(readLong(in));
+        }
+        return movie;
+    }
+
+    /**
+     * This method writeLong() writes a number as a zig-zag variable-length integer: 7 bits per byte,
+     * lowest bits first, the high bit set on every byte but the last.
+     */
+
+    private static void writeLong(OutputStream out, long value) throws IOException {
+        long zigZag = (value << 1) ^ (value >> 63); // Small negative numbers stay small.
+        while ((zigZag & ~0x7FL) != 0) {
+            out.write((int) ((zigZag & 0x7F) | 0x80));
+            zigZag >>>= 7;
+        }
+        out.write((int) zigZag);
+    }
+
+    private static long readLong(InputStream in) throws IOException {
+        long zigZag = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = readByte(in);
+            zigZag |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return (zigZag >>> 1) ^ -(zigZag & 1);
+            }
+        }
+        throw new IOException("Corrupt " + MEDIA_TYPE + " number");
+    }
+
+    /**
+     * This method writeString() writes a string as its UTF-8 byte count and bytes. Null strings are not
+     * written at all; their absence is recorded in the presence byte of the movie.
+     */
+
+    private static void writeString(OutputStream out, String value) throws IOException {
+        if (value != null) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeLong(out, bytes.length);
+            out.write(bytes);
+        }
+    }
+
+    private static String readString(InputStream in) throws IOException {
+        long length = readLong(in);
+        if (length < 0 || length > MAX_STRING_BYTES) {
+            throw new IOException("Corrupt " + MEDIA_TYPE + " string length " + length);
+        }
+        byte[] bytes = in.readNBytes((int) length);
+        if (bytes.length != length) {
+            throw new EOFException("Truncated " + MEDIA_TYPE + " stream");
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int readByte(InputStream in) throws IOException {
+        int b = in.read();
+        if (b < 0) {
+            throw new EOFException("Truncated " + MEDIA_TYPE + " stream");
+        }
+        return b;
+    }
+}
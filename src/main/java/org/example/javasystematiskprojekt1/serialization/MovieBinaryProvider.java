@@ -0,0 +1,96 @@
+package org.example.javasystematiskprojekt1.serialization;
+
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.Consumes;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.MultivaluedMap;
+import jakarta.ws.rs.ext.MessageBodyReader;
+import jakarta.ws.rs.ext.MessageBodyWriter;
+import jakarta.ws.rs.ext.Provider;
+import org.example.javasystematiskprojekt1.model.Movie;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The MovieBinaryProvider class lets JAX-RS write and read a Movie, or a collection of movies, in the
+ * binary format of the MovieBinaryCodec when a client asks for or sends "application/x-movie-binary".
+ * Movies are written straight to the response stream, one after another, without reflection.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@Provider // Annotation registers the class with the JAX-RS runtime.
+@Produces(MovieBinaryCodec.MEDIA_TYPE) // Annotation that the provider writes the binary format.
+@Consumes(MovieBinaryCodec.MEDIA_TYPE) // Annotation that the provider reads the binary format.
+public class MovieBinaryProvider implements MessageBodyWriter<Object>, MessageBodyReader<Object> {
+
+    @Override
+    public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return Movie.class.isAssignableFrom(type) || isMovieCollection(type, genericType);
+    }
+
+    @Override
+    public void writeTo(Object entity, Class<?> type, Type genericType, Annotation[] annotations,
+                        MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+            throws IOException {
+        // Buffered, but not closed: the container owns the entity stream.
+        BufferedOutputStream out = new BufferedOutputStream(entityStream, 8192);
+        MovieBinaryCodec.writeHeader(out);
+        if (entity instanceof Movie) {
+            MovieBinaryCodec.writeMovie(out, (Movie) entity);
+        } else {
+            for (Object movie : (Collection<?>) entity) {
+                MovieBinaryCodec.writeMovie(out, (Movie) movie);
+            }
+        }
+        MovieBinaryCodec.writeEnd(out);
+        out.flush();
+    }
+
+    @Override
+    public boolean isReadable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+        return type == Movie.class || (type == List.class && isMovieCollection(type, genericType));
+    }
+
+    @Override
+    public Object readFrom(Class<Object> type, Type genericType, Annotation[] annotations, MediaType mediaType,
+                           MultivaluedMap<String, String> httpHeaders, InputStream entityStream) throws IOException {
+        List<Movie> movies;
+        try {
+            movies = MovieBinaryCodec.readMovies(new BufferedInputStream(entityStream, 8192));
+        } catch (IOException e) {
+            throw new BadRequestException(e.getMessage(), e); // A malformed body is the client's error.
+        }
+        if (!Movie.class.equals(type)) {
+            return movies;
+        }
+        if (movies.size() != 1) {
+            throw new BadRequestException("Expected exactly one movie, got " + movies.size());
+        }
+        return movies.get(0);
+    }
+
+    /**
+     * This method isMovieCollection() tells whether a type is a collection declared to hold movies.
+     */
+
+    private static boolean isMovieCollection(Class<?> type, Type genericType) {
+        if (!Collection.class.isAssignableFrom(type) || !(genericType instanceof ParameterizedType)) {
+            return false;
+        }
+        Type[] arguments = ((ParameterizedType) genericType).getActualTypeArguments();
+        return arguments.length == 1 && arguments[0] instanceof Class
+                && Movie.class.isAssignableFrom((Class<?>) arguments[0]);
+    }
+}
@@ -0,0 +1,233 @@
+package org.example.javasystematiskprojekt1.startup;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.context.Initialized;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.example.javasystematiskprojekt1.async.ManagedExecutors;
+import org.example.javasystematiskprojekt1.async.RepositoryExecutor;
+import org.example.javasystematiskprojekt1.database.MovieCache;
+import org.example.javasystematiskprojekt1.database.MovieRepository;
+import org.example.javasystematiskprojekt1.database.MovieSchema;
+import org.example.javasystematiskprojekt1.metrics.MetricsRegistry;
+import org.example.javasystematiskprojekt1.model.MovieSnapshot;
+import org.example.javasystematiskprojekt1.model.Readiness;
+import org.example.javasystematiskprojekt1.search.MovieTextIndex;
+import org.example.javasystematiskprojekt1.stats.MovieStatsRollup;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * The StartupWarmup class does the work that would otherwise make the first requests after a restart slow,
+ * before the application reports itself ready. When the application starts, these tasks run in parallel on the
+ * 'RepositoryExecutor':
+ *
+ * - "indexes": the indexes declared on the Movie entity that an existing table lacks are created, and those
+ *   it no longer declares dropped (see 'MovieSchema').
+ * - "queries": the named queries of the 'MovieRepository' are prepared.
+ * - "movies": the hot movies are read into the 'MovieCache' and the JPA shared cache. These are the first
+ *   "movies.warmup.movies" movies by id (default 1000), which are on the first pages every client reads, and
+ *   they are also cached as pages of "movies.warmup.pageSize" movies (default 100). 0 switches this off.
+ * - "textIndex": the full-text index is built.
+ * - "statsRollup": the in-memory statistics are built.
+ *
+ * The container does not run tasks for the application before it has finished deploying it: a task it aborts
+ * for that reason is submitted again every "movies.warmup.retryMillis" milliseconds (default 250), for at most
+ * a minute.
+ *
+ * Until all have finished, the readiness check answers "503 Service Unavailable", so a load balancer keeps
+ * sending requests to the instances that are already warm. How long the warm-up took is recorded in the
+ * 'MetricsRegistry'.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@ApplicationScoped // Annotation of CDI bean, makes the class a singleton. Class can be injected into other classes.
+public class StartupWarmup {
+
+    private static final Logger LOGGER = Logger.getLogger(StartupWarmup.class.getName());
+
+    private static final int HOT_MOVIES = Integer.getInteger("movies.warmup.movies", 1000);
+    private static final int PAGE_SIZE = Math.max(1, Integer.getInteger("movies.warmup.pageSize", 100));
+    private static final long RETRY_MILLIS = Math.max(1, Long.getLong("movies.warmup.retryMillis", 250));
+    private static final long MAX_ATTEMPTS = Math.max(1, 60_000 / RETRY_MILLIS);
+
+    @Inject // Annotation injects the repository whose queries are prepared and movies read.
+    private MovieRepository movieRepository;
+
+    @Inject // Annotation injects the schema whose missing indexes are created.
+    private MovieSchema movieSchema;
+
+    @Inject // Annotation injects the cache the hot movies are read into.
+    private MovieCache movieCache;
+
+    @Inject // Annotation injects the full-text index built at startup.
+    private MovieTextIndex movieTextIndex;
+
+    @Inject // Annotation injects the in-memory statistics built at startup.
+    private MovieStatsRollup movieStatsRollup;
+
+    @Inject // Annotation injects the executor the tasks run on in parallel.
+    private RepositoryExecutor repositoryExecutor;
+
+    @Inject // Annotation injects the registry the warm-up time is recorded in.
+    private MetricsRegistry metricsRegistry;
+
+    private final Map<String, String> tasks = new LinkedHashMap<>(); // Guarded by its own lock.
+    private volatile boolean ready;
+    private volatile Long warmUpMillis;
+    private Executor inContext; // Submits the tasks in the context of the application, see ManagedExecutors.
+
+    /**
+     * This method onStartup() starts the warm-up tasks when the application starts.
+     *
+     * @param event The initialisation event of the application scope.
+     */
+
+    public void onStartup(@Observes @Initialized(ApplicationScoped.class) Object event) {
+        long start = System.nanoTime();
+        inContext = ManagedExecutors.contextual();
+        List<CompletableFuture<Void>> running = new ArrayList<>();
+        running.add(run("indexes", movieSchema::updateIndexes));
+        running.add(run("queries", movieRepository::warmUpQueries));
+        running.add(run("movies", this::preloadMovies));
+        running.add(run("textIndex", () -> {
+            movieTextIndex.rebuild();
+            return null;
+        }));
+        running.add(run("statsRollup", () -> {
+            movieStatsRollup.build();
+            return null;
+        }));
+        CompletableFuture.allOf(running.toArray(new CompletableFuture<?>[0])).whenComplete((result, error) -> {
+            long nanos = System.nanoTime() - start;
+            warmUpMillis = TimeUnit.NANOSECONDS.toMillis(nanos);
+            metricsRegistry.recordWarmUp(nanos);
+            ready = true;
+            LOGGER.info("Warmed up in " + warmUpMillis + " ms: " + getReadiness().getTasks());
+        });
+    }
+
+    /**
+     * This method run() starts one warm-up task. A task that fails is logged and counts as finished, since
+     * requests are still answered without it, only slower.
+     */
+
+    private CompletableFuture<Void> run(String name, Supplier<?> task) {
+        synchronized (tasks) {
+            tasks.put(name, "pending");
+        }
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        submit(name, task, done, 1);
+        return done;
+    }
+
+    /**
+     * This method submit() submits a warm-up task to the 'RepositoryExecutor' in the context of the
+     * application, and again later if the context cannot be set up yet or the container aborts the task.
+     */
+
+    private void submit(String name, Supplier<?> task, CompletableFuture<Void> done, long attempt) {
+        try {
+            inContext.execute(() -> repositoryExecutor.submit(task).whenComplete((result, error) -> {
+                if (error != null && ManagedExecutors.isAborted(error)) {
+                    retry(name, task, done, attempt, error);
+                } else {
+                    finish(name, done, error);
+                }
+            }));
+        } catch (IllegalStateException e) {
+            retry(name, task, done, attempt, e); // The application is still being deployed.
+        } catch (RuntimeException e) {
+            LOGGER.warning("Warm-up task " + name + " could not be started: " + e);
+            finish(name, done, e);
+        }
+    }
+
+    /**
+     * This method retry() submits a warm-up task that has not run again after a while, or gives up on it.
+     */
+
+    private void retry(String name, Supplier<?> task, CompletableFuture<Void> done, long attempt, Throwable error) {
+        if (attempt >= MAX_ATTEMPTS) {
+            LOGGER.warning("Warm-up task " + name + " was not run after " + attempt + " attempts: " + error);
+            finish(name, done, error);
+            return;
+        }
+        CompletableFuture.delayedExecutor(RETRY_MILLIS, TimeUnit.MILLISECONDS)
+                .execute(() -> submit(name, task, done, attempt + 1));
+    }
+
+    /**
+     * This method finish() records the end of a warm-up task.
+     */
+
+    private void finish(String name, CompletableFuture<Void> done, Throwable error) {
+        if (error != null) {
+            LOGGER.warning("Warm-up task " + name + " failed: " + error);
+        }
+        synchronized (tasks) {
+            tasks.put(name, error == null ? "done" : "failed");
+        }
+        done.complete(null);
+    }
+
+    /**
+     * This method preloadMovies() reads the hot movies in one query and caches them by id and as pages.
+     *
+     * @return The number of movies cached(Integer).
+     */
+
+    private Integer preloadMovies() {
+        if (HOT_MOVIES <= 0) {
+            return 0;
+        }
+        long generation = movieCache.generation(); // Read before loading, see MovieCache.
+        List<MovieSnapshot> movies = movieRepository.scanMoviesAfter(null, HOT_MOVIES).stream()
+                .map(MovieSnapshot::of).collect(Collectors.toList());
+        Long afterId = null;
+        // A shorter last page is only complete when the table has no more movies.
+        int cached = movies.size() < HOT_MOVIES ? movies.size() : movies.size() / PAGE_SIZE * PAGE_SIZE;
+        for (int from = 0; from < cached; from += PAGE_SIZE) {
+            List<MovieSnapshot> page = movies.subList(from, Math.min(from + PAGE_SIZE, cached));
+            movieCache.putPage(afterId, PAGE_SIZE, new ArrayList<>(page), generation);
+            afterId = page.get(page.size() - 1).getId();
+        }
+        movies.forEach(movie -> movieCache.putMovie(movie, generation));
+        return movies.size();
+    }
+
+    /**
+     * This method isReady() tells whether the warm-up has finished.
+     *
+     * @return True once every task has finished(boolean).
+     */
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * This method getReadiness() gets whether the warm-up has finished, and the state of every task.
+     *
+     * @return The readiness of the application.
+     */
+
+    public Readiness getReadiness() {
+        Map<String, String> states;
+        synchronized (tasks) {
+            states = new LinkedHashMap<>(tasks);
+        }
+        return new Readiness(ready, warmUpMillis, states);
+    }
+}
@@ -0,0 +1,362 @@
+package org.example.javasystematiskprojekt1.stats;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.enterprise.event.TransactionPhase;
+import jakarta.inject.Inject;
+import org.example.javasystematiskprojekt1.async.RepositoryExecutor;
+import org.example.javasystematiskprojekt1.database.MovieRepository;
+import org.example.javasystematiskprojekt1.database.StatsDimension;
+import org.example.javasystematiskprojekt1.model.MovieChangeEvent;
+import org.example.javasystematiskprojekt1.model.MovieSnapshot;
+import org.example.javasystematiskprojekt1.model.MovieStats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Logger;
+
+/**
+ * The MovieStatsRollup class keeps the number of movies per genre, director and release year in memory, so
+ * dashboards can poll the statistics as often as they like without any database work. The counts are built
+ * from the 'movieData' table when the application starts, reading only the id and the three counted columns,
+ * and then updated incrementally from the changes the 'MovieRepository' announces, once their transaction has
+ * been committed. A bulk change, whose movies are not known one by one, rebuilds the counts in the background
+ * on the 'RepositoryExecutor'; a generation counter stops a rebuild that a newer one has overtaken.
+ * To take a changed or deleted movie out of its old groups, the rollup remembers the groups of every movie: a
+ * map entry, the boxed id and an array of its three counters, about 90 bytes of heap per movie (some 90 MB for
+ * a million movies), on top of one counter per distinct value. The change events do not carry the old values
+ * of a movie, and reading them before every update and delete would add a locked read to every write.
+ * It is switched off with the system property "movies.stats.rollup=false", which large catalogues short of
+ * heap should do; the statistics are then counted by the database on every request.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+@ApplicationScoped // Annotation of CDI bean, makes the class a singleton. Class can be injected into other classes.
+public class MovieStatsRollup {
+
+    private static final Logger LOGGER = Logger.getLogger(MovieStatsRollup.class.getName());
+
+    // Costs about BYTES_PER_MOVIE bytes of heap per movie while on (see the class comment).
+    private static final boolean ENABLED = Boolean.parseBoolean(System.getProperty("movies.stats.rollup", "true"));
+
+    /**
+     * Heap taken by the remembered groups of one movie: a HashMap entry (32 bytes), the boxed id (16), the
+     * array of three counters (32) and its slot in the table (about 8), with compressed references.
+     */
+    private static final int BYTES_PER_MOVIE = 90;
+
+    /**
+     * Number of movies read from the database per round trip while building the counts.
+     */
+    private static final int BUILD_CHUNK_SIZE = 5000;
+
+    @Inject // Annotation injects the repository the counts are built from.
+    private MovieRepository movieRepository;
+
+    @Inject // Annotation injects the executor bulk rebuilds run on.
+    private RepositoryExecutor repositoryExecutor;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final Object buildLock = new Object(); // Only one rebuild fills the counts at a time.
+
+    // All of the state below is guarded by the lock of this object.
+    private final Map<StatsDimension, Map<String, Counter>> counters = new EnumMap<>(StatsDimension.class);
+    private final Map<Long, Counter[]> groups = new HashMap<>(); // The counters of every movie, by id.
+    private MovieStats snapshot; // The last statistics handed out, until the next change.
+    private Set<Long> changedDuringRebuild; // Movies changed while a rebuild runs, null otherwise.
+    private volatile boolean stale; // A rebuild is needed but could not be started.
+    private volatile boolean ready;
+
+    /**
+     * A constructor for the MovieStatsRollup class.
+     */
+
+    public MovieStatsRollup() {
+        for (StatsDimension dimension : StatsDimension.values()) {
+            counters.put(dimension, new HashMap<>());
+        }
+    }
+
+    /**
+     * This method build() builds the counts when the application starts (see 'StartupWarmup'), if the rollup
+     * is switched on.
+     */
+
+    public void build() {
+        if (ENABLED) {
+            rebuild();
+        }
+    }
+
+    /**
+     * This method onMovieChange() applies a committed change to the counts.
+     *
+     * @param event The change fired by the 'MovieRepository'.
+     */
+
+    public void onMovieChange(@Observes(during = TransactionPhase.AFTER_SUCCESS) MovieChangeEvent event) {
+        if (!ENABLED) {
+            return;
+        }
+        switch (event.getType()) {
+            case CREATED:
+            case UPDATED:
+                MovieSnapshot movie = event.getMovie();
+                put(movie.getId(), movie.getMovieGenre(), movie.getMovieDirector(), movie.getReleaseYear());
+                break;
+            case DELETED:
+                remove(event.getId());
+                break;
+            default:
+                rebuildLater();
+                return;
+        }
+        if (stale) {
+            rebuildLater();
+        }
+    }
+
+    /**
+     * This method rebuildLater() starts a rebuild on the 'RepositoryExecutor'. If the executor is saturated
+     * the counts are marked stale, and the rebuild is tried again with the next change.
+     */
+
+    private void rebuildLater() {
+        ready = false;
+        long rebuildGeneration = generation.incrementAndGet();
+        try {
+            stale = false;
+            repositoryExecutor.submit(() -> {
+                rebuild(rebuildGeneration);
+                return null;
+            }).whenComplete((result, error) -> {
+                if (error != null) {
+                    stale = true;
+                    LOGGER.warning("Rebuilding the statistics failed: " + error);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            stale = true;
+            LOGGER.warning("Rebuilding the statistics was postponed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * This method rebuild() reads the counted columns of the whole 'movieData' table in chunks and counts
+     * every movie again, on the calling thread.
+     */
+
+    public void rebuild() {
+        rebuild(generation.incrementAndGet());
+    }
+
+    /**
+     * This method rebuild() counts the movies again, unless a newer rebuild has been started in the meantime.
+     * Movies changed while it runs keep the groups of the change instead of the rows read before it.
+     */
+
+    private void rebuild(long rebuildGeneration) {
+        synchronized (buildLock) {
+            if (generation.get() != rebuildGeneration) {
+                return; // A newer rebuild follows.
+            }
+            ready = false;
+            long start = System.nanoTime();
+            synchronized (this) {
+                groups.clear();
+                counters.values().forEach(Map::clear);
+                snapshot = null;
+                changedDuringRebuild = new HashSet<>();
+            }
+            try {
+                List<Object[]> chunk = movieRepository.scanStatsColumnsAfter(null, BUILD_CHUNK_SIZE);
+                while (!chunk.isEmpty()) {
+                    synchronized (this) {
+                        if (generation.get() != rebuildGeneration) {
+                            return;
+                        }
+                        for (Object[] row : chunk) {
+                            if (!changedDuringRebuild.contains((Long) row[0])) {
+                                count((Long) row[0], (String) row[1], (String) row[2], ((Number) row[3]).intValue());
+                            }
+                        }
+                    }
+                    if (chunk.size() < BUILD_CHUNK_SIZE) {
+                        break;
+                    }
+                    chunk = movieRepository.scanStatsColumnsAfter((Long) chunk.get(chunk.size() - 1)[0],
+                            BUILD_CHUNK_SIZE);
+                }
+            } finally {
+                synchronized (this) {
+                    changedDuringRebuild = null;
+                }
+            }
+            int movies;
+            synchronized (this) {
+                movies = groups.size();
+            }
+            if (generation.get() == rebuildGeneration) {
+                ready = true;
+            }
+            LOGGER.info("Counted " + movies + " movies for statistics in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms, holding about "
+                    + (long) movies * BYTES_PER_MOVIE / (1024 * 1024) + " MB of heap");
+        }
+    }
+
+    /**
+     * This method put() counts a changed movie in its groups, taking it out of the groups it was in before.
+     */
+
+    private synchronized void put(Long id, String genre, String director, int releaseYear) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(id);
+        }
+        count(id, genre, director, releaseYear);
+    }
+
+    /**
+     * This method count() counts a movie in its groups, taking it out of the groups it was in before. The
+     * caller must hold the lock of this object.
+     */
+
+    private void count(Long id, String genre, String director, int releaseYear) {
+        Counter[] movieGroups = {
+                counter(StatsDimension.GENRE, genre),
+                counter(StatsDimension.DIRECTOR, director),
+                counter(StatsDimension.YEAR, String.valueOf(releaseYear))
+        };
+        for (Counter counter : movieGroups) {
+            counter.count++;
+        }
+        release(groups.put(id, movieGroups));
+        snapshot = null;
+    }
+
+    /**
+     * This method remove() takes a deleted movie out of its groups.
+     */
+
+    private synchronized void remove(Long id) {
+        if (changedDuringRebuild != null) {
+            changedDuringRebuild.add(id);
+        }
+        release(groups.remove(id));
+        snapshot = null;
+    }
+
+    /**
+     * This method counter() gets the counter of a value, creating it if needed. The counter holds the only
+     * copy of the value, which all movies in the group share.
+     */
+
+    private Counter counter(StatsDimension dimension, String value) {
+        String key = value != null ? value : "";
+        return counters.get(dimension).computeIfAbsent(key, k -> new Counter(dimension, k));
+    }
+
+    /**
+     * This method release() decreases the counters of a movie, dropping the counters that reach zero.
+     */
+
+    private void release(Counter[] movieGroups) {
+        if (movieGroups == null) {
+            return;
+        }
+        for (Counter counter : movieGroups) {
+            if (--counter.count == 0) {
+                counters.get(counter.dimension).remove(counter.value);
+            }
+        }
+    }
+
+    /**
+     * This method isReady() tells whether the counts can be used: the rollup is switched on and built.
+     *
+     * @return True if the counts are up to date(boolean).
+     */
+
+    public boolean isReady() {
+        return ENABLED && ready;
+    }
+
+    /**
+     * This method getStats() gets the current counts. The same object is returned until a movie changes.
+     *
+     * @return The statistics.
+     */
+
+    public synchronized MovieStats getStats() {
+        if (snapshot == null) {
+            snapshot = new MovieStats("rollup", groups.size(), counts(StatsDimension.GENRE),
+                    counts(StatsDimension.DIRECTOR), counts(StatsDimension.YEAR));
+        }
+        return snapshot;
+    }
+
+    /**
+     * This method getCounts() gets the most common values of one attribute.
+     *
+     * @param dimension The attribute.
+     * @param limit The maximum number of values.
+     * @return The number of movies per value, from the most to the least common.
+     */
+
+    public Map<String, Long> getCounts(StatsDimension dimension, int limit) {
+        MovieStats stats = getStats();
+        Map<String, Long> all = dimension == StatsDimension.GENRE ? stats.getByGenre()
+                : dimension == StatsDimension.DIRECTOR ? stats.getByDirector() : stats.getByYear();
+        Map<String, Long> top = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : all.entrySet()) {
+            if (top.size() == limit) {
+                break;
+            }
+            top.put(entry.getKey(), entry.getValue());
+        }
+        return top;
+    }
+
+    /**
+     * This method counts() copies the counters of one attribute, most common first. The caller must hold
+     * the lock of this object.
+     */
+
+    private Map<String, Long> counts(StatsDimension dimension) {
+        List<Counter> sorted = new ArrayList<>(counters.get(dimension).values());
+        sorted.sort(Comparator.comparingLong((Counter counter) -> counter.count).reversed()
+                .thenComparing(counter -> counter.value));
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Counter counter : sorted) {
+            counts.put(counter.value, counter.count);
+        }
+        return counts;
+    }
+
+    /**
+     * The Counter class is the number of movies with one value of one attribute.
+     */
+
+    private static final class Counter {
+
+        private final StatsDimension dimension;
+        private final String value;
+        private long count;
+
+        private Counter(StatsDimension dimension, String value) {
+            this.dimension = dimension;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.example.javasystematiskprojekt1;
+
+import javax.naming.Context;
+import javax.naming.NameNotFoundException;
+import javax.naming.OperationNotSupportedException;
+import javax.naming.spi.InitialContextFactory;
+import java.lang.reflect.Proxy;
+import java.util.Hashtable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The TestNaming class is the JNDI of the tests, standing in for the one of the container: install() binds
+ * objects by name, such as a data source or the managed thread factory, and close() removes them again. Names
+ * that are not bound are not found, as outside a container.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+public final class TestNaming implements InitialContextFactory, AutoCloseable {
+
+    private static final Map<String, Object> BINDINGS = new ConcurrentHashMap<>();
+
+    private final String previousFactory;
+
+    /**
+     * A public constructor, used by JNDI to create the initial context factory.
+     */
+
+    public TestNaming() {
+        previousFactory = null;
+    }
+
+    private TestNaming(String previousFactory) {
+        this.previousFactory = previousFactory;
+    }
+
+    /**
+     * This method install() makes the JNDI lookups of the current JVM find the given objects.
+     *
+     * @param bindings The objects by JNDI name.
+     * @return The installed naming, to close when the test is done.
+     */
+
+    public static TestNaming install(Map<String, Object> bindings) {
+        String previous = System.getProperty(Context.INITIAL_CONTEXT_FACTORY);
+        BINDINGS.clear();
+        BINDINGS.putAll(bindings);
+        System.setProperty(Context.INITIAL_CONTEXT_FACTORY, TestNaming.class.getName());
+        return new TestNaming(previous);
+    }
+
+    @Override
+    public Context getInitialContext(Hashtable<?, ?> environment) {
+        return (Context) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Context.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close")) {
+                        return null;
+                    }
+                    if (!method.getName().equals("lookup")) {
+                        throw new OperationNotSupportedException(method.getName());
+                    }
+                    Object bound = BINDINGS.get(String.valueOf(args[0]));
+                    if (bound == null) {
+                        throw new NameNotFoundException(String.valueOf(args[0]));
+                    }
+                    return bound;
+                });
+    }
+
+    @Override
+    public void close() {
+        BINDINGS.clear();
+        if (previousFactory == null) {
+            System.clearProperty(Context.INITIAL_CONTEXT_FACTORY);
+        } else {
+            System.setProperty(Context.INITIAL_CONTEXT_FACTORY, previousFactory);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package org.example.javasystematiskprojekt1.async;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.EntityTransaction;
+import jakarta.persistence.Persistence;
+import org.example.javasystematiskprojekt1.TestNaming;
+import org.example.javasystematiskprojekt1.database.MovieCache;
+import org.example.javasystematiskprojekt1.database.MovieRepository;
+import org.example.javasystematiskprojekt1.database.TestRepositories;
+import org.example.javasystematiskprojekt1.model.IngestTicket;
+import org.example.javasystematiskprojekt1.model.Movie;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests of the WriteBehindQueue class, with a repository that only counts the movies it is given, and with
+ * the repository on the in-memory Derby database of the "test" persistence unit.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+class WriteBehindQueueTest {
+
+    @Test
+    void shutdownWritesEveryAcceptedMovie() throws Exception {
+        CountingRepository repository = new CountingRepository(false);
+        WriteBehindQueue queue = start(repository);
+        ConcurrentLinkedQueue<Long> tickets = new ConcurrentLinkedQueue<>();
+        CountDownLatch go = new CountDownLatch(1);
+        List<Thread> producers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Thread producer = new Thread(() -> {
+                try {
+                    go.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int j = 0; j < 2000; j++) {
+                    long ticket = queue.offer(new Movie());
+                    if (ticket > 0) {
+                        tickets.add(ticket);
+                    }
+                }
+            });
+            producer.start();
+            producers.add(producer);
+        }
+        go.countDown();
+        Thread.sleep(5);
+        queue.shutdown(); // Closes the queue while the producers are still offering.
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertEquals(tickets.size(), repository.written.get());
+        for (long ticket : tickets) {
+            assertEquals(IngestTicket.State.WRITTEN, queue.getTicket(ticket).getState());
+        }
+        assertEquals(0, queue.getStatus().getDepth());
+        assertTrue(queue.getStatus().isClosed());
+        assertEquals(-1, queue.offer(new Movie()));
+    }
+
+    @Test
+    void forgottenFailuresAreNotReportedAsWritten() throws Exception {
+        WriteBehindQueue queue = start(new CountingRepository(true));
+        long first = queue.offer(new Movie());
+        long last = first;
+        for (int i = 0; i < 1100; i++) {
+            last = queue.offer(new Movie());
+        }
+        queue.shutdown();
+
+        assertEquals(IngestTicket.State.UNKNOWN, queue.getTicket(first).getState());
+        assertEquals(IngestTicket.State.FAILED, queue.getTicket(last).getState());
+        assertNotEquals(IngestTicket.State.WRITTEN, queue.getTicket(last - 500).getState());
+    }
+
+    @Test
+    void theWriterRunsTheTransactionalRepositoryOnAManagedThread() throws Exception {
+        EntityManagerFactory factory = Persistence.createEntityManagerFactory("test");
+        EntityManager entityManager = factory.createEntityManager();
+        Set<Thread> managedThreads = ConcurrentHashMap.newKeySet();
+        ThreadFactory managedThreadFactory = task -> {
+            Thread thread = new Thread(task);
+            thread.setDaemon(true);
+            managedThreads.add(thread);
+            return thread;
+        };
+        try (TestNaming naming = TestNaming.install(
+                Map.of(ManagedExecutors.DEFAULT_THREAD_FACTORY, managedThreadFactory))) {
+            TransactionalRepository repository = TestRepositories.wire(
+                    new TransactionalRepository(entityManager, managedThreads), factory, entityManager,
+                    new MovieCache());
+            WriteBehindQueue queue = start(repository);
+            List<Long> tickets = new ArrayList<>();
+            for (int i = 0; i < 1200; i++) {
+                Movie movie = new Movie();
+                movie.setMovieTitle("Movie " + i);
+                tickets.add(queue.offer(movie));
+            }
+            queue.shutdown();
+
+            assertTrue(repository.threadNames.stream().allMatch(name -> name.startsWith("movies-write-behind-")),
+                    "written on " + repository.threadNames);
+            assertEquals(1200L, entityManager.createNamedQuery("Movie.count", Long.class).getSingleResult());
+            for (long ticket : tickets) {
+                assertEquals(IngestTicket.State.WRITTEN, queue.getTicket(ticket).getState());
+            }
+        } finally {
+            entityManager.close();
+            factory.close();
+        }
+    }
+
+    private static WriteBehindQueue start(MovieRepository repository) throws Exception {
+        WriteBehindQueue queue = new WriteBehindQueue();
+        Field field = WriteBehindQueue.class.getDeclaredField("movieRepository");
+        field.setAccessible(true);
+        field.set(queue, repository);
+        queue.start();
+        return queue;
+    }
+
+    /**
+     * The CountingRepository class stands in for the database: it counts the movies written, or fails.
+     */
+
+    private static final class CountingRepository extends MovieRepository {
+
+        private final boolean failing;
+        private final AtomicInteger written = new AtomicInteger();
+
+        private CountingRepository(boolean failing) {
+            this.failing = failing;
+        }
+
+        @Override
+        public int createMovies(List<Movie> movies) {
+            if (failing) {
+                throw new IllegalStateException("Database unavailable");
+            }
+            written.addAndGet(movies.size());
+            return movies.size();
+        }
+    }
+
+    /**
+     * The TransactionalRepository class is the real repository on the in-memory database. Like the transaction
+     * interceptor of the container, it refuses to write on a thread without the context of the application,
+     * which here is a thread of the managed thread factory bound by the test, and otherwise writes in a
+     * transaction.
+     */
+
+    private static final class TransactionalRepository extends MovieRepository {
+
+        private final EntityManager entityManager;
+        private final Set<Thread> managedThreads;
+        private final Set<String> threadNames = ConcurrentHashMap.newKeySet();
+
+        private TransactionalRepository(EntityManager entityManager, Set<Thread> managedThreads) {
+            this.entityManager = entityManager;
+            this.managedThreads = managedThreads;
+        }
+
+        @Override
+        public int createMovies(List<Movie> movies) {
+            if (!managedThreads.contains(Thread.currentThread())) {
+                throw new IllegalStateException("No transaction context on " + Thread.currentThread().getName());
+            }
+            threadNames.add(Thread.currentThread().getName());
+            EntityTransaction transaction = entityManager.getTransaction();
+            transaction.begin();
+            try {
+                int created = super.createMovies(movies);
+                transaction.commit();
+                return created;
+            } finally {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.example.javasystematiskprojekt1.database;
+
+import org.example.javasystematiskprojekt1.model.CacheStats;
+import org.example.javasystematiskprojekt1.model.Movie;
+import org.example.javasystematiskprojekt1.model.MovieChangeEvent;
+import org.example.javasystematiskprojekt1.model.MovieSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Unit tests of the MovieCache class.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+class MovieCacheTest {
+
+    @Test
+    void aLoadStartedBeforeAWriteIsNotCached() {
+        MovieCache cache = new MovieCache();
+        long generation = cache.generation(); // A reader starts loading movie 1 and its page...
+        cache.invalidate(MovieChangeEvent.updated(1L, movie(1L, "New"), 2L)); // ...while a writer changes it.
+        cache.putMovie(snapshot(1L, "Old"), generation);
+        cache.putPage(null, 10, List.of(snapshot(1L, "Old")), generation);
+
+        assertNull(cache.getMovie(1L));
+        assertNull(cache.getPage(null, 10));
+
+        cache.putMovie(snapshot(1L, "New"), cache.generation());
+        assertEquals("New", cache.getMovie(1L).getMovieTitle());
+    }
+
+    @Test
+    void everyInvalidationStartsANewGeneration() {
+        MovieCache cache = new MovieCache();
+        long generation = cache.generation();
+        cache.invalidate(MovieChangeEvent.created(movie(1L, "One")));
+        cache.invalidate(MovieChangeEvent.deleted(2L));
+        cache.invalidate(MovieChangeEvent.bulk());
+
+        assertEquals(generation + 3, cache.generation());
+    }
+
+    @Test
+    void aNewMovieOnlyClearsThePages() {
+        MovieCache cache = filled();
+        cache.invalidate(MovieChangeEvent.created(movie(3L, "Three")));
+
+        assertNotNull(cache.getMovie(1L));
+        assertNotNull(cache.getMovie(2L));
+        assertNull(cache.getPage(null, 10));
+    }
+
+    @Test
+    void anUpdatedOrDeletedMovieOnlyDropsItsOwnEntry() {
+        MovieCache cache = filled();
+        cache.invalidate(MovieChangeEvent.deleted(1L));
+
+        assertNull(cache.getMovie(1L));
+        assertNotNull(cache.getMovie(2L));
+        assertNull(cache.getPage(null, 10));
+    }
+
+    @Test
+    void aBulkChangeClearsEverything() {
+        MovieCache cache = filled();
+        cache.invalidate(MovieChangeEvent.deletedMatching("Drama", null));
+
+        assertNull(cache.getMovie(1L));
+        assertNull(cache.getMovie(2L));
+        assertNull(cache.getPage(null, 10));
+    }
+
+    @Test
+    void cachedPagesCannotBeChangedByTheirCaller() {
+        MovieCache cache = new MovieCache();
+        List<MovieSnapshot> page = new ArrayList<>(List.of(snapshot(1L, "One")));
+        cache.putPage(5L, 10, page, cache.generation());
+        page.clear();
+
+        assertEquals(1, cache.getPage(5L, 10).size());
+        assertNull(cache.getPage(5L, 20)); // Another page size is another page.
+        assertNull(cache.getPage(null, 10));
+    }
+
+    @Test
+    void lookupsAreCountedAsHitsAndMisses() {
+        MovieCache cache = filled();
+        cache.getMovie(1L);
+        cache.getMovie(99L);
+        cache.getPage(null, 10);
+
+        CacheStats stats = cache.getStats();
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(2, stats.getEntries());
+        assertEquals(1, stats.getPageEntries());
+    }
+
+    /**
+     * This method filled() creates a cache holding movies 1 and 2 and the first page.
+     */
+
+    private static MovieCache filled() {
+        MovieCache cache = new MovieCache();
+        long generation = cache.generation();
+        cache.putMovie(snapshot(1L, "One"), generation);
+        cache.putMovie(snapshot(2L, "Two"), generation);
+        cache.putPage(null, 10, List.of(snapshot(1L, "One"), snapshot(2L, "Two")), generation);
+        return cache;
+    }
+
+    private static Movie movie(Long id, String title) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setMovieTitle(title);
+        movie.setMovieGenre("Drama");
+        movie.setReleaseYear(2000);
+        movie.setVersion(1L);
+        return movie;
+    }
+
+    private static MovieSnapshot snapshot(Long id, String title) {
+        return MovieSnapshot.of(movie(id, title));
+    }
+}
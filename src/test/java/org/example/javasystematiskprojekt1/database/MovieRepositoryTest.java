@@ -0,0 +1,216 @@
+package org.example.javasystematiskprojekt1.database;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.example.javasystematiskprojekt1.model.Movie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests of the keyset paging, the page caches, the versioned update, the filtered delete and the export of
+ * the MovieRepository class, on an in-memory Derby database (see the "test" persistence unit), wired by the
+ * TestRepositories class.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+class MovieRepositoryTest {
+
+    private static final int CATALOGUE_SIZE = 25;
+
+    private EntityManagerFactory factory;
+    private EntityManager entityManager;
+    private MovieCache movieCache;
+    private MovieRepository repository;
+
+    @BeforeEach
+    void createCatalogue() {
+        factory = Persistence.createEntityManagerFactory("test"); // Drops and creates the table.
+        entityManager = factory.createEntityManager();
+        movieCache = new MovieCache();
+        repository = TestRepositories.wire(new MovieRepository(), factory, entityManager, movieCache);
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < CATALOGUE_SIZE; i++) {
+            movies.add(movie("Movie " + i));
+        }
+        inTransaction(() -> repository.createMovies(movies));
+    }
+
+    @AfterEach
+    void close() {
+        entityManager.close();
+        factory.close();
+    }
+
+    @Test
+    void pagesWalkTheWholeCatalogueInIdOrder() {
+        List<Long> seen = new ArrayList<>();
+        List<Integer> pageSizes = new ArrayList<>();
+        Long cursor = null;
+        List<Movie> page;
+        // Stops once more movies were seen than exist, in case the cursor does not move on.
+        while (seen.size() <= CATALOGUE_SIZE && !(page = repository.findMoviesAfter(cursor, 10)).isEmpty()) {
+            pageSizes.add(page.size());
+            page.forEach(movie -> seen.add(movie.getId()));
+            cursor = page.get(page.size() - 1).getId();
+        }
+
+        assertEquals(List.of(10, 10, 5), pageSizes);
+        assertEquals(allIds(), seen);
+        for (int i = 1; i < seen.size(); i++) {
+            assertTrue(seen.get(i - 1) < seen.get(i), "ids out of order: " + seen);
+        }
+    }
+
+    @Test
+    void aDeleteBeforeTheCursorDoesNotShiftTheNextPage() {
+        List<Long> ids = allIds();
+        List<Movie> first = repository.findMoviesAfter(null, 10);
+        inTransaction(() -> repository.deleteMovieById(first.get(0).getId()));
+
+        List<Movie> second = repository.findMoviesAfter(first.get(9).getId(), 10);
+
+        // Paging by offset would now skip the movie that moved up onto the first page.
+        assertEquals(ids.subList(10, 20), ids(second));
+    }
+
+    @Test
+    void aCachedPageIsReadAgainAfterAnUpdate() {
+        Long id = repository.findMoviesAfter(null, 10).get(0).getId();
+        repository.findMoviesAfter(null, 10);
+        assertEquals(1, movieCache.getStats().getHits());
+
+        assertEquals(1, inTransaction(() -> repository.updateMovieById(id, movie("Changed"))));
+
+        Movie updated = repository.findMoviesAfter(null, 10).get(0);
+        assertEquals("Changed", updated.getMovieTitle());
+        assertEquals(2L, updated.getVersion());
+    }
+
+    @Test
+    void scannedPagesComeFromTheQueryResultsCacheUntilAMovieIsAdded() throws SQLException {
+        List<Long> ids = allIds();
+        assertEquals(ids.subList(0, 5), ids(repository.scanMoviesAfter(null, 5)));
+        // A delete EclipseLink does not see, so only a read from the database shows it.
+        try (Connection connection = TestRepositories.dataSource(TestRepositories.DATABASE).getConnection();
+             Statement statement = connection.createStatement()) {
+            assertEquals(1, statement.executeUpdate("delete from movieData where ID = " + ids.get(0)));
+        }
+
+        assertEquals(ids.subList(0, 5), ids(repository.scanMoviesAfter(null, 5)));
+        // The page size is part of the key, so another size is read from the database.
+        assertEquals(ids.subList(1, 4), ids(repository.scanMoviesAfter(null, 3)));
+
+        inTransaction(() -> repository.createMovies(List.of(movie("New"))));
+
+        assertEquals(ids.subList(1, 6), ids(repository.scanMoviesAfter(null, 5)));
+    }
+
+    @Test
+    void anUpdateOfAnOldVersionChangesNothing() {
+        Movie read = repository.findMoviesAfter(null, 1).get(0);
+        Movie change = movie("First change");
+        change.setVersion(read.getVersion());
+        Movie late = movie("Late change");
+        late.setVersion(read.getVersion());
+
+        assertEquals(1, inTransaction(() -> repository.updateMovieById(read.getId(), change)));
+        // The late change was made to the version read before the first change.
+        assertEquals(0, inTransaction(() -> repository.updateMovieById(read.getId(), late)));
+
+        assertEquals("First change", repository.findMoviesAfter(null, 1).get(0).getMovieTitle());
+    }
+
+    @Test
+    void aFilteredDeleteRemovesOnlyTheMatchingMovies() {
+        inTransaction(() -> repository.createMovies(List.of(movie("Old comedy", "Comedy", 1950),
+                movie("New comedy", "Comedy", 2020), movie("Old drama", "Drama", 1950))));
+        assertEquals(10, repository.findMoviesAfter(null, 10).size()); // A cached page, which must not outlive it.
+
+        assertEquals(1, inTransaction(() -> repository.deleteMovies("Comedy", 2000)));
+        assertEquals(1, inTransaction(() -> repository.deleteMovies(null, 1960)));
+        assertEquals(0, inTransaction(() -> repository.deleteMovies("Horror", null)));
+        assertEquals(CATALOGUE_SIZE + 1, repository.countMovies());
+
+        assertEquals(CATALOGUE_SIZE, inTransaction(() -> repository.deleteMovies("Drama", null)));
+        List<Movie> left = repository.findMoviesAfter(null, 10);
+        assertEquals(List.of("New comedy"), left.stream().map(Movie::getMovieTitle).collect(Collectors.toList()));
+    }
+
+    @Test
+    void theExportReadsEveryRowInIdOrder() throws IOException {
+        List<Long> exported = new ArrayList<>();
+        List<String> titles = new ArrayList<>();
+
+        long rows = repository.exportMovies(row -> {
+            exported.add(row.getLong(1));
+            titles.add(row.getString(2));
+            assertEquals(2000, row.getInt(4));
+            assertEquals(1L, row.getLong(7));
+        });
+
+        assertEquals(CATALOGUE_SIZE, rows);
+        assertEquals(allIds(), exported);
+        assertEquals("Movie 0", titles.get(0));
+        assertEquals("Movie " + (CATALOGUE_SIZE - 1), titles.get(CATALOGUE_SIZE - 1));
+    }
+
+    @Test
+    void theExportOfAnEmptyTableHasNoRows() throws IOException {
+        inTransaction(() -> repository.deleteMovies(null, null));
+
+        assertEquals(0, repository.exportMovies(row -> {
+            throw new IOException("No row expected");
+        }));
+    }
+
+    /**
+     * This method inTransaction() runs a write in its own transaction, and then clears the persistence context
+     * as the container does when a transaction-scoped one ends.
+     */
+
+    private <T> T inTransaction(Supplier<T> write) {
+        entityManager.getTransaction().begin();
+        T result = write.get();
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+        return result;
+    }
+
+    private List<Long> allIds() {
+        return entityManager.createQuery("select m.id from Movie m order by m.id", Long.class).getResultList();
+    }
+
+    private static List<Long> ids(List<Movie> movies) {
+        return movies.stream().map(Movie::getId).collect(Collectors.toList());
+    }
+
+    private static Movie movie(String title) {
+        return movie(title, "Drama", 2000);
+    }
+
+    private static Movie movie(String title, String genre, int year) {
+        Movie movie = new Movie();
+        movie.setMovieTitle(title);
+        movie.setMovieDirector("Director");
+        movie.setReleaseYear(year);
+        movie.setMovieGenre(genre);
+        movie.setMoviePlot("A plot");
+        return movie;
+    }
+}
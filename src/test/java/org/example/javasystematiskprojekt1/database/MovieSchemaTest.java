@@ -0,0 +1,131 @@
+package org.example.javasystematiskprojekt1.database;
+
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import org.example.javasystematiskprojekt1.model.Movie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests of the MovieSchema class: the statements built from the indexes of the Movie entity, and bringing
+ * a table created with older indexes up to date, on an in-memory Derby database.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+class MovieSchemaTest {
+
+    private Connection connection;
+
+    @BeforeEach
+    void createOldTable() throws SQLException {
+        connection = TestRepositories.dataSource("memory:schema-test").getConnection();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table movieData (ID bigint not null primary key, MOVIETITLE varchar(255), "
+                    + "MOVIEDIRECTOR varchar(255), RELEASEYEAR integer, MOVIEGENRE varchar(255), "
+                    + "MOVIEPLOT varchar(255), VERSION bigint)");
+            statement.execute("create index IDX_MOVIE_GENRE on movieData (MOVIEGENRE)"); // Declared before.
+            statement.execute("create index OTHER_TITLE on movieData (MOVIETITLE)"); // Not managed by MovieSchema.
+        }
+    }
+
+    @AfterEach
+    void dropTable() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("drop table movieData");
+        }
+        connection.close();
+    }
+
+    @Test
+    void theStatementsAreBuiltFromTheIndexesOfTheEntity() {
+        Index[] declared = Movie.class.getAnnotation(Table.class).indexes();
+
+        assertEquals(declared.length, MovieSchema.INDEXES.size());
+        for (Index index : declared) {
+            assertTrue(MovieSchema.INDEXES.containsKey(index.name().toUpperCase(Locale.ROOT)), index.name());
+        }
+        assertEquals("create index IDX_MOVIE_GENRE_ID on movieData (movieGenre, ID)",
+                MovieSchema.INDEXES.get("IDX_MOVIE_GENRE_ID"));
+    }
+
+    @Test
+    void anOldTableGetsTheDeclaredIndexesAndLosesTheReplacedOnes() throws SQLException {
+        assertEquals(MovieSchema.INDEXES.size(), MovieSchema.updateIndexes(connection));
+
+        Set<String> indexes = indexes();
+        assertTrue(indexes.containsAll(MovieSchema.INDEXES.keySet()), indexes.toString());
+        assertFalse(indexes.contains("IDX_MOVIE_GENRE"), "the replaced index is still there");
+        assertTrue(indexes.contains("OTHER_TITLE"), "an index of somebody else was dropped");
+
+        assertEquals(0, MovieSchema.updateIndexes(connection));
+        assertEquals(indexes, indexes());
+    }
+
+    @Test
+    void aFilterSortedByIdIsReadFromItsIndexWithoutASort() throws SQLException {
+        MovieSchema.updateIndexes(connection);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "insert into movieData (ID, MOVIETITLE, MOVIEGENRE, RELEASEYEAR) values (?, ?, ?, ?)")) {
+            for (int id = 1; id <= 2000; id++) {
+                insert.setLong(1, id);
+                insert.setString(2, "Movie " + id);
+                insert.setString(3, "Genre " + id % 50);
+                insert.setInt(4, 1950 + id % 70);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+
+        String plan;
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("call SYSCS_UTIL.SYSCS_SET_RUNTIMESTATISTICS(1)");
+            try (ResultSet rows = statement.executeQuery(
+                    "select ID, MOVIETITLE from movieData where MOVIEGENRE = 'Genre 7' order by ID")) {
+                long last = 0;
+                int count = 0;
+                while (rows.next()) {
+                    assertTrue(rows.getLong(1) > last);
+                    last = rows.getLong(1);
+                    count++;
+                }
+                assertEquals(40, count);
+            }
+            try (ResultSet row = statement.executeQuery("values SYSCS_UTIL.SYSCS_GET_RUNTIMESTATISTICS()")) {
+                row.next();
+                plan = row.getString(1);
+            }
+            statement.execute("call SYSCS_UTIL.SYSCS_SET_RUNTIMESTATISTICS(0)");
+        }
+        assertTrue(plan.contains("IDX_MOVIE_GENRE_ID"), plan);
+        assertFalse(plan.contains("Sort ResultSet"), plan);
+    }
+
+    private Set<String> indexes() throws SQLException {
+        Set<String> indexes = new HashSet<>();
+        try (PreparedStatement statement = connection.prepareStatement("select c.CONGLOMERATENAME "
+                + "from SYS.SYSCONGLOMERATES c join SYS.SYSTABLES t on c.TABLEID = t.TABLEID "
+                + "where c.ISINDEX and t.TABLENAME = 'MOVIEDATA'");
+             ResultSet row = statement.executeQuery()) {
+            while (row.next()) {
+                indexes.add(row.getString(1));
+            }
+        }
+        return indexes;
+    }
+}
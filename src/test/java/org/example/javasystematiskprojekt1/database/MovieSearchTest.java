@@ -0,0 +1,134 @@
+package org.example.javasystematiskprojekt1.database;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.example.javasystematiskprojekt1.model.Movie;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit tests of the MovieSearch class: the SQL and parameters it builds, and its in-memory order. One test runs
+ * searches on the in-memory Derby database of the "test" persistence unit.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+class MovieSearchTest {
+
+    private static final String SELECT = "select " + MovieSearch.COLUMNS + " from movieData where 1 = 1";
+
+    @Test
+    void withoutFiltersOnlyThePageIsBound() {
+        MovieSearch search = new MovieSearch(null, null, null, null, null, null, 40, 20);
+
+        assertEquals(SELECT + " order by ID offset ? rows fetch next ? rows only", search.getSql());
+        assertEquals(List.of(40, 20), search.getParameters());
+    }
+
+    @Test
+    void everyFilterIsBoundAsAParameter() {
+        MovieSearch search = new MovieSearch("Star", "Lucas", "Sci-Fi", 1977, 1983, "year", 0, 10);
+
+        assertEquals(SELECT + " and MOVIETITLE like ? escape '\\' and MOVIEDIRECTOR = ? and MOVIEGENRE = ?"
+                + " and RELEASEYEAR >= ? and RELEASEYEAR <= ? order by RELEASEYEAR, ID"
+                + " offset ? rows fetch next ? rows only", search.getSql());
+        assertEquals(List.of("Star%", "Lucas", "Sci-Fi", 1977, 1983, 0, 10), search.getParameters());
+    }
+
+    @Test
+    void theSameFiltersWithOtherValuesGiveTheSameSql() {
+        // One SQL string per combination of filters, so the prepared statement is reused.
+        assertEquals(new MovieSearch("A", null, "Drama", null, 2000, "-title", 0, 10).getSql(),
+                new MovieSearch("B' or 1 = 1 --", null, "Horror", null, 1900, "-title", 50, 5).getSql());
+    }
+
+    @Test
+    void likeWildcardsInTheTitleAreEscaped() {
+        MovieSearch search = new MovieSearch("50%_off\\", null, null, null, null, null, 0, 10);
+
+        assertEquals("50\\%\\_off\\\\%", search.getParameters().get(0));
+    }
+
+    @Test
+    void sortKeysBecomeAnOrderByWithTheIdLast() {
+        assertEquals(" order by ID desc", orderBy("-id"));
+        assertEquals(" order by MOVIETITLE desc, ID desc", orderBy("-title"));
+        assertEquals(" order by MOVIEDIRECTOR, ID", orderBy("director"));
+        assertEquals(" order by ID", orderBy(""));
+        assertThrows(IllegalArgumentException.class, () -> orderBy("plot"));
+        assertThrows(IllegalArgumentException.class, () -> orderBy("year; drop table movieData"));
+    }
+
+    @Test
+    void theComparatorSortsLikeDerby() {
+        Movie a = movie(1L, "B", null);
+        Movie b = movie(2L, "A", null);
+        Movie c = movie(3L, "B", null);
+        Movie untitled = movie(4L, null, null);
+        List<Movie> movies = new ArrayList<>(List.of(untitled, c, b, a));
+
+        movies.sort(new MovieSearch(null, null, null, null, null, "title", 0, 10).getComparator());
+        assertEquals(List.of(2L, 1L, 3L, 4L), ids(movies)); // Nulls last, equal titles by id.
+
+        movies.sort(new MovieSearch(null, null, null, null, null, "-title", 0, 10).getComparator());
+        assertEquals(List.of(4L, 3L, 1L, 2L), ids(movies));
+    }
+
+    @Test
+    void wildcardsInATitleAreMatchedLiterallyByDerby() {
+        EntityManagerFactory factory = Persistence.createEntityManagerFactory("test");
+        EntityManager entityManager = factory.createEntityManager();
+        try {
+            MovieRepository repository = TestRepositories.wire(new MovieRepository(), factory, entityManager,
+                    new MovieCache());
+            entityManager.getTransaction().begin();
+            repository.createMovies(Arrays.asList(movie(null, "100% Love", "Drama"),
+                    movie(null, "100 Days", "Drama"), movie(null, "A_B", "Comedy"), movie(null, "AxB", "Comedy"),
+                    movie(null, "C\\D", "Comedy")));
+            entityManager.getTransaction().commit();
+
+            assertEquals(List.of("100% Love"), titles(repository, "100%", null));
+            assertEquals(List.of("A_B"), titles(repository, "A_", null));
+            assertEquals(List.of("C\\D"), titles(repository, "C\\", null));
+            assertEquals(List.of("A_B", "AxB"), titles(repository, "A", "Comedy"));
+            assertEquals(List.of(), titles(repository, "%", null));
+        } finally {
+            entityManager.close();
+            factory.close();
+        }
+    }
+
+    private static String orderBy(String sort) {
+        String sql = new MovieSearch(null, null, null, null, null, sort, 0, 10).getSql();
+        return sql.substring(SELECT.length(), sql.indexOf(" offset"));
+    }
+
+    private static List<String> titles(MovieRepository repository, String title, String genre) {
+        return repository.searchMovies(new MovieSearch(title, null, genre, null, null, "title", 0, 10)).stream()
+                .map(Movie::getMovieTitle).collect(Collectors.toList());
+    }
+
+    private static List<Long> ids(List<Movie> movies) {
+        return movies.stream().map(Movie::getId).collect(Collectors.toList());
+    }
+
+    private static Movie movie(Long id, String title, String genre) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setMovieTitle(title);
+        movie.setMovieDirector("Director");
+        movie.setReleaseYear(2000);
+        movie.setMovieGenre(genre);
+        movie.setMoviePlot("A plot");
+        return movie;
+    }
+}
@@ -0,0 +1,164 @@
+package org.example.javasystematiskprojekt1.database;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.example.javasystematiskprojekt1.TestNaming;
+import org.example.javasystematiskprojekt1.model.Movie;
+import org.example.javasystematiskprojekt1.model.MovieChangeEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests of the ReadRouter class with two shards. The primary is the in-memory Derby database of the "test"
+ * persistence unit, and the shards are two more in-memory databases, bound in the JNDI of the test.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+class ReadRouterTest {
+
+    private static final String[] GENRES = {"Drama", "Comedy", "Horror", null};
+
+    private EntityManagerFactory factory;
+    private EntityManager entityManager;
+    private MovieRepository primary;
+    private TestNaming naming;
+    private ReadRouter router;
+
+    @BeforeEach
+    void startShards() throws InterruptedException {
+        factory = Persistence.createEntityManagerFactory("test");
+        entityManager = factory.createEntityManager();
+        primary = TestRepositories.wire(new MovieRepository(), factory, entityManager, new MovieCache());
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            movies.add(movie("Movie " + (char) ('A' + i % 26), GENRES[i % GENRES.length], 1950 + i % 7));
+        }
+        inTransaction(() -> primary.createMovies(movies));
+
+        naming = TestNaming.install(Map.of("jdbc/shard-1", TestRepositories.dataSource("memory:shard-1"),
+                "jdbc/shard-2", TestRepositories.dataSource("memory:shard-2")));
+        System.setProperty("movies.shardDataSources", "jdbc/shard-1,jdbc/shard-2");
+        try {
+            router = new ReadRouter();
+            TestRepositories.set(router, ReadRouter.class, MovieRepository.class, primary);
+            TestRepositories.set(router, ReadRouter.class, MovieCache.class, new MovieCache());
+            router.init();
+        } finally {
+            System.clearProperty("movies.shardDataSources");
+        }
+        router.onStartup(null);
+        await(() -> router.scanMoviesAfter(null, 1) != null); // Both shards are filled.
+    }
+
+    @AfterEach
+    void stopShards() {
+        router.shutdown();
+        naming.close();
+        entityManager.close();
+        factory.close();
+    }
+
+    @Test
+    void mergedShardsAnswerLikeThePrimary() {
+        List<MovieSearch> searches = List.of(
+                new MovieSearch(null, null, null, null, null, null, 0, 25),
+                new MovieSearch(null, null, null, null, null, "title", 10, 20),
+                new MovieSearch(null, null, null, null, null, "-year", 5, 30),
+                new MovieSearch(null, null, "Drama", null, null, "-title", 0, 100),
+                new MovieSearch("Movie C", null, null, 1951, 1955, "genre", 0, 10),
+                new MovieSearch(null, null, null, null, null, "genre", 50, 20));
+        for (MovieSearch search : searches) {
+            assertEquals(ids(primary.searchMovies(search)), ids(router.searchMovies(search)), search.getSql());
+        }
+
+        List<Long> paged = new ArrayList<>();
+        List<Movie> page = router.scanMoviesAfter(null, 7);
+        while (!page.isEmpty() && paged.size() <= 60) {
+            paged.addAll(ids(page));
+            page = router.scanMoviesAfter(page.get(page.size() - 1).getId(), 7);
+        }
+        assertEquals(ids(primary.scanMoviesAfter(null, 100)), paged);
+    }
+
+    @Test
+    void changesReachTheShardsAfterTheWriterHasReturned() throws InterruptedException {
+        List<Movie> first = primary.scanMoviesAfter(null, 2);
+        Long updatedId = first.get(0).getId();
+        Long deletedId = first.get(1).getId();
+        Movie changed = movie("Changed", "Drama", 2000);
+        assertEquals(1, inTransaction(() -> primary.updateMovieById(updatedId, changed)));
+        assertEquals(1, inTransaction(() -> primary.deleteMovieById(deletedId)));
+
+        router.onMovieChange(MovieChangeEvent.updated(updatedId, changed, 2L));
+        router.onMovieChange(MovieChangeEvent.deleted(deletedId));
+
+        // Until its change is applied, the shard does not answer for the movie: the primary does.
+        Movie read = router.findMovieById(updatedId);
+        assertTrue(read == null || read.getMovieTitle().equals("Changed"));
+        await(() -> router.findMovieById(updatedId) != null);
+        assertEquals("Changed", router.findMovieById(updatedId).getMovieTitle());
+        await(() -> !ids(router.scanMoviesAfter(null, 100)).contains(deletedId));
+        assertEquals(ids(primary.scanMoviesAfter(null, 100)), ids(router.scanMoviesAfter(null, 100)));
+    }
+
+    @Test
+    void aFilteredDeleteReachesEveryShard() throws InterruptedException {
+        MovieSearch dramas = new MovieSearch(null, null, "Drama", null, null, null, 0, 100);
+        assertNotEquals(0, router.searchMovies(dramas).size());
+        assertNotNull(inTransaction(() -> primary.deleteMovies("Drama", null)));
+
+        router.onMovieChange(MovieChangeEvent.deletedMatching("Drama", null));
+
+        await(() -> router.searchMovies(dramas).isEmpty());
+        assertEquals(45, router.searchMovies(new MovieSearch(null, null, null, null, null, null, 0, 100)).size());
+    }
+
+    private <T> T inTransaction(Supplier<T> write) {
+        entityManager.getTransaction().begin();
+        T result = write.get();
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+        return result;
+    }
+
+    /**
+     * This method await() waits up to ten seconds for the stores to catch up.
+     */
+
+    private static void await(Supplier<Boolean> condition) throws InterruptedException {
+        long end = System.nanoTime() + 10_000_000_000L;
+        while (!condition.get()) {
+            assertTrue(System.nanoTime() < end, "the shards did not catch up");
+            Thread.sleep(10);
+        }
+    }
+
+    private static List<Long> ids(List<Movie> movies) {
+        return movies.stream().map(Movie::getId).collect(Collectors.toList());
+    }
+
+    private static Movie movie(String title, String genre, int year) {
+        Movie movie = new Movie();
+        movie.setMovieTitle(title);
+        movie.setMovieDirector("Director");
+        movie.setReleaseYear(year);
+        movie.setMovieGenre(genre);
+        movie.setMoviePlot("A plot");
+        return movie;
+    }
+}
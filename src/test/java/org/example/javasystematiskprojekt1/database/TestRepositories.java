@@ -0,0 +1,111 @@
+package org.example.javasystematiskprojekt1.database;
+
+import jakarta.enterprise.event.Event;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.apache.derby.jdbc.EmbeddedDataSource;
+import org.example.javasystematiskprojekt1.jdbc.ApplicationDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+
+/**
+ * The TestRepositories class wires a MovieRepository for the tests, on the in-memory Derby database of the "test"
+ * persistence unit, the way the container would inject it.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+public final class TestRepositories {
+
+    /**
+     * The database of the "test" persistence unit, for the plain JDBC work of the repository.
+     */
+    public static final String DATABASE = "memory:repository-test";
+
+    private TestRepositories() {
+    }
+
+    /**
+     * This method wire() sets the injected fields of a repository by type. The plain JDBC work, such as the
+     * export, runs on the same database as the persistence unit, and the change events are fired to nobody.
+     *
+     * @param repository The repository, which may be a subclass made by the test.
+     * @param factory The factory of the "test" persistence unit, used by the shared cache.
+     * @param entityManager The entity manager of the repository.
+     * @param movieCache The movie cache of the repository.
+     * @param <T> The type of the repository.
+     * @return The repository.
+     */
+
+    public static <T extends MovieRepository> T wire(T repository, EntityManagerFactory factory,
+                                                      EntityManager entityManager, MovieCache movieCache) {
+        SharedCache sharedCache = new SharedCache();
+        set(sharedCache, SharedCache.class, EntityManagerFactory.class, factory);
+        for (Field field : MovieRepository.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            if (field.getType() == EntityManager.class) {
+                set(repository, field, entityManager);
+            } else if (field.getType() == MovieCache.class) {
+                set(repository, field, movieCache);
+            } else if (field.getType() == SharedCache.class) {
+                set(repository, field, sharedCache);
+            } else if (field.getType() == ReadRouter.class) {
+                set(repository, field, new ReadRouter()); // Without replicas or shards.
+            } else if (field.getType() == ApplicationDataSource.class) {
+                ApplicationDataSource applicationDataSource = new ApplicationDataSource();
+                set(applicationDataSource, ApplicationDataSource.class, DataSource.class, dataSource(DATABASE));
+                set(repository, field, applicationDataSource);
+            } else if (field.getType() == Event.class) {
+                set(repository, field, Proxy.newProxyInstance(TestRepositories.class.getClassLoader(),
+                        new Class<?>[]{Event.class}, (proxy, method, args) -> null));
+            }
+        }
+        return repository;
+    }
+
+    /**
+     * This method dataSource() creates a data source of an embedded Derby database, created if missing.
+     *
+     * @param database The name of the database, such as "memory:shard-1".
+     * @return The data source.
+     */
+
+    public static DataSource dataSource(String database) {
+        EmbeddedDataSource dataSource = new EmbeddedDataSource();
+        dataSource.setDatabaseName(database);
+        dataSource.setCreateDatabase("create");
+        return dataSource;
+    }
+
+    /**
+     * This method set() sets every field of the given type declared by a class.
+     *
+     * @param target The object whose fields are set.
+     * @param declaringClass The class declaring the fields.
+     * @param type The type of the fields.
+     * @param value The value.
+     */
+
+    public static void set(Object target, Class<?> declaringClass, Class<?> type, Object value) {
+        for (Field field : declaringClass.getDeclaredFields()) {
+            if (field.getType() == type && !Modifier.isStatic(field.getModifiers())) {
+                set(target, field, value);
+            }
+        }
+    }
+
+    private static void set(Object target, Field field, Object value) {
+        try {
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package org.example.javasystematiskprojekt1.feed;
+
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseBroadcaster;
+import jakarta.ws.rs.sse.SseEventSink;
+import org.example.javasystematiskprojekt1.model.Movie;
+import org.example.javasystematiskprojekt1.model.MovieChange;
+import org.example.javasystematiskprojekt1.model.MovieChangeEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Unit tests of the replay and the reset of the MovieChangeFeed class. The Server-Sent Events support of the
+ * JAX-RS runtime is replaced by the in-memory TestSse below, whose subscribers collect what they are sent.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+class MovieChangeFeedTest {
+
+    /**
+     * The default "movies.changes.bufferSize".
+     */
+    private static final int BUFFER_SIZE = 1024;
+
+    private final TestSse sse = new TestSse();
+    private MovieChangeFeed feed;
+
+    @BeforeEach
+    void start() {
+        feed = new MovieChangeFeed();
+        feed.start();
+    }
+
+    @AfterEach
+    void shutdown() {
+        feed.shutdown();
+    }
+
+    @Test
+    void aReconnectingClientIsSentTheChangesItMissedThenTheLiveOnes() throws InterruptedException {
+        Subscriber first = subscribe(null);
+        publish(3);
+        List<OutboundSseEvent> received = first.take(3);
+        assertEquals(List.of(1L, 2L, 3L), sequences(received));
+        assertEquals("created", received.get(0).getName());
+
+        Subscriber second = subscribe(received.get(0).getId());
+        publish(1);
+
+        List<OutboundSseEvent> replayed = second.take(3);
+        assertSame(received.get(1), replayed.get(0)); // The buffered events themselves.
+        assertEquals(List.of(2L, 3L, 4L), sequences(replayed));
+        assertEquals(4L, sequences(first.take(1)).get(0));
+        assertNull(second.poll(), "a change was sent twice");
+    }
+
+    @Test
+    void aClientThatMissedNothingOnlyGetsTheLiveChanges() throws InterruptedException {
+        Subscriber first = subscribe(null);
+        publish(2);
+        String last = first.take(2).get(1).getId();
+
+        Subscriber second = subscribe(last);
+        feed.onMovieChange(MovieChangeEvent.bulk());
+
+        OutboundSseEvent bulk = second.take(1).get(0);
+        assertEquals("bulk", bulk.getName());
+        assertEquals(3L, ((MovieChange) bulk.getData()).getSequence());
+    }
+
+    @Test
+    void aClientFurtherBehindThanTheBufferIsSentAReset() throws InterruptedException {
+        Subscriber first = subscribe(null);
+        publish(BUFFER_SIZE + 5);
+        List<OutboundSseEvent> received = first.take(BUFFER_SIZE + 5);
+
+        // Change 6 is the oldest one still buffered, so a client that received change 5 can catch up.
+        Subscriber caughtUp = subscribe(received.get(4).getId());
+        assertEquals(BUFFER_SIZE, caughtUp.take(BUFFER_SIZE).size());
+        assertNull(caughtUp.poll());
+
+        Subscriber behind = subscribe(received.get(3).getId());
+        OutboundSseEvent reset = behind.take(1).get(0);
+        assertEquals("reset", reset.getName());
+        assertEquals(received.get(received.size() - 1).getId(), reset.getId(), "resumes after the last change");
+        assertNull(behind.poll(), "changes after a reset");
+    }
+
+    @Test
+    void anIdOfAnotherRunOrNoIdAtAllIsSentAReset() throws InterruptedException {
+        Subscriber first = subscribe(null);
+        publish(1);
+        String id = first.take(1).get(0).getId();
+        String epoch = id.substring(0, id.lastIndexOf('-'));
+
+        for (String lastEventId : List.of("0-1", epoch + "-x", "1", epoch + "-2")) {
+            OutboundSseEvent reset = subscribe(lastEventId).take(1).get(0);
+            assertEquals("reset", reset.getName(), lastEventId);
+            assertEquals(id, reset.getId());
+        }
+    }
+
+    private Subscriber subscribe(String lastEventId) {
+        Subscriber subscriber = new Subscriber();
+        feed.subscribe(subscriber, sse, lastEventId);
+        return subscriber;
+    }
+
+    private void publish(int changes) {
+        for (int i = 0; i < changes; i++) {
+            Movie movie = new Movie();
+            movie.setId((long) i + 1);
+            movie.setMovieTitle("Movie " + i);
+            movie.setVersion(1L);
+            feed.onMovieChange(MovieChangeEvent.created(movie));
+        }
+    }
+
+    private static List<Long> sequences(List<OutboundSseEvent> events) {
+        List<Long> sequences = new ArrayList<>();
+        for (OutboundSseEvent event : events) {
+            sequences.add(((MovieChange) event.getData()).getSequence());
+        }
+        return sequences;
+    }
+
+    /**
+     * The Subscriber class is the event stream of one client, collecting what it is sent.
+     */
+
+    private static final class Subscriber implements SseEventSink {
+
+        private final BlockingQueue<OutboundSseEvent> events = new LinkedBlockingQueue<>();
+        private volatile boolean closed;
+
+        @Override
+        public boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public CompletionStage<?> send(OutboundSseEvent event) {
+            events.add(event);
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+
+        /**
+         * This method take() waits for the next events sent to the client.
+         */
+
+        private List<OutboundSseEvent> take(int count) throws InterruptedException {
+            List<OutboundSseEvent> taken = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                OutboundSseEvent event = events.poll(5, TimeUnit.SECONDS);
+                assertNotNull(event, "only " + i + " of " + count + " events were sent");
+                taken.add(event);
+            }
+            return taken;
+        }
+
+        /**
+         * This method poll() gets an event sent after the dispatcher has finished its work so far, if any.
+         */
+
+        private OutboundSseEvent poll() throws InterruptedException {
+            return events.poll(200, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * The TestSse class creates events that keep their fields in a map, and a broadcaster that sends to its
+     * subscribers one after another.
+     */
+
+    private static final class TestSse implements Sse {
+
+        @Override
+        public OutboundSseEvent.Builder newEventBuilder() {
+            Map<String, Object> fields = new HashMap<>();
+            return (OutboundSseEvent.Builder) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{OutboundSseEvent.Builder.class}, (builder, method, args) -> {
+                        if (method.getName().equals("build")) {
+                            return event(fields);
+                        }
+                        fields.put(method.getName(), args[args.length - 1]); // The data, not its type.
+                        return builder;
+                    });
+        }
+
+        private OutboundSseEvent event(Map<String, Object> fields) {
+            return (OutboundSseEvent) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[]{OutboundSseEvent.class}, (event, method, args) -> {
+                        switch (method.getName()) {
+                            case "getId":
+                                return fields.get("id");
+                            case "getName":
+                                return fields.get("name");
+                            case "getComment":
+                                return fields.get("comment");
+                            case "getData":
+                                return fields.get("data");
+                            case "toString":
+                                return fields.toString();
+                            default:
+                                throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+
+        @Override
+        public SseBroadcaster newBroadcaster() {
+            List<SseEventSink> sinks = new CopyOnWriteArrayList<>();
+            return new SseBroadcaster() {
+                @Override
+                public void onError(BiConsumer<SseEventSink, Throwable> onError) {
+                }
+
+                @Override
+                public void onClose(Consumer<SseEventSink> onClose) {
+                }
+
+                @Override
+                public void register(SseEventSink sink) {
+                    assertFalse(sink.isClosed());
+                    sinks.add(sink);
+                }
+
+                @Override
+                public CompletionStage<?> broadcast(OutboundSseEvent event) {
+                    sinks.forEach(sink -> sink.send(event));
+                    return CompletableFuture.completedFuture(null);
+                }
+
+                @Override
+                public void close() {
+                    sinks.forEach(SseEventSink::close);
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.javasystematiskprojekt1.http;
+
+import org.example.javasystematiskprojekt1.model.BulkImportResult;
+import org.example.javasystematiskprojekt1.model.Movie;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests of the BulkImport class, with a writer that records the chunks instead of a database.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+class BulkImportTest {
+
+    private final List<List<String>> written = new ArrayList<>();
+
+    @Test
+    void anArrayIsWrittenInChunksOfTheGivenSize() {
+        BulkImportResult result = BulkImport.run(BulkImport.jsonArray(body(jsonArray(7))), 3, this::write);
+
+        assertEquals(List.of(List.of("Movie 0", "Movie 1", "Movie 2"), List.of("Movie 3", "Movie 4", "Movie 5"),
+                List.of("Movie 6")), written);
+        assertEquals(List.of(3, 3, 1), rows(result));
+        assertEquals(7, result.getImportedRows());
+        assertEquals(0, result.getFailedRows());
+        assertNull(result.getError());
+    }
+
+    @Test
+    void aFailedChunkIsReportedAndTheImportGoesOn() {
+        BulkImportResult result = BulkImport.run(BulkImport.jsonArray(body(jsonArray(6))), 2, chunk -> {
+            if (chunk.get(0).getMovieTitle().equals("Movie 2")) {
+                throw new IllegalStateException("Rolled back");
+            }
+            write(chunk);
+        });
+
+        assertEquals(3, result.getChunks().size());
+        assertTrue(result.getChunks().get(0).isCommitted());
+        assertEquals("Rolled back", result.getChunks().get(1).getError());
+        assertTrue(result.getChunks().get(2).isCommitted());
+        assertEquals(4, result.getImportedRows());
+        assertEquals(2, result.getFailedRows());
+        assertNull(result.getError());
+    }
+
+    @Test
+    void unreadableInputStopsTheImportAndKeepsTheWrittenChunks() {
+        String body = jsonArray(5);
+        body = body.substring(0, body.length() - 1) + ", 42]"; // A number where a movie should be.
+
+        BulkImportResult result = BulkImport.run(BulkImport.jsonArray(body(body)), 2, this::write);
+
+        // The fifth movie was read, but its chunk is not written once the input has failed.
+        assertEquals(List.of(2, 2), rows(result));
+        assertEquals(4, result.getImportedRows());
+        assertNotNull(result.getError());
+        assertTrue(result.getError().startsWith("Invalid input"), result.getError());
+    }
+
+    @Test
+    void aBodyThatIsNotAnArrayImportsNothing() {
+        BulkImportResult result = BulkImport.run(BulkImport.jsonArray(body("{\"movieTitle\": \"Alone\"}")), 2,
+                this::write);
+
+        assertTrue(written.isEmpty());
+        assertNotNull(result.getError());
+    }
+
+    @Test
+    void ndjsonSkipsBlankLines() {
+        String body = IntStream.range(0, 5).mapToObj(BulkImportTest::json).collect(Collectors.joining("\n\n  \n"));
+
+        BulkImportResult result = BulkImport.run(BulkImport.ndjson(body(body + "\n")), 4, this::write);
+
+        assertEquals(List.of(4, 1), rows(result));
+        assertEquals("Movie 4", written.get(1).get(0));
+        assertNull(result.getError());
+    }
+
+    private void write(List<Movie> chunk) {
+        written.add(chunk.stream().map(Movie::getMovieTitle).collect(Collectors.toList()));
+    }
+
+    private static List<Integer> rows(BulkImportResult result) {
+        return result.getChunks().stream().map(BulkImportResult.Chunk::getRows).collect(Collectors.toList());
+    }
+
+    private static String jsonArray(int count) {
+        return IntStream.range(0, count).mapToObj(BulkImportTest::json).collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static String json(int i) {
+        return "{\"movieTitle\": \"Movie " + i + "\", \"movieDirector\": \"Director\", \"releaseYear\": 2000}";
+    }
+
+    private static InputStream body(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
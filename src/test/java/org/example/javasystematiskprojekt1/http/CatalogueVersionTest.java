@@ -0,0 +1,98 @@
+package org.example.javasystematiskprojekt1.http;
+
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Request;
+import org.example.javasystematiskprojekt1.model.MovieChangeEvent;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests of the CatalogueVersion class, which gives the entity tags and dates the conditional GET requests
+ * are answered "304 Not Modified" with.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+class CatalogueVersionTest {
+
+    private final CatalogueVersion catalogueVersion = new CatalogueVersion();
+
+    @Test
+    void aTagOnlyMatchesTheSameVersionAndRepresentation() {
+        long version = catalogueVersion.current();
+        EntityTag tag = catalogueVersion.entityTag(version, "list-null-10");
+
+        assertEquals(tag, catalogueVersion.entityTag(version, "list-null-10"));
+        assertFalse(tag.isWeak()); // Strong, as the gzip representation has a tag of its own.
+        assertNotEquals(tag, catalogueVersion.entityTag(version, "list-null-10-gzip"));
+        assertNotEquals(tag, catalogueVersion.entityTag(version + 1, "list-null-10"));
+    }
+
+    @Test
+    void tagsFromBeforeARestartNeverMatch() throws InterruptedException {
+        EntityTag before = catalogueVersion.entityTag(0, "movie-1");
+        Thread.sleep(2); // The epoch is the start time in milliseconds.
+
+        assertNotEquals(before, new CatalogueVersion().entityTag(0, "movie-1"));
+    }
+
+    @Test
+    void aChangeBumpsTheVersionBeforeAndAfterItsTransaction() {
+        long version = catalogueVersion.current();
+        MovieChangeEvent event = MovieChangeEvent.deleted(1L);
+
+        catalogueVersion.onMovieChange(event);
+        assertEquals(version + 1, catalogueVersion.current());
+        catalogueVersion.onMovieChangeCompleted(event);
+        assertEquals(version + 2, catalogueVersion.current());
+    }
+
+    @Test
+    void noDateIsGivenWithinTheSecondOfTheLastChange() throws InterruptedException {
+        catalogueVersion.bump();
+        assertNull(catalogueVersion.lastModified());
+
+        Date lastModified = waitForLastModified();
+        assertEquals(0, lastModified.getTime() % 1000); // Whole seconds, as HTTP dates are.
+        assertTrue(lastModified.getTime() <= System.currentTimeMillis());
+    }
+
+    @Test
+    void preconditionsUseTheDateOnlyWhenThereIsOne() throws InterruptedException {
+        List<String> calls = new ArrayList<>();
+        Request request = (Request) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Request.class},
+                (proxy, method, args) -> {
+                    calls.add(method.getName() + Arrays.toString(method.getParameterTypes()));
+                    return null; // The representation has to be sent.
+                });
+        EntityTag tag = catalogueVersion.entityTag(catalogueVersion.current(), "movie-1");
+
+        assertNull(catalogueVersion.evaluatePreconditions(request, null, tag));
+        assertNull(catalogueVersion.evaluatePreconditions(request, waitForLastModified(), tag));
+
+        assertEquals(List.of("evaluatePreconditions[class jakarta.ws.rs.core.EntityTag]",
+                "evaluatePreconditions[class java.util.Date, class jakarta.ws.rs.core.EntityTag]"), calls);
+    }
+
+    private Date waitForLastModified() throws InterruptedException {
+        Date lastModified;
+        while ((lastModified = catalogueVersion.lastModified()) == null) {
+            Thread.sleep(50);
+        }
+        assertNotNull(lastModified);
+        return lastModified;
+    }
+}
@@ -0,0 +1,80 @@
+package org.example.javasystematiskprojekt1.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Unit tests of the PageResponseCache class, with its default size of 64 pages.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+class PageResponseCacheTest {
+
+    private static final int MAX_PAGES = 64;
+
+    private final PageResponseCache cache = new PageResponseCache();
+
+    @Test
+    void aPageIsOnlyServedAtTheVersionItWasReadAt() {
+        PageResponseCache.Page page = cache.put("null-10", 3, bytes("[]"), 42L);
+
+        assertSame(page, cache.get("null-10", 3));
+        assertEquals(42L, page.getNextCursor());
+        assertNull(cache.get("null-10", 4));
+        assertNull(cache.get("null-20", 3));
+    }
+
+    @Test
+    void pagesOfOlderVersionsMakeRoomForNewOnes() {
+        for (int i = 0; i < MAX_PAGES; i++) {
+            cache.put("old-" + i, 1, bytes("old"), null);
+        }
+
+        cache.put("new", 2, bytes("new"), null);
+
+        assertNotNull(cache.get("new", 2));
+        assertNull(cache.get("old-0", 1));
+    }
+
+    @Test
+    void nothingIsStoredOnceEveryPageIsCurrent() {
+        for (int i = 0; i < MAX_PAGES; i++) {
+            cache.put("page-" + i, 1, bytes("page"), null);
+        }
+
+        PageResponseCache.Page extra = cache.put("extra", 1, bytes("extra"), null);
+
+        assertArrayEquals(bytes("extra"), extra.getBody()); // Still served to the request that read it.
+        assertNull(cache.get("extra", 1));
+        assertNotNull(cache.get("page-0", 1));
+    }
+
+    @Test
+    void theGzipBodyIsCompressedOnce() throws IOException {
+        byte[] body = bytes("[{\"movieTitle\":\"Movie\"}]".repeat(100));
+        PageResponseCache.Page page = cache.put("null-10", 1, body, null);
+
+        byte[] gzip = page.getGzip();
+
+        assertSame(gzip, page.getGzip());
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            assertArrayEquals(body, in.readAllBytes());
+        }
+    }
+
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+}
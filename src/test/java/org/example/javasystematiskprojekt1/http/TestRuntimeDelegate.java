@@ -0,0 +1,66 @@
+package org.example.javasystematiskprojekt1.http;
+
+import jakarta.ws.rs.core.Application;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Link;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriBuilder;
+import jakarta.ws.rs.core.Variant;
+import jakarta.ws.rs.ext.RuntimeDelegate;
+
+/**
+ * The TestRuntimeDelegate class stands in for the JAX-RS implementation of the server in the tests, which run
+ * without one. It only writes and reads entity tags (see META-INF/services in the test resources).
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+public class TestRuntimeDelegate extends RuntimeDelegate {
+
+    @Override // Annotation overrides the method of the RuntimeDelegate class.
+    @SuppressWarnings("unchecked") // The delegate is only returned for EntityTag.
+    public <T> HeaderDelegate<T> createHeaderDelegate(Class<T> type) {
+        if (type != EntityTag.class) {
+            throw new UnsupportedOperationException("No header delegate for " + type.getName() + " in the tests");
+        }
+        return (HeaderDelegate<T>) new HeaderDelegate<EntityTag>() {
+            @Override
+            public EntityTag fromString(String value) {
+                boolean weak = value.startsWith("W/");
+                String quoted = weak ? value.substring(2) : value;
+                return new EntityTag(quoted.substring(1, quoted.length() - 1), weak);
+            }
+
+            @Override
+            public String toString(EntityTag tag) {
+                return (tag.isWeak() ? "W/" : "") + '"' + tag.getValue() + '"';
+            }
+        };
+    }
+
+    @Override // Annotation overrides the method of the RuntimeDelegate class.
+    public UriBuilder createUriBuilder() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override // Annotation overrides the method of the RuntimeDelegate class.
+    public Response.ResponseBuilder createResponseBuilder() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override // Annotation overrides the method of the RuntimeDelegate class.
+    public Variant.VariantListBuilder createVariantListBuilder() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override // Annotation overrides the method of the RuntimeDelegate class.
+    public <T> T createEndpoint(Application application, Class<T> endpointType) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override // Annotation overrides the method of the RuntimeDelegate class.
+    public Link.Builder createLinkBuilder() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -0,0 +1,119 @@
+package org.example.javasystematiskprojekt1.jdbc;
+
+import org.example.javasystematiskprojekt1.model.PoolStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests of the ConnectionPool class, on an in-memory Derby database.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+class ConnectionPoolTest {
+
+    private static final String URL = "jdbc:derby:memory:pool-test;create=true";
+
+    private ConnectionPool pool;
+
+    @BeforeEach
+    void createPool() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL);
+             Statement statement = connection.createStatement()) {
+            statement.execute("create table numbers (n integer)");
+            statement.execute("insert into numbers values (1), (2), (3)");
+        }
+        pool = new ConnectionPool(() -> DriverManager.getConnection(URL), 2, 100, 2, 100, 1000);
+    }
+
+    @AfterEach
+    void dropTable() throws SQLException {
+        pool.close();
+        try (Connection connection = DriverManager.getConnection(URL);
+             Statement statement = connection.createStatement()) {
+            statement.execute("drop table numbers");
+        }
+    }
+
+    @Test
+    void preparedStatementsAreReusedFromTheCache() throws SQLException {
+        for (int i = 0; i < 5; i++) {
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement statement = connection.prepareStatement("select count(*) from numbers where n > ?")) {
+                statement.setInt(1, i);
+                try (ResultSet row = statement.executeQuery()) {
+                    row.next();
+                    assertEquals(Math.max(0, 3 - i), row.getInt(1));
+                }
+            }
+        }
+        PoolStats stats = pool.getStats();
+        assertEquals(1, stats.getCreated());
+        assertEquals(1, stats.getStatementCacheMisses());
+        assertEquals(4, stats.getStatementCacheHits());
+    }
+
+    @Test
+    void aStatementStillOpenIsNotShared() throws SQLException {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement first = connection.prepareStatement("select n from numbers");
+             PreparedStatement second = connection.prepareStatement("select n from numbers")) {
+            assertNotSame(first, second);
+            first.executeQuery().close();
+            second.executeQuery().close();
+        }
+        assertEquals(0, pool.getStats().getStatementCacheHits());
+    }
+
+    @Test
+    void evictedStatementsAreClosed() throws SQLException {
+        try (Connection connection = pool.getConnection()) {
+            for (int i = 0; i < 3; i++) {
+                connection.prepareStatement("select n from numbers where n = " + i).close();
+            }
+            // The cache holds two statements: the first one was evicted and is prepared again.
+            connection.prepareStatement("select n from numbers where n = 0").close();
+        }
+        assertEquals(4, pool.getStats().getStatementCacheMisses());
+    }
+
+    @Test
+    void statementsReturnTheConnectionHandle() throws SQLException {
+        Connection connection = pool.getConnection();
+        PreparedStatement prepared = connection.prepareStatement("select n from numbers");
+        Statement plain = connection.createStatement();
+        assertSame(connection, prepared.getConnection());
+        assertSame(connection, plain.getConnection());
+        prepared.getConnection().close(); // Gives the connection back instead of closing the physical one.
+        assertTrue(connection.isClosed());
+        try (Connection again = pool.getConnection()) {
+            assertFalse(again.isClosed());
+        }
+        assertEquals(1, pool.getStats().getCreated());
+    }
+
+    @Test
+    void aStarvedPoolTimesOut() throws SQLException {
+        try (Connection first = pool.getConnection(); Connection second = pool.getConnection()) {
+            assertThrows(SQLTransientConnectionException.class, pool::getConnection);
+        }
+        assertEquals(1, pool.getStats().getTimeouts());
+    }
+}
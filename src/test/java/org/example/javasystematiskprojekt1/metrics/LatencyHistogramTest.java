@@ -0,0 +1,86 @@
+package org.example.javasystematiskprojekt1.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests of the LatencyHistogram class.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+class LatencyHistogramTest {
+
+    private static final int BUCKETS = 592;
+
+    @Test
+    void shortDurationsHaveABucketEach() {
+        for (int micros = 0; micros < 16; micros++) {
+            assertEquals(micros, LatencyHistogram.index(micros));
+            assertEquals(micros, LatencyHistogram.upperBoundMicros(micros));
+        }
+        assertEquals(16, LatencyHistogram.index(16));
+        assertEquals(16, LatencyHistogram.upperBoundMicros(16));
+        assertEquals(32, LatencyHistogram.index(32)); // 32 to 33 µs: every power of two has 16 buckets.
+        assertEquals(33, LatencyHistogram.upperBoundMicros(32));
+    }
+
+    @Test
+    void bucketsFollowEachOtherWithoutGaps() {
+        for (int i = 0; i < BUCKETS - 1; i++) {
+            long upper = LatencyHistogram.upperBoundMicros(i);
+            assertEquals(i, LatencyHistogram.index(upper), "upper bound of bucket " + i);
+            assertEquals(i + 1, LatencyHistogram.index(upper + 1), "first value after bucket " + i);
+        }
+        assertEquals((1L << 40) - 1, LatencyHistogram.upperBoundMicros(BUCKETS - 1)); // About 12 days.
+    }
+
+    @Test
+    void aBucketIsAtMostOneSixteenthWide() {
+        Random random = new Random(42);
+        for (int i = 0; i < 100_000; i++) {
+            long micros = random.nextLong() >>> (24 + random.nextInt(40)); // Spread over all powers of two.
+            long upper = LatencyHistogram.upperBoundMicros(LatencyHistogram.index(micros));
+            assertTrue(upper >= micros, micros + " µs counted below its bucket");
+            assertTrue(upper - micros <= micros / 16, micros + " µs counted as " + upper + " µs");
+        }
+    }
+
+    @Test
+    void percentilesAreTheUpperBoundsOfTheirBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.percentile(0.99));
+        for (int millis = 1; millis <= 1000; millis++) {
+            histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500.5, histogram.getSumSeconds(), 1e-9);
+        assertPercentile(0.5, histogram.percentile(0.5));
+        assertPercentile(0.99, histogram.percentile(0.99));
+        assertPercentile(1.0, histogram.percentile(1.0));
+        assertEquals(LatencyHistogram.upperBoundMicros(LatencyHistogram.index(1000)) / 1e6,
+                histogram.percentile(0.001)); // The lowest duration, 1 ms.
+    }
+
+    @Test
+    void durationsOutsideTheRangeAreKeptAtTheEnds() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(-5);
+        histogram.record(TimeUnit.DAYS.toNanos(100));
+
+        assertEquals(0, histogram.percentile(0.5));
+        assertEquals(LatencyHistogram.upperBoundMicros(BUCKETS - 1) / 1e6, histogram.percentile(1.0));
+    }
+
+    private static void assertPercentile(double expectedSeconds, double actualSeconds) {
+        assertTrue(actualSeconds >= expectedSeconds && actualSeconds <= expectedSeconds * 17 / 16,
+                "expected " + expectedSeconds + " s, got " + actualSeconds + " s");
+    }
+}
@@ -0,0 +1,114 @@
+package org.example.javasystematiskprojekt1.search;
+
+import org.example.javasystematiskprojekt1.model.TextSearchHit;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests of the InvertedIndex class.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+class InvertedIndexTest {
+
+    @Test
+    void updatingOneMovieRepeatedlyKeepsTheIndexSmall() {
+        InvertedIndex index = new InvertedIndex();
+        for (int i = 0; i < 10_000; i++) {
+            index.put(1, "Title " + i, "A plot about version " + i);
+        }
+        assertEquals(1, index.size());
+        // Old documents are compacted away, so at most the deleted ones before a compaction remain.
+        assertTrue(index.documentCount() <= 1025, "documents: " + index.documentCount());
+        List<TextSearchHit> hits = index.search("title", 10);
+        assertEquals(1, hits.size());
+        assertEquals(1, hits.get(0).getId());
+    }
+
+    @Test
+    void removedAndReplacedMoviesAreNotFound() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, "Space Odyssey", "Astronauts travel to Jupiter");
+        index.put(2, "Jungle Book", "A boy raised by wolves");
+        index.put(1, "Sea Odyssey", "Sailors travel home");
+        index.remove(2);
+
+        assertTrue(index.search("jupiter", 10).isEmpty());
+        assertTrue(index.search("wolves", 10).isEmpty());
+        assertEquals(1, index.search("sailors", 10).get(0).getId());
+    }
+
+    @Test
+    void titleMatchesRankAboveThePlot() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1, "Storm", "A ship in the night");
+        index.put(2, "Night", "A storm at sea");
+        index.put(3, "Harbour", "Boats at rest");
+
+        List<TextSearchHit> hits = index.search("storm", 10);
+        assertEquals(2, hits.size());
+        assertEquals(1, hits.get(0).getId());
+        assertEquals(2, hits.get(1).getId());
+    }
+
+    @Test
+    void deletedDocumentsDoNotLowerTheWeightOfATerm() {
+        InvertedIndex fresh = new InvertedIndex();
+        InvertedIndex churned = new InvertedIndex();
+        for (long id = 1; id <= 10; id++) {
+            fresh.put(id, "Movie " + id, id == 1 ? "rare word" : "common text");
+            churned.put(id, "Movie " + id, id == 1 ? "rare word" : "common text");
+        }
+        for (long id = 100; id < 200; id++) {
+            churned.put(id, "Gone", "rare word");
+            churned.remove(id);
+        }
+        assertEquals(fresh.search("rare", 1).get(0).getScore(), churned.search("rare", 1).get(0).getScore(), 1e-9);
+    }
+
+    @Test
+    void skippingFindsTheSameBestHitsAsAFullMerge() {
+        Random random = new Random(7);
+        InvertedIndex index = new InvertedIndex();
+        for (long id = 1; id <= 5000; id++) {
+            index.put(id, words(random, 1 + random.nextInt(4)), words(random, 5 + random.nextInt(40)));
+        }
+        for (long id = 1; id <= 5000; id += 3) {
+            index.remove(id);
+        }
+        for (int query = 0; query < 200; query++) {
+            String text = words(random, 1 + random.nextInt(4));
+            List<TextSearchHit> skipped = index.search(text, 10);
+            // With room for every movie, no hit is ever the lowest of a full list, so nothing is skipped.
+            List<TextSearchHit> merged = index.search(text, 5000);
+
+            assertEquals(Math.min(10, merged.size()), skipped.size(), text);
+            for (int i = 0; i < skipped.size(); i++) {
+                assertEquals(merged.get(i).getScore(), skipped.get(i).getScore(), 1e-9, text);
+                assertTrue(skipped.get(i).getId() % 3 != 1, "removed movie found for " + text);
+            }
+        }
+    }
+
+    /**
+     * This method words() makes a text of random words, the first of which are much more common than the
+     * others, as in real text.
+     */
+
+    private static String words(Random random, int count) {
+        List<String> words = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int rank = (int) Math.pow(300, random.nextDouble()); // From 1 to 300, low ranks most often.
+            words.add("word" + rank + (rank % 7 == 0 ? " word" + rank : ""));
+        }
+        return String.join(" ", words);
+    }
+}
@@ -0,0 +1,116 @@
+package org.example.javasystematiskprojekt1.search;
+
+import org.example.javasystematiskprojekt1.database.MovieRepository;
+import org.example.javasystematiskprojekt1.database.TestRepositories;
+import org.example.javasystematiskprojekt1.model.Movie;
+import org.example.javasystematiskprojekt1.model.MovieChangeEvent;
+import org.example.javasystematiskprojekt1.model.TextSearchHit;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests of the MovieTextIndex class, with a repository that reads a table held in memory.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+class MovieTextIndexTest {
+
+    private static final int TABLE_SIZE = 2500; // Three chunks of the build.
+
+    @Test
+    void searchesAnswerFromTheLastCompleteIndexDuringARebuild() {
+        TableRepository table = new TableRepository("Original");
+        MovieTextIndex textIndex = textIndex(table);
+        assertFalse(textIndex.isBuilt());
+        textIndex.rebuild();
+        assertTrue(textIndex.isBuilt());
+
+        table.fill("Renamed");
+        List<Integer> foundDuringRebuild = new ArrayList<>();
+        table.whileScanning = () -> foundDuringRebuild.add(textIndex.search("original", 5000).size());
+        textIndex.rebuild();
+
+        assertEquals(List.of(TABLE_SIZE, TABLE_SIZE, TABLE_SIZE), foundDuringRebuild);
+        assertEquals(TABLE_SIZE, textIndex.search("renamed", 5000).size());
+        assertTrue(textIndex.search("original", 10).isEmpty());
+    }
+
+    @Test
+    void changesCommittedDuringARebuildAreKept() {
+        TableRepository table = new TableRepository("Original");
+        MovieTextIndex textIndex = textIndex(table);
+        table.whileScanning = () -> {
+            if (table.scans == 1) {
+                // Movie 2400 is read later with its old title; movie 10 was read already.
+                Movie changed = table.movie(2400L, "Changed");
+                textIndex.onMovieChange(MovieChangeEvent.updated(2400L, changed, 2L));
+                textIndex.onMovieChange(MovieChangeEvent.deleted(10L));
+            }
+        };
+        textIndex.rebuild();
+
+        assertEquals(List.of(2400L), ids(textIndex.search("changed", 10)));
+        assertEquals(TABLE_SIZE - 2, textIndex.search("original", 5000).size());
+        assertFalse(ids(textIndex.search("original", 5000)).contains(10L));
+    }
+
+    private static MovieTextIndex textIndex(MovieRepository repository) {
+        MovieTextIndex textIndex = new MovieTextIndex();
+        TestRepositories.set(textIndex, MovieTextIndex.class, MovieRepository.class, repository);
+        return textIndex;
+    }
+
+    private static List<Long> ids(List<TextSearchHit> hits) {
+        return hits.stream().map(TextSearchHit::getId).collect(Collectors.toList());
+    }
+
+    /**
+     * The TableRepository class stands in for the database: it pages through movies held in a list, and runs
+     * 'whileScanning' before it answers each page.
+     */
+
+    private static final class TableRepository extends MovieRepository {
+
+        private final List<Movie> rows = new ArrayList<>();
+        private Runnable whileScanning = () -> { };
+        private int scans;
+
+        private TableRepository(String title) {
+            fill(title);
+        }
+
+        private void fill(String title) {
+            rows.clear();
+            for (long id = 1; id <= TABLE_SIZE; id++) {
+                rows.add(movie(id, title));
+            }
+        }
+
+        private Movie movie(Long id, String title) {
+            Movie movie = new Movie();
+            movie.setId(id);
+            movie.setMovieTitle(title + " " + id);
+            movie.setMoviePlot("A plot");
+            return movie;
+        }
+
+        @Override
+        public List<Movie> scanMoviesAfter(Long afterId, int limit) {
+            whileScanning.run();
+            scans++;
+            return rows.stream()
+                    .filter(movie -> afterId == null || movie.getId() > afterId)
+                    .limit(limit)
+                    .collect(Collectors.toList());
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.example.javasystematiskprojekt1.serialization;
+
+import org.example.javasystematiskprojekt1.model.Movie;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests of the MovieBinaryCodec class.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+class MovieBinaryCodecTest {
+
+    @Test
+    void moviesSurviveARoundTrip() throws IOException {
+        Movie full = movie(42L, "Amélie", "Jean-Pierre Jeunet", 2001, "Comedy", "Une fille à Montmartre ☕", 7L);
+        Movie empty = movie(null, null, null, 0, null, null, null);
+        Movie extremes = movie(Long.MAX_VALUE, "", "", Integer.MIN_VALUE, "", "", Long.MIN_VALUE);
+        Movie negative = movie(-1L, "Old", null, -300, null, "Before the calendar", 0L);
+        List<Movie> movies = List.of(full, empty, extremes, negative);
+
+        List<Movie> read = MovieBinaryCodec.readMovies(new ByteArrayInputStream(MovieBinaryCodec.toBytes(movies)));
+
+        assertEquals(movies.size(), read.size());
+        for (int i = 0; i < movies.size(); i++) {
+            assertSameMovie(movies.get(i), read.get(i));
+        }
+        assertNull(read.get(1).getMovieTitle());
+        assertEquals("", read.get(2).getMovieTitle());
+    }
+
+    @Test
+    void anEmptyListIsOnlyTheHeaderAndTheEnd() throws IOException {
+        byte[] bytes = MovieBinaryCodec.toBytes(List.of());
+
+        assertArrayEquals(new byte[]{'M', 'V', 1, 0}, bytes);
+        assertTrue(MovieBinaryCodec.readMovies(new ByteArrayInputStream(bytes)).isEmpty());
+    }
+
+    @Test
+    void streamingWritesTheSameBytesAsToBytes() throws IOException {
+        List<Movie> movies = List.of(movie(1L, "One", "A", 1990, "Drama", "First", 1L),
+                movie(2L, "Two", "B", 1991, "Horror", "Second", 3L));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MovieBinaryCodec.writeHeader(out);
+        for (Movie movie : movies) {
+            MovieBinaryCodec.writeMovie(out, movie);
+        }
+        MovieBinaryCodec.writeEnd(out);
+
+        assertArrayEquals(MovieBinaryCodec.toBytes(movies), out.toByteArray());
+    }
+
+    @Test
+    void smallNumbersTakeOneByte() {
+        // Header (3), record (1), presence (1), year 63 (1), end (1).
+        assertEquals(7, MovieBinaryCodec.toBytes(List.of(movie(null, null, null, 63, null, null, null))).length);
+        assertEquals(8, MovieBinaryCodec.toBytes(List.of(movie(null, null, null, 64, null, null, null))).length);
+        assertEquals(7, MovieBinaryCodec.toBytes(List.of(movie(null, null, null, -64, null, null, null))).length);
+    }
+
+    @Test
+    void damagedStreamsAreRejected() {
+        byte[] bytes = MovieBinaryCodec.toBytes(List.of(movie(5L, "Title", "Director", 2000, "Drama", "Plot", 1L)));
+
+        assertThrows(IOException.class, () -> read(new byte[]{'X', 'V', 1, 0}));
+        assertThrows(IOException.class, () -> read(new byte[]{'M', 'V', 2, 0}));
+        assertThrows(IOException.class, () -> read(new byte[]{'M', 'V', 1, 7}));
+        for (int length = 0; length < bytes.length; length++) {
+            byte[] truncated = Arrays.copyOf(bytes, length);
+            assertThrows(EOFException.class, () -> read(truncated), "truncated to " + length + " bytes");
+        }
+        // A record whose title claims to be longer than any accepted string.
+        byte[] corrupt = {'M', 'V', 1, 1, 2, (byte) 0xFE, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F};
+        assertThrows(IOException.class, () -> read(corrupt));
+    }
+
+    private static List<Movie> read(byte[] bytes) throws IOException {
+        return MovieBinaryCodec.readMovies(new ByteArrayInputStream(bytes));
+    }
+
+    private static Movie movie(Long id, String title, String director, int year, String genre, String plot,
+                               Long version) {
+        Movie movie = new Movie();
+        movie.setId(id);
+        movie.setMovieTitle(title);
+        movie.setMovieDirector(director);
+        movie.setReleaseYear(year);
+        movie.setMovieGenre(genre);
+        movie.setMoviePlot(plot);
+        movie.setVersion(version);
+        return movie;
+    }
+
+    private static void assertSameMovie(Movie expected, Movie actual) {
+        assertEquals(expected.getId(), actual.getId());
+        assertEquals(expected.getMovieTitle(), actual.getMovieTitle());
+        assertEquals(expected.getMovieDirector(), actual.getMovieDirector());
+        assertEquals(expected.getReleaseYear(), actual.getReleaseYear());
+        assertEquals(expected.getMovieGenre(), actual.getMovieGenre());
+        assertEquals(expected.getMoviePlot(), actual.getMoviePlot());
+        assertEquals(expected.getVersion(), actual.getVersion());
+    }
+}
@@ -0,0 +1,146 @@
+package org.example.javasystematiskprojekt1.stats;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.Persistence;
+import org.example.javasystematiskprojekt1.database.MovieCache;
+import org.example.javasystematiskprojekt1.database.MovieRepository;
+import org.example.javasystematiskprojekt1.database.StatsDimension;
+import org.example.javasystematiskprojekt1.database.TestRepositories;
+import org.example.javasystematiskprojekt1.model.Movie;
+import org.example.javasystematiskprojekt1.model.MovieChangeEvent;
+import org.example.javasystematiskprojekt1.model.MovieStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit tests of the MovieStatsRollup class: the counts kept up to date change by change must match the counts
+ * built from the table, and those counted by the database, on the in-memory Derby database of the "test"
+ * persistence unit.
+ *
+ * @author Suhana
+ * @version 1.0
+ */
+
+class MovieStatsRollupTest {
+
+    private static final String[] GENRES = {"Drama", "Comedy", "Horror"};
+
+    private EntityManagerFactory factory;
+    private EntityManager entityManager;
+    private MovieRepository repository;
+    private MovieStatsRollup rollup;
+    private final List<Movie> movies = new ArrayList<>();
+
+    @BeforeEach
+    void buildFromCatalogue() {
+        factory = Persistence.createEntityManagerFactory("test"); // Drops and creates the table.
+        entityManager = factory.createEntityManager();
+        repository = TestRepositories.wire(new MovieRepository(), factory, entityManager, new MovieCache());
+        for (int i = 0; i < 30; i++) {
+            movies.add(movie("Movie " + i, GENRES[i % GENRES.length], "Director " + i % 4, 1990 + i % 5));
+        }
+        inTransaction(() -> repository.createMovies(movies));
+        rollup = rollup();
+        rollup.rebuild();
+    }
+
+    @AfterEach
+    void close() {
+        entityManager.close();
+        factory.close();
+    }
+
+    @Test
+    void aBuildCountsLikeTheDatabase() {
+        assertTrue(rollup.isReady());
+        assertCountsOfDatabase(rollup.getStats());
+        assertEquals(Map.of("Drama", 10L, "Comedy", 10L), rollup.getCounts(StatsDimension.GENRE, 2));
+    }
+
+    @Test
+    void changesCountLikeABuildOfTheChangedTable() {
+        Movie added = movie("Added", "Western", "Director 9", 2020);
+        inTransaction(() -> repository.createMovies(List.of(added)));
+        rollup.onMovieChange(MovieChangeEvent.created(added));
+
+        Movie changed = movie("Changed", "Western", "Director 0", 1990);
+        Long changedId = movies.get(1).getId(); // Was a comedy.
+        assertEquals(1, inTransaction(() -> repository.updateMovieById(changedId, changed)));
+        rollup.onMovieChange(MovieChangeEvent.updated(changedId, changed, 2L));
+
+        for (int i = 2; i < 30; i += GENRES.length) { // Every horror movie.
+            Long id = movies.get(i).getId();
+            assertEquals(1, inTransaction(() -> repository.deleteMovieById(id)));
+            rollup.onMovieChange(MovieChangeEvent.deleted(id));
+        }
+
+        MovieStats incremental = rollup.getStats();
+        assertEquals(21, incremental.getTotal());
+        assertEquals(Map.of("Drama", 10L, "Comedy", 9L, "Western", 2L), incremental.getByGenre());
+        assertFalse(incremental.getByGenre().containsKey("Horror"), "a group without movies is dropped");
+        assertCountsOfDatabase(incremental);
+
+        MovieStatsRollup built = rollup();
+        built.rebuild();
+        MovieStats fromTable = built.getStats();
+        assertEquals(fromTable.getTotal(), incremental.getTotal());
+        assertEquals(fromTable.getByGenre(), incremental.getByGenre());
+        assertEquals(fromTable.getByDirector(), incremental.getByDirector());
+        assertEquals(fromTable.getByYear(), incremental.getByYear());
+    }
+
+    @Test
+    void theSameStatisticsAreHandedOutUntilAMovieChanges() {
+        MovieStats first = rollup.getStats();
+        assertSame(first, rollup.getStats());
+
+        Long id = movies.get(0).getId();
+        inTransaction(() -> repository.deleteMovieById(id));
+        rollup.onMovieChange(MovieChangeEvent.deleted(id));
+
+        assertEquals(first.getTotal() - 1, rollup.getStats().getTotal());
+    }
+
+    private void assertCountsOfDatabase(MovieStats stats) {
+        assertEquals(repository.countMovies(), stats.getTotal());
+        assertEquals(repository.countMoviesBy(StatsDimension.GENRE, 100), stats.getByGenre());
+        assertEquals(repository.countMoviesBy(StatsDimension.DIRECTOR, 100), stats.getByDirector());
+        assertEquals(repository.countMoviesBy(StatsDimension.YEAR, 100), stats.getByYear());
+    }
+
+    private MovieStatsRollup rollup() {
+        MovieStatsRollup rollup = new MovieStatsRollup();
+        TestRepositories.set(rollup, MovieStatsRollup.class, MovieRepository.class, repository);
+        return rollup;
+    }
+
+    private <T> T inTransaction(Supplier<T> write) {
+        entityManager.getTransaction().begin();
+        T result = write.get();
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+        return result;
+    }
+
+    private static Movie movie(String title, String genre, String director, int year) {
+        Movie movie = new Movie();
+        movie.setMovieTitle(title);
+        movie.setMovieDirector(director);
+        movie.setReleaseYear(year);
+        movie.setMovieGenre(genre);
+        movie.setMoviePlot("A plot");
+        return movie;
+    }
+}